@@ -0,0 +1,373 @@
+package it.burning.cron.service;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import it.burning.cron.CronExpressionParser.ImmutableOptions;
+import it.burning.cron.service.Describer.Result;
+import it.burning.cron.service.Json.JsonException;
+import it.burning.utils.Localization;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IllformedLocaleException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A local HTTP service describing, validating and canonicalizing expressions, built on the HTTP server of the JDK.
+ * <p>
+ * Endpoints ({@code /describe}, {@code /validate} and {@code /canonicalize}) accept either a GET request with one or
+ * more {@code expression} query parameters, or a POST request with a JSON object holding either an {@code expression}
+ * or an array of {@code expressions} (up to {@value #MAX_BATCH}). Options are given by the {@code verbose},
+ * {@code use24HourTimeFormat}, {@code javaEe} and {@code locale} parameters (or members): without a locale, the best
+ * supported match of the {@code Accept-Language} header is used (English if there is none).
+ * <p>
+ * A single expression is answered with a single JSON object, a batch with a {@code results} array of objects (in the
+ * same order): invalid expressions are reported by their own object (with an {@code error} and the {@code part} it is
+ * about) and do not fail the request. Responses have a fixed length, so that connections are kept alive.
+ * <p>
+ * {@code /stats} reports the usage of the description cache, which is shared by all the worker threads.
+ */
+public final class DescribeServer {
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    //region FIELDS
+
+    // Defaults
+    public static final int DEFAULT_PORT       = 8080;
+    public static final int DEFAULT_CACHE_SIZE = 65_536;
+
+    // Limits
+    static final int MAX_BATCH = 1000;
+    static final int MAX_BODY  = 1 << 20;
+
+    // Config
+    private final HttpServer      server;
+    private final ExecutorService executor;
+    private final Describer       describer;
+
+    static {
+        // The server writes the headers and the body of small responses separately: without TCP_NODELAY, the body waits
+        // for the (delayed) acknowledgement of the headers, adding about 40 ms to every request on a kept-alive connection
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+    }
+
+    //endregion
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    //region SUBCLASSES
+
+    // An operation on a single expression
+    private interface Operation {
+        Result apply(String expression, ImmutableOptions options);
+    }
+
+    // A request that cannot be served, answered with its status code
+    private static final class RequestException extends RuntimeException {
+        final int status;
+
+        RequestException(final int status, final String message) {
+            super(message);
+            this.status = status;
+        }
+    }
+
+    //endregion
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    //region ACCESSORS
+
+    /**
+     * @return The port the server listens on (useful when bound to port 0)
+     */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    //endregion
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    //region CONSTRUCTORS
+
+    /**
+     * Constructor
+     *
+     * @param address   The address to listen on (port 0 for any free port)
+     * @param threads   The number of worker threads
+     * @param cacheSize The number of descriptions to cache
+     * @throws IOException If the server cannot be bound to the address
+     */
+    public DescribeServer(final InetSocketAddress address, final int threads, final int cacheSize) throws IOException {
+        this.server = HttpServer.create(address, 0);
+        this.executor = Executors.newFixedThreadPool(threads);
+        this.describer = new Describer(cacheSize);
+
+        server.setExecutor(executor);
+        server.createContext("/describe", exchange -> handle(exchange, describer::describe));
+        server.createContext("/validate", exchange -> handle(exchange, describer::validate));
+        server.createContext("/canonicalize", exchange -> handle(exchange, describer::canonicalize));
+        server.createContext("/stats", exchange -> respond(exchange, 200, Locale.ENGLISH, describer.getStatistics()));
+    }
+
+    //endregion
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    //region METHODS
+
+    /**
+     * Starts serving requests
+     */
+    public void start() {
+        server.start();
+    }
+
+    /**
+     * Stops serving requests, waiting up to a second for the ongoing ones
+     */
+    public void stop() {
+        server.stop(1);
+        executor.shutdown();
+        try {
+            executor.awaitTermination(1, TimeUnit.SECONDS);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Serves a request to an endpoint
+     */
+    private void handle(final HttpExchange exchange, final Operation operation) throws IOException {
+        Locale locale = Locale.ENGLISH;
+        try {
+            final Map<String, Object> request = readRequest(exchange);
+            locale = resolveLocale(request.get("locale"), exchange.getRequestHeaders().getFirst("Accept-Language"));
+            final ImmutableOptions options = ImmutableOptions.builder()
+                                                             .verbose(isSet(request, "verbose"))
+                                                             .use24HourTimeFormat(isSet(request, "use24HourTimeFormat"))
+                                                             .useJavaEeScheduleExpression(isSet(request, "javaEe"))
+                                                             .locale(locale)
+                                                             .build();
+
+            if (request.containsKey("expressions")) {
+                final List<Object> results = new ArrayList<>();
+                for (final String expression : getExpressions(request.get("expressions"))) {
+                    results.add(operation.apply(expression, options).toJson());
+                }
+
+                respond(exchange, 200, locale, Collections.singletonMap("results", results));
+            } else if (request.get("expression") instanceof String) {
+                respond(exchange, 200, locale, operation.apply((String) request.get("expression"), options).toJson());
+            } else {
+                throw new RequestException(400, "Missing expression");
+            }
+        } catch (final RequestException e) {
+            respond(exchange, e.status, locale, Collections.singletonMap("error", e.getMessage()));
+        } catch (final JsonException e) {
+            respond(exchange, 400, locale, Collections.singletonMap("error", e.getMessage()));
+        }
+    }
+
+    //endregion
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    //region STATIC METHODS
+
+    /**
+     * Runs the service until the process is terminated
+     *
+     * @param args Optional "--port N", "--threads N" and "--cache N" arguments
+     * @throws IOException If the server cannot be bound to the port
+     */
+    public static void main(final String[] args) throws IOException {
+        int port = DEFAULT_PORT;
+        int threads = Runtime.getRuntime().availableProcessors();
+        int cacheSize = DEFAULT_CACHE_SIZE;
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "--port":
+                    port = Integer.parseInt(args[i + 1]);
+                    break;
+                case "--threads":
+                    threads = Integer.parseInt(args[i + 1]);
+                    break;
+                case "--cache":
+                    cacheSize = Integer.parseInt(args[i + 1]);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown argument " + args[i]);
+            }
+        }
+
+        final DescribeServer server = new DescribeServer(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), threads, cacheSize);
+        Runtime.getRuntime().addShutdownHook(new Thread(server::stop));
+        server.start();
+        System.out.println("Serving on http://localhost:" + server.getPort() + "/describe with " + threads + " threads");
+    }
+
+    /**
+     * @return The parameters of a GET request, or the members of the JSON object of a POST request
+     */
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> readRequest(final HttpExchange exchange) throws IOException {
+        switch (exchange.getRequestMethod()) {
+            case "GET":
+                return readQuery(exchange.getRequestURI().getRawQuery());
+            case "POST":
+                final Object json = Json.parse(readBody(exchange.getRequestBody()));
+                if (!(json instanceof Map)) {
+                    throw new RequestException(400, "Expected a JSON object");
+                }
+
+                return (Map<String, Object>) json;
+            default:
+                exchange.getResponseHeaders().set("Allow", "GET, POST");
+                throw new RequestException(405, "Method not allowed");
+        }
+    }
+
+    /**
+     * @return The parameters of a query string, repeated expressions being read as a batch
+     */
+    private static Map<String, Object> readQuery(final String query) throws UnsupportedEncodingException {
+        final Map<String, Object> parameters = new LinkedHashMap<>();
+        final List<Object> expressions = new ArrayList<>();
+        if (query != null) {
+            for (final String parameter : query.split("&")) {
+                final int equals = parameter.indexOf('=');
+                final String name = URLDecoder.decode(equals >= 0 ? parameter.substring(0, equals) : parameter, "UTF-8");
+                final String value = equals >= 0 ? URLDecoder.decode(parameter.substring(equals + 1), "UTF-8") : "true";
+                if (name.equals("expression")) {
+                    expressions.add(value);
+                } else {
+                    parameters.put(name, value);
+                }
+            }
+        }
+
+        if (expressions.size() == 1) {
+            parameters.put("expression", expressions.get(0));
+        } else if (expressions.size() > 1) {
+            parameters.put("expressions", expressions);
+        }
+
+        return parameters;
+    }
+
+    /**
+     * @return The UTF-8 body of a request
+     */
+    private static String readBody(final InputStream body) throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final byte[] buffer = new byte[8192];
+        int read;
+        while ((read = body.read(buffer)) >= 0) {
+            if (bytes.size() + read > MAX_BODY) {
+                throw new RequestException(413, "Request body too large");
+            }
+
+            bytes.write(buffer, 0, read);
+        }
+
+        return new String(bytes.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @return The expressions of a batch
+     */
+    private static List<String> getExpressions(final Object expressions) {
+        if (!(expressions instanceof List)) {
+            throw new RequestException(400, "Expected an array of expressions");
+        }
+
+        final List<?> batch = (List<?>) expressions;
+        if (batch.size() > MAX_BATCH) {
+            throw new RequestException(413, "Too many expressions (at most " + MAX_BATCH + ")");
+        }
+
+        final List<String> strings = new ArrayList<>(batch.size());
+        for (final Object expression : batch) {
+            if (!(expression instanceof String)) {
+                throw new RequestException(400, "Expected an array of expressions");
+            }
+
+            strings.add((String) expression);
+        }
+
+        return strings;
+    }
+
+    /**
+     * @return True if an option is set (either as a JSON boolean or as the "true" query parameter)
+     */
+    private static boolean isSet(final Map<String, Object> request, final String name) {
+        final Object value = request.get(name);
+        return Boolean.TRUE.equals(value) || "true".equals(value);
+    }
+
+    /**
+     * Picks the locale of the descriptions
+     *
+     * @param locale         The requested language tag (null if missing)
+     * @param acceptLanguage The Accept-Language header (null if missing)
+     * @return The requested locale, else the best supported match of the header, else English
+     */
+    static Locale resolveLocale(final Object locale, final String acceptLanguage) {
+        if (locale instanceof String) {
+            try {
+                return new Locale.Builder().setLanguageTag((String) locale).build();
+            } catch (final IllformedLocaleException e) {
+                throw new RequestException(400, "Invalid locale " + locale);
+            }
+        }
+
+        if (acceptLanguage != null) {
+            try {
+                final Locale match = Locale.lookup(Locale.LanguageRange.parse(acceptLanguage), Localization.getSupportedLocales());
+                if (match != null) {
+                    return match;
+                }
+            } catch (final IllegalArgumentException e) {
+                // Ignore malformed headers
+            }
+        }
+
+        return Locale.ENGLISH;
+    }
+
+    /**
+     * Sends a JSON response with a fixed length (so that the connection can be kept alive)
+     */
+    private static void respond(final HttpExchange exchange, final int status, final Locale locale, final Object json) throws IOException {
+        final byte[] body = Json.write(new StringBuilder(), json).toString().getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.getResponseHeaders().set("Content-Language", locale.toLanguageTag());
+        exchange.sendResponseHeaders(status, body.length);
+        try (final OutputStream output = exchange.getResponseBody()) {
+            output.write(body);
+        }
+    }
+
+    //endregion
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+}
@@ -0,0 +1,204 @@
+package it.burning.cron.service;
+
+import it.burning.cron.CronExpressionDescriptor;
+import it.burning.cron.CronExpressionMinimizer;
+import it.burning.cron.CronExpressionParser;
+import it.burning.cron.CronExpressionParser.CronExpressionParseException;
+import it.burning.cron.CronExpressionParser.ImmutableOptions;
+import it.burning.cron.CronExpressionParser.Settings;
+import it.burning.utils.Localization;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Describes, validates and canonicalizes expressions on behalf of every request handler. Descriptions are cached by
+ * expression, options and version of the localization (see {@link Localization#publish}): the cache is shared by all
+ * threads and emptied when full.
+ */
+final class Describer {
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    //region FIELDS
+
+    // Cache
+    private final int                            capacity;
+    private final ConcurrentHashMap<Key, Result> descriptions = new ConcurrentHashMap<>();
+    private final LongAdder                      hits         = new LongAdder();
+    private final LongAdder                      misses       = new LongAdder();
+
+    //endregion
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    //region SUBCLASSES
+
+    // The cache key of an expression described with some options, compared by identity as they are interned snapshots
+    private static final class Key {
+        private final String           expression;
+        private final ImmutableOptions options;
+        private final long             version;
+
+        private Key(final String expression, final ImmutableOptions options, final long version) {
+            this.expression = expression;
+            this.options = options;
+            this.version = version;
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (!(o instanceof Key)) {
+                return false;
+            }
+
+            final Key other = (Key) o;
+            return options == other.options && version == other.version && expression.equals(other.expression);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * (31 * expression.hashCode() + System.identityHashCode(options)) + Long.hashCode(version);
+        }
+    }
+
+    // The outcome of an operation on an expression: a value, or an error along with the part of the expression it is about
+    static final class Result {
+        private final String expression;
+        private final String name;
+        private final Object value;
+        private final String error;
+        private final String part;
+
+        private Result(final String expression, final String name, final Object value, final String error, final String part) {
+            this.expression = expression;
+            this.name = name;
+            this.value = value;
+            this.error = error;
+            this.part = part;
+        }
+
+        static Result of(final String expression, final String name, final Object value) {
+            return new Result(expression, name, value, null, null);
+        }
+
+        static Result failed(final String expression, final RuntimeException e) {
+            final String part = e instanceof CronExpressionParseException ? ((CronExpressionParseException) e).getPart().name() : null;
+            return new Result(expression, null, null, e.getMessage() != null ? e.getMessage() : e.toString(), part);
+        }
+
+        boolean isFailed() {
+            return error != null;
+        }
+
+        /**
+         * @return The JSON members of the result
+         */
+        Map<String, Object> toJson() {
+            final Map<String, Object> json = new LinkedHashMap<>();
+            json.put("expression", expression);
+            if (error == null) {
+                json.put(name, value);
+            } else {
+                json.put("error", error);
+                if (part != null) {
+                    json.put("part", part);
+                }
+            }
+
+            return json;
+        }
+    }
+
+    //endregion
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    //region CONSTRUCTORS
+
+    /**
+     * Constructor
+     *
+     * @param capacity The number of descriptions the cache can hold before being emptied
+     */
+    Describer(final int capacity) {
+        this.capacity = capacity;
+    }
+
+    //endregion
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    //region METHODS
+
+    /**
+     * @param expression The expression
+     * @param options    The options (an immutable snapshot)
+     * @return The description of the expression (cached)
+     */
+    Result describe(final String expression, final Settings options) {
+        final Key key = new Key(expression, options.snapshot(), Localization.getVersion());
+        final Result cached = descriptions.get(key);
+        if (cached != null) {
+            hits.increment();
+            return cached;
+        }
+
+        misses.increment();
+        Result result;
+        try {
+            result = Result.of(expression, "description", CronExpressionDescriptor.getDescription(expression, options));
+        } catch (final RuntimeException e) {
+            result = Result.failed(expression, e);
+        }
+
+        if (descriptions.size() >= capacity) {
+            descriptions.clear();
+        }
+
+        descriptions.put(key, result);
+        return result;
+    }
+
+    /**
+     * @param expression The expression
+     * @param options    The options (an immutable snapshot)
+     * @return Whether the expression is valid
+     */
+    Result validate(final String expression, final Settings options) {
+        try {
+            new CronExpressionParser(expression, options).parse();
+            return Result.of(expression, "valid", Boolean.TRUE);
+        } catch (final RuntimeException e) {
+            return Result.failed(expression, e);
+        }
+    }
+
+    /**
+     * @param expression The expression
+     * @param options    The options (an immutable snapshot)
+     * @return The shortest expression equivalent to the expression
+     */
+    Result canonicalize(final String expression, final Settings options) {
+        try {
+            return Result.of(expression, "canonical", CronExpressionMinimizer.minimize(expression, options));
+        } catch (final RuntimeException e) {
+            return Result.failed(expression, e);
+        }
+    }
+
+    /**
+     * @return The statistics of the cache
+     */
+    Map<String, Object> getStatistics() {
+        final Map<String, Object> statistics = new LinkedHashMap<>();
+        statistics.put("cached", descriptions.size());
+        statistics.put("capacity", capacity);
+        statistics.put("hits", hits.sum());
+        statistics.put("misses", misses.sum());
+        return statistics;
+    }
+
+    //endregion
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+}
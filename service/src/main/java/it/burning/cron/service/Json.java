@@ -0,0 +1,346 @@
+package it.burning.cron.service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A minimal JSON reader and writer, enough for the requests and responses of the service (no dependencies).
+ * <p>
+ * Objects are read as {@link Map} (keeping the order of their members), arrays as {@link List}, numbers as
+ * {@link Double}, along with {@link String}, {@link Boolean} and null.
+ */
+final class Json {
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    //region FIELDS
+
+    // Limits
+    private static final int MAX_DEPTH = 32;
+
+    // State
+    private final String text;
+    private       int    position;
+
+    //endregion
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    //region SUBCLASSES
+
+    // Malformed JSON
+    static final class JsonException extends RuntimeException {
+        JsonException(final String message, final int position) {
+            super(message + " at position " + position);
+        }
+    }
+
+    //endregion
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    //region CONSTRUCTORS
+
+    /**
+     * Constructor
+     *
+     * @param text The JSON text
+     */
+    private Json(final String text) {
+        this.text = text;
+    }
+
+    //endregion
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    //region METHODS
+
+    /**
+     * Reads a value, then the whitespace following it
+     */
+    private Object readValue(final int depth) {
+        if (depth > MAX_DEPTH) {
+            throw new JsonException("Too deeply nested", position);
+        }
+
+        skipWhitespace();
+        if (position >= text.length()) {
+            throw new JsonException("Unexpected end", position);
+        }
+
+        final Object value;
+        final char c = text.charAt(position);
+        if (c == '{') {
+            value = readObject(depth);
+        } else if (c == '[') {
+            value = readArray(depth);
+        } else if (c == '"') {
+            value = readString();
+        } else if (c == '-' || (c >= '0' && c <= '9')) {
+            value = readNumber();
+        } else if (text.startsWith("true", position)) {
+            position += 4;
+            value = Boolean.TRUE;
+        } else if (text.startsWith("false", position)) {
+            position += 5;
+            value = Boolean.FALSE;
+        } else if (text.startsWith("null", position)) {
+            position += 4;
+            value = null;
+        } else {
+            throw new JsonException("Unexpected character '" + c + "'", position);
+        }
+
+        skipWhitespace();
+        return value;
+    }
+
+    private Map<String, Object> readObject(final int depth) {
+        final Map<String, Object> object = new LinkedHashMap<>();
+        position++;
+        skipWhitespace();
+        if (consume('}')) {
+            return object;
+        }
+
+        do {
+            skipWhitespace();
+            if (position >= text.length() || text.charAt(position) != '"') {
+                throw new JsonException("Expected a member name", position);
+            }
+
+            final String name = readString();
+            skipWhitespace();
+            if (!consume(':')) {
+                throw new JsonException("Expected ':'", position);
+            }
+
+            object.put(name, readValue(depth + 1));
+        } while (consume(','));
+
+        if (!consume('}')) {
+            throw new JsonException("Expected ',' or '}'", position);
+        }
+
+        return object;
+    }
+
+    private List<Object> readArray(final int depth) {
+        final List<Object> array = new ArrayList<>();
+        position++;
+        skipWhitespace();
+        if (consume(']')) {
+            return array;
+        }
+
+        do {
+            array.add(readValue(depth + 1));
+        } while (consume(','));
+
+        if (!consume(']')) {
+            throw new JsonException("Expected ',' or ']'", position);
+        }
+
+        return array;
+    }
+
+    private String readString() {
+        final StringBuilder string = new StringBuilder();
+        position++;
+        while (position < text.length()) {
+            final char c = text.charAt(position++);
+            if (c == '"') {
+                return string.toString();
+            } else if (c < 0x20) {
+                throw new JsonException("Control character in string", position - 1);
+            } else if (c != '\\') {
+                string.append(c);
+                continue;
+            }
+
+            if (position >= text.length()) {
+                break;
+            }
+
+            final char escaped = text.charAt(position++);
+            switch (escaped) {
+                case '"':
+                case '\\':
+                case '/':
+                    string.append(escaped);
+                    break;
+                case 'b':
+                    string.append('\b');
+                    break;
+                case 'f':
+                    string.append('\f');
+                    break;
+                case 'n':
+                    string.append('\n');
+                    break;
+                case 'r':
+                    string.append('\r');
+                    break;
+                case 't':
+                    string.append('\t');
+                    break;
+                case 'u':
+                    if (position + 4 > text.length()) {
+                        throw new JsonException("Truncated escape", position);
+                    }
+
+                    try {
+                        string.append((char) Integer.parseInt(text.substring(position, position + 4), 16));
+                    } catch (final NumberFormatException e) {
+                        throw new JsonException("Invalid escape", position);
+                    }
+
+                    position += 4;
+                    break;
+                default:
+                    throw new JsonException("Invalid escape", position - 1);
+            }
+        }
+
+        throw new JsonException("Unterminated string", position);
+    }
+
+    private Double readNumber() {
+        final int start = position;
+        while (position < text.length() && "+-0123456789.eE".indexOf(text.charAt(position)) >= 0) {
+            position++;
+        }
+
+        try {
+            return Double.valueOf(text.substring(start, position));
+        } catch (final NumberFormatException e) {
+            throw new JsonException("Invalid number", start);
+        }
+    }
+
+    private boolean consume(final char c) {
+        if (position < text.length() && text.charAt(position) == c) {
+            position++;
+            return true;
+        }
+
+        return false;
+    }
+
+    private void skipWhitespace() {
+        while (position < text.length() && " \t\r\n".indexOf(text.charAt(position)) >= 0) {
+            position++;
+        }
+    }
+
+    //endregion
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    //region STATIC METHODS
+
+    /**
+     * Reads a JSON document
+     *
+     * @param text The document
+     * @return The value of the document
+     * @throws JsonException If the document is not valid JSON
+     */
+    static Object parse(final String text) {
+        final Json json = new Json(text);
+        final Object value = json.readValue(0);
+        if (json.position != text.length()) {
+            throw new JsonException("Unexpected content after the document", json.position);
+        }
+
+        return value;
+    }
+
+    /**
+     * Writes a value (maps, iterables, strings, numbers, booleans and null)
+     *
+     * @param json  The destination
+     * @param value The value
+     * @return The destination
+     */
+    static StringBuilder write(final StringBuilder json, final Object value) {
+        if (value == null) {
+            json.append("null");
+        } else if (value instanceof String) {
+            quote(json, (String) value);
+        } else if (value instanceof Number || value instanceof Boolean) {
+            json.append(value);
+        } else if (value instanceof Map) {
+            json.append('{');
+            boolean first = true;
+            for (final Map.Entry<?, ?> member : ((Map<?, ?>) value).entrySet()) {
+                if (!first) {
+                    json.append(',');
+                }
+
+                quote(json, String.valueOf(member.getKey())).append(':');
+                write(json, member.getValue());
+                first = false;
+            }
+
+            json.append('}');
+        } else if (value instanceof Iterable) {
+            json.append('[');
+            boolean first = true;
+            for (final Object item : (Iterable<?>) value) {
+                if (!first) {
+                    json.append(',');
+                }
+
+                write(json, item);
+                first = false;
+            }
+
+            json.append(']');
+        } else {
+            quote(json, value.toString());
+        }
+
+        return json;
+    }
+
+    /**
+     * Writes a string, escaping it
+     */
+    private static StringBuilder quote(final StringBuilder json, final String string) {
+        json.append('"');
+        for (int i = 0; i < string.length(); i++) {
+            final char c = string.charAt(i);
+            switch (c) {
+                case '"':
+                    json.append("\\\"");
+                    break;
+                case '\\':
+                    json.append("\\\\");
+                    break;
+                case '\n':
+                    json.append("\\n");
+                    break;
+                case '\r':
+                    json.append("\\r");
+                    break;
+                case '\t':
+                    json.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        json.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        json.append(c);
+                    }
+                    break;
+            }
+        }
+
+        return json.append('"');
+    }
+
+    //endregion
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+}
@@ -0,0 +1,309 @@
+package it.burning.cron.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Measures the throughput and the latency of the describe service on a single machine: worker threads send batches of
+ * expressions on kept-alive connections for a while (after a warm up) and the requests per second, the expressions per
+ * second and the latency percentiles are reported.
+ * <p>
+ * Unless a "--url" is given, the load is sent to a service started on a free port of this process.
+ */
+public final class LoadGenerator {
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    //region FIELDS
+
+    // Config
+    private final URL    url;
+    private final int    threads;
+    private final int    batch;
+    private final String locale;
+
+    // Expressions sent (a realistic mix of crontab and Quartz expressions, most of them repeated)
+    private static final String[] MINUTES  = {"0", "*/5", "*/15", "30", "0,30", "10-20", "5/10"};
+    private static final String[] HOURS    = {"*", "0", "12", "9-17", "*/2", "6,18", "8-18/2"};
+    private static final String[] DAYS     = {"*", "1", "15", "L", "1,15", "1-7", "LW"};
+    private static final String[] MONTHS   = {"*", "*", "JAN", "1/3", "6-8"};
+    private static final String[] WEEKDAYS = {"MON-FRI", "SAT,SUN", "1", "5#3", "6L"};
+
+    //endregion
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    //region SUBCLASSES
+
+    // A thread sending requests and recording their latencies
+    private final class Worker extends Thread {
+        private final AtomicBoolean measuring;
+        private final AtomicBoolean running;
+        private final Random        random;
+        private       long[]        latencies = new long[1024];
+        private       int           requests;
+        private       int           errors;
+
+        Worker(final int index, final AtomicBoolean measuring, final AtomicBoolean running) {
+            super("load-" + index);
+            this.measuring = measuring;
+            this.running = running;
+            this.random = new Random(index);
+        }
+
+        @Override
+        public void run() {
+            while (running.get()) {
+                final byte[] body = request(random);
+                final long start = System.nanoTime();
+                boolean failed;
+                try {
+                    failed = post(body) != 200;
+                } catch (final IOException e) {
+                    failed = true;
+                }
+
+                final long latency = System.nanoTime() - start;
+                if (measuring.get()) {
+                    if (requests == latencies.length) {
+                        latencies = Arrays.copyOf(latencies, requests * 2);
+                    }
+
+                    latencies[requests++] = latency;
+                    errors += failed ? 1 : 0;
+                }
+            }
+        }
+    }
+
+    //endregion
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    //region CONSTRUCTORS
+
+    /**
+     * Constructor
+     *
+     * @param url     The URL of the describe endpoint
+     * @param threads The number of concurrent connections
+     * @param batch   The number of expressions per request
+     * @param locale  The locale of the descriptions
+     */
+    public LoadGenerator(final URL url, final int threads, final int batch, final Locale locale) {
+        this.url = url;
+        this.threads = threads;
+        this.batch = batch;
+        this.locale = locale.toLanguageTag();
+    }
+
+    //endregion
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    //region METHODS
+
+    /**
+     * Sends requests for a while, then reports the throughput and the latencies
+     *
+     * @param warmUpSeconds The seconds to send requests for before measuring
+     * @param seconds       The seconds to measure for
+     * @return The report
+     * @throws InterruptedException If interrupted while waiting for the workers
+     */
+    public String run(final int warmUpSeconds, final int seconds) throws InterruptedException {
+        final AtomicBoolean measuring = new AtomicBoolean();
+        final AtomicBoolean running = new AtomicBoolean(true);
+        final List<Worker> workers = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            workers.add(new Worker(i, measuring, running));
+        }
+
+        workers.forEach(Thread::start);
+        Thread.sleep(warmUpSeconds * 1000L);
+        measuring.set(true);
+        final long start = System.nanoTime();
+        Thread.sleep(seconds * 1000L);
+        measuring.set(false);
+        final double elapsed = (System.nanoTime() - start) / 1e9;
+        running.set(false);
+        for (final Worker worker : workers) {
+            worker.join();
+        }
+
+        // Merge the latencies of every worker
+        int requests = 0;
+        int errors = 0;
+        for (final Worker worker : workers) {
+            requests += worker.requests;
+            errors += worker.errors;
+        }
+
+        final long[] latencies = new long[requests];
+        int merged = 0;
+        for (final Worker worker : workers) {
+            System.arraycopy(worker.latencies, 0, latencies, merged, worker.requests);
+            merged += worker.requests;
+        }
+
+        Arrays.sort(latencies);
+        return String.format(Locale.ROOT, "%d threads, %d expressions per request, %.1f s: %d requests (%d errors), %.0f requests/s, %.0f expressions/s, " +
+                                          "latency p50 %.3f ms, p99 %.3f ms, max %.3f ms",
+                             threads, batch, elapsed, requests, errors, requests / elapsed, requests * batch / elapsed,
+                             percentile(latencies, 0.50), percentile(latencies, 0.99), percentile(latencies, 1));
+    }
+
+    /**
+     * @return The JSON body of a request with random expressions
+     */
+    private byte[] request(final Random random) {
+        final StringBuilder json = new StringBuilder("{\"locale\":\"").append(locale).append("\",\"expressions\":[");
+        for (int i = 0; i < batch; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+
+            json.append('"').append(expression(random)).append('"');
+        }
+
+        return json.append("]}").toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Sends a request, reading the whole response so that the connection is reused
+     *
+     * @return The status code
+     */
+    private int post(final byte[] body) throws IOException {
+        final HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+        connection.setRequestMethod("POST");
+        connection.setDoOutput(true);
+        connection.setFixedLengthStreamingMode(body.length);
+        connection.setRequestProperty("Content-Type", "application/json; charset=utf-8");
+        try (final OutputStream output = connection.getOutputStream()) {
+            output.write(body);
+        }
+
+        final int status = connection.getResponseCode();
+        try (final InputStream input = status < 400 ? connection.getInputStream() : connection.getErrorStream()) {
+            if (input != null) {
+                readFully(input);
+            }
+        }
+
+        return status;
+    }
+
+    //endregion
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    //region STATIC METHODS
+
+    /**
+     * Runs the load generator
+     *
+     * @param args Optional "--url URL" (of the describe endpoint), "--threads N", "--batch N", "--seconds N", "--warmup N"
+     *             and "--locale TAG" arguments
+     * @throws Exception If the embedded service cannot be started
+     */
+    public static void main(final String[] args) throws Exception {
+        String url = null;
+        int threads = Runtime.getRuntime().availableProcessors();
+        int batch = 1;
+        int seconds = 10;
+        int warmUp = 3;
+        String locale = "en";
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "--url":
+                    url = args[i + 1];
+                    break;
+                case "--threads":
+                    threads = Integer.parseInt(args[i + 1]);
+                    break;
+                case "--batch":
+                    batch = Integer.parseInt(args[i + 1]);
+                    break;
+                case "--seconds":
+                    seconds = Integer.parseInt(args[i + 1]);
+                    break;
+                case "--warmup":
+                    warmUp = Integer.parseInt(args[i + 1]);
+                    break;
+                case "--locale":
+                    locale = args[i + 1];
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown argument " + args[i]);
+            }
+        }
+
+        // Keep a connection per worker alive
+        System.setProperty("http.maxConnections", String.valueOf(Math.max(threads, 5)));
+
+        DescribeServer server = null;
+        if (url == null) {
+            server = new DescribeServer(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), Runtime.getRuntime().availableProcessors(), DescribeServer.DEFAULT_CACHE_SIZE);
+            server.start();
+            url = "http://localhost:" + server.getPort() + "/describe";
+        }
+
+        try {
+            System.out.println(new LoadGenerator(new URL(url), threads, batch, Locale.forLanguageTag(locale)).run(warmUp, seconds));
+        } finally {
+            if (server != null) {
+                server.stop();
+            }
+        }
+    }
+
+    /**
+     * @return A random expression
+     */
+    static String expression(final Random random) {
+        final String minute = MINUTES[random.nextInt(MINUTES.length)];
+        final String hour = HOURS[random.nextInt(HOURS.length)];
+        final String month = MONTHS[random.nextInt(MONTHS.length)];
+        if (random.nextBoolean()) {
+            return "0 " + minute + " " + hour + " " + DAYS[random.nextInt(DAYS.length)] + " " + month + " ?";
+        } else {
+            return "0 " + minute + " " + hour + " ? " + month + " " + WEEKDAYS[random.nextInt(WEEKDAYS.length)];
+        }
+    }
+
+    /**
+     * @return The latency (in milliseconds) at a percentile of the sorted latencies
+     */
+    private static double percentile(final long[] latencies, final double percentile) {
+        if (latencies.length == 0) {
+            return 0;
+        }
+
+        final int rank = (int) Math.ceil(percentile * latencies.length) - 1;
+        return latencies[Math.max(0, Math.min(latencies.length - 1, rank))] / 1e6;
+    }
+
+    /**
+     * Reads a stream to its end
+     */
+    private static void readFully(final InputStream input) throws IOException {
+        final byte[] buffer = new byte[8192];
+        while (input.read(buffer) >= 0) {
+            // Discard the response
+        }
+    }
+
+    //endregion
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+}
@@ -0,0 +1,227 @@
+package it.burning.cron.service;
+
+import it.burning.cron.CronExpressionDescriptor;
+import it.burning.cron.CronExpressionMinimizer;
+import it.burning.cron.CronExpressionParser.Options;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DescribeServerTest {
+    private static DescribeServer server;
+
+    // A response along with its status and language
+    private static final class Response {
+        final int    status;
+        final String language;
+        final Object json;
+
+        Response(final int status, final String language, final Object json) {
+            this.status = status;
+            this.language = language;
+            this.json = json;
+        }
+
+        Map<?, ?> object() {
+            return (Map<?, ?>) json;
+        }
+    }
+
+    @BeforeAll
+    static void start() throws IOException {
+        server = new DescribeServer(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 4, 100);
+        server.start();
+    }
+
+    @AfterAll
+    static void stop() {
+        server.stop();
+    }
+
+    @Test
+    void describe() throws IOException {
+        final Response response = get("/describe?expression=" + URLEncoder.encode("0 15 10 ? * MON-FRI", "UTF-8"), null);
+        assertEquals(200, response.status);
+        assertEquals("en", response.language);
+        assertEquals("0 15 10 ? * MON-FRI", response.object().get("expression"));
+        assertEquals(CronExpressionDescriptor.getDescription("0 15 10 ? * MON-FRI", new Options(true, false, false, false, Locale.ENGLISH)),
+                     response.object().get("description"));
+
+        // Options
+        final Response verbose = post("/describe", "{\"expression\":\"0 15 10 ? * MON-FRI\",\"verbose\":true,\"use24HourTimeFormat\":true,\"locale\":\"it\"}", null);
+        assertEquals("it", verbose.language);
+        assertEquals(CronExpressionDescriptor.getDescription("0 15 10 ? * MON-FRI", new Options(true, true, true, false, Locale.ITALIAN)),
+                     verbose.object().get("description"));
+    }
+
+    @Test
+    void batch() throws IOException {
+        final Response response = post("/describe", "{\"expressions\":[\"*/5 * * * *\",\"0 75 10 * * ?\",\"0 0 12 1 * MON\"],\"locale\":\"en\"}", null);
+        assertEquals(200, response.status);
+        final List<?> results = (List<?>) response.object().get("results");
+        assertEquals(3, results.size());
+        assertEquals("Every 5 minutes", ((Map<?, ?>) results.get(0)).get("description"));
+
+        // Invalid expressions are reported by their own result, along with the part they are about
+        final Map<?, ?> invalid = (Map<?, ?>) results.get(1);
+        assertEquals("0 75 10 * * ?", invalid.get("expression"));
+        assertEquals("MIN", invalid.get("part"));
+        assertNotNull(invalid.get("error"));
+        assertFalse(invalid.containsKey("description"));
+        assertNotNull(((Map<?, ?>) results.get(2)).get("error"));
+
+        // Repeated query parameters are a batch too
+        final Response get = get("/validate?expression=*+*+*+*+*&expression=x", null);
+        final List<?> validated = (List<?>) get.object().get("results");
+        assertEquals(Boolean.TRUE, ((Map<?, ?>) validated.get(0)).get("valid"));
+        assertEquals("ALL", ((Map<?, ?>) validated.get(1)).get("part"));
+    }
+
+    @Test
+    void canonicalize() throws IOException {
+        final Response response = post("/canonicalize", "{\"expression\":\"0 0-59 * * * ?\"}", null);
+        assertEquals(200, response.status);
+        assertEquals(CronExpressionMinimizer.minimize("0 0-59 * * * ?", new Options(true, false, false, false, Locale.ENGLISH)), response.object().get("canonical"));
+        assertEquals("Every minute", post("/describe", "{\"expression\":\"" + response.object().get("canonical") + "\"}", null).object().get("description"));
+    }
+
+    @Test
+    void acceptLanguage() throws IOException {
+        assertEquals("it", post("/describe", "{\"expression\":\"* * * * *\"}", "it-IT,it;q=0.9,en;q=0.8").language);
+        assertEquals("de", post("/describe", "{\"expression\":\"* * * * *\"}", "xx, de;q=0.5").language);
+        assertEquals("pt-BR", post("/describe", "{\"expression\":\"* * * * *\"}", "pt-BR").language);
+        assertEquals("en", post("/describe", "{\"expression\":\"* * * * *\"}", "xx").language);
+        assertEquals("en", post("/describe", "{\"expression\":\"* * * * *\"}", ";;;=").language);
+
+        // An explicit locale wins over the header
+        assertEquals("fr", post("/describe", "{\"expression\":\"* * * * *\",\"locale\":\"fr\"}", "it").language);
+    }
+
+    @Test
+    void badRequests() throws IOException {
+        assertEquals(400, post("/describe", "{\"expression\":", null).status);
+        assertEquals(400, post("/describe", "[\"* * * * *\"]", null).status);
+        assertEquals(400, post("/describe", "{\"expressions\":[1]}", null).status);
+        assertEquals(400, post("/describe", "{}", null).status);
+        assertEquals(400, get("/describe", null).status);
+
+        final StringBuilder batch = new StringBuilder("{\"expressions\":[");
+        for (int i = 0; i <= DescribeServer.MAX_BATCH; i++) {
+            batch.append(i > 0 ? "," : "").append("\"* * * * *\"");
+        }
+
+        assertEquals(413, post("/describe", batch.append("]}").toString(), null).status);
+
+        final HttpURLConnection connection = open("/describe");
+        connection.setRequestMethod("DELETE");
+        assertEquals(405, connection.getResponseCode());
+        connection.getErrorStream().close();
+    }
+
+    @Test
+    void concurrent() throws Exception {
+        // Many threads sharing the description cache (smaller than the number of expressions) get consistent answers
+        final ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            final List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                final int seed = t;
+                futures.add(executor.submit(() -> {
+                    final Random random = new Random(seed);
+                    for (int i = 0; i < 25; i++) {
+                        final StringBuilder json = new StringBuilder("{\"locale\":\"en\",\"expressions\":[");
+                        final List<String> expressions = new ArrayList<>();
+                        for (int j = 0; j < 20; j++) {
+                            expressions.add(LoadGenerator.expression(random));
+                            json.append(j > 0 ? "," : "").append('"').append(expressions.get(j)).append('"');
+                        }
+
+                        final List<?> results = (List<?>) post("/describe", json.append("]}").toString(), null).object().get("results");
+                        for (int j = 0; j < 20; j++) {
+                            final Map<?, ?> result = (Map<?, ?>) results.get(j);
+                            assertEquals(expressions.get(j), result.get("expression"));
+                            assertEquals(CronExpressionDescriptor.getDescription(expressions.get(j), new Options(true, false, false, false, Locale.ENGLISH)),
+                                         result.get("description"));
+                        }
+                    }
+
+                    return null;
+                }));
+            }
+
+            for (final Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        final Map<?, ?> statistics = get("/stats", null).object();
+        assertTrue(((Number) statistics.get("hits")).longValue() > 0);
+        assertTrue(((Number) statistics.get("cached")).intValue() <= 100);
+    }
+
+    private static HttpURLConnection open(final String path) throws IOException {
+        return (HttpURLConnection) new URL("http://localhost:" + server.getPort() + path).openConnection();
+    }
+
+    private static Response get(final String path, final String acceptLanguage) throws IOException {
+        final HttpURLConnection connection = open(path);
+        if (acceptLanguage != null) {
+            connection.setRequestProperty("Accept-Language", acceptLanguage);
+        }
+
+        return read(connection);
+    }
+
+    private static Response post(final String path, final String body, final String acceptLanguage) throws IOException {
+        final HttpURLConnection connection = open(path);
+        connection.setRequestMethod("POST");
+        connection.setDoOutput(true);
+        if (acceptLanguage != null) {
+            connection.setRequestProperty("Accept-Language", acceptLanguage);
+        }
+
+        try (final OutputStream output = connection.getOutputStream()) {
+            output.write(body.getBytes(StandardCharsets.UTF_8));
+        }
+
+        return read(connection);
+    }
+
+    private static Response read(final HttpURLConnection connection) throws IOException {
+        final int status = connection.getResponseCode();
+        assertEquals("application/json; charset=utf-8", connection.getHeaderField("Content-Type"));
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (final InputStream input = status < 400 ? connection.getInputStream() : connection.getErrorStream()) {
+            final byte[] buffer = new byte[8192];
+            int read;
+            while ((read = input.read(buffer)) >= 0) {
+                bytes.write(buffer, 0, read);
+            }
+        }
+
+        return new Response(status, connection.getHeaderField("Content-Language"), Json.parse(new String(bytes.toByteArray(), StandardCharsets.UTF_8)));
+    }
+}
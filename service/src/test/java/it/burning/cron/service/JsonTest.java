@@ -0,0 +1,57 @@
+package it.burning.cron.service;
+
+import it.burning.cron.service.Json.JsonException;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JsonTest {
+    @Test
+    void parse() {
+        final Map<?, ?> object = (Map<?, ?>) Json.parse(" {\"expressions\": [\"0 15 10 ? * MON-FRI\", \"*/5 * * * *\"], \"verbose\": true, \"n\": -1.5e2, \"x\": null} ");
+        assertEquals(Arrays.asList("0 15 10 ? * MON-FRI", "*/5 * * * *"), object.get("expressions"));
+        assertEquals(Boolean.TRUE, object.get("verbose"));
+        assertEquals(-150.0, object.get("n"));
+        assertTrue(object.containsKey("x"));
+        assertNull(object.get("x"));
+
+        assertEquals("a\"b\\c\n\u00e8\u20ac", Json.parse("\"a\\\"b\\\\c\\n\\u00e8\u20ac\""));
+        assertEquals(Arrays.asList(), Json.parse("[]"));
+    }
+
+    @Test
+    void malformed() {
+        for (final String json : Arrays.asList("", "{", "{\"a\"}", "{\"a\":1,}", "[1 2]", "\"abc", "tru", "{} {}", "\"\\x\"", "01x")) {
+            assertThrows(JsonException.class, () -> Json.parse(json), json);
+        }
+
+        // Deeply nested documents are rejected instead of overflowing the stack
+        final StringBuilder nested = new StringBuilder();
+        for (int i = 0; i < 10_000; i++) {
+            nested.append('[');
+        }
+
+        assertThrows(JsonException.class, () -> Json.parse(nested.toString()));
+    }
+
+    @Test
+    void write() {
+        final Map<String, Object> object = new LinkedHashMap<>();
+        object.put("expression", "0 0 12 * * ?");
+        object.put("description", "At 12:00 PM, \"quoted\"\tand\u0001");
+        object.put("valid", true);
+        object.put("results", Arrays.asList(1, null));
+        final String json = Json.write(new StringBuilder(), object).toString();
+        assertEquals("{\"expression\":\"0 0 12 * * ?\",\"description\":\"At 12:00 PM, \\\"quoted\\\"\\tand\\u0001\",\"valid\":true,\"results\":[1,null]}", json);
+
+        // Round trip
+        final Map<?, ?> parsed = (Map<?, ?>) Json.parse(json);
+        assertEquals(object.get("description"), parsed.get("description"));
+        assertEquals(2, ((List<?>) parsed.get("results")).size());
+    }
+}
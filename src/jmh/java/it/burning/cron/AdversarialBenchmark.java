@@ -0,0 +1,113 @@
+package it.burning.cron;
+
+import it.burning.cron.CronExpressionParser.CronExpressionParseException;
+import it.burning.cron.CronExpressionParser.ImmutableOptions;
+import it.burning.cron.CronExpressionParser.Options;
+import it.burning.cron.CronExpressionScanner.Fields;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Worst case inputs of the parser, the scanner and the descriptor: fields listing a growing number of values, valid or
+ * rejected by their last value, with the limits of the options raised. The time per operation grows linearly with the
+ * number of values (the time per value stays flat), and expressions over the default limits are rejected in constant
+ * time whatever their length.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class AdversarialBenchmark {
+    // Lists of values of every field, the invalid ones end with a value out of range
+    public enum Shape {
+        SECONDS("%s * * * * ?", 60),
+        HOURS("0 30 %s * * ?", 24),
+        DAYS_OF_MONTH("0 0 12 %s * ?", 31),
+        DAYS_OF_WEEK("0 0 12 ? * %s", 7),
+        YEARS("0 0 12 * * ? %s", 130),
+        INVALID_MINUTES("0 %s,60 * * * ?", 60),
+        INVALID_YEARS("0 0 12 * * ? %s,2100", 130);
+
+        private final String format;
+        private final int    modulo;
+
+        Shape(final String format, final int modulo) {
+            this.format = format;
+            this.modulo = modulo;
+        }
+
+        String expression(final int values) {
+            // Days of week are numbered from 1 by expressions with seconds
+            final int first = this == DAYS_OF_MONTH || this == DAYS_OF_WEEK ? 1 : this == YEARS || this == INVALID_YEARS ? CronExpressionParser.MIN_YEAR : 0;
+            final StringBuilder list = new StringBuilder();
+            for (int i = 0; i < values; i++) {
+                list.append(i > 0 ? "," : "").append(first + i % modulo);
+            }
+
+            return String.format(format, list);
+        }
+    }
+
+    @Param({"10", "100", "1000", "10000"})
+    public int values;
+
+    @Param
+    public Shape shape;
+
+    // Options with raised limits and with the default ones, expressions
+    private final Options               options   = new Options(true, false, true, false, Locale.ENGLISH);
+    private final ImmutableOptions      limited   = new Options(true, false, true, false, Locale.ENGLISH).snapshot();
+    private final Fields                fields    = new Fields();
+    private       CronExpressionScanner scanner;
+    private       String                expression;
+    private       String                oversized;
+
+    @Setup
+    public void setup() {
+        options.setMaxListSize(Integer.MAX_VALUE);
+        options.setMaxExpressionLength(Integer.MAX_VALUE);
+        scanner = new CronExpressionScanner(options);
+        expression = shape.expression(values);
+        oversized = shape.expression(values * 100);
+    }
+
+    @Benchmark
+    public Object parse() {
+        try {
+            return new CronExpressionParser(expression, options).parse();
+        } catch (final CronExpressionParseException e) {
+            return e.getPart();
+        }
+    }
+
+    @Benchmark
+    public Object scan() {
+        try {
+            return scanner.parse(expression, fields);
+        } catch (final CronExpressionParseException e) {
+            return e.getPart();
+        }
+    }
+
+    @Benchmark
+    public Object describe() {
+        try {
+            return CronExpressionDescriptor.getDescription(expression, options);
+        } catch (final CronExpressionParseException e) {
+            return e.getPart();
+        }
+    }
+
+    @Benchmark
+    public Object rejectOversized() {
+        try {
+            return new CronExpressionParser(oversized, limited).parse();
+        } catch (final CronExpressionParseException e) {
+            return e.getPart();
+        }
+    }
+}
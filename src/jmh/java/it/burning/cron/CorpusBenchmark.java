@@ -0,0 +1,50 @@
+package it.burning.cron;
+
+import it.burning.cron.CronExpressionParser.ImmutableOptions;
+import it.burning.cron.CronExpressionParser.Options;
+import it.burning.cron.CronExpressionScanner.Fields;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of parsing and describing a realistic corpus (see {@link CronExpressionGenerator}), one expression per call. The
+ * corpus is the same on every run, so results of different runs and paths can be compared.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class CorpusBenchmark {
+    // Corpus (Quartz numbering only, so that a single set of options reads every expression)
+    private final String[]              expressions = new CronExpressionGenerator(42, CronExpressionGenerator.Profile.CRONTAB.withJavaEe(0)).expressions(1024);
+    private final ImmutableOptions      options     = new Options(true, false, true, false, Locale.ENGLISH).snapshot();
+    private final Options               mutable     = new Options(options);
+    private final CronExpressionScanner scanner     = new CronExpressionScanner(options);
+    private final Fields                fields      = new Fields();
+    private       int                   next;
+
+    @Benchmark
+    public String[] parse() {
+        return new CronExpressionParser(expressions[next++ & 1023], options).parse();
+    }
+
+    @Benchmark
+    public Fields scan() {
+        return scanner.parse(expressions[next++ & 1023], fields);
+    }
+
+    @Benchmark
+    public String describe() {
+        return CronExpressionDescriptor.getDescription(expressions[next++ & 1023], options);
+    }
+
+    // Mutable options never render the expressions of common shapes from templates (see CronShapeRenderer)
+    @Benchmark
+    public String describeWithoutTemplates() {
+        return CronExpressionDescriptor.getDescription(expressions[next++ & 1023], mutable);
+    }
+}
@@ -0,0 +1,64 @@
+package it.burning.cron;
+
+import it.burning.cron.CronExpressionParser.ImmutableOptions;
+import it.burning.cron.CronExpressionParser.Options;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of descriptions using the default options, with and without a thread changing them at the same time.
+ * Compare the "describe" score of the contended group with the uncontended benchmark: readers only pay for a volatile
+ * read of the current snapshot, so they should not slow down while the defaults are being replaced.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DefaultOptionsBenchmark {
+    // Expression to describe
+    private static final String EXPRESSION = "0 0/5 14,18 ? 3 MON-FRI";
+
+    // Alternated default options
+    private final ImmutableOptions english = new Options(true, false, true, false, Locale.ENGLISH).snapshot();
+    private final ImmutableOptions italian = new Options(true, false, true, false, Locale.ITALIAN).snapshot();
+
+    // State
+    private boolean toggle;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        CronExpressionDescriptor.setDefaultOptions(english);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public String uncontended() {
+        return CronExpressionDescriptor.getDescription(EXPRESSION);
+    }
+
+    @Benchmark
+    @Group("contended")
+    @GroupThreads(4)
+    public String describe() {
+        return CronExpressionDescriptor.getDescription(EXPRESSION);
+    }
+
+    @Benchmark
+    @Group("contended")
+    @GroupThreads(1)
+    public void replaceDefaults() {
+        toggle = !toggle;
+        CronExpressionDescriptor.setDefaultOptions(toggle ? italian : english);
+    }
+
+    @Benchmark
+    @Group("contended")
+    @GroupThreads(1)
+    public void changeDefaultLocale() {
+        CronExpressionDescriptor.setDefaultLocale(Locale.GERMAN);
+    }
+}
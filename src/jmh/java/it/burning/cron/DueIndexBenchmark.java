@@ -0,0 +1,56 @@
+package it.burning.cron;
+
+import it.burning.utils.CompressedBitmap;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of finding the schedules due at a given second among a million realistic ones (see
+ * {@link CronExpressionGenerator}), with the inverted index and by evaluating every schedule in turn.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = "-Xmx4g")
+@State(Scope.Benchmark)
+public class DueIndexBenchmark {
+    // Schedules (a distinct corpus of expressions repeated over a million ids) and the seconds looked up in turn
+    private final CronSchedule[]  schedules = new CronSchedule[1 << 20];
+    private final CronDueIndex    index     = new CronDueIndex();
+    private final LocalDateTime[] times     = new LocalDateTime[1024];
+    private       int             next;
+
+    @Setup
+    public void setup() {
+        final String[] expressions = new CronExpressionGenerator(43, CronExpressionGenerator.Profile.CRONTAB.withJavaEe(0)).expressions(4096);
+        for (int id = 0; id < schedules.length; id++) {
+            schedules[id] = CronSchedule.compile(expressions[id & 4095]);
+            index.add(id, schedules[id]);
+        }
+
+        for (int i = 0; i < times.length; i++) {
+            times[i] = LocalDateTime.of(2021, 3, 1, 0, 0).plusSeconds(i * 37L);
+        }
+    }
+
+    @Benchmark
+    public CompressedBitmap index() {
+        return index.dueAt(times[next++ & 1023]);
+    }
+
+    @Benchmark
+    public int scan() {
+        final LocalDateTime time = times[next++ & 1023];
+        int due = 0;
+        for (final CronSchedule schedule : schedules) {
+            if (schedule.matches(time)) {
+                due++;
+            }
+        }
+
+        return due;
+    }
+}
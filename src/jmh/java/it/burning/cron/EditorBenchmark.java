@@ -0,0 +1,37 @@
+package it.burning.cron;
+
+import it.burning.cron.CronExpressionParser.ImmutableOptions;
+import it.burning.cron.CronExpressionParser.Options;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of a keystroke in an editor changing the hours of an expression: described from scratch, or by a session only
+ * parsing and describing again what changed.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class EditorBenchmark {
+    // Two versions of the expression, alternated on every keystroke
+    private final String[]          expressions = {"0 0/5 14 ? JAN-JUN MON-FRI 2020/2", "0 0/5 15 ? JAN-JUN MON-FRI 2020/2"};
+    private final ImmutableOptions  options     = new Options(true, false, true, false, Locale.ENGLISH).snapshot();
+    private final CronEditorSession session     = new CronEditorSession(options);
+    private       int               keystroke;
+
+    @Benchmark
+    public String describe() {
+        return CronExpressionDescriptor.getDescription(expressions[keystroke++ & 1], options);
+    }
+
+    @Benchmark
+    public String session() {
+        session.update(expressions[keystroke++ & 1]);
+        return session.getDescription();
+    }
+}
@@ -0,0 +1,47 @@
+package it.burning.cron;
+
+import it.burning.cron.CronExpressionParser.ImmutableOptions;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of describing the corpus of {@link CorpusBenchmark} in UTF-8, by encoding the description or by writing it to a
+ * buffer (from the fragments of the templates encoded once per options profile, see {@link CronShapeRenderer}), in
+ * locales of Latin, Cyrillic and CJK scripts.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class EncodingBenchmark {
+    @Param({"en", "ru", "bg", "zh-CN", "ja", "ko"})
+    public String locale;
+
+    // Corpus, options and the buffer the descriptions are written to
+    private final String[]         expressions = new CronExpressionGenerator(42, CronExpressionGenerator.Profile.CRONTAB.withJavaEe(0)).expressions(1024);
+    private final ByteBuffer       buffer      = ByteBuffer.allocateDirect(4096);
+    private       ImmutableOptions options;
+    private       int              next;
+
+    @Setup
+    public void setup() {
+        options = ImmutableOptions.builder().locale(Locale.forLanguageTag(locale)).build();
+    }
+
+    @Benchmark
+    public byte[] encode() {
+        return CronExpressionDescriptor.getDescription(expressions[next++ & 1023], options).getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public int write() {
+        buffer.clear();
+        return CronExpressionDescriptor.writeDescription(expressions[next++ & 1023], options, buffer);
+    }
+}
@@ -0,0 +1,44 @@
+package it.burning.cron;
+
+import it.burning.cron.CronExpressionParser.CronExpressionParseException;
+import it.burning.cron.CronExpressionParser.ImmutableOptions;
+import it.burning.cron.CronExpressionParser.Options;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of creating a parser and of parsing valid and invalid expressions. Creating a parser does not load the
+ * localization bundle nor compile patterns, both are only paid for by the expressions that need them.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class ParserBenchmark {
+    // Options
+    private final ImmutableOptions options = new Options(true, false, true, false, Locale.ITALIAN).snapshot();
+
+    @Benchmark
+    public CronExpressionParser construct() {
+        return new CronExpressionParser("0 15 10 ? * MON-FRI", options);
+    }
+
+    @Benchmark
+    public String[] parseValid() {
+        return new CronExpressionParser("0 15 10 ? * MON-FRI", options).parse();
+    }
+
+    @Benchmark
+    public String parseInvalid() {
+        try {
+            new CronExpressionParser("0 15 25 ? * MON-FRI", options).parse();
+            return null;
+        } catch (final CronExpressionParseException e) {
+            return e.getMessage();
+        }
+    }
+}
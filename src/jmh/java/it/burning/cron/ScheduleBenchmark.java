@@ -0,0 +1,31 @@
+package it.burning.cron;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of compiling parsed expressions into schedules, which parses every number of every field (see
+ * {@link it.burning.utils.Numbers#parseInt(CharSequence, int, int)}).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class ScheduleBenchmark {
+    // Parsed expressions
+    private final String[] lists  = new CronExpressionParser("0 0,10,20,30,40,50 8,9,10,11,12 1,8,15,22 * ? 2020-2030").parse();
+    private final String[] ranges = new CronExpressionParser("0 10-50/5 8-17 ? JAN-JUN MON-FRI 2020/2").parse();
+
+    @Benchmark
+    public CronSchedule fromLists() {
+        return CronSchedule.fromParts(lists);
+    }
+
+    @Benchmark
+    public CronSchedule fromRanges() {
+        return CronSchedule.fromParts(ranges);
+    }
+}
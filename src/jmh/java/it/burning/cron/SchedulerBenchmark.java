@@ -0,0 +1,53 @@
+package it.burning.cron;
+
+import it.burning.cron.CronScheduler.Job;
+import it.burning.cron.CronScheduler.MisfirePolicy;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of the scheduler with a few hundred thousand registered jobs: scheduling and cancelling a job, and
+ * turning the wheels a second forward when a share of the jobs (100000) fires every second. Tasks run on the thread
+ * turning the wheels, so that only the scheduler itself is measured.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+@State(Scope.Thread)
+public class SchedulerBenchmark {
+    // A scheduler holding jobs spread over the next day, and a hundred thousand jobs firing every second
+    private final Instant       start     = Instant.parse("2020-06-15T09:00:00Z");
+    private final CronScheduler scheduler = new CronScheduler(Runnable::run, Clock.fixed(start, ZoneOffset.UTC));
+    private final CronSchedule  hourly    = CronSchedule.compile("0 0 * * * ?");
+    private       long          second    = start.getEpochSecond();
+
+    @Setup
+    public void setup() {
+        final CronSchedule everySecond = CronSchedule.compile("* * * * * ?");
+        for (int i = 0; i < 100_000; i++) {
+            scheduler.schedule(everySecond, () -> { }, MisfirePolicy.FIRE_ONCE);
+        }
+
+        for (int i = 0; i < 200_000; i++) {
+            scheduler.schedule(CronSchedule.compile(String.format("%d %d %d * * ?", i % 60, i / 60 % 60, i / 3600 % 24)), () -> { }, MisfirePolicy.FIRE_ONCE);
+        }
+    }
+
+    @Benchmark
+    public boolean scheduleAndCancel() {
+        final Job job = scheduler.schedule(hourly, () -> { }, MisfirePolicy.FIRE_ONCE);
+        return job.cancel();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(100_000)
+    public void fire() {
+        scheduler.runUntil(++second);
+    }
+}
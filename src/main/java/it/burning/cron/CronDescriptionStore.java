@@ -0,0 +1,604 @@
+package it.burning.cron;
+
+import it.burning.cron.CronExpressionParser.ImmutableOptions;
+import it.burning.cron.CronExpressionParser.Settings;
+import it.burning.utils.Localization;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A persistent store of descriptions, read through a memory mapped file so that a restarted process does not have to
+ * describe its whole corpus again:
+ * <pre>
+ * final CronDescriptionStore store = CronDescriptionStore.build(path, expressions, locales, options);
+ * ...
+ * store.getDescription("0 0 12 * * ?", options);
+ * </pre>
+ * Descriptions are keyed by the normalized parts of the expression (see {@link CronExpressionParser#parse()}), so that
+ * the ways of writing the same parts share an entry (i.e. "MON" and "mon", "0/5" and "*&#47;5"), by the locale and by
+ * the options changing the text (verbose, 24 hour time format and Java EE day numbering). Descriptions of the H syntax
+ * depend on the hash key of each job and are never stored: options with a hash key always describe the expression. The
+ * file starts with a format version and the checksum of the localization bundles of every locale it contains: entries
+ * written with an older format, or whose localization has changed since, are ignored and dropped on the next build.
+ * Locales are checked again whenever custom messages are published (see {@code Localization.publish()}).
+ * <p>
+ * Stores are immutable and can be shared between threads, {@link #build(Path, Collection, Collection, Options)}
+ * writes a new file and atomically replaces the previous one.
+ */
+public final class CronDescriptionStore {
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    //region FIELDS
+
+    // Format
+    static final         int  MAGIC      = 0x43454453;
+    static final         int  VERSION    = 3;
+    private static final int  SLOT_BYTES = 12;
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME  = 0x100000001b3L;
+
+    // Option flags
+    private static final int VERBOSE     = 1;
+    private static final int USE_24_HOUR = 1 << 1;
+    private static final int JAVA_EE     = 1 << 2;
+
+    // File
+    private final ByteBuffer           buffer;
+    private final int                  slots;
+    private final int                  indexStart;
+    private final Map<Locale, Integer> indexes;
+    private final Map<Locale, Long>    checksums;
+
+    // Usable locales and entries, as of a version of the localization
+    private volatile Validity validity;
+
+    //endregion
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    //region SUBCLASSES
+
+    /**
+     * The key of a description
+     */
+    private static final class Key {
+        final String expression;
+        final Locale locale;
+        final int    flags;
+
+        /**
+         * Constructor
+         *
+         * @param expression The canonical expression
+         * @param locale     The locale of the description
+         * @param flags      The option flags
+         */
+        Key(final String expression, final Locale locale, final int flags) {
+            this.expression = expression;
+            this.locale = locale;
+            this.flags = flags;
+        }
+
+        @Override
+        public boolean equals(final Object other) {
+            if (!(other instanceof Key)) {
+                return false;
+            }
+
+            final Key that = (Key) other;
+            return flags == that.flags && expression.equals(that.expression) && locale.equals(that.locale);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * (31 * expression.hashCode() + locale.hashCode()) + flags;
+        }
+    }
+
+    /**
+     * The locales of the store whose localization has not changed since it was written, as of a version of the
+     * localization
+     */
+    private static final class Validity {
+        final long                 version;
+        final Map<Locale, Integer> locales;
+        final int                  size;
+
+        /**
+         * Constructor
+         *
+         * @param version The version of the localization
+         * @param locales The usable locales, along with their index in the file
+         * @param size    The number of usable entries
+         */
+        Validity(final long version, final Map<Locale, Integer> locales, final int size) {
+            this.version = version;
+            this.locales = locales;
+            this.size = size;
+        }
+    }
+
+    //endregion
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    //region ACCESSORS
+
+    /**
+     * @return The number of usable descriptions
+     */
+    public int size() {
+        return validity().size;
+    }
+
+    /**
+     * @return The locales whose descriptions are usable
+     */
+    public Set<Locale> getLocales() {
+        return Collections.unmodifiableSet(validity().locales.keySet());
+    }
+
+    //endregion
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    //region CONSTRUCTORS
+
+    /**
+     * Constructor, reading the header of a store file. Files with another format and locales whose localization has
+     * changed are ignored.
+     *
+     * @param buffer The contents of the file, null for an empty store
+     */
+    private CronDescriptionStore(final ByteBuffer buffer) {
+        final Map<Locale, Integer> indexes = new HashMap<>();
+        final Map<Locale, Long> checksums = new HashMap<>();
+        int slots = 0;
+        int indexStart = 0;
+        boolean usable = buffer != null && buffer.capacity() >= 16 && buffer.getInt(0) == MAGIC && buffer.getInt(4) == VERSION;
+        if (usable) {
+            final int localeCount = buffer.getInt(8);
+            slots = buffer.getInt(12);
+
+            int position = 16;
+            for (int i = 0; i < localeCount; i++) {
+                final byte[] tag = new byte[buffer.getShort(position)];
+                readBytes(buffer, position + 2, tag);
+                final long checksum = buffer.getLong(position + 2 + tag.length);
+                position += 2 + tag.length + 8;
+
+                final Locale locale = Locale.forLanguageTag(new String(tag, StandardCharsets.UTF_8));
+                indexes.put(locale, i);
+                checksums.put(locale, checksum);
+            }
+
+            indexStart = position;
+            usable = !indexes.isEmpty();
+        }
+
+        this.buffer = usable ? buffer : null;
+        this.slots = usable ? slots : 0;
+        this.indexStart = indexStart;
+        this.indexes = indexes;
+        this.checksums = checksums;
+        this.validity = validate(Localization.getVersion());
+    }
+
+    //endregion
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    //region METHODS
+
+    /**
+     * @return The usable locales and entries as of the current version of the localization
+     */
+    private Validity validity() {
+        final Validity current = validity;
+        final long version = Localization.getVersion();
+        if (current.version == version) {
+            return current;
+        }
+
+        final Validity updated = validate(version);
+        validity = updated;
+        return updated;
+    }
+
+    /**
+     * Check which locales of the store still have the localization they were described with
+     *
+     * @param version The current version of the localization, read before the checksums
+     * @return The usable locales and entries
+     */
+    private Validity validate(final long version) {
+        final Map<Locale, Integer> valid = new HashMap<>();
+        checksums.forEach((locale, checksum) -> {
+            if (checksum == Localization.getChecksum(locale)) {
+                valid.put(locale, indexes.get(locale));
+            }
+        });
+
+        // Count the usable entries
+        int size = 0;
+        for (int slot = 0; slot < slots; slot++) {
+            final int position = indexStart + slot * SLOT_BYTES;
+            if (buffer.getLong(position) != 0 && valid.containsValue((int) buffer.getShort(buffer.getInt(position + 8) + 4))) {
+                size++;
+            }
+        }
+
+        return new Validity(version, valid, size);
+    }
+
+    /**
+     * Get the description of an expression from the store, describing it if it is not stored
+     *
+     * @param expression The expression
+     * @param options    The options (null for the default options)
+     * @return The description
+     */
+    public String getDescription(final String expression, final Settings options) {
+        final Settings actual = options != null ? options : CronExpressionDescriptor.getDefaultOptions();
+        final String description = find(expression, actual);
+        return description != null ? description : CronExpressionDescriptor.getDescription(expression, actual);
+    }
+
+    /**
+     * Get the description of an expression from the store
+     *
+     * @param expression The expression
+     * @param options    The options (null for the default options)
+     * @return The stored description, null if not stored (always null for options with a hash key)
+     */
+    public String find(final String expression, final Settings options) {
+        final Settings actual = options != null ? options : CronExpressionDescriptor.getDefaultOptions();
+        final Integer locale = validity().locales.get(actual.getLocale());
+        if (locale == null || actual.getHashKey() != null) {
+            return null;
+        }
+
+        final String canonical = canonicalize(expression, actual);
+        if (canonical == null) {
+            return null;
+        }
+
+        final byte[] key = encodeKey(canonical, locale, flags(actual));
+        final long hash = hash(key);
+        final int mask = slots - 1;
+        for (int slot = (int) hash & mask; ; slot = (slot + 1) & mask) {
+            final int position = indexStart + slot * SLOT_BYTES;
+            final long slotHash = buffer.getLong(position);
+            if (slotHash == 0) {
+                return null;
+            }
+
+            final int offset = buffer.getInt(position + 8);
+            if (slotHash == hash && keyEquals(offset, key)) {
+                final byte[] description = new byte[buffer.getInt(offset + 4 + key.length)];
+                readBytes(buffer, offset + 8 + key.length, description);
+                return new String(description, StandardCharsets.UTF_8);
+            }
+        }
+    }
+
+    /**
+     * @param offset The offset of an entry
+     * @param key    The key to compare
+     * @return True if the entry has the given key
+     */
+    private boolean keyEquals(final int offset, final byte[] key) {
+        if (buffer.getInt(offset) != key.length) {
+            return false;
+        }
+
+        for (int i = 0; i < key.length; i++) {
+            if (buffer.get(offset + 4 + i) != key[i]) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Copy the usable entries of the store
+     *
+     * @param entries The destination
+     */
+    private void copyTo(final Map<Key, String> entries) {
+        final Map<Integer, Locale> byIndex = new HashMap<>();
+        validity().locales.forEach((locale, index) -> byIndex.put(index, locale));
+        for (int slot = 0; slot < slots; slot++) {
+            final int position = indexStart + slot * SLOT_BYTES;
+            if (buffer.getLong(position) == 0) {
+                continue;
+            }
+
+            final int offset = buffer.getInt(position + 8);
+            final int keyLength = buffer.getInt(offset);
+            final Locale locale = byIndex.get((int) buffer.getShort(offset + 4));
+            if (locale == null) {
+                continue;
+            }
+
+            final byte[] expression = new byte[keyLength - 3];
+            final byte[] description = new byte[buffer.getInt(offset + 4 + keyLength)];
+            readBytes(buffer, offset + 7, expression);
+            readBytes(buffer, offset + 8 + keyLength, description);
+            entries.put(new Key(new String(expression, StandardCharsets.UTF_8), locale, buffer.get(offset + 6)),
+                        new String(description, StandardCharsets.UTF_8));
+        }
+    }
+
+    //endregion
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    //region STATIC METHODS
+
+    /**
+     * Open a store file. A missing file or a file written with another format gives an empty store.
+     *
+     * @param file The store file
+     * @return The store
+     * @throws IOException If the file cannot be read
+     */
+    public static CronDescriptionStore open(final Path file) throws IOException {
+        if (!Files.isRegularFile(file)) {
+            return new CronDescriptionStore(null);
+        }
+
+        try (final FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            final MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return new CronDescriptionStore(buffer);
+        }
+    }
+
+    /**
+     * Describe a corpus in every given locale, in parallel, and write the descriptions to a store file. Descriptions
+     * still valid in the previous file are reused and kept, expressions that cannot be described are skipped.
+     *
+     * @param file        The store file, replaced atomically
+     * @param expressions The expressions to describe
+     * @param locales     The locales to describe the expressions in
+     * @param options     The options of the descriptions, the locale and the hash key excepted (null for the default
+     *                    options)
+     * @return The new store
+     * @throws IOException If the file cannot be written
+     */
+    public static CronDescriptionStore build(final Path file, final Collection<String> expressions, final Collection<Locale> locales, final Settings options) throws IOException {
+        // Checksums taken before describing: descriptions worded with messages published meanwhile are dropped when opened
+        final Map<Locale, Long> checksums = new HashMap<>();
+        final Map<Key, String> entries = new ConcurrentHashMap<>();
+        final CronDescriptionStore previous = open(file);
+        previous.validity().locales.keySet().forEach(locale -> checksums.put(locale, Localization.getChecksum(locale)));
+        for (final Locale locale : locales) {
+            checksums.put(locale, Localization.getChecksum(locale));
+        }
+
+        previous.copyTo(entries);
+
+        final Settings base = options != null ? options : CronExpressionDescriptor.getDefaultOptions();
+        final int flags = flags(base);
+        final Map<Locale, ImmutableOptions> localized = new LinkedHashMap<>();
+        for (final Locale locale : locales) {
+            // Without a hash key, so that expressions using the H syntax are rejected rather than stored for a single job
+            localized.put(locale, base.toBuilder().locale(locale).hashKey(null).throwExceptionOnParseError(true).build());
+        }
+
+        // One expression per key (descriptions only depend on the normalized parts), invalid expressions are skipped
+        final ImmutableOptions parsing = base.toBuilder().hashKey(null).throwExceptionOnParseError(true).build();
+        final Map<String, String> canonical = new ConcurrentHashMap<>();
+        expressions.parallelStream().forEach(expression -> {
+            final String parts = canonicalize(expression, parsing);
+            if (parts != null) {
+                canonical.putIfAbsent(parts, expression);
+            }
+        });
+
+        canonical.entrySet()
+                 .parallelStream()
+                 .forEach(entry -> localized.forEach((locale, localeOptions) -> {
+                     final String expression = entry.getValue();
+                     final Key key = new Key(entry.getKey(), locale, flags);
+                     if (!entries.containsKey(key)) {
+                         try {
+                             entries.put(key, CronExpressionDescriptor.getDescription(expression, localeOptions));
+                         } catch (final RuntimeException e) {
+                             // Not a valid expression, nothing to store
+                         }
+                     }
+                 }));
+
+        write(file, entries, checksums);
+        return open(file);
+    }
+
+    /**
+     * Write a store file
+     *
+     * @param file      The store file, replaced atomically
+     * @param entries   The descriptions to write
+     * @param checksums The checksums of the localization of the locales of the descriptions
+     * @throws IOException If the file cannot be written
+     */
+    private static void write(final Path file, final Map<Key, String> entries, final Map<Locale, Long> checksums) throws IOException {
+        // Locales table
+        final Map<Locale, Integer> localeIndexes = new LinkedHashMap<>();
+        for (final Key key : entries.keySet()) {
+            localeIndexes.putIfAbsent(key.locale, localeIndexes.size());
+        }
+
+        long size = 16;
+        final List<byte[]> tags = new ArrayList<>();
+        for (final Locale locale : localeIndexes.keySet()) {
+            final byte[] tag = locale.toLanguageTag().getBytes(StandardCharsets.UTF_8);
+            tags.add(tag);
+            size += 2 + tag.length + 8;
+        }
+
+        // Index, at most half full
+        int slots = 16;
+        while (slots < entries.size() * 2) {
+            slots <<= 1;
+        }
+
+        final int indexStart = (int) size;
+        size += (long) slots * SLOT_BYTES;
+
+        // Entries
+        final List<byte[]> keys = new ArrayList<>(entries.size());
+        final List<byte[]> descriptions = new ArrayList<>(entries.size());
+        for (final Map.Entry<Key, String> entry : entries.entrySet()) {
+            final Key key = entry.getKey();
+            keys.add(encodeKey(key.expression, localeIndexes.get(key.locale), key.flags));
+            descriptions.add(entry.getValue().getBytes(StandardCharsets.UTF_8));
+            size += 8 + keys.get(keys.size() - 1).length + descriptions.get(descriptions.size() - 1).length;
+        }
+
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("The descriptions do not fit a store file (" + size + " bytes)");
+        }
+
+        final Path parent = file.toAbsolutePath().getParent();
+        final Path temporary = Files.createTempFile(parent, file.getFileName().toString(), ".tmp");
+        try {
+            try (final RandomAccessFile output = new RandomAccessFile(temporary.toFile(), "rw")) {
+                output.setLength(size);
+                final MappedByteBuffer buffer = output.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, size);
+                buffer.putInt(MAGIC).putInt(VERSION).putInt(tags.size()).putInt(slots);
+                int i = 0;
+                for (final Locale locale : localeIndexes.keySet()) {
+                    final byte[] tag = tags.get(i++);
+                    buffer.putShort((short) tag.length).put(tag).putLong(checksums.get(locale));
+                }
+
+                int offset = indexStart + slots * SLOT_BYTES;
+                for (int entry = 0; entry < keys.size(); entry++) {
+                    final byte[] key = keys.get(entry);
+                    final byte[] description = descriptions.get(entry);
+                    final long hash = hash(key);
+                    int slot = (int) hash & (slots - 1);
+                    while (buffer.getLong(indexStart + slot * SLOT_BYTES) != 0) {
+                        slot = (slot + 1) & (slots - 1);
+                    }
+
+                    buffer.putLong(indexStart + slot * SLOT_BYTES, hash).putInt(indexStart + slot * SLOT_BYTES + 8, offset);
+                    buffer.position(offset);
+                    buffer.putInt(key.length).put(key).putInt(description.length).put(description);
+                    offset = buffer.position();
+                }
+
+                buffer.force();
+            }
+
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    /**
+     * @param expression The expression
+     * @param options    The options to parse the expression with
+     * @return The normalized parts of the expression (see {@link CronExpressionParser#parse()}, with its whitespace
+     * collapsed first) joined by spaces, null if the expression is not valid
+     */
+    static String canonicalize(final String expression, final Settings options) {
+        try {
+            return String.join(" ", new CronExpressionParser(collapseWhitespace(expression), options).parse());
+        } catch (final RuntimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * @param expression The expression
+     * @return The expression with its whitespace trimmed and collapsed to single spaces
+     */
+    private static String collapseWhitespace(final String expression) {
+        final StringBuilder canonical = new StringBuilder(expression.length());
+        boolean space = false;
+        for (int i = 0; i < expression.length(); i++) {
+            final char c = expression.charAt(i);
+            if (Character.isWhitespace(c)) {
+                space = canonical.length() > 0;
+            } else {
+                if (space) {
+                    canonical.append(' ');
+                    space = false;
+                }
+
+                canonical.append(c);
+            }
+        }
+
+        return canonical.toString();
+    }
+
+    /**
+     * @param options The options
+     * @return The flags of the options changing the text of descriptions
+     */
+    private static int flags(final Settings options) {
+        return (options.isVerbose() ? VERBOSE : 0) |
+               (options.isUse24HourTimeFormat() ? USE_24_HOUR : 0) |
+               (options.isUseJavaEeScheduleExpression() ? JAVA_EE : 0);
+    }
+
+    /**
+     * @param expression The canonical expression
+     * @param locale     The index of the locale in the file
+     * @param flags      The option flags
+     * @return The key bytes: locale index (2 bytes), flags (1 byte) and the expression in UTF-8
+     */
+    private static byte[] encodeKey(final String expression, final int locale, final int flags) {
+        final byte[] text = expression.getBytes(StandardCharsets.UTF_8);
+        final byte[] key = new byte[text.length + 3];
+        key[0] = (byte) (locale >>> 8);
+        key[1] = (byte) locale;
+        key[2] = (byte) flags;
+        System.arraycopy(text, 0, key, 3, text.length);
+        return key;
+    }
+
+    /**
+     * @param key The key bytes
+     * @return The 64 bit FNV-1a hash of the key, never 0 (which marks empty slots)
+     */
+    private static long hash(final byte[] key) {
+        long hash = FNV_OFFSET;
+        for (final byte b : key) {
+            hash = (hash ^ (b & 0xFF)) * FNV_PRIME;
+        }
+
+        return hash != 0 ? hash : 1;
+    }
+
+    /**
+     * Read bytes at an absolute index, without moving the position of the buffer
+     *
+     * @param buffer      The buffer
+     * @param index       The index of the first byte
+     * @param destination The destination, filled completely
+     */
+    private static void readBytes(final ByteBuffer buffer, final int index, final byte[] destination) {
+        final ByteBuffer view = buffer.duplicate();
+        view.position(index);
+        view.get(destination);
+    }
+
+    //endregion
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+}
@@ -0,0 +1,357 @@
+package it.burning.cron;
+
+import it.burning.utils.CompressedBitmap;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.IntConsumer;
+
+import static it.burning.cron.CronExpressionParser.MIN_YEAR;
+import static it.burning.cron.CronSchedule.YEAR_COUNT;
+
+/**
+ * An inverted index of a large set of schedules, finding the ones due at a given time without evaluating them one by
+ * one.
+ * <p>
+ * For each value of each field the index keeps a {@link CompressedBitmap} of the ids of the schedules matching it (but
+ * for years, where a single bitmap holds the schedules running every year). The schedules due at a given time are the
+ * intersection of the bitmaps of its second, minute, hour, month and year, smallest first, further intersected with the
+ * ones of the day:
+ * <ul>
+ * <li>schedules restricting the day of month or the day of week alone match both (the other one matches every value)</li>
+ * <li>schedules restricting both match either of them, so they are indexed in a separate pair of bitmaps</li>
+ * <li>schedules using the L, W and # forms depend on the length of the month, so the few of them left by the other
+ * fields are evaluated with {@link CronSchedule#matchesDay(int, int, int)}</li>
+ * </ul>
+ * Schedules can be added and removed while other threads look up the index: updates take a write lock, lookups a read
+ * lock.
+ */
+public final class CronDueIndex {
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    //region FIELDS
+
+    // Schedules by id
+    private final Map<Integer, CronSchedule> schedules = new HashMap<>();
+    private final ReadWriteLock              lock      = new ReentrantReadWriteLock();
+
+    // Time fields, years apart since most schedules run every year
+    private final FieldIndex       seconds   = new FieldIndex(60);
+    private final FieldIndex       minutes   = new FieldIndex(60);
+    private final FieldIndex       hours     = new FieldIndex(24);
+    private final FieldIndex       months    = new FieldIndex(13);
+    private final FieldIndex       years     = new FieldIndex(YEAR_COUNT);
+    private final CompressedBitmap everyYear = new CompressedBitmap();
+
+    // Days of schedules restricting at most one of day of month and day of week (both must match)
+    private final FieldIndex daysOfMonth = new FieldIndex(32);
+    private final FieldIndex daysOfWeek  = new FieldIndex(7);
+
+    // Days of schedules restricting both day of month and day of week (either must match)
+    private final FieldIndex eitherDaysOfMonth = new FieldIndex(32);
+    private final FieldIndex eitherDaysOfWeek  = new FieldIndex(7);
+
+    // Schedules using the L, W or # forms
+    private final CompressedBitmap specialDays = new CompressedBitmap();
+
+    //endregion
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    //region SUBCLASSES
+
+    // The ids of the schedules matching each value of a field
+    private static final class FieldIndex {
+        private static final CompressedBitmap EMPTY = new CompressedBitmap();
+
+        private final CompressedBitmap[] values;
+        private final long               range;
+
+        FieldIndex(final int values) {
+            this.values = new CompressedBitmap[values];
+            this.range = values < 64 ? (1L << values) - 1 : -1;
+        }
+
+        void add(final int id, final long mask) {
+            // Masks of int fields may come sign extended
+            for (long bits = mask & range; bits != 0; bits &= bits - 1) {
+                addValue(id, Long.numberOfTrailingZeros(bits));
+            }
+        }
+
+        void remove(final int id, final long mask) {
+            for (long bits = mask & range; bits != 0; bits &= bits - 1) {
+                removeValue(id, Long.numberOfTrailingZeros(bits));
+            }
+        }
+
+        void addValue(final int id, final int value) {
+            if (values[value] == null) {
+                values[value] = new CompressedBitmap();
+            }
+
+            values[value].add(id);
+        }
+
+        void removeValue(final int id, final int value) {
+            values[value].remove(id);
+        }
+
+        /**
+         * @param value A value of the field
+         * @return The ids of the schedules matching the value, not to be modified
+         */
+        CompressedBitmap get(final int value) {
+            return values[value] == null ? EMPTY : values[value];
+        }
+
+        /**
+         * @param ids   A set of ids
+         * @param value A value of the field
+         * @return The ids of the set matching the value
+         */
+        CompressedBitmap filter(final CompressedBitmap ids, final int value) {
+            return ids.and(get(value));
+        }
+    }
+
+    //endregion
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    //region ACCESSORS
+
+    /**
+     * @param id The id of a schedule
+     * @return The schedule, or null if there is none with the given id
+     */
+    public CronSchedule get(final int id) {
+        lock.readLock().lock();
+        try {
+            return schedules.get(id);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return The number of schedules in the index
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return schedules.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    //endregion
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    //region METHODS
+
+    /**
+     * Adds a schedule to the index, replacing the one with the same id
+     *
+     * @param id         The id of the schedule (non negative)
+     * @param expression The expression of the schedule (parsed with the default options)
+     * @return The schedule previously indexed with the same id, or null if there was none
+     * @throws IllegalArgumentException If the id is negative
+     */
+    public CronSchedule add(final int id, final String expression) {
+        return add(id, CronSchedule.compile(expression));
+    }
+
+    /**
+     * Adds a schedule to the index, replacing the one with the same id
+     *
+     * @param id       The id of the schedule (non negative)
+     * @param schedule The schedule
+     * @return The schedule previously indexed with the same id, or null if there was none
+     * @throws IllegalArgumentException If the id is negative
+     */
+    public CronSchedule add(final int id, final CronSchedule schedule) {
+        if (id < 0) {
+            throw new IllegalArgumentException("Negative schedule id: " + id);
+        }
+
+        lock.writeLock().lock();
+        try {
+            final CronSchedule previous = schedules.put(id, schedule);
+            if (previous != null) {
+                unindex(id, previous);
+            }
+
+            index(id, schedule);
+            return previous;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes a schedule from the index
+     *
+     * @param id The id of the schedule
+     * @return True if the schedule was in the index
+     */
+    public boolean remove(final int id) {
+        lock.writeLock().lock();
+        try {
+            final CronSchedule removed = schedules.remove(id);
+            if (removed != null) {
+                unindex(id, removed);
+            }
+
+            return removed != null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Finds the schedules firing at a given (wall clock) time
+     *
+     * @param time The time, fractions of a second are ignored
+     * @return The ids of the schedules firing at the given time
+     */
+    public CompressedBitmap dueAt(final LocalDateTime time) {
+        final int dayOfMonth = time.getDayOfMonth();
+        final int dayOfWeek = time.getDayOfWeek().getValue() % 7;
+        final int monthLength = time.toLocalDate().lengthOfMonth();
+        final int year = time.getYear() - MIN_YEAR;
+        if (year < 0 || year >= YEAR_COUNT) {
+            return new CompressedBitmap();
+        }
+
+        lock.readLock().lock();
+        try {
+            // Time fields first, starting from the one matching the fewest schedules so that the sets shrink quickly
+            final CompressedBitmap[] fields = {seconds.get(time.getSecond()), minutes.get(time.getMinute()), hours.get(time.getHour()),
+                                               months.get(time.getMonthValue())};
+            Arrays.sort(fields, Comparator.comparingInt(CompressedBitmap::getCardinality));
+            CompressedBitmap due = fields[0].and(fields[1]).and(fields[2]).and(fields[3]);
+            due = due.and(everyYear).or(years.filter(due, year));
+            if (due.isEmpty()) {
+                return due;
+            }
+
+            // Then the day
+            final CompressedBitmap both = daysOfWeek.filter(daysOfMonth.filter(due, dayOfMonth), dayOfWeek);
+            final CompressedBitmap either = eitherDaysOfMonth.filter(due, dayOfMonth).or(eitherDaysOfWeek.filter(due, dayOfWeek));
+            final CompressedBitmap special = due.and(specialDays);
+            final CompressedBitmap result = both.or(either);
+            special.forEach(id -> {
+                if (schedules.get(id).matchesDay(dayOfMonth, dayOfWeek, monthLength)) {
+                    result.add(id);
+                }
+            });
+
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Adds a schedule to the bitmaps of the fields
+     *
+     * @param id       The id of the schedule
+     * @param schedule The schedule
+     */
+    private void index(final int id, final CronSchedule schedule) {
+        seconds.add(id, schedule.getSeconds());
+        minutes.add(id, schedule.getMinutes());
+        hours.add(id, schedule.getHours());
+        months.add(id, schedule.getMonths());
+
+        final long[] yearMask = schedule.getYears();
+        if (isEveryYear(yearMask)) {
+            everyYear.add(id);
+        } else {
+            forEachYear(yearMask, year -> years.addValue(id, year));
+        }
+
+        if (schedule.hasSpecialDayRule()) {
+            specialDays.add(id);
+        } else if (schedule.isDayOfMonthRestricted() && schedule.isDayOfWeekRestricted()) {
+            eitherDaysOfMonth.add(id, schedule.getDaysOfMonth());
+            eitherDaysOfWeek.add(id, schedule.getDaysOfWeek());
+        } else {
+            daysOfMonth.add(id, schedule.getDaysOfMonth());
+            daysOfWeek.add(id, schedule.getDaysOfWeek());
+        }
+    }
+
+    /**
+     * Removes a schedule from the bitmaps of the fields
+     *
+     * @param id       The id of the schedule
+     * @param schedule The schedule, as it was indexed
+     */
+    private void unindex(final int id, final CronSchedule schedule) {
+        seconds.remove(id, schedule.getSeconds());
+        minutes.remove(id, schedule.getMinutes());
+        hours.remove(id, schedule.getHours());
+        months.remove(id, schedule.getMonths());
+
+        final long[] yearMask = schedule.getYears();
+        if (isEveryYear(yearMask)) {
+            everyYear.remove(id);
+        } else {
+            forEachYear(yearMask, year -> years.removeValue(id, year));
+        }
+
+        if (schedule.hasSpecialDayRule()) {
+            specialDays.remove(id);
+        } else if (schedule.isDayOfMonthRestricted() && schedule.isDayOfWeekRestricted()) {
+            eitherDaysOfMonth.remove(id, schedule.getDaysOfMonth());
+            eitherDaysOfWeek.remove(id, schedule.getDaysOfWeek());
+        } else {
+            daysOfMonth.remove(id, schedule.getDaysOfMonth());
+            daysOfWeek.remove(id, schedule.getDaysOfWeek());
+        }
+    }
+
+    //endregion
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    //region STATIC METHODS
+
+    /**
+     * @param years A years mask
+     * @return True if the mask has every year
+     */
+    private static boolean isEveryYear(final long[] years) {
+        int count = 0;
+        for (final long word : years) {
+            count += Long.bitCount(word);
+        }
+
+        return count == YEAR_COUNT;
+    }
+
+    /**
+     * Calls an action for each year of a mask
+     *
+     * @param years  A years mask
+     * @param action The action, given the bit of the year (its offset from {@code MIN_YEAR})
+     */
+    private static void forEachYear(final long[] years, final IntConsumer action) {
+        for (int word = 0; word < years.length; word++) {
+            for (long bits = years[word]; bits != 0; bits &= bits - 1) {
+                action.accept((word << 6) + Long.numberOfTrailingZeros(bits));
+            }
+        }
+    }
+
+    //endregion
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+}
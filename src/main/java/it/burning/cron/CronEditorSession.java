@@ -0,0 +1,365 @@
+package it.burning.cron;
+
+import it.burning.cron.CronExpressionParser.CronExpressionParseException;
+import it.burning.cron.CronExpressionParser.CronExpressionPart;
+import it.burning.cron.CronExpressionParser.ImmutableOptions;
+import it.burning.cron.CronExpressionParser.Settings;
+import it.burning.cron.CronExpressionScanner.Fields;
+import it.burning.utils.Localization;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static it.burning.cron.CronExpressionParser.CronExpressionPart.*;
+
+/**
+ * Validates and describes the expression of an editor as it is being typed (i.e. on every keystroke).
+ * <p>
+ * The session remembers each part of the last expression along with its validation result and its normalized form, so
+ * that an update only parses the parts that changed, and only describes again the segments (time of day, day of month,
+ * month, day of week and year) depending on them. Expressions are read the same way as {@link CronExpressionScanner}
+ * does and described the same way as {@link CronExpressionDescriptor} does.
+ * <p>
+ * Instead of failing on the first error, an update reports every invalid part along with its position within the
+ * expression, so that it can be underlined.
+ * <p>
+ * Sessions keep the state of a single editor and are not thread safe.
+ */
+public final class CronEditorSession {
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    //region FIELDS
+
+    // Constants
+    private static final CronExpressionPart[] PART_VALUES = CronExpressionPart.values();
+    private static final int                  PARTS       = YEAR.ordinal() + 1;
+
+    // Config
+    private final ImmutableOptions      options;
+    private final CronExpressionScanner scanner;
+
+    // Parts (by CronExpressionPart ordinal), as of the last update
+    private final Fields                         fields = new Fields();
+    private final String[]                       tokens = new String[PARTS];
+    private final String[]                       parts  = new String[PARTS];
+    private final CronExpressionParseException[] failed = new CronExpressionParseException[PARTS];
+    private       CronExpressionParser           parser;
+    private       int                            partsCount;
+    private       int                            parsedPartsCount;
+
+    // Segments, along with the normalized parts they were described from, the descriptor of the session and the version of
+    // the localization used
+    private final String[]                 described = new String[PARTS];
+    private       CronExpressionDescriptor descriptor;
+    private       long                     localizationVersion;
+    private       String                   timeOfDay;
+    private       String                   dayOfMonth;
+    private       String                   dayOfWeek;
+    private       String                   month;
+    private       String                   year;
+
+    // Result of the last update
+    private final List<ParseError> errors = new ArrayList<>();
+    private       String           description;
+
+    //endregion
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    //region SUBCLASSES
+
+    // An error along with the characters of the expression it is about
+    public static final class ParseError {
+        private final int                start;
+        private final int                end;
+        private final CronExpressionPart part;
+        private final String             message;
+
+        /**
+         * @return The index of the first character the error is about
+         */
+        public int getStart() {
+            return start;
+        }
+
+        /**
+         * @return The index after the last character the error is about (the same as the start for missing parts)
+         */
+        public int getEnd() {
+            return end;
+        }
+
+        public CronExpressionPart getPart() {
+            return part;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+
+        @Override
+        public String toString() {
+            return "[" + start + ", " + end + ") " + part + ": " + message;
+        }
+
+        /**
+         * Constructor
+         *
+         * @param start   The index of the first character the error is about
+         * @param end     The index after the last character the error is about
+         * @param part    The part of the expression
+         * @param message The localized message
+         */
+        ParseError(final int start, final int end, final CronExpressionPart part, final String message) {
+            this.start = start;
+            this.end = end;
+            this.part = part;
+            this.message = message;
+        }
+    }
+
+    //endregion
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    //region ACCESSORS
+
+    /**
+     * @return True if the last update found no errors
+     */
+    public boolean isValid() {
+        return errors.isEmpty();
+    }
+
+    /**
+     * @return The errors found by the last update, ordered by part (empty if the expression is valid)
+     */
+    public List<ParseError> getErrors() {
+        return Collections.unmodifiableList(errors);
+    }
+
+    /**
+     * @return The description of the expression of the last update, null if it is not valid
+     */
+    public String getDescription() {
+        return description;
+    }
+
+    /**
+     * @return The number of parts the last update had to parse again
+     */
+    int getParsedPartsCount() {
+        return parsedPartsCount;
+    }
+
+    //endregion
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    //region CONSTRUCTORS
+
+    /**
+     * Constructor (Init with default options)
+     */
+    public CronEditorSession() {
+        this(null);
+    }
+
+    /**
+     * Constructor
+     *
+     * @param options The options to use when parsing and describing expressions (null for defaults)
+     */
+    public CronEditorSession(final Settings options) {
+        this.options = options != null ? options.snapshot() : CronExpressionDescriptor.getDefaultOptions();
+        this.scanner = new CronExpressionScanner(this.options);
+    }
+
+    //endregion
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    //region METHODS
+
+    /**
+     * Validates and describes the current content of the editor
+     *
+     * @param text The expression
+     * @return True if the expression is valid (see {@link #getDescription()} and {@link #getErrors()})
+     */
+    public boolean update(final CharSequence text) {
+        errors.clear();
+        description = null;
+        parsedPartsCount = 0;
+
+        // Error messages and segments are worded again once custom messages are published (see Localization#publish())
+        final long version = Localization.getVersion();
+        if (version != localizationVersion) {
+            localizationVersion = version;
+            partsCount = 0;
+            Arrays.fill(described, null);
+        }
+
+        // Split the parts, an expression with the wrong number of parts is underlined as a whole
+        try {
+            scanner.split(text, 0, text.length(), fields);
+        } catch (final CronExpressionParseException e) {
+            addPartsCountError(text, e);
+            return false;
+        }
+
+        // Days of week and their normalization depend on the number of parts, so every part is parsed again when it changes
+        if (fields.getPartsCount() != partsCount) {
+            partsCount = fields.getPartsCount();
+            parser = new CronExpressionParser(options, partsCount);
+            Arrays.fill(tokens, null);
+        }
+
+        // Parse the parts that changed
+        for (int i = 0; i < PARTS; i++) {
+            final CronExpressionPart part = PART_VALUES[i];
+            final int start = fields.getStart(part);
+            final int end = fields.getEnd(part);
+            if (tokens[i] == null || !matches(tokens[i], text, start, end)) {
+                tokens[i] = start >= 0 ? text.subSequence(start, end).toString() : "";
+                parsedPartsCount++;
+                try {
+                    scanner.parsePart(text, part, fields);
+                    parts[i] = parser.normalizePart(i, tokens[i]);
+                    failed[i] = null;
+                } catch (final CronExpressionParseException e) {
+                    parts[i] = null;
+                    failed[i] = e;
+                }
+            }
+
+            if (failed[i] != null) {
+                errors.add(new ParseError(Math.max(start, 0), Math.max(end, 0), part, failed[i].getMessage()));
+            }
+        }
+
+        // Quartz requires one of the day fields to be unrestricted, both are underlined otherwise
+        if (partsCount > 5 && failed[DOM.ordinal()] == null && failed[DOW.ordinal()] == null && fields.isDayOfMonthRestricted() && fields.isDayOfWeekRestricted()) {
+            final String message = parser.getString("InvalidDomDowExpression");
+            errors.add(new ParseError(fields.getStart(DOM), fields.getEnd(DOM), DOM, message));
+            errors.add(new ParseError(fields.getStart(DOW), fields.getEnd(DOW), DOW, message));
+        }
+
+        if (!errors.isEmpty()) {
+            return false;
+        }
+
+        describe(text);
+        return errors.isEmpty();
+    }
+
+    /**
+     * Describes the valid parts of the last update, only describing again the segments whose parts changed
+     */
+    private void describe(final CharSequence text) {
+        final String hours = CronExpressionParser.normalizeHours(parts[0], parts[1], parts[2]);
+        final boolean timeChanged = !parts[0].equals(described[0]) || !parts[1].equals(described[1]) || !hours.equals(described[2]);
+        final boolean dayOfMonthChanged = !parts[3].equals(described[3]);
+        final boolean monthChanged = !parts[4].equals(described[4]);
+        final boolean dayOfWeekChanged = !parts[5].equals(described[5]);
+        final boolean yearChanged = !parts[6].equals(described[6]);
+        System.arraycopy(parts, 0, described, 0, PARTS);
+        described[2] = hours;
+
+        if (descriptor == null) {
+            descriptor = new CronExpressionDescriptor(text.toString(), described, options);
+        } else {
+            descriptor.setParts(text.toString(), described);
+        }
+
+        try {
+            if (timeChanged) {
+                timeOfDay = descriptor.GetTimeOfDayDescription();
+            }
+
+            if (dayOfMonthChanged) {
+                dayOfMonth = descriptor.GetDayOfMonthDescription();
+            }
+
+            if (monthChanged) {
+                month = descriptor.GetMonthDescription();
+            }
+
+            if (dayOfWeekChanged) {
+                dayOfWeek = descriptor.GetDayOfWeekDescription();
+            }
+
+            if (yearChanged) {
+                year = descriptor.GetYearDescription();
+            }
+
+            description = CronExpressionDescriptor.capitalize(descriptor.joinSegments(timeOfDay, dayOfMonth, dayOfWeek, month, year));
+        } catch (final RuntimeException e) {
+            // Describe everything again next time
+            Arrays.fill(described, null);
+            errors.add(new ParseError(fields.getStart(firstPart()), text.length(), ALL, descriptor.getString("AnErrorOccuredWhenGeneratingTheExpressionD")));
+        }
+    }
+
+    /**
+     * Reports an expression with less than 5 or more than 7 parts, underlining the whole expression (only the extra parts
+     * if there are too many)
+     */
+    private void addPartsCountError(final CharSequence text, final CronExpressionParseException e) {
+        int start = 0;
+        while (start < text.length() && Character.isWhitespace(text.charAt(start))) {
+            start++;
+        }
+
+        int end = text.length();
+        while (end > start && Character.isWhitespace(text.charAt(end - 1))) {
+            end--;
+        }
+
+        if (fields.getPartsCount() > PARTS) {
+            start = fields.getEnd(YEAR);
+            while (Character.isWhitespace(text.charAt(start))) {
+                start++;
+            }
+        }
+
+        errors.add(new ParseError(start, end, ALL, e.getMessage()));
+        partsCount = 0;
+    }
+
+    /**
+     * @return The first part of the expression of the last update
+     */
+    private CronExpressionPart firstPart() {
+        return fields.hasPart(SEC) ? SEC : MIN;
+    }
+
+    //endregion
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    //region STATIC METHODS
+
+    /**
+     * @return True if a slice of a text (a missing part if the start is negative) is the same as a token
+     */
+    private static boolean matches(final String token, final CharSequence text, final int start, final int end) {
+        if (start < 0) {
+            return token.isEmpty();
+        } else if (token.length() != end - start) {
+            return false;
+        }
+
+        for (int i = 0; i < token.length(); i++) {
+            if (token.charAt(i) != text.charAt(start + i)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    //endregion
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+}
@@ -0,0 +1,258 @@
+package it.burning.cron;
+
+import it.burning.cron.CronExpressionParser.Settings;
+
+import java.time.LocalDate;
+import java.util.*;
+
+import static it.burning.cron.CronExpressionParser.MIN_YEAR;
+
+/**
+ * Semantic comparisons between cron expressions.
+ * <p>
+ * Expressions are compared through their normalized per-field value sets ({@link CronSchedule}) rather than by sampling
+ * their fire times, so the different day of week numbering used by 5 part (Sunday is 0) and Quartz (Sunday is 1)
+ * expressions, names against numbers, '?' against '*' and lists against ranges or steps do not matter.
+ * <p>
+ * A schedule fires on every combination of its matching days, hours, minutes and seconds, so one schedule includes
+ * another when each of its time fields includes the other's and it fires on every day the other one does. Days are
+ * compared field by field when possible, otherwise (i.e. when comparing a day of month against a day of week rule, or
+ * the special forms L, W and #) every day of the years in which the included schedule fires is checked.
+ */
+public final class CronEquivalence {
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    //region CONSTRUCTORS
+
+    /**
+     * Private constructor (static methods only)
+     */
+    private CronEquivalence() {
+
+    }
+
+    //endregion
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    //region STATIC METHODS
+
+    /**
+     * Checks whether two expressions always fire at the same time, using the default options
+     *
+     * @param a The first expression
+     * @param b The second expression
+     * @return True if the expressions are equivalent
+     */
+    public static boolean equivalent(final String a, final String b) {
+        return equivalent(a, b, null);
+    }
+
+    /**
+     * Checks whether two expressions always fire at the same time
+     *
+     * @param a       The first expression
+     * @param b       The second expression
+     * @param options Parsing options (null for defaults)
+     * @return True if the expressions are equivalent
+     */
+    public static boolean equivalent(final String a, final String b, final Settings options) {
+        return equivalent(CronSchedule.compile(a, options), CronSchedule.compile(b, options));
+    }
+
+    /**
+     * Checks whether two schedules always fire at the same time
+     *
+     * @param a The first schedule
+     * @param b The second schedule
+     * @return True if the schedules are equivalent
+     */
+    public static boolean equivalent(final CronSchedule a, final CronSchedule b) {
+        return a.equals(b) || (subsumes(a, b) && subsumes(b, a));
+    }
+
+    /**
+     * Checks whether the first expression fires every time the second one does, using the default options
+     *
+     * @param a The including expression
+     * @param b The included expression
+     * @return True if every firing of b is also a firing of a
+     */
+    public static boolean subsumes(final String a, final String b) {
+        return subsumes(a, b, null);
+    }
+
+    /**
+     * Checks whether the first expression fires every time the second one does
+     *
+     * @param a       The including expression
+     * @param b       The included expression
+     * @param options Parsing options (null for defaults)
+     * @return True if every firing of b is also a firing of a
+     */
+    public static boolean subsumes(final String a, final String b, final Settings options) {
+        return subsumes(CronSchedule.compile(a, options), CronSchedule.compile(b, options));
+    }
+
+    /**
+     * Checks whether the first schedule fires every time the second one does
+     *
+     * @param a The including schedule
+     * @param b The included schedule
+     * @return True if every firing of b is also a firing of a
+     */
+    public static boolean subsumes(final CronSchedule a, final CronSchedule b) {
+        // Time of day fields
+        if (!includes(a.getSeconds(), b.getSeconds()) || !includes(a.getMinutes(), b.getMinutes()) || !includes(a.getHours(), b.getHours())) {
+            return false;
+        }
+
+        // Days: compare the fields when they are enough to prove the inclusion, otherwise check every day
+        return includesDaysByField(a, b) || includesDaysByCalendar(a, b);
+    }
+
+    /**
+     * Groups a corpus of expressions into classes of equivalent expressions, using the default options
+     *
+     * @param expressions The expressions to group
+     * @return The indexes of the expressions within each class, classes sorted by their first expression
+     */
+    public static List<List<Integer>> group(final List<String> expressions) {
+        return group(expressions, null);
+    }
+
+    /**
+     * Groups a corpus of expressions into classes of equivalent expressions.
+     * <p>
+     * Expressions are grouped by hashing their normalized field value sets, in linear time. Expressions matching the same
+     * days through different rules (i.e. "L" against "31" for months having 31 days only) are kept in separate classes,
+     * use {@link #equivalent(CronSchedule, CronSchedule)} to compare them.
+     *
+     * @param expressions The expressions to group
+     * @param options     Parsing options (null for defaults)
+     * @return The indexes of the expressions within each class, classes sorted by their first expression
+     */
+    public static List<List<Integer>> group(final List<String> expressions, final Settings options) {
+        final Map<String, CronSchedule> compiled = new HashMap<>();
+        final Map<CronSchedule, List<Integer>> classes = new LinkedHashMap<>();
+        for (int i = 0; i < expressions.size(); i++) {
+            final String expression = expressions.get(i);
+            CronSchedule schedule = compiled.get(expression);
+            if (schedule == null) {
+                schedule = CronSchedule.compile(expression, options);
+                compiled.put(expression, schedule);
+            }
+
+            classes.computeIfAbsent(schedule, key -> new ArrayList<>()).add(i);
+        }
+
+        return new ArrayList<>(classes.values());
+    }
+
+    /**
+     * @param including The including mask
+     * @param included  The included mask
+     * @return True if every bit of the included mask is also set in the including one
+     */
+    private static boolean includes(final long including, final long included) {
+        return (included & ~including) == 0;
+    }
+
+    /**
+     * Compares the day related fields of two schedules. This is only a sufficient condition: false is returned whenever
+     * the fields alone cannot prove the inclusion.
+     *
+     * @param a The including schedule
+     * @param b The included schedule
+     * @return True if the fields prove that b only fires on days when a does
+     */
+    private static boolean includesDaysByField(final CronSchedule a, final CronSchedule b) {
+        if (!includes(a.getMonths(), b.getMonths())) {
+            return false;
+        }
+
+        final long[] aYears = a.getYears();
+        final long[] bYears = b.getYears();
+        for (int i = 0; i < aYears.length; i++) {
+            if (!includes(aYears[i], bYears[i])) {
+                return false;
+            }
+        }
+
+        // Every day
+        if (!a.isDayOfMonthRestricted() && !a.isDayOfWeekRestricted()) {
+            return true;
+        }
+
+        if (!b.isDayOfMonthRestricted() && !b.isDayOfWeekRestricted()) {
+            return false;
+        }
+
+        // Special forms can only be compared to themselves
+        if (a.hasSpecialDayRule() || b.hasSpecialDayRule()) {
+            return sameDayRules(a, b);
+        }
+
+        final boolean domIncluded = includes(a.getDaysOfMonth(), b.getDaysOfMonth());
+        final boolean dowIncluded = includes(a.getDaysOfWeek(), b.getDaysOfWeek());
+        if (a.isDayOfMonthRestricted() && a.isDayOfWeekRestricted()) {
+            // Either field of a matches, so each restricted field of b must be included in the same field of a
+            return (!b.isDayOfMonthRestricted() || domIncluded) && (!b.isDayOfWeekRestricted() || dowIncluded);
+        } else if (a.isDayOfMonthRestricted()) {
+            return b.isDayOfMonthRestricted() && !b.isDayOfWeekRestricted() && domIncluded;
+        }
+
+        return b.isDayOfWeekRestricted() && !b.isDayOfMonthRestricted() && dowIncluded;
+    }
+
+    /**
+     * @param a The first schedule
+     * @param b The second schedule
+     * @return True if both schedules use exactly the same day rules
+     */
+    private static boolean sameDayRules(final CronSchedule a, final CronSchedule b) {
+        return a.isDayOfMonthRestricted() == b.isDayOfMonthRestricted() &&
+               a.isDayOfWeekRestricted() == b.isDayOfWeekRestricted() &&
+               a.getDaysOfMonth() == b.getDaysOfMonth() &&
+               a.getDaysOfWeek() == b.getDaysOfWeek() &&
+               a.getLastDayOffset() == b.getLastDayOffset() &&
+               a.isLastWeekday() == b.isLastWeekday() &&
+               a.getNearestWeekday() == b.getNearestWeekday() &&
+               a.getLastDayOfWeek() == b.getLastDayOfWeek() &&
+               a.getNthDayOfWeek() == b.getNthDayOfWeek() &&
+               a.getNthOccurrence() == b.getNthOccurrence();
+    }
+
+    /**
+     * Checks every day on which the included schedule fires
+     *
+     * @param a The including schedule
+     * @param b The included schedule
+     * @return True if a fires on every day b does
+     */
+    private static boolean includesDaysByCalendar(final CronSchedule a, final CronSchedule b) {
+        final long[] years = b.getYears();
+        for (int word = 0; word < years.length; word++) {
+            for (long bits = years[word]; bits != 0; bits &= bits - 1) {
+                final int year = MIN_YEAR + (word << 6) + Long.numberOfTrailingZeros(bits);
+                for (int months = b.getMonths(); months != 0; months &= months - 1) {
+                    final int month = Integer.numberOfTrailingZeros(months);
+                    final LocalDate first = LocalDate.of(year, month, 1);
+                    final int length = first.lengthOfMonth();
+                    final int firstDayOfWeek = first.getDayOfWeek().getValue() % 7;
+                    final boolean monthIncluded = (a.getMonths() & (1 << month)) != 0 && a.hasYear(year);
+                    for (int day = 1; day <= length; day++) {
+                        final int dayOfWeek = (firstDayOfWeek + day - 1) % 7;
+                        if (b.matchesDay(day, dayOfWeek, length) && (!monthIncluded || !a.matchesDay(day, dayOfWeek, length))) {
+                            return false;
+                        }
+                    }
+                }
+            }
+        }
+
+        return true;
+    }
+
+    //endregion
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+}
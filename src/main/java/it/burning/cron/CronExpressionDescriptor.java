@@ -1,12 +1,19 @@
 package it.burning.cron;
 
 import it.burning.cron.CronExpressionParser.Day;
+import it.burning.cron.CronExpressionParser.ImmutableOptions;
 import it.burning.cron.CronExpressionParser.Month;
 import it.burning.cron.CronExpressionParser.Options;
+import it.burning.cron.CronExpressionParser.Settings;
+import it.burning.utils.Localization;
+import it.burning.utils.Numbers;
 import it.burning.utils.RxReplace;
-import it.burning.utils.UTF8Control;
 
-import java.util.Calendar;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 import java.util.Locale;
 import java.util.MissingResourceException;
 import java.util.ResourceBundle;
@@ -19,25 +26,32 @@ public class CronExpressionDescriptor {
     ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
     //region FIELDS
 
-    // Functional implementations
+    // Functional implementations (of the deprecated getSegmentDescription(), visible to the subclasses calling it)
     @FunctionalInterface
-    private interface GetDescription {
+    protected interface GetDescription {
         String getFor(String description);
     }
 
     // Constants
-    private static final Options DEFAULT_OPTIONS     = new Options();
-    private static final String  EMPTY_STRING        = "";
-    private static final String  LOCALIZATION_BUNDLE = "localization";
-
-    // Patterns
-    private final Pattern   specialCharactersSearchPattern       = Pattern.compile("[/\\-,*]");
-    private final Pattern   lastDayOffsetPattern                 = Pattern.compile("L-(\\d{1,2})");
-    private final Pattern   weekDayNumberMatches                 = Pattern.compile("(\\d{1,2}W)|(W\\d{1,2})");
-    private final Pattern   yearPattern                          = Pattern.compile("(\\d{4})");
-    private final Pattern   segmentRangesOrMultipleSearchPattern = Pattern.compile("[/\\-,]");
-    private final Pattern   segmentAnyOrMultipleSearchPattern    = Pattern.compile("[*,]");
-    private final RxReplace stripTrailingChars                   = new RxReplace("[\\,\\s]*$") {
+    private static final String EMPTY_STRING = "";
+
+    // Resource names of the days of week (from Sunday), of the months (from January) and of the occurrences of a day of week in a month
+    private static final String[] DAY_NAMES   = Arrays.stream(Day.values()).map(Enum::name).toArray(String[]::new);
+    private static final String[] MONTH_NAMES = Arrays.stream(Month.values()).map(Enum::name).toArray(String[]::new);
+    private static final String[] OCCURRENCES = {"First", "Second", "Third", "Fourth", "Fifth"};
+
+    // Resource names of the fields (by part index) and of the phrases of the descriptions of the H syntax
+    private static final String[] HASH_FIELDS  = {"HashFieldSecond", "HashFieldMinute", "HashFieldHour", "HashFieldDayOfMonth", "HashFieldMonth", "HashFieldDayOfWeek", "HashFieldYear"};
+    private static final String[] HASH_PHRASES = {"AtAStableX0", "ComaOnAStableX0", "ComaInAStableX0", "ComaAtAStableOffset"};
+
+    // Default options: immutable, replaced as a whole (copy on write) so that readers never see a partial update
+    private static volatile ImmutableOptions defaultOptions = new Options().snapshot();
+
+    // Patterns (immutable and thread safe, shared by every descriptor)
+    private static final Pattern   lastDayOffsetPattern = Pattern.compile("L-(\\d{1,2})");
+    private static final Pattern   weekDayNumberMatches = Pattern.compile("(\\d{1,2}W)|(W\\d{1,2})");
+    private static final Pattern   trailingCharsPattern = Pattern.compile("[\\,\\s]*$");
+    private final        RxReplace stripTrailingChars   = new RxReplace(trailingCharsPattern) {
         @Override
         public String replacement() {
             // Strip all matches
@@ -63,17 +77,476 @@ public class CronExpressionDescriptor {
     private String[]       expressionParts;
     private Locale         locale;
     private ResourceBundle localization;
+    private long           localizationVersion;
     private boolean        parsed;
-    private Options        options;
+    private Settings       options;
     private boolean        use24HourTimeFormat;
 
+    // H parts of the expression (by part index, see CronExpressionParser#resolveHash()), described as such when symbolic,
+    // and whether H is accepted without a hash key (symbolic descriptions only) when describing and when last parsed
+    private String[]       hashTokens;
+    private String[]       hashRanges;
+    private boolean        symbolic;
+    private boolean        keyless;
+    private boolean        parsedKeyless;
+
+    // Tokens of the parts (by part index), see #tokens()
+    private final Tokens[] partTokens = new Tokens[7];
+
+    //endregion
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    //region SUBCLASSES
+
+    /**
+     * How the values of a part are described, given the part (or the slice of it) each form is about: by the resources of
+     * the part (see {@link Segment}), or by the functional implementations of the deprecated
+     * {@link #getSegmentDescription(String, String, GetDescription, GetDescription, GetDescription, GetDescription, GetDescription)}
+     */
+    private interface Forms {
+        /**
+         * @return The description of every value
+         */
+        String getAllDescription(CronExpressionDescriptor descriptor);
+
+        /**
+         * @return The description of a single value
+         */
+        String describeValue(CronExpressionDescriptor descriptor, String value);
+
+        /**
+         * @return The description of the last value of a range
+         */
+        String describeLastValue(CronExpressionDescriptor descriptor, String value);
+
+        /**
+         * @return The description of the step of an interval
+         */
+        String describeStep(CronExpressionDescriptor descriptor, String step);
+
+        /**
+         * @return The format of a single value, or of a list of values (the whole part)
+         */
+        String getFormat(CronExpressionDescriptor descriptor, String value);
+
+        /**
+         * @return The format of an interval
+         */
+        String getIntervalFormat(CronExpressionDescriptor descriptor, String step);
+
+        /**
+         * @return The format of a range, or of the range of an interval (from start to end of the part)
+         */
+        String getBetweenFormat(CronExpressionDescriptor descriptor, String expression, int start, int end);
+
+        /**
+         * @return The format of a range within a list (from start to end of the part)
+         */
+        String getRangeFormat(CronExpressionDescriptor descriptor, String expression, int start, int end);
+    }
+
+    /**
+     * The forms of a part given by functional implementations, as the deprecated
+     * {@link #getSegmentDescription(String, String, GetDescription, GetDescription, GetDescription, GetDescription, GetDescription)}
+     * takes them
+     */
+    private static final class FunctionalForms implements Forms {
+        private final String         allDescription;
+        private final GetDescription getSingleItemDescription;
+        private final GetDescription getIntervalDescriptionFormat;
+        private final GetDescription getBetweenDescriptionFormat;
+        private final GetDescription getDescriptionFormat;
+        private final GetDescription getRangeFormat;
+
+        /**
+         * Constructor
+         *
+         * @param allDescription               The complete description
+         * @param getSingleItemDescription     Functional implementation
+         * @param getIntervalDescriptionFormat Functional implementation
+         * @param getBetweenDescriptionFormat  Functional implementation
+         * @param getDescriptionFormat         Functional implementation
+         * @param getRangeFormat               Functional implementation that formats range expressions depending on cron parts
+         */
+        FunctionalForms(final String allDescription, final GetDescription getSingleItemDescription, final GetDescription getIntervalDescriptionFormat,
+                        final GetDescription getBetweenDescriptionFormat, final GetDescription getDescriptionFormat, final GetDescription getRangeFormat) {
+            this.allDescription = allDescription;
+            this.getSingleItemDescription = getSingleItemDescription;
+            this.getIntervalDescriptionFormat = getIntervalDescriptionFormat;
+            this.getBetweenDescriptionFormat = getBetweenDescriptionFormat;
+            this.getDescriptionFormat = getDescriptionFormat;
+            this.getRangeFormat = getRangeFormat;
+        }
+
+        @Override
+        public String getAllDescription(final CronExpressionDescriptor descriptor) {
+            return allDescription;
+        }
+
+        @Override
+        public String describeValue(final CronExpressionDescriptor descriptor, final String value) {
+            return getSingleItemDescription.getFor(value);
+        }
+
+        @Override
+        public String describeLastValue(final CronExpressionDescriptor descriptor, final String value) {
+            // Up to the end of the hour, for times
+            return getSingleItemDescription.getFor(value).replace(":00", ":59");
+        }
+
+        @Override
+        public String describeStep(final CronExpressionDescriptor descriptor, final String step) {
+            return getSingleItemDescription.getFor(step);
+        }
+
+        @Override
+        public String getFormat(final CronExpressionDescriptor descriptor, final String value) {
+            return getDescriptionFormat.getFor(value);
+        }
+
+        @Override
+        public String getIntervalFormat(final CronExpressionDescriptor descriptor, final String step) {
+            return getIntervalDescriptionFormat.getFor(step);
+        }
+
+        @Override
+        public String getBetweenFormat(final CronExpressionDescriptor descriptor, final String expression, final int start, final int end) {
+            return getBetweenDescriptionFormat.getFor(expression.substring(start, end));
+        }
+
+        @Override
+        public String getRangeFormat(final CronExpressionDescriptor descriptor, final String expression, final int start, final int end) {
+            return getRangeFormat.getFor(expression.substring(start, end));
+        }
+    }
+
+    /**
+     * How the values of each part are described: the resources of the forms a part can take and the resource names of
+     * its values (day and month names). The few rules that are more than a resource are overridden by the part.
+     */
+    private enum Segment implements Forms {
+        //              every value     single value or list        interval                    range                              range within a list          names        first
+        SECONDS(     0, "EverySecond",  "AtX0SecondsPastTheMinute", "EveryX0Seconds",           "SecondsX0ThroughX1PastTheMinute", "ComaMinX0ThroughMinX1",     null,        0) {
+            @Override
+            public String getFormat(final CronExpressionDescriptor descriptor, final String value) {
+                return getPastFormat(descriptor, value, value.equals("0"), "AtX0SecondsPastTheMinuteGt20");
+            }
+        },
+        MINUTES(     1, "EveryMinute",  "AtX0MinutesPastTheHour",   "EveryX0Minutes",           "MinutesX0ThroughX1PastTheHour",   "ComaMinX0ThroughMinX1",     null,        0) {
+            @Override
+            public String getFormat(final CronExpressionDescriptor descriptor, final String value) {
+                return getPastFormat(descriptor, value, value.equals("0") && descriptor.expressionParts[0].isEmpty(), "AtX0MinutesPastTheHourGt20");
+            }
+        },
+        HOURS(       2, "EveryHour",    "AtX0",                     "EveryX0Hours",             "BetweenX0AndX1",                  "ComaMinX0ThroughMinX1",     null,        0) {
+            @Override
+            public String describeValue(final CronExpressionDescriptor descriptor, final String value) {
+                return descriptor.formatTime(value, "0");
+            }
+
+            @Override
+            public String describeLastValue(final CronExpressionDescriptor descriptor, final String value) {
+                // Up to the end of the hour
+                return descriptor.formatTime(value, "59");
+            }
+        },
+        DAY_OF_MONTH(3, "ComaEveryDay", "ComaOnDayX0OfTheMonth",    "ComaEveryX0Days",          "ComaBetweenDayX0AndX1OfTheMonth", "ComaX0ThroughX1",           null,        0) {
+            @Override
+            public String getIntervalFormat(final CronExpressionDescriptor descriptor, final String step) {
+                return step.equals("1") ? descriptor.getString("ComaEveryDay") : super.getIntervalFormat(descriptor, step);
+            }
+        },
+        MONTH(       4, null,           "ComaOnlyInX0",             "ComaEveryX0Months",        "ComaMonthX0ThroughMonthX1",       "ComaMonthX0ThroughMonthX1", MONTH_NAMES, 1),
+        DAY_OF_WEEK( 5, "ComaEveryDay", "ComaOnlyOnX0",             "ComaEveryX0DaysOfTheWeek", "ComaX0ThroughX1",                 "ComaX0ThroughX1",           DAY_NAMES,   0) {
+            @Override
+            public String describeValue(final CronExpressionDescriptor descriptor, final String value) {
+                // If we're parsing a frequency the single item can be "7", but we won't have a single item description
+                if (value.equals("7")) {
+                    return "";
+                }
+
+                // Only retain the week-day's number, dropping the "day occurrence" (#) or "last" (L) identifier
+                int end = value.indexOf('#');
+                if (end < 0) {
+                    end = value.length();
+                }
+
+                if (end > 0 && value.charAt(end - 1) == 'L') {
+                    end--;
+                }
+
+                return descriptor.getString(DAY_NAMES[Numbers.parseInt(value, 0, end)]);
+            }
+
+            @Override
+            public String getFormat(final CronExpressionDescriptor descriptor, final String value) {
+                final int hash = value.indexOf('#');
+                if (hash >= 0) {
+                    final int occurrence = value.length() == hash + 2 ? value.charAt(hash + 1) - '1' : -1;
+                    final String occurrenceDescription = occurrence >= 0 && occurrence < OCCURRENCES.length ? descriptor.getString(OCCURRENCES[occurrence]) : null;
+                    return descriptor.getString("ComaOnTheSpace") + occurrenceDescription + descriptor.getString("SpaceX0OfTheMonth");
+                }
+
+                return descriptor.getString(value.indexOf('L') >= 0 ? "ComaOnTheLastX0OfTheMonth" : "ComaOnlyOnX0");
+            }
+        },
+        YEAR(        6, null,           "ComaOnlyInYearX0",         "ComaEveryX0Years",         "ComaYearX0ThroughYearX1",         "ComaYearX0ThroughYearX1",   null,        0);
+
+        // The index of the part and the resource names of its forms (specialized range resources fall back to "ComaX0ThroughX1")
+        final int      part;
+        final String   all;
+        final String   format;
+        final String   interval;
+        final String   between;
+        final String   range;
+        final String[] names;
+        final int      first;
+
+        /**
+         * Constructor
+         *
+         * @param part     The index of the part (0 for seconds to 6 for years)
+         * @param all      The description of every value (null for none)
+         * @param format   The format of a single value or of a list of values
+         * @param interval The format of an interval
+         * @param between  The format of a range
+         * @param range    The format of a range within a list
+         * @param names    The resource names of the values, null if they are described as numbers
+         * @param first    The value of the first name
+         */
+        Segment(final int part, final String all, final String format, final String interval, final String between, final String range, final String[] names, final int first) {
+            this.part = part;
+            this.all = all;
+            this.format = format;
+            this.interval = interval;
+            this.between = between;
+            this.range = range;
+            this.names = names;
+            this.first = first;
+        }
+
+        @Override
+        public String getAllDescription(final CronExpressionDescriptor descriptor) {
+            return all != null ? descriptor.getString(all) : "";
+        }
+
+        @Override
+        public String describeValue(final CronExpressionDescriptor descriptor, final String value) {
+            return names != null ? descriptor.getString(names[Numbers.parseInt(value, 0, value.length()) - first]) : value;
+        }
+
+        @Override
+        public String describeLastValue(final CronExpressionDescriptor descriptor, final String value) {
+            return describeValue(descriptor, value);
+        }
+
+        @Override
+        public String describeStep(final CronExpressionDescriptor descriptor, final String step) {
+            return step;
+        }
+
+        @Override
+        public String getFormat(final CronExpressionDescriptor descriptor, final String value) {
+            return descriptor.getString(format);
+        }
+
+        @Override
+        public String getIntervalFormat(final CronExpressionDescriptor descriptor, final String step) {
+            return descriptor.getString(interval);
+        }
+
+        @Override
+        public String getBetweenFormat(final CronExpressionDescriptor descriptor, final String expression, final int start, final int end) {
+            return descriptor.getSpecializedString(between, "ComaX0ThroughX1");
+        }
+
+        @Override
+        public String getRangeFormat(final CronExpressionDescriptor descriptor, final String expression, final int start, final int end) {
+            return descriptor.getSpecializedString(range, "ComaX0ThroughX1");
+        }
+
+        /**
+         * @return The format of the seconds past the minute or of the minutes past the hour (nothing if omitted), some
+         * languages word them differently from 20 on
+         */
+        String getPastFormat(final CronExpressionDescriptor descriptor, final String value, final boolean omitted, final String from20) {
+            final int number = toNumber(value);
+            if (number < 0) {
+                return descriptor.getString(format);
+            }
+
+            if (omitted) {
+                return "";
+            }
+
+            return number < 20 ? descriptor.getString(format) : descriptor.getSpecializedString(from20, format);
+        }
+    }
+
+    /**
+     * The form of a part, found by a single scan: where its step, range and list separators are, and where the items of
+     * a list end. Items are counted the way {@link String#split(String)} does (trailing empty items are dropped).
+     */
+    private static final class Tokens {
+        String  expression;
+        int     slash;
+        int     dash;
+        int     secondDash;
+        int     comma;
+        int     letter;
+        boolean star;
+        int     items;
+        int[]   itemEnds   = new int[8];
+        int[]   itemDashes = new int[8];
+
+        /**
+         * Scan a part
+         *
+         * @param expression The part
+         */
+        void scan(final String expression) {
+            this.expression = expression;
+            slash = dash = secondDash = comma = letter = -1;
+            star = false;
+            items = 0;
+
+            int itemDash = -1;
+            for (int i = 0; i < expression.length(); i++) {
+                switch (expression.charAt(i)) {
+                    case '/':
+                        if (slash < 0) {
+                            slash = i;
+                        }
+                        break;
+                    case '-':
+                        if (dash < 0) {
+                            dash = i;
+                        } else if (secondDash < 0) {
+                            secondDash = i;
+                        }
+
+                        if (itemDash < 0) {
+                            itemDash = i;
+                        }
+                        break;
+                    case ',':
+                        if (comma < 0) {
+                            comma = i;
+                        }
+
+                        addItem(i, itemDash);
+                        itemDash = -1;
+                        break;
+                    case '*':
+                        star = true;
+                        break;
+                    case 'L':
+                    case 'W':
+                        if (letter < 0) {
+                            letter = i;
+                        }
+                        break;
+                }
+            }
+
+            addItem(expression.length(), itemDash);
+            while (items > 0 && itemStart(items - 1) == itemEnds[items - 1]) {
+                items--;
+            }
+        }
+
+        private void addItem(final int end, final int itemDash) {
+            if (items == itemEnds.length) {
+                itemEnds = Arrays.copyOf(itemEnds, items * 2);
+                itemDashes = Arrays.copyOf(itemDashes, items * 2);
+            }
+
+            itemEnds[items] = end;
+            itemDashes[items++] = itemDash;
+        }
+
+        /**
+         * @return True if the part is more than a single value (i.e. contains any of "/-,*")
+         */
+        boolean hasSpecialCharacters() {
+            return slash >= 0 || dash >= 0 || comma >= 0 || star;
+        }
+
+        /**
+         * @return The step of an interval
+         */
+        String step() {
+            final int end = expression.indexOf('/', slash + 1);
+            return expression.substring(slash + 1, end < 0 ? expression.length() : end);
+        }
+
+        /**
+         * @return The first value of a range (or of an interval, or of the range of an interval)
+         */
+        String first() {
+            return expression.substring(0, dash >= 0 && (slash < 0 || dash < slash) ? dash : slash);
+        }
+
+        /**
+         * @return The last value of a range (or of the range of an interval)
+         */
+        String second() {
+            int end = secondDash >= 0 ? secondDash : expression.length();
+            if (slash > dash && slash < end) {
+                end = slash;
+            }
+
+            return expression.substring(dash + 1, end);
+        }
+
+        /**
+         * @return The item of a list
+         */
+        String item(final int index) {
+            return expression.substring(itemStart(index), itemEnds[index]);
+        }
+
+        /**
+         * @return True if the item of a list is a range
+         */
+        boolean hasRange(final int index) {
+            return itemDashes[index] >= 0;
+        }
+
+        /**
+         * @return The first value of the range of an item of a list
+         */
+        String itemFirst(final int index) {
+            return expression.substring(itemStart(index), itemDashes[index]);
+        }
+
+        /**
+         * @return The last value of the range of an item of a list
+         */
+        String itemSecond(final int index) {
+            return expression.substring(itemDashes[index] + 1, itemEnds[index]);
+        }
+
+        private int itemStart(final int index) {
+            return index == 0 ? 0 : itemEnds[index - 1] + 1;
+        }
+    }
+
     //endregion
     ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
 
     ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
     //region ACCESSORS
 
+    /**
+     * @param options The options (this overload keeps code compiled against earlier versions linking)
+     */
     public void setOptions(final Options options) {
+        setOptions((Settings) options);
+    }
+
+    public void setOptions(final Settings options) {
         // Sanity checks
         if (options == null) {
             throw new RuntimeException("Options cannot be null");
@@ -82,11 +555,15 @@ public class CronExpressionDescriptor {
         this.options = options;
         this.use24HourTimeFormat = options.isUse24HourTimeFormat();
         this.locale = options.getLocale();
-        this.localization = ResourceBundle.getBundle(LOCALIZATION_BUNDLE, this.locale, new UTF8Control());
+        loadLocalization();
     }
 
+    /**
+     * @return The options of this descriptor, or a copy of them if they are immutable (changing the copy does not
+     * affect this descriptor)
+     */
     public Options getOptions() {
-        return options;
+        return options instanceof Options ? (Options) options : new Options(options);
     }
 
     public Locale getLocale() {
@@ -120,16 +597,26 @@ public class CronExpressionDescriptor {
      * @param expression The complete cron expression
      */
     public CronExpressionDescriptor(final String expression) {
-        this(expression, DEFAULT_OPTIONS);
+        this(expression, defaultOptions);
     }
 
     /**
-     * Constructor
+     * Constructor (this overload keeps code compiled against earlier versions linking)
      *
      * @param expression The cron expression to describe
      * @param options    The options to use when parsing the expression
      */
     public CronExpressionDescriptor(final String expression, final Options options) {
+        this(expression, (Settings) options);
+    }
+
+    /**
+     * Constructor
+     *
+     * @param expression The cron expression to describe
+     * @param options    The options to use when parsing the expression
+     */
+    public CronExpressionDescriptor(final String expression, final Settings options) {
         // Sanity checks
         if (expression == null || expression.isEmpty()) {
             throw new IllegalArgumentException("The expression to be described cannot be null or empty");
@@ -140,7 +627,20 @@ public class CronExpressionDescriptor {
         this.options = options;
         this.use24HourTimeFormat = options.isUse24HourTimeFormat();
         this.locale = options.getLocale();
-        this.localization = ResourceBundle.getBundle(LOCALIZATION_BUNDLE, this.locale, new UTF8Control());
+        loadLocalization();
+    }
+
+    /**
+     * Constructor, describing an expression that has already been parsed
+     *
+     * @param expression The cron expression (only used when reporting)
+     * @param parts      The 7 normalized parts, as returned by {@link CronExpressionParser#parse()}
+     * @param options    The options to use when describing the expression
+     */
+    CronExpressionDescriptor(final String expression, final String[] parts, final Settings options) {
+        this(expression, options);
+        this.expressionParts = parts;
+        this.parsed = true;
     }
 
     //endregion
@@ -156,7 +656,7 @@ public class CronExpressionDescriptor {
      * @param expression The expression to be parsed
      */
     public void setExpression(final String expression) {
-        setExpression(expression, DEFAULT_OPTIONS);
+        setExpression(expression, defaultOptions);
     }
 
     /**
@@ -164,9 +664,20 @@ public class CronExpressionDescriptor {
      * called.
      *
      * @param expression The new expression to describe
-     * @param options    The options to use
+     * @param options    The options to use (this overload keeps code compiled against earlier versions linking)
      */
     public void setExpression(final String expression, final Options options) {
+        setExpression(expression, (Settings) options);
+    }
+
+    /**
+     * Set the expression and options that this instance will process next time the {@link #getDescription(DescriptionType)} is
+     * called.
+     *
+     * @param expression The new expression to describe
+     * @param options    The options to use
+     */
+    public void setExpression(final String expression, final Settings options) {
         // Sanity checks
         if (expression == null || expression.isEmpty()) {
             throw new IllegalArgumentException("The expression to be described cannot be null or empty");
@@ -181,7 +692,24 @@ public class CronExpressionDescriptor {
         this.options = options;
         this.use24HourTimeFormat = options.isUse24HourTimeFormat();
         this.locale = options.getLocale();
-        this.localization = ResourceBundle.getBundle(LOCALIZATION_BUNDLE, this.locale, new UTF8Control());
+        loadLocalization();
+    }
+
+    /**
+     * Sets an expression that has already been parsed, keeping the options (see the constructor taking parts)
+     *
+     * @param expression The cron expression (only used when reporting)
+     * @param parts      The 7 normalized parts, as returned by {@link CronExpressionParser#parse()}
+     */
+    void setParts(final String expression, final String[] parts) {
+        this.expression = expression;
+        this.expressionParts = parts;
+        this.hashTokens = null;
+        this.hashRanges = null;
+        this.parsed = true;
+        if (localizationVersion != Localization.getVersion()) {
+            loadLocalization();
+        }
     }
 
     /**
@@ -193,6 +721,28 @@ public class CronExpressionDescriptor {
         return getDescription(FULL);
     }
 
+    /**
+     * Get the full description for the currently configured expression and options, describing the parts using the H
+     * syntax as written (i.e. "at a stable minute") rather than as resolved from the hash key (i.e. "at 37 minutes past
+     * the hour", see {@link Options#setHashKey(String)}).
+     * <p>
+     * H is accepted even if the options have no hash key. The phrases of the H syntax are only worded in English so far,
+     * so locales that do not word them get the resolved description rather than one mixing languages. Without a hash key
+     * there is nothing to resolve, so those locales get the English phrases (see {@link Localization#isLocalized}).
+     *
+     * @return The cron expression description
+     */
+    public String getSymbolicDescription() {
+        keyless = options != null && options.getHashKey() == null;
+        symbolic = keyless || (locale != null && isHashSyntaxLocalized());
+        try {
+            return getDescription(FULL);
+        } finally {
+            symbolic = false;
+            keyless = false;
+        }
+    }
+
     /**
      * Generates a human readable String for the Cron Expression
      *
@@ -205,12 +755,43 @@ public class CronExpressionDescriptor {
             throw new IllegalArgumentException("The expression to parse and the options to use cannot be null or empty");
         }
 
+        final CronInstrumentation instrumentation = CronInstrumentation.installed;
+        if (instrumentation == null) {
+            return describe(type);
+        }
+
+        instrumentation.describeStarted(expression, type, locale);
+        final long start = System.nanoTime();
+        try {
+            return describe(type);
+        } finally {
+            instrumentation.described(expression, type, locale, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Generates a human readable String for the Cron Expression
+     *
+     * @param type Which part(s) of the expression to describe
+     * @return The cron expression description
+     */
+    private String describe(final DescriptionType type) {
+        // Custom messages published since the bundle was loaded (see Localization#publish()), the whole description uses the new ones
+        if (localizationVersion != Localization.getVersion()) {
+            loadLocalization();
+        }
+
         String description;
         try {
-            if (!parsed) {
-                final CronExpressionParser parser = new CronExpressionParser(expression, options);
-                expressionParts = parser.parse();
-                parsed = true;
+            parse();
+
+            // Expressions of a common shape are rendered from the template of their shape (unless the descriptor is
+            // subclassed, the template would skip the overridden methods)
+            if (type == FULL && !symbolic && getClass() == CronExpressionDescriptor.class) {
+                final String rendered = CronShapeRenderer.render(expressionParts, options);
+                if (rendered != null) {
+                    return rendered;
+                }
             }
 
             switch (type) {
@@ -251,7 +832,7 @@ public class CronExpressionDescriptor {
         }
 
         // Uppercase the first letter
-        description = description.substring(0, 1).toUpperCase() + description.substring(1);
+        description = capitalize(description);
 
         return description;
     }
@@ -270,8 +851,7 @@ public class CronExpressionDescriptor {
             final String dayOfWeekDesc = GetDayOfWeekDescription();
             final String yearDesc = GetYearDescription();
 
-            description = String.format("%s%s%s%s%s", timeSegment, dayOfMonthDesc, dayOfWeekDesc, monthDesc, yearDesc);
-            description = transformVerbosity(description, options.isVerbose());
+            description = joinSegments(timeSegment, dayOfMonthDesc, dayOfWeekDesc, monthDesc, yearDesc);
         } catch (final Exception e) {
             description = getString("AnErrorOccuredWhenGeneratingTheExpressionD");
             if (options.isThrowExceptionOnParseError()) {
@@ -282,6 +862,15 @@ public class CronExpressionDescriptor {
         return description;
     }
 
+    /**
+     * Joins the descriptions of the single segments into the FULL description
+     *
+     * @return FULL description
+     */
+    String joinSegments(final String timeSegment, final String dayOfMonthDesc, final String dayOfWeekDesc, final String monthDesc, final String yearDesc) {
+        return transformVerbosity(String.format("%s%s%s%s%s", timeSegment, dayOfMonthDesc, dayOfWeekDesc, monthDesc, yearDesc), options.isVerbose());
+    }
+
     /**
      * Generates a description for only the TIMEOFDAY portion of the expression
      *
@@ -291,28 +880,30 @@ public class CronExpressionDescriptor {
         final String secondsExpression = expressionParts[0];
         final String minuteExpression = expressionParts[1];
         final String hourExpression = expressionParts[2];
+        final Tokens seconds = tokens(0);
+        final Tokens minutes = tokens(1);
+        final Tokens hours = tokens(2);
         final StringBuilder description = new StringBuilder();
 
-        // Handle special cases first
-        if (!specialCharactersSearchPattern.matcher(minuteExpression).find() && !specialCharactersSearchPattern.matcher(hourExpression).find() && !specialCharactersSearchPattern.matcher(secondsExpression).find()) {
+        // Handle special cases first (H parts described as such only fit the default time description)
+        final boolean hashed = isHashed(0) || isHashed(1) || isHashed(2);
+        if (!hashed && !minutes.hasSpecialCharacters() && !hours.hasSpecialCharacters() && !seconds.hasSpecialCharacters()) {
             // Specific time of day (i.e. 10 14)
             description.append(getString("AtSpace")).append(formatTime(hourExpression, minuteExpression, secondsExpression));
-        } else if (secondsExpression.equals("") && minuteExpression.contains("-") && !minuteExpression.contains(",") && !specialCharactersSearchPattern.matcher(hourExpression).find()) {
+        } else if (!hashed && secondsExpression.isEmpty() && minutes.dash >= 0 && minutes.comma < 0 && !hours.hasSpecialCharacters()) {
             // Minute range in single hour (i.e. 0-10 11)
-            final String[] minuteParts = minuteExpression.split("-");
-            description.append(String.format(getString("EveryMinuteBetweenX0AndX1"), formatTime(hourExpression, minuteParts[0]), formatTime(hourExpression, minuteParts[1])));
-        } else if (secondsExpression.equals("") && hourExpression.contains(",") && !hourExpression.contains("-") && !specialCharactersSearchPattern.matcher(minuteExpression).find()) {
+            description.append(String.format(getString("EveryMinuteBetweenX0AndX1"), formatTime(hourExpression, minutes.first()), formatTime(hourExpression, minutes.second())));
+        } else if (!hashed && secondsExpression.isEmpty() && hours.comma >= 0 && hours.dash < 0 && !minutes.hasSpecialCharacters()) {
             // Hours list with single minute (o.e. 30 6,14,16)
-            final String[] hourParts = hourExpression.split(",");
             description.append(getString("At"));
-            for (int i = 0; i < hourParts.length; i++) {
-                description.append(" ").append(formatTime(hourParts[i], minuteExpression));
+            for (int i = 0; i < hours.items; i++) {
+                description.append(" ").append(formatTime(hours.item(i), minuteExpression));
 
-                if (i < (hourParts.length - 2)) {
+                if (i < (hours.items - 2)) {
                     description.append(",");
                 }
 
-                if (i == hourParts.length - 2) {
+                if (i == hours.items - 2) {
                     description.append(getString("SpaceAnd"));
                 }
             }
@@ -346,40 +937,11 @@ public class CronExpressionDescriptor {
      * @return The SECONDS description
      */
     protected String GetSecondsDescription() {
-        return getSegmentDescription(expressionParts[0],
-                                     getString("EverySecond"),
-                                     desc -> desc,
-                                     desc -> String.format(getString("EveryX0Seconds"), desc),
-                                     desc -> getString("SecondsX0ThroughX1PastTheMinute"),
-                                     desc -> {
-                                         try {
-                                             final int i = Integer.parseInt(desc);
-
-                                             if (desc.equals("0")) {
-                                                 return "";
-                                             } else if (i < 20) {
-                                                 return getString("AtX0SecondsPastTheMinute");
-                                             } else {
-                                                 final String specialized = getString("AtX0SecondsPastTheMinuteGt20");
-                                                 if (specialized != null) {
-                                                     return specialized;
-                                                 } else {
-                                                     return getString("AtX0SecondsPastTheMinute");
-                                                 }
-                                             }
-                                         } catch (NumberFormatException e) {
-                                             // Parse failure, original implementation returs the default string anyway
-                                             return getString("AtX0SecondsPastTheMinute");
-                                         }
-                                     },
-                                     desc -> {
-                                         final String specialized = getString("ComaMinX0ThroughMinX1");
-                                         if (specialized != null) {
-                                             return specialized;
-                                         } else {
-                                             return getString("ComaX0ThroughX1");
-                                         }
-                                     });
+        if (isHashed(0)) {
+            return describeHashed(Segment.SECONDS);
+        }
+
+        return getSegmentDescription(Segment.SECONDS);
     }
 
     /**
@@ -388,40 +950,11 @@ public class CronExpressionDescriptor {
      * @return The MINUTE description
      */
     protected String GetMinutesDescription() {
-        final String secondsExpression = expressionParts[0];
+        if (isHashed(1)) {
+            return describeHashed(Segment.MINUTES);
+        }
 
-        return getSegmentDescription(expressionParts[1],
-                                     getString("EveryMinute"),
-                                     desc -> desc,
-                                     desc -> String.format(getString("EveryX0Minutes"), desc),
-                                     desc -> getString("MinutesX0ThroughX1PastTheHour"),
-                                     desc -> {
-                                         try {
-                                             int target = Integer.parseInt(desc);
-                                             if (desc.equals("0") && secondsExpression.equals("")) {
-                                                 return "";
-                                             } else if (target < 20) {
-                                                 return getString("AtX0MinutesPastTheHour");
-                                             } else {
-                                                 final String specialFormat = getString("AtX0MinutesPastTheHourGt20");
-                                                 if (specialFormat != null && !specialFormat.isEmpty()) {
-                                                     return specialFormat;
-                                                 } else {
-                                                     return getString("AtX0MinutesPastTheHour");
-                                                 }
-                                             }
-                                         } catch (NumberFormatException e) {
-                                             return getString("AtX0MinutesPastTheHour");
-                                         }
-                                     },
-                                     desc -> {
-                                         final String specialFormat = getString("ComaMinX0ThroughMinX1");
-                                         if (specialFormat != null && !specialFormat.isEmpty()) {
-                                             return specialFormat;
-                                         }
-
-                                         return getString("ComaX0ThroughX1");
-                                     });
+        return getSegmentDescription(Segment.MINUTES);
     }
 
     /**
@@ -430,22 +963,11 @@ public class CronExpressionDescriptor {
      * @return The HOUR description
      */
     protected String GetHoursDescription() {
-        final String expression = expressionParts[2];
-
-        return getSegmentDescription(expression,
-                                     getString("EveryHour"),
-                                     desc -> formatTime(desc, "0"),
-                                     desc -> String.format(getString("EveryX0Hours"), desc),
-                                     desc -> getString("BetweenX0AndX1"),
-                                     desc -> getString("AtX0"),
-                                     desc -> {
-                                         final String specialFormat = getString("ComaMinX0ThroughMinX1");
-                                         if (specialFormat != null && !specialFormat.isEmpty()) {
-                                             return specialFormat;
-                                         }
+        if (isHashed(2)) {
+            return describeHashed(Segment.HOURS);
+        }
 
-                                         return getString("ComaX0ThroughX1");
-                                     });
+        return getSegmentDescription(Segment.HOURS);
     }
 
     /**
@@ -454,74 +976,18 @@ public class CronExpressionDescriptor {
      * @return The DAYOFWEEK description
      */
     protected String GetDayOfWeekDescription() {
-        String description;
+        if (isHashed(5)) {
+            return describeHashed(Segment.DAY_OF_WEEK);
+        }
+
+        // DOW is specified as * so we will not generate a description and defer to DOM part.
+        // Otherwise, we could get a contradiction like "on day 1 of the month, every day"
+        // or a dupe description like "every day, every day".
         if (expressionParts[5].equals("*")) {
-            // DOW is specified as * so we will not generate a description and defer to DOM part.
-            // Otherwise, we could get a contradiction like "on day 1 of the month, every day"
-            // or a dupe description like "every day, every day".
-            description = "";
-        } else {
-            description = getSegmentDescription(expressionParts[5],
-                                                getString("ComaEveryDay"),
-                                                desc -> {
-                                                    // If we're parsing a frequency the single item can be "7", but we won't have a single item description
-                                                    if (desc.equals("7")) {
-                                                        return "";
-                                                    }
-
-                                                    // Drop "Last" identifier (L) if specified
-                                                    if (desc.contains("L")) {
-                                                        desc = desc.replace("L", "");
-                                                    }
-
-                                                    // Drop "day occurrence" identifier (#) if specified. Only retain the week-day's number.
-                                                    if (desc.contains("#")) {
-                                                        desc = desc.substring(0, desc.indexOf("#"));
-                                                    }
-
-                                                    // Retrieve localized day based on the ENUM entry
-                                                    final int dayNum = Integer.parseInt(desc);
-                                                    return getString(Day.values()[dayNum].name());
-                                                },
-                                                desc -> String.format(getString("ComaEveryX0DaysOfTheWeek"), desc),
-                                                desc -> getString("ComaX0ThroughX1"),
-                                                desc -> {
-                                                    String format;
-                                                    if (desc.contains("#")) {
-                                                        final String dayOfWeekOfMonthNumber = desc.substring(desc.indexOf("#") + 1);
-                                                        String dayOfWeekOfMonthDescription = null;
-                                                        switch (dayOfWeekOfMonthNumber) {
-                                                            case "1":
-                                                                dayOfWeekOfMonthDescription = getString("First");
-                                                                break;
-                                                            case "2":
-                                                                dayOfWeekOfMonthDescription = getString("Second");
-                                                                break;
-                                                            case "3":
-                                                                dayOfWeekOfMonthDescription = getString("Third");
-                                                                break;
-                                                            case "4":
-                                                                dayOfWeekOfMonthDescription = getString("Fourth");
-                                                                break;
-                                                            case "5":
-                                                                dayOfWeekOfMonthDescription = getString("Fifth");
-                                                                break;
-                                                        }
-
-
-                                                        format = getString("ComaOnTheSpace") + dayOfWeekOfMonthDescription + getString("SpaceX0OfTheMonth");
-                                                    } else if (desc.contains("L")) {
-                                                        format = getString("ComaOnTheLastX0OfTheMonth");
-                                                    } else {
-                                                        format = getString("ComaOnlyOnX0");
-                                                    }
-
-                                                    return format;
-                                                },
-                                                desc -> getString("ComaX0ThroughX1"));
+            return "";
         }
 
-        return description;
+        return getSegmentDescription(Segment.DAY_OF_WEEK);
     }
 
     /**
@@ -530,29 +996,11 @@ public class CronExpressionDescriptor {
      * @return The MONTH description
      */
     protected String GetMonthDescription() {
-        return getSegmentDescription(expressionParts[4],
-                                     "",
-                                     desc -> {
-                                         // Retrieve localized month name based on ENUM entry
-                                         final int monthNum = Integer.parseInt(desc) - 1; // Offset to match the enum's ordinals
-                                         return getString(Month.values()[monthNum].name());
-                                     }, desc -> String.format(getString("ComaEveryX0Months"), desc),
-                                     desc -> {
-                                         final String specialFormat = getString("ComaMonthX0ThroughMonthX1");
-                                         if (specialFormat != null && !specialFormat.isEmpty()) {
-                                             return specialFormat;
-                                         }
-
-                                         return getString("ComaX0ThroughX1");
-                                     }, desc -> getString("ComaOnlyInX0"),
-                                     desc -> {
-                                         final String specialFormat = getString("ComaMonthX0ThroughMonthX1");
-                                         if (specialFormat != null && !specialFormat.isEmpty()) {
-                                             return specialFormat;
-                                         }
-
-                                         return getString("ComaX0ThroughX1");
-                                     });
+        if (isHashed(4)) {
+            return describeHashed(Segment.MONTH);
+        }
+
+        return getSegmentDescription(Segment.MONTH);
     }
 
     /**
@@ -561,8 +1009,16 @@ public class CronExpressionDescriptor {
      * @return The DAYOFMONTH description
      */
     protected String GetDayOfMonthDescription() {
-        String description;
+        if (isHashed(3)) {
+            return describeHashed(Segment.DAY_OF_MONTH);
+        }
+
         final String expression = expressionParts[3];
+        if (tokens(3).letter < 0) {
+            return getSegmentDescription(Segment.DAY_OF_MONTH);
+        }
+
+        String description;
         switch (expression) {
             case "L":
                 description = getString("ComaOnTheLastDayOfTheMonth");
@@ -585,20 +1041,7 @@ public class CronExpressionDescriptor {
                         final String offSetDays = lastDayOffsetMatcher.group(1);
                         description = String.format(getString("CommaDaysBeforeTheLastDayOfTheMonth"), offSetDays);
                     } else {
-                        description = getSegmentDescription(expression,
-                                                            getString("ComaEveryDay"),
-                                                            desc -> desc,
-                                                            desc -> {
-                                                                if (desc.equals("1")) {
-                                                                    return getString("ComaEveryDay");
-                                                                }
-
-                                                                return getString("ComaEveryX0Days");
-                                                            },
-                                                            desc -> getString("ComaBetweenDayX0AndX1OfTheMonth"),
-                                                            desc -> getString("ComaOnDayX0OfTheMonth"),
-                                                            desc -> getString("ComaX0ThroughX1"));
-
+                        description = getSegmentDescription(Segment.DAY_OF_MONTH);
                     }
                 }
                 break;
@@ -612,37 +1055,28 @@ public class CronExpressionDescriptor {
      *
      * @return The YEAR description
      */
-    private String GetYearDescription() {
-        return getSegmentDescription(expressionParts[6],
-                                     "",
-                                     desc -> {
-                                         if (yearPattern.matcher(desc).matches()) {
-                                             final Calendar calendar = Calendar.getInstance(locale);
-                                             calendar.set(Integer.parseInt(desc), Calendar.JANUARY, 1);
-
-                                             return String.valueOf(calendar.get(Calendar.YEAR));
-                                         }
+    protected String GetYearDescription() {
+        if (isHashed(6)) {
+            return describeHashed(Segment.YEAR);
+        }
 
-                                         return desc;
-                                     },
-                                     desc -> String.format(getString("ComaEveryX0Years"), desc),
-                                     desc -> {
-                                         final String specialFormat = getString("ComaYearX0ThroughYearX1");
-                                         if (specialFormat == null || !specialFormat.isEmpty()) {
-                                             return specialFormat;
-                                         }
+        return getSegmentDescription(Segment.YEAR);
+    }
 
-                                         return getString("ComaX0ThroughX1");
-                                     },
-                                     desc -> getString("ComaOnlyInYearX0"),
-                                     desc -> {
-                                         final String specialFormat = getString("ComaYearX0ThroughYearX1");
-                                         if (specialFormat == null || !specialFormat.isEmpty()) {
-                                             return specialFormat;
-                                         }
+    /**
+     * Generates the description of a part, from the form it takes (every value, a single value, an interval, a list or
+     * a range, see {@link Tokens}) and the resources of the part (see {@link Segment})
+     *
+     * @param segment The part to describe
+     * @return The generated description segment
+     */
+    private String getSegmentDescription(final Segment segment) {
+        final String expression = expressionParts[segment.part];
+        if (expression == null || expression.isEmpty() || expression.equals("*")) {
+            return describeSegment(expression, null, segment);
+        }
 
-                                         return getString("ComaX0ThroughX1");
-                                     });
+        return describeSegment(expression, tokens(segment.part), segment);
     }
 
     /**
@@ -663,85 +1097,114 @@ public class CronExpressionDescriptor {
      * @param getDescriptionFormat         Functional implementation
      * @param getRangeFormat               Functional implementation that formats range expressions depending on cron parts
      * @return The generated description segment
+     * @deprecated The parts are described from the resources of each part, which subclasses can override through the
+     * Get*Description() methods
      */
+    @Deprecated
     protected String getSegmentDescription(final String expression, final String allDescription, final GetDescription getSingleItemDescription, final GetDescription getIntervalDescriptionFormat, final GetDescription getBetweenDescriptionFormat, final GetDescription getDescriptionFormat, final GetDescription getRangeFormat) {
-        String description = null;
+        final Forms forms = new FunctionalForms(allDescription, getSingleItemDescription, getIntervalDescriptionFormat, getBetweenDescriptionFormat, getDescriptionFormat, getRangeFormat);
+        return describeSegment(expression, scan(expression), forms);
+    }
+
+    /**
+     * Generates the between segment description
+     *
+     * @param betweenExpression           Between range expression
+     * @param getBetweenDescriptionFormat Functional implementation
+     * @param getSingleItemDescription    Functional implementation
+     * @return The between segment description
+     * @deprecated The parts are described from the resources of each part, which subclasses can override through the
+     * Get*Description() methods
+     */
+    @Deprecated
+    protected String GenerateBetweenSegmentDescription(final String betweenExpression, final GetDescription getBetweenDescriptionFormat, final GetDescription getSingleItemDescription) {
+        final Forms forms = new FunctionalForms(null, getSingleItemDescription, null, getBetweenDescriptionFormat, null, null);
+        final Tokens tokens = scan(betweenExpression);
+        return describeRange(forms, forms.getBetweenFormat(this, betweenExpression, 0, betweenExpression.length()), tokens.first(), tokens.second());
+    }
 
+    /**
+     * Generates the description of a part
+     *
+     * @param expression The part
+     * @param tokens     The tokens of the part (null if empty or '*')
+     * @param forms      How the values of the part are described
+     * @return The generated description segment
+     */
+    private String describeSegment(final String expression, final Tokens tokens, final Forms forms) {
         if (expression == null || expression.isEmpty()) {
-            description = "";
-        } else if (expression.equals("*")) {
-            description = allDescription;
-        } else if (!segmentRangesOrMultipleSearchPattern.matcher(expression).find()) {
-            description = String.format(getDescriptionFormat.getFor(expression), getSingleItemDescription.getFor(expression));
-        } else if (expression.contains("/")) {
-            final String[] segments = expression.split("/");
-            description = String.format(getIntervalDescriptionFormat.getFor(segments[1]), getSingleItemDescription.getFor(segments[1]));
-
-            //interval contains 'between' piece (i.e. 2-59/3 )
-            if (segments[0].contains("-")) {
-                final String betweenSegmentDescription = GenerateBetweenSegmentDescription(segments[0], getBetweenDescriptionFormat, getSingleItemDescription);
-                if (!betweenSegmentDescription.startsWith(", ")) {
+            return "";
+        }
+
+        if (expression.equals("*")) {
+            return forms.getAllDescription(this);
+        }
+
+        if (tokens.slash < 0 && tokens.dash < 0 && tokens.comma < 0) {
+            return String.format(forms.getFormat(this, expression), forms.describeValue(this, expression));
+        }
+
+        if (tokens.slash >= 0) {
+            final String step = tokens.step();
+            String description = String.format(forms.getIntervalFormat(this, step), forms.describeStep(this, step));
+
+            // Interval contains 'between' piece (i.e. 2-59/3)
+            if (tokens.dash >= 0 && tokens.dash < tokens.slash) {
+                final String betweenDescription = describeRange(forms, forms.getBetweenFormat(this, expression, 0, tokens.slash), tokens.first(), tokens.second());
+                if (!betweenDescription.startsWith(", ")) {
                     description += ", ";
                 }
 
-                description += betweenSegmentDescription;
-            } else if (!segmentAnyOrMultipleSearchPattern.matcher(expression).find()) {
-                // Strip any leading comma
-                final String rangeItemDescription = String.format(getDescriptionFormat.getFor(segments[0]), getSingleItemDescription.getFor(segments[0])).replace(", ", "");
-
-                description += String.format(getString("CommaStartingX0"), rangeItemDescription);
+                description += betweenDescription;
+            } else if (!tokens.star && tokens.comma < 0) {
+                final String start = tokens.first();
+                final String startDescription = String.format(forms.getFormat(this, start), forms.describeValue(this, start));
+                description += String.format(getString("CommaStartingX0"), stripLeadingComma(startDescription));
             }
-        } else if (expression.contains(",")) {
-            final String[] segments = expression.split(",");
+
+            return description;
+        }
+
+        if (tokens.comma >= 0) {
             final StringBuilder descriptionContent = new StringBuilder();
-            for (int i = 0; i < segments.length; i++) {
-                if (i > 0 && segments.length > 2) {
+            for (int i = 0; i < tokens.items; i++) {
+                if (i > 0 && tokens.items > 2) {
                     descriptionContent.append(",");
 
-                    if (i < segments.length - 1) {
+                    if (i < tokens.items - 1) {
                         descriptionContent.append(" ");
                     }
                 }
 
-                if (i > 0 && i == segments.length - 1) {
+                if (i > 0 && i == tokens.items - 1) {
                     descriptionContent.append(getString("SpaceAndSpace"));
                 }
 
-                if (segments[i].contains("-")) {
-                    String betweenSegmentDescription = GenerateBetweenSegmentDescription(segments[i], getRangeFormat, getSingleItemDescription);
-
-                    //remove any leading comma
-                    betweenSegmentDescription = betweenSegmentDescription.replace(", ", "");
-
-                    descriptionContent.append(betweenSegmentDescription);
+                if (tokens.hasRange(i)) {
+                    final String format = forms.getRangeFormat(this, expression, tokens.itemStart(i), tokens.itemEnds[i]);
+                    descriptionContent.append(stripLeadingComma(describeRange(forms, format, tokens.itemFirst(i), tokens.itemSecond(i))));
                 } else {
-                    descriptionContent.append(getSingleItemDescription.getFor(segments[i]));
+                    descriptionContent.append(forms.describeValue(this, tokens.item(i)));
                 }
             }
 
-            description = String.format(getDescriptionFormat.getFor(expression), descriptionContent);
-        } else if (expression.contains("-")) {
-            description = GenerateBetweenSegmentDescription(expression, getBetweenDescriptionFormat, getSingleItemDescription);
+            return String.format(forms.getFormat(this, expression), descriptionContent);
         }
 
-        return description;
+        return describeRange(forms, forms.getBetweenFormat(this, expression, 0, expression.length()), tokens.first(), tokens.second());
     }
 
     /**
-     * Generates the between segment description
+     * Generates the description of a range of values
      *
-     * @param betweenExpression           Between range expression
-     * @param getBetweenDescriptionFormat Functional implementation
-     * @param getSingleItemDescription    Functional implementation
-     * @return The between segment description
+     * @param forms  How the values of the part are described
+     * @param format The format of the range, taking the descriptions of its first and last values
+     * @param first  The first value of the range
+     * @param last   The last value of the range
+     * @return The range description
      */
-    protected String GenerateBetweenSegmentDescription(final String betweenExpression, final GetDescription getBetweenDescriptionFormat, final GetDescription getSingleItemDescription) {
-        final String[] betweenSegments = betweenExpression.split("-");
-        final String betweenSegment1Description = getSingleItemDescription.getFor(betweenSegments[0]);
-        final String betweenSegment2Description = getSingleItemDescription.getFor(betweenSegments[1]).replace(":00", ":59");
-        final String betweenDescriptionFormat = getBetweenDescriptionFormat.getFor(betweenExpression);
-
-        return String.format(betweenDescriptionFormat, betweenSegment1Description, betweenSegment2Description);
+    private String describeRange(final Forms forms, final String format, final String first, final String last) {
+        return String.format(format, forms.describeValue(this, first), forms.describeLastValue(this, last));
     }
 
     /**
@@ -818,6 +1281,79 @@ public class CronExpressionDescriptor {
         return description;
     }
 
+    /**
+     * @param index The index of a part (0 for seconds to 6 for years)
+     * @return The tokens of the part, only scanned again when the part changed
+     */
+    private Tokens tokens(final int index) {
+        Tokens tokens = partTokens[index];
+        if (tokens == null) {
+            tokens = partTokens[index] = new Tokens();
+        }
+
+        if (tokens.expression != expressionParts[index]) {
+            tokens.scan(expressionParts[index]);
+        }
+
+        return tokens;
+    }
+
+    /**
+     * @param expression A part, or a piece of it (null for none)
+     * @return The tokens of the part, scanned on their own (null for none)
+     */
+    private static Tokens scan(final String expression) {
+        if (expression == null) {
+            return null;
+        }
+
+        final Tokens tokens = new Tokens();
+        tokens.scan(expression);
+        return tokens;
+    }
+
+    /**
+     * @param index The index of a part (0 for seconds to 6 for years)
+     * @return True if the part used the H syntax and is described as such
+     */
+    private boolean isHashed(final int index) {
+        return symbolic && hashTokens != null && hashTokens[index] != null;
+    }
+
+    /**
+     * Describes a part using the H syntax as written: the values it could stand for (if restricted) along with a note
+     * that it is stable (i.e. "at a stable minute, minutes 0 through 29 past the hour", "every 15 minutes, at a stable
+     * offset"). The values are described from the resources of the part, without touching the parts of the expression.
+     *
+     * @param segment The part
+     * @return The description of the part
+     */
+    private String describeHashed(final Segment segment) {
+        final int index = segment.part;
+        final String range = hashRanges[index];
+        final String rangeDescription = range.equals("*") ? "" : describeSegment(range, scan(range), segment);
+        if (hashTokens[index].contains("/")) {
+            return rangeDescription + getString("ComaAtAStableOffset");
+        }
+
+        final String format = index < 3 ? "AtAStableX0" : index == 4 || index == 6 ? "ComaInAStableX0" : "ComaOnAStableX0";
+        final String stable = String.format(getString(format), getString(HASH_FIELDS[index]));
+        if (rangeDescription.isEmpty()) {
+            return stable;
+        }
+
+        return stable + (rangeDescription.startsWith(", ") ? "" : ", ") + rangeDescription;
+    }
+
+    /**
+     * Loads the localization bundle of the current locale, along with the version of the localization it belongs to
+     * (immutable options resolve the bundle once per version, and share it between descriptors)
+     */
+    private void loadLocalization() {
+        this.localizationVersion = Localization.getVersion();
+        this.localization = options.getLocalization();
+    }
+
     /**
      * Gets a localized String resource
      *
@@ -828,6 +1364,19 @@ public class CronExpressionDescriptor {
         return getString(resourceName, true);
     }
 
+    /**
+     * Gets a localized String resource only some languages have (i.e. "ComaMinX0ThroughMinX1"), falling back to the
+     * resource all of them have
+     *
+     * @param resourceName         The name of the resource String to retrieve
+     * @param fallbackResourceName The name of the resource String to retrieve if the first one is missing or empty
+     * @return The resource value
+     */
+    private String getSpecializedString(final String resourceName, final String fallbackResourceName) {
+        final String specialized = getString(resourceName);
+        return specialized.isEmpty() ? getString(fallbackResourceName) : specialized;
+    }
+
     /**
      * Gets a localized String resource, optionally returns an empty string or the requested
      * resource name if the resource is not found within the localzation packages
@@ -840,10 +1389,178 @@ public class CronExpressionDescriptor {
         try {
             return localization.getString(resourceName);
         } catch (MissingResourceException e) {
+            final CronInstrumentation instrumentation = CronInstrumentation.installed;
+            if (instrumentation != null) {
+                instrumentation.missingLocalization(locale, resourceName);
+            }
+
             return emptyIfNotFound ? EMPTY_STRING : "{" + resourceName + "}";
         }
     }
 
+    /**
+     * @return True if the locale words the phrases and the fields of the descriptions of the H syntax
+     */
+    private boolean isHashSyntaxLocalized() {
+        for (final String key : HASH_PHRASES) {
+            if (!Localization.isLocalized(locale, key)) {
+                return false;
+            }
+        }
+
+        for (final String key : HASH_FIELDS) {
+            if (!Localization.isLocalized(locale, key)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Parses the expression, unless already parsed
+     */
+    private void parse() {
+        if (parsed && parsedKeyless == keyless) {
+            return;
+        }
+
+        final CronExpressionParser parser = new CronExpressionParser(expression, options);
+        if (keyless) {
+            parser.acceptHashWithoutKey();
+        }
+
+        expressionParts = parser.parse();
+        parsedKeyless = keyless;
+        hashTokens = null;
+        hashRanges = null;
+        for (int i = 0; i < expressionParts.length; i++) {
+            if (parser.getHashToken(i) != null) {
+                if (hashTokens == null) {
+                    hashTokens = new String[expressionParts.length];
+                    hashRanges = new String[expressionParts.length];
+                }
+
+                hashTokens[i] = parser.getHashToken(i);
+                hashRanges[i] = parser.getHashRange(i);
+            }
+        }
+
+        parsed = true;
+    }
+
+    /**
+     * Writes the full description for the currently configured expression and options in UTF-8. Expressions of a
+     * common shape are written from the fragments of their template, encoded once per options profile (only the numbers
+     * are encoded per call, see {@link Settings#snapshot()}), the others are described and then encoded.
+     *
+     * @param target The buffer the description is written to, from its position
+     * @return The number of bytes written
+     * @throws java.nio.BufferOverflowException If the description does not fit in the remaining bytes of the buffer
+     *                                          (nothing is written)
+     */
+    public int writeDescription(final ByteBuffer target) {
+        // Sanity checks (required for the empty constructor)
+        if (expression == null || expression.isEmpty() || options == null) {
+            throw new IllegalArgumentException("The expression to parse and the options to use cannot be null or empty");
+        }
+
+        final CronInstrumentation instrumentation = CronInstrumentation.installed;
+        if (instrumentation == null) {
+            return encode(target);
+        }
+
+        instrumentation.describeStarted(expression, FULL, locale);
+        final long start = System.nanoTime();
+        try {
+            return encode(target);
+        } finally {
+            instrumentation.described(expression, FULL, locale, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Writes the full description for the currently configured expression and options in UTF-8, in a single write (see
+     * {@link #writeDescription(ByteBuffer)})
+     *
+     * @param out The stream the description is written to
+     * @return The number of bytes written
+     * @throws IOException If the stream cannot be written
+     */
+    public int writeDescription(final OutputStream out) throws IOException {
+        // Sanity checks (required for the empty constructor)
+        if (expression == null || expression.isEmpty() || options == null) {
+            throw new IllegalArgumentException("The expression to parse and the options to use cannot be null or empty");
+        }
+
+        final CronInstrumentation instrumentation = CronInstrumentation.installed;
+        final byte[] description;
+        if (instrumentation == null) {
+            description = encode();
+        } else {
+            instrumentation.describeStarted(expression, FULL, locale);
+            final long start = System.nanoTime();
+            try {
+                description = encode();
+            } finally {
+                instrumentation.described(expression, FULL, locale, System.nanoTime() - start);
+            }
+        }
+
+        out.write(description);
+        return description.length;
+    }
+
+    /**
+     * Writes the full description in UTF-8
+     *
+     * @param target The buffer
+     * @return The number of bytes written
+     */
+    private int encode(final ByteBuffer target) {
+        final CronShapeRenderer renderer = getShapeRenderer();
+        if (renderer != null) {
+            return renderer.encode(expressionParts, target);
+        }
+
+        final byte[] description = describe(FULL).getBytes(StandardCharsets.UTF_8);
+        target.put(description);
+        return description.length;
+    }
+
+    /**
+     * @return The full description encoded in UTF-8
+     */
+    private byte[] encode() {
+        final CronShapeRenderer renderer = getShapeRenderer();
+        if (renderer == null) {
+            return describe(FULL).getBytes(StandardCharsets.UTF_8);
+        }
+
+        final byte[] description = new byte[renderer.encodedLength(expressionParts)];
+        renderer.encode(expressionParts, ByteBuffer.wrap(description));
+        return description;
+    }
+
+    /**
+     * @return The renderer of the shape of the expression, null if it has no template (or cannot be parsed, leaving
+     * the error to {@link #describe(DescriptionType)})
+     */
+    private CronShapeRenderer getShapeRenderer() {
+        // Subclasses are always described, the template would skip the overridden methods
+        if (symbolic || getClass() != CronExpressionDescriptor.class) {
+            return null;
+        }
+
+        try {
+            parse();
+        } catch (final RuntimeException e) {
+            return null;
+        }
+
+        return CronShapeRenderer.find(expressionParts, options);
+    }
+
     //endregion
     ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
 
@@ -857,7 +1574,7 @@ public class CronExpressionDescriptor {
      * @return The cron expression description
      */
     public static String getDescription(final String expression) {
-        return getDescription(expression, DEFAULT_OPTIONS);
+        return getDescription(expression, defaultOptions);
     }
 
     /**
@@ -868,16 +1585,86 @@ public class CronExpressionDescriptor {
      * @return The requested expression's description
      */
     public static String getDescription(final String expression, final Options options) {
+        return getDescription(expression, (Settings) options);
+    }
+
+    /**
+     * Generates a human readable String for the Cron Expression
+     *
+     * @param expression The cron expression String
+     * @param options    Options to control the output description
+     * @return The requested expression's description
+     */
+    public static String getDescription(final String expression, final Settings options) {
         return new CronExpressionDescriptor(expression, options).getDescription(FULL);
     }
 
+    /**
+     * Generates a human readable String for the Cron Expression, describing the parts using the H syntax as written (see
+     * {@link #getSymbolicDescription()})
+     *
+     * @param expression The cron expression String
+     * @param options    Options to control the output description (along with the hash key)
+     * @return The requested expression's description
+     */
+    public static String getSymbolicDescription(final String expression, final Settings options) {
+        return new CronExpressionDescriptor(expression, options).getSymbolicDescription();
+    }
+
+    /**
+     * Writes the full description of the Cron Expression in UTF-8 (see {@link #writeDescription(ByteBuffer)})
+     *
+     * @param expression The cron expression String
+     * @param options    Options to control the output description
+     * @param target     The buffer the description is written to, from its position
+     * @return The number of bytes written
+     */
+    public static int writeDescription(final String expression, final Settings options, final ByteBuffer target) {
+        return new CronExpressionDescriptor(expression, options).writeDescription(target);
+    }
+
+    /**
+     * Writes the full description of the Cron Expression in UTF-8 (see {@link #writeDescription(OutputStream)})
+     *
+     * @param expression The cron expression String
+     * @param options    Options to control the output description
+     * @param out        The stream the description is written to
+     * @return The number of bytes written
+     * @throws IOException If the stream cannot be written
+     */
+    public static int writeDescription(final String expression, final Settings options, final OutputStream out) throws IOException {
+        return new CronExpressionDescriptor(expression, options).writeDescription(out);
+    }
+
+    /**
+     * @return The immutable options used when none are specified
+     */
+    public static ImmutableOptions getDefaultOptions() {
+        return defaultOptions;
+    }
+
+    /**
+     * Set the options to be used when none are specified. An immutable snapshot of the given options is taken, further
+     * changes to them will not affect the defaults.
+     *
+     * @param options The new default options
+     */
+    public static synchronized void setDefaultOptions(final Settings options) {
+        // Sanity checks
+        if (options == null) {
+            throw new IllegalArgumentException("Default options cannot be null");
+        }
+
+        defaultOptions = options.snapshot();
+    }
+
     /**
      * Set the default locale to be used
      *
      * @param language The language identifier string for the desired locale: "en", "it", etc..
      */
     public static void setDefaultLocale(final String language) {
-        DEFAULT_OPTIONS.setLocale(Locale.forLanguageTag(language));
+        setDefaultLocale(Locale.forLanguageTag(language));
     }
 
     /**
@@ -885,15 +1672,54 @@ public class CronExpressionDescriptor {
      *
      * @param locale The constant representing a default locale string
      */
-    public static void setDefaultLocale(final Locale locale) {
-        DEFAULT_OPTIONS.setLocale(locale);
+    public static synchronized void setDefaultLocale(final Locale locale) {
+        // Copy on write, concurrent writers are serialized so that no update is lost
+        defaultOptions = defaultOptions.toBuilder().locale(locale).build();
     }
 
     /**
      * Set the default locale of the JVM instance we're running in
      */
     public static void setDefaultLocale() {
-        DEFAULT_OPTIONS.setLocale(Locale.getDefault());
+        setDefaultLocale(Locale.getDefault());
+    }
+
+    /**
+     * @param description A description
+     * @return The description without its leading ", " (if any)
+     */
+    private static String stripLeadingComma(final String description) {
+        return description.startsWith(", ") ? description.substring(2) : description;
+    }
+
+    /**
+     * @param value A value of a part
+     * @return The value as a number, -1 if it is not made of digits only (i.e. a list)
+     */
+    private static int toNumber(final String value) {
+        if (value.isEmpty() || value.length() > 9) {
+            return -1;
+        }
+
+        int number = 0;
+        for (int i = 0; i < value.length(); i++) {
+            final char c = value.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+
+            number = number * 10 + (c - '0');
+        }
+
+        return number;
+    }
+
+    /**
+     * @param description A description
+     * @return The description with its first letter in uppercase
+     */
+    static String capitalize(final String description) {
+        return description.substring(0, 1).toUpperCase() + description.substring(1);
     }
 
     //endregion
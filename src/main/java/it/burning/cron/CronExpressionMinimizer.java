@@ -0,0 +1,256 @@
+package it.burning.cron;
+
+import it.burning.cron.CronExpressionParser.Day;
+import it.burning.cron.CronExpressionParser.Settings;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+import static it.burning.cron.CronExpressionParser.MAX_YEAR;
+import static it.burning.cron.CronExpressionParser.MIN_YEAR;
+
+/**
+ * Rewrites cron expressions into their shortest equivalent form.
+ * <p>
+ * Each field is parsed into the set of values it matches ({@link CronSchedule}) and written back as the shortest of
+ * '*', a single value, a range, a step or a list of values. Days of week are always written with their names, which read
+ * the same in every dialect, while the number of parts, the seconds and year fields and the special forms (L, W, #) of
+ * the original expression are preserved. For example "0,5,10,15,20,25,30,35,40,45,50,55 * * * 1,2,3,4,5" becomes
+ * "*&#47;5 * * * MON-FRI".
+ */
+public final class CronExpressionMinimizer {
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    //region FIELDS
+
+    // Day of week names, indexed by their normalized number
+    private static final String[] DAY_NAMES = new String[Day.values().length];
+
+    static {
+        for (final Day day : Day.values()) {
+            DAY_NAMES[day.ordinal()] = day.name();
+        }
+    }
+
+    //endregion
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    //region CONSTRUCTORS
+
+    /**
+     * Private constructor (static methods only)
+     */
+    private CronExpressionMinimizer() {
+
+    }
+
+    //endregion
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    //region STATIC METHODS
+
+    /**
+     * Rewrites an expression into its shortest equivalent form, using the default options
+     *
+     * @param expression The expression to minimize
+     * @return The minimized expression
+     */
+    public static String minimize(final String expression) {
+        return minimize(expression, null);
+    }
+
+    /**
+     * Rewrites an expression into its shortest equivalent form
+     *
+     * @param expression The expression to minimize
+     * @param options    Parsing options (null for defaults)
+     * @return The minimized expression, parsed with the same options it describes the same schedule
+     */
+    public static String minimize(final String expression, final Settings options) {
+        final CronExpressionParser parser = new CronExpressionParser(expression, options);
+        final String[] parsed = parser.parse();
+        final int partsCount = parser.getPartsCount();
+        final CronSchedule schedule = CronSchedule.fromParts(parsed);
+
+        // 6 part expressions either have seconds or a year, 7 part expressions have both
+        final boolean hasSeconds = partsCount == 7 || (partsCount == 6 && parsed[6].isEmpty());
+        final boolean hasYear = partsCount == 7 || (partsCount == 6 && !parsed[6].isEmpty());
+
+        // Quartz numbers days of week from 1 (Sunday) when seconds or years are present, JEE and 5 part expressions from 0
+        final boolean javaEe = options != null && options.isUseJavaEeScheduleExpression();
+        final int dayOfWeekBase = partsCount > 5 && !javaEe ? 1 : 0;
+
+        String dayOfMonth = renderDayOfMonth(schedule);
+        String dayOfWeek = renderDayOfWeek(schedule, dayOfWeekBase);
+        if (partsCount > 5) {
+            // Quartz requires one of the day fields to be '?' (which also lets the parser tell a year from seconds)
+            if (schedule.isDayOfWeekRestricted()) {
+                dayOfMonth = "?";
+            } else {
+                dayOfWeek = "?";
+            }
+        }
+
+        final StringBuilder minimized = new StringBuilder(expression.length());
+        if (hasSeconds) {
+            minimized.append(renderField(new long[]{schedule.getSeconds()}, 0, 59, 0, null)).append(' ');
+        }
+
+        minimized.append(renderField(new long[]{schedule.getMinutes()}, 0, 59, 0, null)).append(' ')
+                 .append(renderField(new long[]{schedule.getHours()}, 0, 23, 0, null)).append(' ')
+                 .append(dayOfMonth).append(' ')
+                 .append(renderField(new long[]{schedule.getMonths()}, 1, 12, 0, null)).append(' ')
+                 .append(dayOfWeek);
+
+        if (hasYear) {
+            minimized.append(' ').append(renderField(schedule.getYears(), MIN_YEAR, MAX_YEAR, MIN_YEAR, null));
+        }
+
+        return minimized.toString();
+    }
+
+    /**
+     * Minimizes a batch of expressions in parallel, each distinct expression is only minimized once
+     *
+     * @param expressions The expressions to minimize
+     * @param options     Parsing options (null for defaults)
+     * @return The minimized expressions, in the same order. Expressions that cannot be parsed are returned unchanged.
+     */
+    public static List<String> minimizeAll(final Collection<String> expressions, final Settings options) {
+        final ConcurrentHashMap<String, String> minimized = new ConcurrentHashMap<>();
+        return expressions.parallelStream()
+                          .map(expression -> minimized.computeIfAbsent(expression, key -> {
+                              try {
+                                  return minimize(key, options);
+                              } catch (final RuntimeException e) {
+                                  return key;
+                              }
+                          }))
+                          .collect(Collectors.toList());
+    }
+
+    /**
+     * Writes the day of month rules of a schedule
+     *
+     * @param schedule The schedule
+     * @return The day of month field
+     */
+    static String renderDayOfMonth(final CronSchedule schedule) {
+        if (schedule.isLastWeekday()) {
+            return "LW";
+        } else if (schedule.getLastDayOffset() == 0) {
+            return "L";
+        } else if (schedule.getLastDayOffset() != CronSchedule.NONE) {
+            return "L-" + schedule.getLastDayOffset();
+        } else if (schedule.getNearestWeekday() != CronSchedule.NONE) {
+            return schedule.getNearestWeekday() + "W";
+        }
+
+        return renderField(new long[]{schedule.getDaysOfMonth()}, 1, 31, 0, null);
+    }
+
+    /**
+     * Writes the day of week rules of a schedule
+     *
+     * @param schedule      The schedule
+     * @param dayOfWeekBase The number of Sunday in the target dialect, used by the L and # forms
+     * @return The day of week field
+     */
+    static String renderDayOfWeek(final CronSchedule schedule, final int dayOfWeekBase) {
+        if (schedule.getLastDayOfWeek() != CronSchedule.NONE) {
+            return (schedule.getLastDayOfWeek() + dayOfWeekBase) + "L";
+        } else if (schedule.getNthDayOfWeek() != CronSchedule.NONE) {
+            return (schedule.getNthDayOfWeek() + dayOfWeekBase) + "#" + schedule.getNthOccurrence();
+        }
+
+        return renderField(new long[]{schedule.getDaysOfWeek()}, 0, 6, 0, DAY_NAMES);
+    }
+
+    /**
+     * Writes the shortest field matching a set of values. Lists only contain single values, as ranges and steps are not
+     * accepted within lists.
+     *
+     * @param words The values, bit N stands for value {@code base + N}
+     * @param min   The minimum value of the field
+     * @param max   The maximum value of the field
+     * @param base  The value stored in bit 0
+     * @param names The names to write instead of the values (null to write numbers)
+     * @return The field
+     */
+    static String renderField(final long[] words, final int min, final int max, final int base, final String[] names) {
+        final int[] values = new int[max - min + 1];
+        int count = 0;
+        for (int value = min; value <= max; value++) {
+            final int bit = value - base;
+            if ((words[bit >>> 6] & (1L << bit)) != 0) {
+                values[count++] = value;
+            }
+        }
+
+        if (count == values.length || count == 0) {
+            return "*";
+        } else if (count == 1) {
+            return name(values[0], names);
+        }
+
+        // Plain list
+        final StringBuilder list = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                list.append(',');
+            }
+
+            list.append(name(values[i], names));
+        }
+
+        String shortest = list.toString();
+
+        // Evenly spaced values can be written as a range, eventually stepped
+        final int step = values[1] - values[0];
+        boolean progression = true;
+        for (int i = 2; i < count && progression; i++) {
+            progression = values[i] - values[i - 1] == step;
+        }
+
+        if (progression) {
+            final String first = name(values[0], names);
+            final String last = name(values[count - 1], names);
+            if (step == 1) {
+                shortest = shorter(shortest, first + "-" + last);
+            } else {
+                shortest = shorter(shortest, first + "-" + last + "/" + step);
+
+                // Steps running through the end of the field do not need an upper bound
+                if (values[count - 1] + step > max) {
+                    shortest = shorter(shortest, (values[0] == min ? "*" : first) + "/" + step);
+                }
+            }
+        }
+
+        return shortest;
+    }
+
+    /**
+     * @param value The value
+     * @param names The value names (null to write numbers)
+     * @return The value, written as a name when available
+     */
+    private static String name(final int value, final String[] names) {
+        return names != null ? names[value] : String.valueOf(value);
+    }
+
+    /**
+     * @param current   The current field
+     * @param candidate An alternative field
+     * @return The candidate if it is strictly shorter than the current field
+     */
+    private static String shorter(final String current, final String candidate) {
+        return candidate.length() < current.length() ? candidate : current;
+    }
+
+    //endregion
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+}
@@ -1,8 +1,15 @@
 package it.burning.cron;
 
+import it.burning.utils.Localization;
+import it.burning.utils.NameTrie;
 import it.burning.utils.RxReplace;
 
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import static it.burning.cron.CronExpressionParser.CronExpressionPart.*;
@@ -28,100 +35,118 @@ public class CronExpressionParser {
     //region FIELDS
 
     // Config
-    private static final String LOCALIZATION_BUNDLE = "localization";
-    private static final int    MIN_YEAR            = 1970;
-    private static final int    MAX_YEAR            = 2099;
-    private static final int    MIN_YEAR_FREQUENCY  = 0;
-    private static final int    MAX_YEAR_FREQUENCY  = MAX_YEAR - MIN_YEAR;
+    static final         int MIN_YEAR           = 1970;
+    static final         int MAX_YEAR           = 2099;
+    private static final int MIN_YEAR_FREQUENCY = 0;
+    private static final int MAX_YEAR_FREQUENCY = MAX_YEAR - MIN_YEAR;
+
+    // Day and month names, abbreviated or full and in any case (i.e. "MON", "Monday"), recognized in a single scan
+    static final NameTrie DAY_NAMES   = dayNames();
+    static final NameTrie MONTH_NAMES = monthNames();
 
     ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
     // PLEASE NOTE:
     //
-    // Validation patterns are applied to normalized parts, not to the raw expression. Please refer to the
-    // normalizeExpression() method for details on how the parts are transformed during that process. This affects the
-    // expected patterns we allow for each part.
+    // Validation applies to normalized parts, not to the raw expression. Please refer to the normalizeExpression()
+    // method for details on how the parts are transformed during that process. This affects the expected syntaxes we
+    // allow for each part.
+    //
+    // Parts are checked in a single pass, without backtracking, so that the time taken only grows with their length
+    // (see PartSyntax). Syntaxes are immutable and shared by every parser.
 
-    // SECONDS and MINUTES in the range and frequencies 0-59
+    // SECONDS and MINUTES in the range and frequencies 0-59 (values of 1 or 2 digits, leading zeroes allowed)
     //
-    // ^(?:\\*|^0)$                                         -> Every step {0 or *}
-    // ^(?:[0-5]?[0-9])$                                    -> Single value {0-59}
-    // ^(?:(?:\\*|[0-5]?[0-9])/[0-5]?[0-9])$                -> Frequency range {* | 0-59}/{0-59} (expressions such as 0/2 are normalized to */2 so must be considered valid)
-    // ^(?:([0-5]?[0-9],)*)(?:(?!^)[0-5]?[0-9])$            -> Multiple values {0-59},{0-59},{0-59}...
-    // ^(?:[0-5]?[0-9])-(?:[0-5]?[0-9])$                    -> Range {0-59}-{0-59}
-    // ^(?:[0-5]?[0-9])-(?:[0-5]?[0-9])/(?:[0-5]?[0-9])$    -> Range AND Frequency {0-59}-{0-59}/{0-59}
-    private final Pattern secsAndMinsValidationPattern = Pattern.compile("^(?:\\*|^0)$|^(?:[0-5]?[0-9])$|^(?:(?:\\*|[0-5]?[0-9])/[0-5]?[0-9])$|^(?:([0-5]?[0-9],)*)(?:(?!^)[0-5]?[0-9])$|^(?:[0-5]?[0-9])-(?:[0-5]?[0-9])$|^(?:[0-5]?[0-9])-(?:[0-5]?[0-9])/(?:[0-5]?[0-9])$");
-
-    // HOURS in the range and frequencies 0-23
+    // * or 0               -> Every step
+    // {0-59}               -> Single value
+    // {* | 0-59}/{0-59}    -> Frequency range (expressions such as 0/2 are normalized to */2 so must be considered valid)
+    // {0-59},{0-59},...    -> Multiple values
+    // {0-59}-{0-59}        -> Range
+    // {0-59}-{0-59}/{0-59} -> Range AND Frequency
+    static final PartSyntax secsAndMinsSyntax = new PartSyntax(0, 59, 2, false, true, 59, 59, 2, true, false, false);
+
+    // HOURS in the range and frequencies 0-23 (values of 1 or 2 digits, leading zeroes allowed)
     //
-    // ^(?:\\*|^0)$                                                                                     -> Every step {0 or *}
-    // ^(?:[0-1]?[0-9]|2?[0-3])$                                                                        -> Single value {0-23}
-    // ^(?:(?:\\*|[0-1]?[0-9])|(?:2[0-3]))/(?:(?:[0-1]?[0-9])|(?:2[0-3]))$                              -> Frequency rage {* | 0-23}/{0-23} (expressions such as 0/2 are normalized to */2 so must be considered valid)
-    // ^(?:(?:[0-1]?[0-9],)|(?:2[0-3],))*(?:(?:(?!^)[0-1]?[0-9])|(?:(?!^)2[0-3]))$                      -> Multiple values {0-23},{0-23},{0-23},...
-    // ^(?:(?:[0-1]?[0-9])|(?:2[0-3]))-(?:(?:[0-1]?[0-9])|(?:2[0-3]))$                                  -> Range {0-23}-{0-23}
-    // ^(?:(?:[0-1]?[0-9])|(?:2[0-3]))-(?:(?:[0-1]?[0-9])|(?:2[0-3]))/(?:(?:[0-1]?[0-9])|(?:2[0-3]))$   -> Range AND Frequency {0-23}-{0-23}/{0-23}
-    private final Pattern hoursValidationPattern = Pattern.compile("^(?:\\*|^0)$|^(?:[0-1]?[0-9]|2?[0-3])$|^(?:(?:\\*|[0-1]?[0-9])|(?:2[0-3]))/(?:(?:[0-1]?[0-9])|(?:2[0-3]))$|^(?:(?:[0-1]?[0-9],)|(?:2[0-3],))*(?:(?:(?!^)[0-1]?[0-9])|(?:(?!^)2[0-3]))$|^(?:(?:[0-1]?[0-9])|(?:2[0-3]))-(?:(?:[0-1]?[0-9])|(?:2[0-3]))$|^(?:(?:[0-1]?[0-9])|(?:2[0-3]))-(?:(?:[0-1]?[0-9])|(?:2[0-3]))/(?:(?:[0-1]?[0-9])|(?:2[0-3]))$");
-
-    // DAYS OF MONTH in the range and frequency 1-31
+    // * or 0               -> Every step
+    // {0-23}               -> Single value
+    // {* | 0-23}/{0-23}    -> Frequency range (expressions such as 0/2 are normalized to */2 so must be considered valid)
+    // {0-23},{0-23},...    -> Multiple values
+    // {0-23}-{0-23}        -> Range
+    // {0-23}-{0-23}/{0-23} -> Range AND Frequency
+    static final PartSyntax hoursSyntax = new PartSyntax(0, 23, 2, false, true, 23, 23, 2, true, false, false);
+
+    // DAYS OF MONTH in the range 1-31 and frequencies 0-31 (no leading zeroes)
     //
-    // ^(?:\\*)$                                                                                                            -> Every step {*}
-    // ^(?:[1-9]|1[0-9]|2[0-9]|3[0-1])$                                                                                     -> Single value {1-31}
-    // ^(?:\\*|[1-9]|1[0-9]|2[0-9]|3[0-1])/(?:[0-9]|1[0-9]|2[0-9]|3[0-1])$                                                  -> Frequency rage {* | 1-31}/{0-31} (expressions such as 1/31 are normalized to */31 so must be considered valid)
-    // ^(?:(?:[1-9],)|(?:1[0-9],)|(?:2[0-9],)|(?:3[0-1],))+(?:(?:[1-9])|(?:1[0-9])|(?:2[0-9])|(?:3[0-1]))$                  -> Multiple values {1-31},{1-31},{1-31},...
-    // ^(?:(?:[1-9]|1[0-9]|2[0-9]|3[0-1])-(?:[1-9]|1[0-9]|2[0-9]|3[0-1]))$                                                  -> Range {1-31}-{1-31}
-    // ^(?:(?:[1-9]|1[0-9]|2[0-9]|3[0-1])-(?:[1-9]|1[0-9]|2[0-9]|3[0-1]))/(?:[0-9]|1[0-9]|2[0-9]|3[0-1])$                   -> Range AND Frequency {1-31}-{1-31}/{0-31}
-    // ^(?:(?:L)|(?:LW)|(?:L)-(?:[1-9]|1[0-9]|2[0-9]|30)|(?:(?:[1-9]|1[0-9]|2[0-9]|3[0-1])W))$                              -> Last day notations {
-    //                                                                                                                            L (last day of the month),
-    //                                                                                                                            LW (last day of the week),
-    //                                                                                                                            L-{1-30} Nth day befor the end of the month,
-    //                                                                                                                            {1-31}W On the nearest day to the Nth of the month
-    //                                                                                                                         }
-    private final Pattern domValidationPattern = Pattern.compile("^(?:\\*)$|^(?:[1-9]|1[0-9]|2[0-9]|3[0-1])$|^(?:\\*|[1-9]|1[0-9]|2[0-9]|3[0-1])/(?:[0-9]|1[0-9]|2[0-9]|3[0-1])$|^(?:(?:[1-9],)|(?:1[0-9],)|(?:2[0-9],)|(?:3[0-1],))+(?:(?:[1-9])|(?:1[0-9])|(?:2[0-9])|(?:3[0-1]))$|^(?:(?:[1-9]|1[0-9]|2[0-9]|3[0-1])-(?:[1-9]|1[0-9]|2[0-9]|3[0-1]))$|^(?:(?:[1-9]|1[0-9]|2[0-9]|3[0-1])-(?:[1-9]|1[0-9]|2[0-9]|3[0-1]))/(?:[0-9]|1[0-9]|2[0-9]|3[0-1])$|^(?:(?:L)|(?:LW)|(?:L)-(?:[1-9]|1[0-9]|2[0-9]|30)|(?:(?:[1-9]|1[0-9]|2[0-9]|3[0-1])W))$");
-
-    // MONTHS in the range and frequencies 1-12
+    // *                    -> Every step
+    // {1-31}               -> Single value
+    // {* | 1-31}/{0-31}    -> Frequency range (expressions such as 1/31 are normalized to */31 so must be considered valid)
+    // {1-31},{1-31},...    -> Multiple values
+    // {1-31}-{1-31}        -> Range
+    // {1-31}-{1-31}/{0-31} -> Range AND Frequency
+    // L, LW, L-{1-30}, {1-31}W -> Last day notations {
+    //                                 L (last day of the month),
+    //                                 LW (last day of the week),
+    //                                 L-{1-30} Nth day befor the end of the month,
+    //                                 {1-31}W On the nearest day to the Nth of the month
+    //                             }
+    static final PartSyntax domSyntax = new PartSyntax(1, 31, 2, false, false, 31, 31, 2, false, true, false);
+
+    // MONTHS in the range 1-12 and frequencies 0-12 (no leading zeroes)
     //
-    // ^(?:\*)$                                             -> Every step {*}
-    // ^(?:[1-9]|1[0-2])$                                   -> Single value {1-12}
-    // ^(?:\\*|[1-9]|1[0-2])/(?:[0-9]|1[0-2])$              -> Frequency range {* | 1-12}/{0-12} (expressions such as 1/12 are normalized to */12 so must be considered valid)
-    // ^(?:[1-9],|1[0-2],)*(?:(?!^)[1-9]|(?!^)1[0-2])$      -> Multiple values {1-12},{1-12},{1-12}...
-    // ^(?:[1-9]|1[0-2])-(?:[1-9]|1[0-2])$                  -> Range {1-12}-{1-12}
-    // ^(?:[1-9]|1[0-2])-(?:[1-9]|1[0-2])/(?:[0-9]|1[0-2])$ -> Range AND Frequency {1-12}-{1-12}/{0-12}
-    private final Pattern monthsValidationPattern = Pattern.compile("^(?:\\*)$|^(?:[1-9]|1[0-2])$|^(?:\\*|[1-9]|1[0-2])/(?:[0-9]|1[0-2])$|^(?:[1-9],|1[0-2],)*(?:(?!^)[1-9]|(?!^)1[0-2])$|^(?:[1-9]|1[0-2])-(?:[1-9]|1[0-2])$|^(?:[1-9]|1[0-2])-(?:[1-9]|1[0-2])/(?:[0-9]|1[0-2])$");
-
-    // DAY OF WEEK in the range 0-6
+    // *                    -> Every step
+    // {1-12}               -> Single value
+    // {* | 1-12}/{0-12}    -> Frequency range (expressions such as 1/12 are normalized to */12 so must be considered valid)
+    // {1-12},{1-12},...    -> Multiple values
+    // {1-12}-{1-12}        -> Range
+    // {1-12}-{1-12}/{0-12} -> Range AND Frequency
+    static final PartSyntax monthsSyntax = new PartSyntax(1, 12, 2, false, false, 12, 12, 2, false, false, false);
+
+    // DAY OF WEEK in the range 0-6 (single digits)
     //
-    // ^(?:\*)$                         -> Every step {*}
-    // ^(?:[0-6])$                      -> Single value {0-6}
-    // ^(?:\\*|[0-6])/(?:[0-6])$        -> Frequency range {* | 0-6}/{0-6} (expressions such as 1/7 are normalized to */7 so must be considered valid)
-    // ^(?:[0-6],)*(?:(?!^)[0-6])$      -> Multiple values {0-6},{0-6},{0-6}...
-    // ^(?:[0-6])-(?:[0-6])$            -> Range {0-6}-{0-6}
-    // ^(?:[0-6])-(?:[0-6])/(?:[0-7])$  -> Range AND Frequency {0-6}-{0-6}/{0-7}
-    // ^(?:[0-6]L)$                     -> Last weekday of the month {0-6}L
-    // ^(?:[0-6]#[1-5])$                -> Nth Weekday of the month {0-6}#{1-5}
-    private final Pattern dowValidationPattern = Pattern.compile("^(?:\\*)$|^(?:[0-6])$|^(?:\\*|[0-6])/(?:[0-6])$|^(?:[0-6],)*(?:(?!^)[0-6])$|^(?:[0-6])-(?:[0-6])$|^(?:[0-6])-(?:[0-6])/(?:[0-7])$|^(?:[0-6]L)$|^(?:[0-6]#[1-5])$");
-
-    // YEARS in the range 1970-2999
+    // *                    -> Every step
+    // {0-6}                -> Single value
+    // {* | 0-6}/{0-6}      -> Frequency range (expressions such as 1/7 are normalized to */7 so must be considered valid)
+    // {0-6},{0-6},...      -> Multiple values
+    // {0-6}-{0-6}          -> Range
+    // {0-6}-{0-6}/{0-7}    -> Range AND Frequency
+    // {0-6}L               -> Last weekday of the month
+    // {0-6}#{1-5}          -> Nth Weekday of the month
+    static final PartSyntax dowSyntax = new PartSyntax(0, 6, 1, false, false, 6, 7, 1, false, false, true);
+
+    // YEARS of 4 digits and frequencies of up to 3 digits (specific validity is checked outside the syntax -> 1970-2099 / 0-129)
     //
-    // ^(?:\\*)$                                -> Every step {*}
-    // ^\\d{4}$                                 -> Single value {any 4 digit number}
-    // ^(?:\\*|\\d{4})/(?:\\d{1,3})$            -> Frequency range {* | any 4 digit number}/{any 3 digit number} (specific validity must be checked outside the match -> 1970-2099 / 1-129)
-    // ^(?:\\d{4},)*(?:(?!^)\\d{4})$            -> Multiple values {any 4 digit number},{any 4 digit number},{any 4 digit number}... (specific validity must be checked outside the match -> 1970-2099)
-    // ^(?:\\d{4})-(?:\\d{4})$                  -> Range {any 4 digit number}-{any 4 digit number} (specific validity must be checked outside the match -> 1970-2099)
-    // ^(?:\\d{4})-(?:\\d{4})/(?:\\d{1,3})$     -> Range AND Frequency {any 4 digit number}-{any 4 digit number}/{any 3 digit number}
-    private final Pattern yearsValidationPattern = Pattern.compile("^(?:\\*)$|^\\d{4}$|^(?:\\*|\\d{4})/(?:\\d{1,3})$|^(?:\\d{4},)*(?:(?!^)\\d{4})$|^(?:\\d{4})-(?:\\d{4})$|^(?:\\d{4})-(?:\\d{4})/(?:\\d{1,3})$");
+    // *                                        -> Every step
+    // {4 digits}                               -> Single value
+    // {* | 4 digits}/{1 to 3 digits}           -> Frequency range
+    // {4 digits},{4 digits},...                -> Multiple values
+    // {4 digits}-{4 digits}                    -> Range
+    // {4 digits}-{4 digits}/{1 to 3 digits}    -> Range AND Frequency
+    static final PartSyntax yearsSyntax = new PartSyntax(0, 9999, 4, true, true, 999, 999, 3, true, false, false);
+
+    // Syntaxes by part index
+    private static final PartSyntax[] SYNTAXES = {secsAndMinsSyntax, secsAndMinsSyntax, hoursSyntax, domSyntax, monthsSyntax, dowSyntax, yearsSyntax};
 
     // Pattern matching
-    private final Pattern   yearPattern             = Pattern.compile(".*\\d{4}$");
-    private final Pattern   rangeTokenSearchPattern = Pattern.compile("[*/]");
-    private final Pattern   stepValueSearchPattern  = Pattern.compile("[*\\-,]");
-    private final Pattern   singleItemTokenPattern  = Pattern.compile("^[0-9]+$");
-    private final RxReplace dowReplacer             = new RxReplace("(^\\d)|([^#/\\s]\\d)") {
+    private static final Pattern   yearPattern             = Pattern.compile(".*\\d{4}$");
+    private static final Pattern   rangeTokenSearchPattern = Pattern.compile("[*/]");
+    private static final Pattern   stepValueSearchPattern  = Pattern.compile("[*\\-,]");
+    private static final Pattern   singleItemTokenPattern  = Pattern.compile("^[0-9]+$");
+    private static final Pattern   dowNumberPattern        = Pattern.compile("(^\\d)|([^#/\\s]\\d)");
+    private static final Pattern   hashPattern             = Pattern.compile("^H(?:\\((\\d{1,4})-(\\d{1,4})\\))?(?:/(\\d{1,4}))?$");
+
+    // Resource names of the fields (by part index) and the values H can stand for, as written (days of week depend on the
+    // numbering of the expression, days of month stop at 28 so that they exist in every month)
+    static final         String[] FIELD_NAMES = {"InvalidFieldSecond", "InvalidFieldMinute", "InvalidFieldHour", "InvalidFieldDoM", "InvalidFieldMonth", "InvalidFieldDoW", "InvalidFieldYear"};
+    private static final int[]    HASH_MIN    = {0, 0, 0, 1, 1, 0, MIN_YEAR};
+    private static final int[]    HASH_MAX    = {59, 59, 23, 28, 12, 6, MAX_YEAR};
+    private static final int[]    FIELD_MAX   = {59, 59, 23, 31, 12, 6, MAX_YEAR};
+    private final        RxReplace dowReplacer             = new RxReplace(dowNumberPattern) {
         @Override
         public String replacement() {
             // Skip anything preceeded by # or /
             final String value = group(1) != null ? group(1) : group(2);
 
-            // Extract digit part (i.e. if "-2" or ",2", just take 2)
-            final String dowDigits = value.replaceAll("\\D", "");
+            // Extract digit part (i.e. if "-2" or ",2", just take 2), without compiling a pattern for every value of a list
+            final String dowDigits = isAsciiDigit(value.charAt(0)) ? value : value.substring(1);
             String dowDigitsAdjusted = dowDigits;
 
             // We're about to adjust based on a start index, we should reject out of bounds values before we do so
@@ -130,7 +155,7 @@ public class CronExpressionParser {
             }
 
             // JEE considers 7 and 0 as sunday when specifying DOW (https://docs.oracle.com/javaee/7/tutorial/ejb-basicexamples004.htm)
-            if (options.useJavaEeScheduleExpression) {
+            if (javaEe) {
                 if (dowDigits.equals("7")) {
                     dowDigitsAdjusted = "0";
                 }
@@ -203,9 +228,19 @@ public class CronExpressionParser {
 
     // State
     private final String         expression;
-    private final Options        options;
-    private final ResourceBundle localization;
+    private final Settings       options;
+    private       ResourceBundle localization;
     private       int            partsCount;
+    private       boolean        anyHashKey;
+
+    // Settings read once per parse, so that a parse never mixes the values of options changed meanwhile
+    private       boolean        javaEe;
+    private       String         hashKey;
+
+    // H fields of the last parse (by part index, null if not hashed): the field as written, and the normalized values H
+    // could stand for
+    private       String[]       hashTokens;
+    private       String[]       hashRanges;
 
     //endregion
     ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
@@ -227,8 +262,103 @@ public class CronExpressionParser {
         }
     }
 
+    /**
+     * Parse options, read only: {@link Options} can be changed once created, {@link ImmutableOptions} cannot and can be
+     * shared between threads. Both are accepted wherever options are, and are equal when all their settings are.
+     */
+    public abstract static class Settings {
+        // Limits, enough for any expression not repeating its values (i.e. the 130 years from 1970 to 2099)
+        public static final int DEFAULT_MAX_EXPRESSION_LENGTH = 1024;
+        public static final int DEFAULT_MAX_LIST_SIZE         = 256;
+
+        /**
+         * Constructor (only extended by {@link Options} and {@link ImmutableOptions})
+         */
+        Settings() {
+
+        }
+
+        public abstract boolean isThrowExceptionOnParseError();
+
+        public abstract boolean isVerbose();
+
+        public abstract boolean isUse24HourTimeFormat();
+
+        public abstract boolean isUseJavaEeScheduleExpression();
+
+        public abstract Locale getLocale();
+
+        /**
+         * @return The key the H fields are resolved from, null if H is not accepted (see {@link Options#setHashKey(String)})
+         */
+        public abstract String getHashKey();
+
+        /**
+         * @return The maximum number of characters of an expression (see {@link Options#setMaxExpressionLength(int)})
+         */
+        public abstract int getMaxExpressionLength();
+
+        /**
+         * @return The maximum number of values listed by a field (see {@link Options#setMaxListSize(int)})
+         */
+        public abstract int getMaxListSize();
+
+        /**
+         * Take an immutable snapshot of these settings. Snapshots are interned, so settings with the same values always
+         * give the same instance, which can be compared by identity (i.e. as part of a cache key).
+         *
+         * @return The immutable options with these settings (these options, if already immutable)
+         */
+        public abstract ImmutableOptions snapshot();
+
+        /**
+         * @return A builder of immutable options, starting from these settings
+         */
+        public ImmutableOptions.Builder toBuilder() {
+            return new ImmutableOptions.Builder(this);
+        }
+
+        /**
+         * Get the localization of the locale, resolved once per published localization by immutable options
+         *
+         * @return The localization resource bundle of the locale
+         */
+        ResourceBundle getLocalization() {
+            return Localization.getBundle(getLocale());
+        }
+
+        /**
+         * Settings are equal when all their values are, whether they can be changed or not
+         */
+        @Override
+        public boolean equals(final Object o) {
+            if (this == o) {
+                return true;
+            }
+
+            if (!(o instanceof Settings)) {
+                return false;
+            }
+
+            final Settings other = (Settings) o;
+            return isThrowExceptionOnParseError() == other.isThrowExceptionOnParseError()
+                   && isVerbose() == other.isVerbose()
+                   && isUse24HourTimeFormat() == other.isUse24HourTimeFormat()
+                   && isUseJavaEeScheduleExpression() == other.isUseJavaEeScheduleExpression()
+                   && getMaxExpressionLength() == other.getMaxExpressionLength()
+                   && getMaxListSize() == other.getMaxListSize()
+                   && Objects.equals(getLocale(), other.getLocale())
+                   && Objects.equals(getHashKey(), other.getHashKey());
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(isThrowExceptionOnParseError(), isVerbose(), isUse24HourTimeFormat(), isUseJavaEeScheduleExpression(), getMaxExpressionLength(), getMaxListSize(), getLocale(), getHashKey());
+        }
+    }
+
     // Parse options
-    public static class Options {
+    public static class Options extends Settings {
         ////////////////////////////////////////////////////////////////////////////////////////////////////////////////
         //region FIELDS
 
@@ -238,6 +368,9 @@ public class CronExpressionParser {
         private boolean use24HourTimeFormat         = true;
         private boolean useJavaEeScheduleExpression = false;
         private Locale  locale                      = Locale.getDefault();
+        private String  hashKey                     = null;
+        private int     maxExpressionLength         = DEFAULT_MAX_EXPRESSION_LENGTH;
+        private int     maxListSize                 = DEFAULT_MAX_LIST_SIZE;
 
         //endregion
         ////////////////////////////////////////////////////////////////////////////////////////////////////////////////
@@ -245,6 +378,7 @@ public class CronExpressionParser {
         ////////////////////////////////////////////////////////////////////////////////////////////////////////////////
         //region ACCESSORS
 
+        @Override
         public boolean isThrowExceptionOnParseError() {
             return throwExceptionOnParseError;
         }
@@ -253,6 +387,7 @@ public class CronExpressionParser {
             this.throwExceptionOnParseError = throwExceptionOnParseError;
         }
 
+        @Override
         public boolean isVerbose() {
             return verbose;
         }
@@ -261,6 +396,7 @@ public class CronExpressionParser {
             this.verbose = verbose;
         }
 
+        @Override
         public boolean isUse24HourTimeFormat() {
             return use24HourTimeFormat;
         }
@@ -269,6 +405,7 @@ public class CronExpressionParser {
             this.use24HourTimeFormat = use24HourTimeFormat;
         }
 
+        @Override
         public boolean isUseJavaEeScheduleExpression() {
             return useJavaEeScheduleExpression;
         }
@@ -277,6 +414,7 @@ public class CronExpressionParser {
             this.useJavaEeScheduleExpression = useJavaEeScheduleExpression;
         }
 
+        @Override
         public Locale getLocale() {
             return locale;
         }
@@ -289,6 +427,66 @@ public class CronExpressionParser {
             this.locale = locale;
         }
 
+        @Override
+        public String getHashKey() {
+            return hashKey;
+        }
+
+        /**
+         * Accept the H (hash) syntax in every field: "H", "H(a-b)", "H/n" and "H(a-b)/n" stand for a value (or the start
+         * of the steps) picked from the key, which is stable for a given key and spreads the schedules of different keys
+         * (i.e. "H * * * *" fires once an hour at a minute depending on the job). Only supported by the parser and the
+         * descriptor (see {@link CronExpressionDescriptor#getSymbolicDescription()}), not by the scanner.
+         * <p>
+         * Values are picked from the 32-bit {@link String#hashCode()} of the key, mixed per field: the hash only spreads
+         * jobs, and is not meant to be collision free (keys with the same hash code get the same values) nor to match
+         * schedulers hashing the bytes of the key in a given encoding.
+         *
+         * @param hashKey The key (i.e. the id of the job), null to reject H (default)
+         */
+        public void setHashKey(String hashKey) {
+            this.hashKey = hashKey;
+        }
+
+        @Override
+        public int getMaxExpressionLength() {
+            return maxExpressionLength;
+        }
+
+        /**
+         * Limit the length of the expressions, longer ones are rejected before being parsed (i.e. when they come from
+         * untrusted users)
+         *
+         * @param maxExpressionLength The maximum number of characters, whitespace included (default
+         *                            {@value #DEFAULT_MAX_EXPRESSION_LENGTH})
+         */
+        public void setMaxExpressionLength(int maxExpressionLength) {
+            if (maxExpressionLength < 1) {
+                throw new IllegalArgumentException("The maximum expression length must be positive: " + maxExpressionLength);
+            }
+
+            this.maxExpressionLength = maxExpressionLength;
+        }
+
+        @Override
+        public int getMaxListSize() {
+            return maxListSize;
+        }
+
+        /**
+         * Limit the number of values a field can list (i.e. "1,2,3" lists 3 values), fields listing more are rejected
+         * before their values are parsed
+         *
+         * @param maxListSize The maximum number of values of a field (default {@value #DEFAULT_MAX_LIST_SIZE})
+         */
+        public void setMaxListSize(int maxListSize) {
+            if (maxListSize < 1) {
+                throw new IllegalArgumentException("The maximum list size must be positive: " + maxListSize);
+            }
+
+            this.maxListSize = maxListSize;
+        }
+
         //endregion
         ////////////////////////////////////////////////////////////////////////////////////////////////////////////////
 
@@ -320,10 +518,539 @@ public class CronExpressionParser {
             this.locale = locale;
         }
 
+        /**
+         * Copy constructor, the copy can always be changed
+         *
+         * @param options The options to copy
+         */
+        public Options(final Settings options) {
+            this(options.isThrowExceptionOnParseError(), options.isVerbose(), options.isUse24HourTimeFormat(), options.isUseJavaEeScheduleExpression(), options.getLocale());
+            this.hashKey = options.getHashKey();
+            this.maxExpressionLength = options.getMaxExpressionLength();
+            this.maxListSize = options.getMaxListSize();
+        }
+
+        //endregion
+        ////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+        ////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+        //region METHODS
+
+        /**
+         * Take an immutable snapshot of these options, further changes to them do not affect it (see
+         * {@link Settings#snapshot()})
+         *
+         * @return The immutable options with the current settings
+         */
+        @Override
+        public ImmutableOptions snapshot() {
+            return ImmutableOptions.intern(new ImmutableOptions(this));
+        }
+
+        //endregion
+        ////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    }
+
+    /**
+     * Immutable options, which can be shared between threads (see {@link Settings#snapshot()}). They are interned, so
+     * options with the same settings are the same instance, and resolve the localization of their locale once per
+     * published localization.
+     */
+    public static final class ImmutableOptions extends Settings {
+        ////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+        //region FIELDS
+
+        // Interned options, weakly referenced so that the ones no longer used (i.e. with the hash key of a removed job)
+        // are dropped from the table
+        private static final Map<Interned, Interned>          interned  = new ConcurrentHashMap<>();
+        private static final ReferenceQueue<ImmutableOptions> collected = new ReferenceQueue<>();
+
+        // Final fields, so that immutable options are safely published even through a data race
+        private final    boolean          throwExceptionOnParseError;
+        private final    boolean          verbose;
+        private final    boolean          use24HourTimeFormat;
+        private final    boolean          useJavaEeScheduleExpression;
+        private final    Locale           locale;
+        private final    String           hashKey;
+        private final    int              maxExpressionLength;
+        private final    int              maxListSize;
+        private final    int              hash;
+        // The localization of the locale, resolved for a published version
+        private volatile Localized        localized;
+
+        //endregion
+        ////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+        ////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+        //region ACCESSORS
+
+        @Override
+        public boolean isThrowExceptionOnParseError() {
+            return throwExceptionOnParseError;
+        }
+
+        @Override
+        public boolean isVerbose() {
+            return verbose;
+        }
+
+        @Override
+        public boolean isUse24HourTimeFormat() {
+            return use24HourTimeFormat;
+        }
+
+        @Override
+        public boolean isUseJavaEeScheduleExpression() {
+            return useJavaEeScheduleExpression;
+        }
+
+        @Override
+        public Locale getLocale() {
+            return locale;
+        }
+
+        @Override
+        public String getHashKey() {
+            return hashKey;
+        }
+
+        @Override
+        public int getMaxExpressionLength() {
+            return maxExpressionLength;
+        }
+
+        @Override
+        public int getMaxListSize() {
+            return maxListSize;
+        }
+
+        //endregion
+        ////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+        ////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+        //region CONSTRUCTORS
+
+        /**
+         * Constructor
+         *
+         * @param options The settings to copy
+         */
+        private ImmutableOptions(final Settings options) {
+            this.throwExceptionOnParseError = options.isThrowExceptionOnParseError();
+            this.verbose = options.isVerbose();
+            this.use24HourTimeFormat = options.isUse24HourTimeFormat();
+            this.useJavaEeScheduleExpression = options.isUseJavaEeScheduleExpression();
+            this.locale = options.getLocale();
+            this.hashKey = options.getHashKey();
+            this.maxExpressionLength = options.getMaxExpressionLength();
+            this.maxListSize = options.getMaxListSize();
+            this.hash = super.hashCode();
+        }
+
+        //endregion
+        ////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+        ////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+        //region METHODS
+
+        /**
+         * @return These options
+         */
+        @Override
+        public ImmutableOptions snapshot() {
+            return this;
+        }
+
+        /**
+         * @return A builder of immutable options, starting from the defaults
+         */
+        public static Builder builder() {
+            return new Builder(new Options());
+        }
+
+        /**
+         * @return The number of interned options not collected yet
+         */
+        static int internedCount() {
+            return interned.size();
+        }
+
+        /**
+         * Get the interned options with the same settings of the given ones
+         *
+         * @param options The options
+         * @return The interned options, the given ones if none with the same settings were interned
+         */
+        private static ImmutableOptions intern(final ImmutableOptions options) {
+            for (Reference<? extends ImmutableOptions> reference; (reference = collected.poll()) != null; ) {
+                interned.remove(reference);
+            }
+
+            final Interned key = new Interned(options, collected);
+            while (true) {
+                final Interned previous = interned.putIfAbsent(key, key);
+                final ImmutableOptions existing = previous != null ? previous.get() : options;
+                if (existing != null) {
+                    return existing;
+                }
+
+                // Collected after the lookup, before its reference was dropped from the table
+                interned.remove(previous);
+            }
+        }
+
+        @Override
+        ResourceBundle getLocalization() {
+            return localized().bundle;
+        }
+
+        /**
+         * @return The localization of the locale for the published version
+         */
+        private Localized localized() {
+            final long version = Localization.getVersion();
+            Localized current = localized;
+            if (current == null || current.version != version) {
+                localized = current = new Localized(version, Localization.getBundle(locale));
+            }
+
+            return current;
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        //endregion
+        ////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+        ////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+        //region SUBCLASSES
+
+        /**
+         * Builds immutable, interned options (see {@link Settings#snapshot()}):
+         * {@code ImmutableOptions.builder().verbose(true).locale(Locale.ITALIAN).build()}
+         */
+        public static final class Builder {
+            private final Options options;
+
+            /**
+             * Constructor
+             *
+             * @param options The settings to start from
+             */
+            private Builder(final Settings options) {
+                this.options = new Options(options);
+            }
+
+            public Builder throwExceptionOnParseError(final boolean throwExceptionOnParseError) {
+                options.setThrowExceptionOnParseError(throwExceptionOnParseError);
+                return this;
+            }
+
+            public Builder verbose(final boolean verbose) {
+                options.setVerbose(verbose);
+                return this;
+            }
+
+            public Builder use24HourTimeFormat(final boolean use24HourTimeFormat) {
+                options.setUse24HourTimeFormat(use24HourTimeFormat);
+                return this;
+            }
+
+            public Builder useJavaEeScheduleExpression(final boolean useJavaEeScheduleExpression) {
+                options.setUseJavaEeScheduleExpression(useJavaEeScheduleExpression);
+                return this;
+            }
+
+            public Builder locale(final Locale locale) {
+                options.setLocale(locale);
+                return this;
+            }
+
+            /**
+             * @see Options#setHashKey(String)
+             */
+            public Builder hashKey(final String hashKey) {
+                options.setHashKey(hashKey);
+                return this;
+            }
+
+            /**
+             * @see Options#setMaxExpressionLength(int)
+             */
+            public Builder maxExpressionLength(final int maxExpressionLength) {
+                options.setMaxExpressionLength(maxExpressionLength);
+                return this;
+            }
+
+            /**
+             * @see Options#setMaxListSize(int)
+             */
+            public Builder maxListSize(final int maxListSize) {
+                options.setMaxListSize(maxListSize);
+                return this;
+            }
+
+            /**
+             * @return The immutable options, the same instance for the same settings
+             */
+            public ImmutableOptions build() {
+                return options.snapshot();
+            }
+        }
+
+        /**
+         * A weak reference to interned options, equal to the references to options with the same settings
+         */
+        private static final class Interned extends WeakReference<ImmutableOptions> {
+            private final int hash;
+
+            /**
+             * Constructor
+             *
+             * @param options The options
+             * @param queue   The queue the reference is enqueued to once the options are collected
+             */
+            private Interned(final ImmutableOptions options, final ReferenceQueue<ImmutableOptions> queue) {
+                super(options, queue);
+                this.hash = options.hash;
+            }
+
+            @Override
+            public boolean equals(final Object o) {
+                if (this == o) {
+                    return true;
+                }
+
+                if (!(o instanceof Interned) || ((Interned) o).hash != hash) {
+                    return false;
+                }
+
+                final ImmutableOptions options = get();
+                return options != null && options.equals(((Interned) o).get());
+            }
+
+            @Override
+            public int hashCode() {
+                return hash;
+            }
+        }
+
+        /**
+         * The localization bundle of a published version
+         */
+        private static final class Localized {
+            private final long           version;
+            private final ResourceBundle bundle;
+
+            /**
+             * Constructor
+             *
+             * @param version The version of the published localization
+             * @param bundle  The bundle
+             */
+            private Localized(final long version, final ResourceBundle bundle) {
+                this.version = version;
+                this.bundle = bundle;
+            }
+        }
+
         //endregion
         ////////////////////////////////////////////////////////////////////////////////////////////////////////////////
     }
 
+    /**
+     * The syntax of a normalized part, checked in a single pass over the part: every character is looked at once and
+     * never again, so that parts of any length are checked in linear time and constant space (unlike a regular
+     * expression with repeated groups, whose matching recurses for every value of a list).
+     */
+    static final class PartSyntax {
+        final int     min;
+        final int     max;
+        final int     digits;
+        final boolean fixedDigits;
+        final boolean leadingZero;
+        final int     stepMax;
+        final int     rangeStepMax;
+        final int     stepDigits;
+        final boolean stepLeadingZero;
+        final boolean lastDays;
+        final boolean nthWeekdays;
+
+        /**
+         * Constructor
+         *
+         * @param min             The minimum value
+         * @param max             The maximum value
+         * @param digits          The maximum number of digits of a value
+         * @param fixedDigits     True if values must have exactly that number of digits
+         * @param leadingZero     True if values of more than one digit can start with 0
+         * @param stepMax         The maximum step of a frequency range
+         * @param rangeStepMax    The maximum step of a range AND frequency
+         * @param stepDigits      The maximum number of digits of a step
+         * @param stepLeadingZero True if steps of more than one digit can start with 0
+         * @param lastDays        True if the last day notations of days of month are accepted
+         * @param nthWeekdays     True if the last and Nth weekday notations of days of week are accepted
+         */
+        PartSyntax(final int min, final int max, final int digits, final boolean fixedDigits, final boolean leadingZero, final int stepMax, final int rangeStepMax, final int stepDigits,
+                   final boolean stepLeadingZero, final boolean lastDays, final boolean nthWeekdays) {
+            this.min = min;
+            this.max = max;
+            this.digits = digits;
+            this.fixedDigits = fixedDigits;
+            this.leadingZero = leadingZero;
+            this.stepMax = stepMax;
+            this.rangeStepMax = rangeStepMax;
+            this.stepDigits = stepDigits;
+            this.stepLeadingZero = stepLeadingZero;
+            this.lastDays = lastDays;
+            this.nthWeekdays = nthWeekdays;
+        }
+
+        /**
+         * @param part A normalized part
+         * @return True if the part is written in this syntax
+         */
+        boolean matches(final String part) {
+            final int length = part.length();
+            if (length == 0) {
+                return false;
+            }
+
+            // Every step, or a frequency range starting from the first value
+            if (part.charAt(0) == '*') {
+                return length == 1 || (part.charAt(1) == '/' && isStep(part, 2, stepMax));
+            }
+
+            // Last day notations, which do not start with a value
+            int end = digitsEnd(part, 0);
+            if (!isValue(part, 0, end)) {
+                return lastDays && part.charAt(0) == 'L' && (length == 1 || (length == 2 && part.charAt(1) == 'W') || (part.charAt(1) == '-' && isLastDayOffset(part)));
+            } else if (end == length) {
+                return true;
+            }
+
+            switch (part.charAt(end)) {
+                case ',':
+                    // Multiple values, each followed by a comma but the last one
+                    do {
+                        final int start = end + 1;
+                        end = digitsEnd(part, start);
+                        if (!isValue(part, start, end)) {
+                            return false;
+                        }
+                    } while (end < length && part.charAt(end) == ',');
+
+                    return end == length;
+                case '-':
+                    // Range, optionally with a frequency
+                    final int start = end + 1;
+                    end = digitsEnd(part, start);
+                    return isValue(part, start, end) && (end == length || (part.charAt(end) == '/' && isStep(part, end + 1, rangeStepMax)));
+                case '/':
+                    return isStep(part, end + 1, stepMax);
+                case 'W':
+                    return lastDays && end + 1 == length;
+                case 'L':
+                    return nthWeekdays && end + 1 == length;
+                case '#':
+                    return nthWeekdays && end + 2 == length && part.charAt(end + 1) >= '1' && part.charAt(end + 1) <= '5';
+                default:
+                    return false;
+            }
+        }
+
+        /**
+         * @return True if the digits between start and end are a value of the part
+         */
+        private boolean isValue(final String part, final int start, final int end) {
+            if (end == start || end - start > digits || (fixedDigits && end - start != digits) || (!leadingZero && end - start > 1 && part.charAt(start) == '0')) {
+                return false;
+            }
+
+            final int value = number(part, start, end);
+            return value >= min && value <= max;
+        }
+
+        /**
+         * @return True if the part ends with a step from the given index
+         */
+        private boolean isStep(final String part, final int start, final int max) {
+            final int end = digitsEnd(part, start);
+            if (end != part.length() || end == start || end - start > stepDigits || (!stepLeadingZero && end - start > 1 && part.charAt(start) == '0')) {
+                return false;
+            }
+
+            return number(part, start, end) <= max;
+        }
+
+        /**
+         * @return True if the part is "L-" followed by a day from 1 to 30
+         */
+        private static boolean isLastDayOffset(final String part) {
+            final int end = digitsEnd(part, 2);
+            if (end != part.length() || end == 2 || end > 4 || part.charAt(2) == '0') {
+                return false;
+            }
+
+            return number(part, 2, end) <= 30;
+        }
+
+        /**
+         * @return The number written by the digits between start and end (a few of them, so that it cannot overflow)
+         */
+        private static int number(final String part, final int start, final int end) {
+            int number = 0;
+            for (int i = start; i < end; i++) {
+                number = number * 10 + (part.charAt(i) - '0');
+            }
+
+            return number;
+        }
+
+        /**
+         * @return The index after the digits found from the given index
+         */
+        private static int digitsEnd(final String part, int index) {
+            while (index < part.length() && part.charAt(index) >= '0' && part.charAt(index) <= '9') {
+                index++;
+            }
+
+            return index;
+        }
+    }
+
+    //endregion
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    //region ACCESSORS
+
+    /**
+     * @return The number of parts (5 to 7) found in the expression by the last call to {@link #parse()}
+     */
+    public int getPartsCount() {
+        return partsCount;
+    }
+
+    /**
+     * @param index The index of a part (0 for seconds to 6 for years)
+     * @return The part as written if it used the H syntax in the last call to {@link #parse()}, null otherwise
+     */
+    String getHashToken(final int index) {
+        return hashTokens != null ? hashTokens[index] : null;
+    }
+
+    /**
+     * @param index The index of a part (0 for seconds to 6 for years)
+     * @return The normalized values an H part could stand for (i.e. "*", "0-29", "*&#47;15"), null if not hashed
+     */
+    String getHashRange(final int index) {
+        return hashRanges != null ? hashRanges[index] : null;
+    }
+
     //endregion
     ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
 
@@ -340,15 +1067,37 @@ public class CronExpressionParser {
     }
 
     /**
-     * Constructor
+     * Constructor (this overload keeps code compiled against earlier versions linking)
      *
      * @param expression The complete cron expression
      * @param options    Parsing options (null for defaults)
      */
     public CronExpressionParser(final String expression, final Options options) {
+        this(expression, (Settings) options);
+    }
+
+    /**
+     * Constructor
+     *
+     * @param expression The complete cron expression
+     * @param options    Parsing options (null for defaults)
+     */
+    public CronExpressionParser(final String expression, final Settings options) {
         this.expression = expression;
         this.options = options != null ? options : new Options();
-        this.localization = ResourceBundle.getBundle(LOCALIZATION_BUNDLE, this.options.getLocale());
+        readSettings();
+    }
+
+    /**
+     * Constructor, normalizing the parts of expressions that have already been split (see
+     * {@link #normalizePart(int, String)})
+     *
+     * @param options    Parsing options (null for defaults)
+     * @param partsCount The number of parts (5 to 7) of the expressions
+     */
+    CronExpressionParser(final Settings options, final int partsCount) {
+        this(null, options);
+        this.partsCount = partsCount;
     }
 
     //endregion
@@ -363,9 +1112,41 @@ public class CronExpressionParser {
      * @return A 7 part string array, one part for each component of the cron expression (seconds, minutes, etc.)
      */
     public String[] parse() {
+        final CronInstrumentation instrumentation = CronInstrumentation.installed;
+        if (instrumentation == null) {
+            return parseExpression();
+        }
+
+        instrumentation.parseStarted(expression);
+        final long start = System.nanoTime();
+        try {
+            final String[] parsed = parseExpression();
+            instrumentation.parsed(expression, System.nanoTime() - start);
+            return parsed;
+        } catch (final CronExpressionParseException e) {
+            instrumentation.parseFailed(expression, e.getPart(), System.nanoTime() - start);
+            throw e;
+        }
+    }
+
+    /**
+     * Parses the cron expression string
+     *
+     * @return A 7 part string array, one part for each component of the cron expression (seconds, minutes, etc.)
+     */
+    private String[] parseExpression() {
         ////////////////////////////////////////////////////////////////////////////////////////////////////////////////
         // Initialize all elements of parsed array to empty strings
         final String[] parsed = new String[]{"", "", "", "", "", "", ""};
+        hashTokens = null;
+        hashRanges = null;
+        readSettings();
+
+        // Limit the work done on expressions coming from untrusted users, the expression is too long to be part of the message
+        if (expression.length() > options.getMaxExpressionLength()) {
+            throw new CronExpressionParseException(String.format(getString("InvalidExpressionFormatTooLong"), expression.length(), options.getMaxExpressionLength()), ALL);
+        }
+
         final String[] tokenizedExpression = expression.split(" ");
         final List<String> tmp = new ArrayList<>();
         for (final String token : tokenizedExpression) {
@@ -403,11 +1184,18 @@ public class CronExpressionParser {
             // All parts are in use
             System.arraycopy(expressionParts, 0, parsed, 0, 7);
         } else {
-            if (options.throwExceptionOnParseError) {
+            if (options.isThrowExceptionOnParseError()) {
                 throw new CronExpressionParseException(String.format(getString("InvalidExpressionFormatTooManyParts"), expression, partsCount), ALL);
             }
         }
 
+        // Check the number of values listed by each part before looking at them
+        for (int i = 0; i < parsed.length; i++) {
+            if (countValues(parsed[i], 0, parsed[i].length()) > options.getMaxListSize()) {
+                throw new CronExpressionParseException(String.format(getString("InvalidFieldTooManyValues"), getString(FIELD_NAMES[i]), options.getMaxListSize()), CronExpressionPart.values()[i]);
+            }
+        }
+
         ////////////////////////////////////////////////////////////////////////////////////////////////////////////////
         // Normalize the expression
         normalizeExpression(parsed);
@@ -420,86 +1208,91 @@ public class CronExpressionParser {
             throw new CronExpressionParseException(getString("InvalidDomDowExpression"), ALL);
         }
 
-        // Check seconds
-        if (partsCount > 5 && (!parsed[0].isEmpty() && !secsAndMinsValidationPattern.matcher(parsed[0]).matches())) {
-            throw new CronExpressionParseException(String.format(getString("InvalidFieldExpressionFormat"), getString("InvalidFieldSecond")), SEC);
-        }
-
-        // Check minutes
-        if (parsed[1].isEmpty() || !secsAndMinsValidationPattern.matcher(parsed[1]).matches()) {
-            throw new CronExpressionParseException(String.format(getString("InvalidFieldExpressionFormat"), getString("InvalidFieldMinute")), MIN);
-        }
-
-        // Check hours
-        if (parsed[2].isEmpty() || !hoursValidationPattern.matcher(parsed[2]).matches()) {
-            throw new CronExpressionParseException(String.format(getString("InvalidFieldExpressionFormat"), getString("InvalidFieldHour")), HOUR);
-        }
-
-        // Check Day of Month
-        if (parsed[3].isEmpty() || !domValidationPattern.matcher(parsed[3]).matches()) {
-            throw new CronExpressionParseException(String.format(getString("InvalidFieldExpressionFormat"), getString("InvalidFieldDoM")), DOM);
+        // Check each part
+        for (int i = 0; i < parsed.length; i++) {
+            checkPart(i, parsed[i]);
         }
 
-        // Check Month
-        if (parsed[4].isEmpty() || !monthsValidationPattern.matcher(parsed[4]).matches()) {
-            throw new CronExpressionParseException(String.format(getString("InvalidFieldExpressionFormat"), getString("InvalidFieldMonth")), MONTH);
-        }
+        return parsed;
+    }
 
-        // Check Day of Week
-        if (parsed[5].isEmpty() || !dowValidationPattern.matcher(parsed[5]).matches()) {
-            throw new CronExpressionParseException(String.format(getString("InvalidFieldExpressionFormat"), getString("InvalidFieldDoW")), DOW);
+    /**
+     * Checks a normalized part (see {@link #normalizePart(int, String)}), the same way every part of a parsed expression is
+     * checked
+     *
+     * @param index The index of the part (0 for seconds to 6 for years)
+     * @param part  The normalized part, empty if missing (only seconds and years can be)
+     * @throws CronExpressionParseException If the part is not valid
+     */
+    void checkPart(final int index, final String part) {
+        if (part.isEmpty() ? index != 0 && index != 6 : !SYNTAXES[index].matches(part)) {
+            throw invalidField(index);
+        } else if (index != 6 || part.isEmpty()) {
+            return;
         }
 
-        // Check year
-        if (partsCount > 5 && (!parsed[6].isEmpty() && !yearsValidationPattern.matcher(parsed[6]).matches())) {
-            throw new CronExpressionParseException(String.format(getString("InvalidFieldExpressionFormat"), getString("InvalidFieldYear")), YEAR);
-        } else if (!parsed[6].isEmpty() && yearsValidationPattern.matcher(parsed[6]).matches()) {
-            if (partsCount > 5 && parsed[6].contains("/")) {
-                final String[] frequencyParts = parsed[6].split("/");
-                if (frequencyParts.length == 2) {
-                    // Check range if present
-                    if (frequencyParts[0].contains("-")) {
-                        final String[] rangeParts = frequencyParts[0].split("-");
-                        if (rangeParts.length == 2) {
-                            // Check if range parts are out of bounds
-                            if (Integer.parseInt(rangeParts[0]) < MIN_YEAR || Integer.parseInt(rangeParts[0]) > MAX_YEAR ||
-                                    Integer.parseInt(rangeParts[1]) < MIN_YEAR || Integer.parseInt(rangeParts[1]) > MAX_YEAR) {
+        // Years are also checked against the range of years
+        if (part.contains("/")) {
+            final String[] frequencyParts = part.split("/");
+            if (frequencyParts.length == 2) {
+                // Check range if present
+                if (frequencyParts[0].contains("-")) {
+                    final String[] rangeParts = frequencyParts[0].split("-");
+                    if (rangeParts.length == 2) {
+                        // Check if range parts are out of bounds
+                        if (Integer.parseInt(rangeParts[0]) < MIN_YEAR || Integer.parseInt(rangeParts[0]) > MAX_YEAR ||
+                                Integer.parseInt(rangeParts[1]) < MIN_YEAR || Integer.parseInt(rangeParts[1]) > MAX_YEAR) {
 
-                                throw new CronExpressionParseException(String.format(getString("InvalidYearsRangeValue"), MIN_YEAR, MAX_YEAR), YEAR);
-                            }
-                        }
-                    } else {
-                        // Frequency only, validate single year entry
-                        if (!frequencyParts[0].equals("*") && (Integer.parseInt(frequencyParts[0]) < MIN_YEAR || Integer.parseInt(frequencyParts[0]) > MAX_YEAR)) {
                             throw new CronExpressionParseException(String.format(getString("InvalidYearsRangeValue"), MIN_YEAR, MAX_YEAR), YEAR);
                         }
                     }
-
-                    // Validate frequency
-                    if (Integer.parseInt(frequencyParts[1]) < MIN_YEAR_FREQUENCY || Integer.parseInt(frequencyParts[1]) > MAX_YEAR_FREQUENCY) {
-                        throw new CronExpressionParseException(String.format(getString("InvalidYearFrequencyValue"), MIN_YEAR_FREQUENCY, MAX_YEAR_FREQUENCY), YEAR);
-                    }
                 } else {
-                    throw new CronExpressionParseException(String.format(getString("InvalidFieldExpressionFormat"), getString("InvalidFieldYear")), YEAR);
+                    // Frequency only, validate single year entry
+                    if (!frequencyParts[0].equals("*") && (Integer.parseInt(frequencyParts[0]) < MIN_YEAR || Integer.parseInt(frequencyParts[0]) > MAX_YEAR)) {
+                        throw new CronExpressionParseException(String.format(getString("InvalidYearsRangeValue"), MIN_YEAR, MAX_YEAR), YEAR);
+                    }
                 }
-            } else if (parsed[6].contains("-")) {
-                // Check if range parts are out of bounds
-                final String[] rangeParts = parsed[6].split("-");
-                if (Integer.parseInt(rangeParts[0]) < MIN_YEAR || Integer.parseInt(rangeParts[0]) > MAX_YEAR ||
-                        Integer.parseInt(rangeParts[1]) < MIN_YEAR || Integer.parseInt(rangeParts[1]) > MAX_YEAR) {
 
-                    throw new CronExpressionParseException(String.format(getString("InvalidYearsRangeValue"), MIN_YEAR, MAX_YEAR), YEAR);
+                // Validate frequency
+                if (Integer.parseInt(frequencyParts[1]) < MIN_YEAR_FREQUENCY || Integer.parseInt(frequencyParts[1]) > MAX_YEAR_FREQUENCY) {
+                    throw new CronExpressionParseException(String.format(getString("InvalidYearFrequencyValue"), MIN_YEAR_FREQUENCY, MAX_YEAR_FREQUENCY), YEAR);
                 }
-            } else if (!parsed[6].equals("*")) {
-                // Check single value
-                if (Integer.parseInt(parsed[6]) < MIN_YEAR || Integer.parseInt(parsed[6]) > MAX_YEAR) {
+            } else {
+                throw new CronExpressionParseException(String.format(getString("InvalidFieldExpressionFormat"), getString("InvalidFieldYear")), YEAR);
+            }
+        } else if (part.contains("-")) {
+            // Check if range parts are out of bounds
+            final String[] rangeParts = part.split("-");
+            if (Integer.parseInt(rangeParts[0]) < MIN_YEAR || Integer.parseInt(rangeParts[0]) > MAX_YEAR ||
+                    Integer.parseInt(rangeParts[1]) < MIN_YEAR || Integer.parseInt(rangeParts[1]) > MAX_YEAR) {
+
+                throw new CronExpressionParseException(String.format(getString("InvalidYearsRangeValue"), MIN_YEAR, MAX_YEAR), YEAR);
+            }
+        } else if (!part.equals("*")) {
+            // Check single value (or each value of a list)
+            for (final String year : part.split(",")) {
+                if (Integer.parseInt(year) < MIN_YEAR || Integer.parseInt(year) > MAX_YEAR) {
 
                     throw new CronExpressionParseException(String.format(getString("InvalidYearsRangeValue"), MIN_YEAR, MAX_YEAR), YEAR);
                 }
             }
         }
+    }
 
-        return parsed;
+    /**
+     * Reads the settings the normalization of the parts depends on (the day of week numbering and the hash key)
+     */
+    private void readSettings() {
+        javaEe = options.isUseJavaEeScheduleExpression();
+        hashKey = options.getHashKey() == null && anyHashKey ? "" : options.getHashKey();
+    }
+
+    /**
+     * Accepts H even if the options have no hash key, resolving it from a placeholder key: only the H parts as written
+     * mean something then (see {@link CronExpressionDescriptor#getSymbolicDescription()})
+     */
+    void acceptHashWithoutKey() {
+        anyHashKey = true;
     }
 
     /**
@@ -508,148 +1301,196 @@ public class CronExpressionParser {
      * @param parsed The parsed expression parts
      */
     private void normalizeExpression(final String[] parsed) {
-        // Convert ? to * only for DOM and DOW
-        parsed[3] = parsed[3].replace("?", "*");
-        parsed[5] = parsed[5].replace("?", "*");
-
-        // Convert 0/, 1/ to */
-        if (parsed[0].startsWith("0/")) {
-            // Seconds
-            parsed[0] = parsed[0].replace("0/", "*/");
+        for (int i = 0; i < parsed.length; i++) {
+            parsed[i] = normalizePart(i, parsed[i]);
         }
 
-        if (parsed[1].startsWith("0/")) {
-            // Minutes
-            parsed[1] = parsed[1].replace("0/", "*/");
-        }
+        parsed[2] = normalizeHours(parsed[0], parsed[1], parsed[2]);
+    }
 
-        if (parsed[2].startsWith("0/")) {
-            // Hours
-            parsed[2] = parsed[2].replace("0/", "*/");
+    /**
+     * Massage a single part of the expression, the only transformation depending on the other parts being the one of
+     * {@link #normalizeHours(String, String, String)}
+     *
+     * @param index The index of the part (0 for seconds to 6 for years)
+     * @param part  The part, empty if missing
+     * @return The normalized part
+     */
+    String normalizePart(final int index, String part) {
+        // Resolve H from the hash key (no day or month name starts with H)
+        if (hashKey != null && part.startsWith("H")) {
+            part = resolveHash(index, part);
         }
 
-        if (parsed[3].startsWith("1/")) {
-            // DOM
-            parsed[3] = parsed[3].replace("1/", "*/");
+        // Convert ? to * only for DOM and DOW
+        if (index == 3 || index == 5) {
+            part = part.replace("?", "*");
         }
 
-        if (parsed[4].startsWith("1/")) {
-            // Month
-            parsed[4] = parsed[4].replace("1/", "*/");
+        // Convert 0/ (seconds, minutes and hours), 1/ (DOM, month, DOW and years) to */
+        final String allStep = index < 3 ? "0/" : "1/";
+        if (part.startsWith(allStep)) {
+            part = part.replace(allStep, "*/");
         }
 
-        if (parsed[5].startsWith("1/")) {
-            // DOW
-            parsed[5] = parsed[5].replace("1/", "*/");
+        if (index == 5) {
+            // Adjust DOW based on dayOfWeekStartIndexZero option, then convert day names to 0-6 (after the day digits
+            // have been adjusted, names are absolute)
+            part = DAY_NAMES.replace(dowReplacer.replace(part));
+        } else if (index == 4) {
+            // Convert month names to 1-12
+            part = MONTH_NAMES.replace(part);
+        } else if (index == 0 && part.equals("0")) {
+            // Convert 0 second to (empty)
+            part = "";
         }
 
-        if (parsed[6].startsWith("1/")) {
-            // Years
-            parsed[6] = parsed[6].replace("1/", "*/");
+        // Convert all '*/1' to '*'
+        if (part.equals("*/1")) {
+            part = "*";
         }
 
-        // Adjust DOW based on dayOfWeekStartIndexZero option
-        parsed[5] = dowReplacer.replace(parsed[5]);
-
-        // Convert DOM '?' to '*'
-        if (parsed[3].equals("?")) {
-            parsed[3] = "*";
+        // Convert non specified ranges to "/N" -> "*/N" (empty steps are kept, so that "/N/M" and "N/M/" are rejected)
+        final String[] parts = part.split("/", -1);
+        if (parts.length == 2 && parts[0].isEmpty()) {
+            part = "*" + "/" + parts[1];
         }
 
-        // Convert SUN-SAT format to 0-6 format
-        for (int i = 0; i <= 6; i++) {
-            final String currentDay = Day.values()[i].name();
-            parsed[5] = parsed[5].replace(currentDay, String.valueOf(i));
-
-            // Found, early exit
-            if (parsed[5].length() == 1) {
-                break;
+        // Convert Month,DOW,Year step values with a starting value (i.e. not '*') to between expressions.
+        // This allows us to reuse the between expression handling for step values.
+        //
+        // For Example:
+        //  - month part '3/2' will be converted to '3-12/2' (every 2 months between March and December)
+        //  - DOW part '3/2' will be converted to '3-6/2' (every 2 days between Tuesday and Saturday)
+        if (part.contains("/") && !stepValueSearchPattern.matcher(part).find()) {
+            String stepRangeThrough = null;
+            switch (index) {
+                case 4:
+                    stepRangeThrough = "12";
+                    break;
+                case 5:
+                    stepRangeThrough = "6";
+                    break;
+                case 6:
+                    stepRangeThrough = String.valueOf(MAX_YEAR);
+                    break;
+                default:
+                    break;
             }
-        }
 
-        // Convert JAN-DEC format to 1-12 format
-        for (int i = 0; i < 12; i++) {
-            final String currentMonth = Month.values()[i].name();
-            parsed[4] = parsed[4].replace(currentMonth, String.valueOf(i + 1));
+            if (stepRangeThrough != null) {
+                final String[] steps = part.split("/", -1);
+                if (steps.length > 2) {
+                    final CronExpressionPart errorRange;
+                    final String fieldString;
+                    if (stepRangeThrough.equals("12")) {
+                        errorRange = MONTH;
+                        fieldString = getString("InvalidFieldMonth");
+                    } else if (stepRangeThrough.equals("6")) {
+                        errorRange = DOW;
+                        fieldString = getString("InvalidFieldDoW");
+                    } else {
+                        errorRange = YEAR;
+                        fieldString = getString("InvalidFieldYear");
+                    }
+
+                    throw new CronExpressionParseException(String.format(getString("InvalidFieldExpressionFormat"), fieldString), errorRange);
+                }
 
-            // Found, early exit
-            if (parsed[4].length() == 1 || parsed[4].length() == 2) {
-                break;
+                part = String.format("%d-%d/%d", Integer.parseInt(steps[0]), Integer.parseInt(stepRangeThrough), Integer.parseInt(steps[1]));
             }
         }
 
-        // Convert 0 second to (empty)
-        if (parsed[0].equals("0")) {
-            parsed[0] = "";
-        }
+        return part;
+    }
 
-        // If time interval is specified for seconds or minutes and next time part is single item, make it a "self-range" so
-        // the expression can be interpreted as an interval 'between' range.
-        //     For example:
-        //     0-20/3 9 * * * => 0-20/3 9-9 * * * (9 => 9-9)
-        //     */5 3 * * * => */5 3-3 * * * (3 => 3-3)
-        if (singleItemTokenPattern.matcher(parsed[2]).matches() && (rangeTokenSearchPattern.matcher(parsed[1]).find() || rangeTokenSearchPattern.matcher(parsed[0]).find())) {
-            parsed[2] += "-" + parsed[2];
+    /**
+     * Replace the H syntax of a part with the values picked from the hash key, as written (the part is then normalized as
+     * usual):
+     * <pre>
+     *     H        =&gt; a value of the field (i.e. "H" =&gt; "37" for minutes, days of month stop at 28)
+     *     H(a-b)   =&gt; a value between a and b
+     *     H/n      =&gt; every n values, starting from a value below n (i.e. "H/15" =&gt; "7-59/15" for minutes)
+     *     H(a-b)/n =&gt; every n values between a and b, starting from one of the first n values
+     * </pre>
+     *
+     * @param index The index of the part (0 for seconds to 6 for years)
+     * @param part  The part, starting with H
+     * @return The part with H replaced
+     */
+    private String resolveHash(final int index, final String part) {
+        final Matcher matcher = hashPattern.matcher(part);
+        if (!matcher.matches()) {
+            throw invalidField(index);
         }
 
-        // Loop through all parts and apply global normalization
-        for (int i = 0; i < parsed.length; i++) {
-            // Convert all '*/1' to '*'
-            if (parsed[i].equals("*/1")) {
-                parsed[i] = "*";
+        // Days of week are written 1-7 by Quartz expressions (Sunday is 1)
+        final int shift = index == 5 && partsCount > 5 && !javaEe ? 1 : 0;
+        int min = HASH_MIN[index] + shift;
+        int max = HASH_MAX[index] + shift;
+        final int fieldMax = FIELD_MAX[index] + shift;
+        if (matcher.group(1) != null) {
+            min = Integer.parseInt(matcher.group(1));
+            max = Integer.parseInt(matcher.group(2));
+            if (min < HASH_MIN[index] + shift || min > max || max > fieldMax) {
+                throw invalidField(index);
             }
+        }
 
-            // Convert non specified ranges to "/N" -> "*/N"
-            final String[] parts = parsed[i].split("/");
-            if (parts.length > 1 && parts[0].isEmpty()) {
-                parsed[i] = "*" + "/" + parts[1];
+        final long hash = hash(hashKey, index);
+        final String resolved;
+        final String range;
+        if (matcher.group(3) != null) {
+            final int step = Integer.parseInt(matcher.group(3));
+            if (step == 0) {
+                throw invalidField(index);
             }
 
-            // Convert Month,DOW,Year step values with a starting value (i.e. not '*') to between expressions.
-            // This allows us to reuse the between expression handling for step values.
-            //
-            // For Example:
-            //  - month part '3/2' will be converted to '3-12/2' (every 2 months between March and December)
-            //  - DOW part '3/2' will be converted to '3-6/2' (every 2 days between Tuesday and Saturday)
-            if (parsed[i].contains("/") && !stepValueSearchPattern.matcher(parsed[i]).find()) {
-                String stepRangeThrough = null;
-                switch (i) {
-                    case 4:
-                        stepRangeThrough = "12";
-                        break;
-                    case 5:
-                        stepRangeThrough = "6";
-                        break;
-                    case 6:
-                        stepRangeThrough = String.valueOf(MAX_YEAR);
-                        break;
-                    default:
-                        break;
-                }
+            final int end = matcher.group(1) != null ? max : fieldMax;
+            resolved = (min + (int) Long.remainderUnsigned(hash, Math.min(step, end - min + 1))) + "-" + end + "/" + step;
+            range = (matcher.group(1) != null ? min + "-" + max : "*") + "/" + step;
+        } else {
+            resolved = String.valueOf(min + (int) Long.remainderUnsigned(hash, max - min + 1));
+            range = matcher.group(1) != null ? min + "-" + max : "*";
+        }
 
-                if (stepRangeThrough != null) {
-                    final String[] steps = parsed[i].split("/");
-                    if (steps.length > 2) {
-                        final CronExpressionPart errorRange;
-                        final String fieldString;
-                        if (stepRangeThrough.equals("12")) {
-                            errorRange = MONTH;
-                            fieldString = getString("InvalidFieldMonth");
-                        } else if (stepRangeThrough.equals("6")) {
-                            errorRange = DOW;
-                            fieldString = getString("InvalidFieldDoW");
-                        } else {
-                            errorRange = YEAR;
-                            fieldString = getString("InvalidFieldYear");
-                        }
+        if (hashTokens == null) {
+            hashTokens = new String[7];
+            hashRanges = new String[7];
+        }
 
-                        throw new CronExpressionParseException(String.format(getString("InvalidFieldExpressionFormat"), fieldString), errorRange);
-                    }
+        hashTokens[index] = part;
+        hashRanges[index] = normalizePart(index, range);
+        return resolved;
+    }
 
-                    parsed[i] = String.format("%d-%d/%d", Integer.parseInt(steps[0]), Integer.parseInt(stepRangeThrough), Integer.parseInt(steps[1]));
-                }
-            }
+    /**
+     * @return The exception reporting an invalid part
+     */
+    private CronExpressionParseException invalidField(final int index) {
+        return new CronExpressionParseException(String.format(getString("InvalidFieldExpressionFormat"), getString(FIELD_NAMES[index])), CronExpressionPart.values()[index]);
+    }
+
+    /**
+     * If time interval is specified for seconds or minutes and next time part is single item, make it a "self-range" so
+     * the expression can be interpreted as an interval 'between' range.
+     * <pre>
+     *     For example:
+     *     0-20/3 9 * * * =&gt; 0-20/3 9-9 * * * (9 =&gt; 9-9)
+     *     *&#47;5 3 * * * =&gt; *&#47;5 3-3 * * * (3 =&gt; 3-3)
+     * </pre>
+     *
+     * @param seconds The normalized seconds
+     * @param minutes The normalized minutes
+     * @param hours   The normalized hours
+     * @return The normalized hours
+     */
+    static String normalizeHours(final String seconds, final String minutes, final String hours) {
+        if (singleItemTokenPattern.matcher(hours).matches() && (rangeTokenSearchPattern.matcher(minutes).find() || rangeTokenSearchPattern.matcher(seconds).find())) {
+            return hours + "-" + hours;
         }
+
+        return hours;
     }
 
     /**
@@ -659,13 +1500,98 @@ public class CronExpressionParser {
      * @return The resource value
      */
     protected String getString(final String resourceName) {
+        // Only needed by error messages, so the bundle is loaded on first use
+        if (localization == null) {
+            localization = options.getLocalization();
+        }
+
         try {
             return localization.getString(resourceName);
         } catch (MissingResourceException e) {
+            final CronInstrumentation instrumentation = CronInstrumentation.installed;
+            if (instrumentation != null) {
+                instrumentation.missingLocalization(options.getLocale(), resourceName);
+            }
+
             return "{{" + resourceName + "}}";
         }
     }
 
     //endregion
     ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    //region STATIC METHODS
+
+    /**
+     * @param key   The hash key
+     * @param index The index of a part
+     * @return A well mixed hash of the key, different for every part (the finalizer of SplitMix64 applied to the 32-bit
+     * {@link String#hashCode()} of the key, which only spreads jobs, see {@link Options#setHashKey(String)})
+     */
+    static long hash(final String key, final int index) {
+        long z = key.hashCode() * 0x9E3779B97F4A7C15L + (index + 1) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * @return True if the character is one of the digits matched by \d (not the digits of other scripts)
+     */
+    private static boolean isAsciiDigit(final char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    /**
+     * @param text  The buffer
+     * @param start The index of the first character of a part
+     * @param end   The index after the last character of the part
+     * @return The number of values listed by the part (i.e. 3 for "1,2,3", 1 for a range)
+     */
+    static int countValues(final CharSequence text, final int start, final int end) {
+        int values = 1;
+        for (int i = start; i < end; i++) {
+            if (text.charAt(i) == ',') {
+                values++;
+            }
+        }
+
+        return values;
+    }
+
+    /**
+     * @return The day names ("SUN" and "SUNDAY" are 0, "SAT" and "SATURDAY" are 6)
+     */
+    private static NameTrie dayNames() {
+        final Map<String, Integer> names = new HashMap<>();
+        for (final Day day : Day.values()) {
+            names.put(day.name(), day.ordinal());
+        }
+
+        for (final java.time.DayOfWeek day : java.time.DayOfWeek.values()) {
+            names.put(day.name(), day.getValue() % 7);
+        }
+
+        return new NameTrie(names);
+    }
+
+    /**
+     * @return The month names ("JAN" and "JANUARY" are 1, "DEC" and "DECEMBER" are 12)
+     */
+    private static NameTrie monthNames() {
+        final Map<String, Integer> names = new HashMap<>();
+        for (final Month month : Month.values()) {
+            names.put(month.name(), month.ordinal() + 1);
+        }
+
+        for (final java.time.Month month : java.time.Month.values()) {
+            names.put(month.name(), month.getValue());
+        }
+
+        return new NameTrie(names);
+    }
+
+    //endregion
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
 }
@@ -0,0 +1,896 @@
+package it.burning.cron;
+
+import it.burning.cron.CronExpressionParser.CronExpressionParseException;
+import it.burning.cron.CronExpressionParser.CronExpressionPart;
+import it.burning.cron.CronExpressionParser.ImmutableOptions;
+import it.burning.cron.CronExpressionParser.Options;
+import it.burning.cron.CronExpressionParser.PartSyntax;
+import it.burning.cron.CronExpressionParser.Settings;
+import it.burning.utils.NameTrie;
+
+import java.util.Arrays;
+import java.util.MissingResourceException;
+import java.util.ResourceBundle;
+
+import static it.burning.cron.CronExpressionParser.CronExpressionPart.*;
+import static it.burning.cron.CronExpressionParser.MAX_YEAR;
+import static it.burning.cron.CronExpressionParser.MIN_YEAR;
+import static it.burning.cron.CronExpressionParser.countValues;
+import static it.burning.cron.CronExpressionParser.domSyntax;
+import static it.burning.cron.CronExpressionParser.dowSyntax;
+import static it.burning.cron.CronExpressionParser.hoursSyntax;
+import static it.burning.cron.CronExpressionParser.monthsSyntax;
+import static it.burning.cron.CronExpressionParser.secsAndMinsSyntax;
+import static it.burning.cron.CronExpressionParser.yearsSyntax;
+import static it.burning.cron.CronSchedule.NONE;
+
+/**
+ * A reusable, allocation free parser reading expressions straight from a slice of a larger buffer (i.e. a crontab line
+ * or a network frame).
+ * <p>
+ * Expressions are scanned one character at a time and compiled into a caller supplied {@link Fields} holder, which
+ * keeps the position of every part within the buffer and the values matched by each field, without creating any
+ * substring. Parts can be separated by any run of whitespace, tabs included. The scanner accepts the same expressions
+ * as {@link CronExpressionParser#parse()} and gives them the same meaning (see {@link CronSchedule#fromParts(String[])}),
+ * only error messages are built on demand.
+ * <p>
+ * The scanner reads the parts written in the syntaxes the parser checks normalized parts with (see
+ * CronExpressionParser.PartSyntax), plus names, '?' and the aliases of '*'. Any other part (i.e. a zero padded
+ * step, or H when the options have a hash key) is left to the parser, which normalizes and checks it, so that there is
+ * a single grammar: only such parts, and errors, allocate.
+ * <p>
+ * The scanner holds no state besides its options, so a single instance can be shared between threads; holders can be
+ * reused by one thread at a time.
+ */
+public final class CronExpressionScanner {
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    //region FIELDS
+
+    // Constants
+    private static final int MAX_YEAR_FREQUENCY = MAX_YEAR - MIN_YEAR;
+
+    // Field syntaxes, those of the normalized parts (see CronExpressionParser) along with the aliases of '*' and the names
+    // of the values. Years are also bound to the range the parser checks them against.
+    private static final Field SECONDS       = new Field(SEC, secsAndMinsSyntax, '0', false, null);
+    private static final Field MINUTES       = new Field(MIN, secsAndMinsSyntax, '0', false, null);
+    private static final Field HOURS         = new Field(HOUR, hoursSyntax, '0', false, null);
+    private static final Field DAYS_OF_MONTH = new Field(DOM, domSyntax, '1', true, null);
+    private static final Field MONTHS        = new Field(MONTH, monthsSyntax, '1', false, CronExpressionParser.MONTH_NAMES);
+    private static final Field DAYS_OF_WEEK  = new Field(DOW, dowSyntax, '1', true, CronExpressionParser.DAY_NAMES);
+    private static final Field YEARS         = new Field(YEAR, yearsSyntax, MIN_YEAR, MAX_YEAR, MAX_YEAR_FREQUENCY, '1', false, null);
+
+    // Field syntaxes and parts by part index
+    private static final Field[]              FIELDS = {SECONDS, MINUTES, HOURS, DAYS_OF_MONTH, MONTHS, DAYS_OF_WEEK, YEARS};
+    private static final CronExpressionPart[] PARTS  = {SEC, MIN, HOUR, DOM, MONTH, DOW, YEAR};
+
+    // Config
+    private final ImmutableOptions options;
+
+    //endregion
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    //region SUBCLASSES
+
+    /**
+     * The syntax of a field
+     */
+    private static final class Field {
+        final CronExpressionPart part;
+        final String             nameKey;
+        final int                min;
+        final int                max;
+        final int                digits;
+        final boolean            fixedDigits;
+        final boolean            leadingZero;
+        final int                stepDigits;
+        final boolean            stepLeadingZero;
+        final int                starStepMax;
+        final int                stepMax;
+        final char               starAlias;
+        final boolean            questionMark;
+        final NameTrie           names;
+
+        /**
+         * Constructor
+         *
+         * @param part         The part of the expression
+         * @param syntax       The syntax of the normalized part
+         * @param starAlias    The value that stands for '*' when followed by a step (i.e. '0/5' is '*&#47;5')
+         * @param questionMark True if '?' can be used instead of '*'
+         * @param names        The names of the values, null if none
+         */
+        Field(final CronExpressionPart part, final PartSyntax syntax, final char starAlias, final boolean questionMark, final NameTrie names) {
+            this(part, syntax, syntax.min, syntax.max, Integer.MAX_VALUE, starAlias, questionMark, names);
+        }
+
+        /**
+         * Constructor
+         *
+         * @param part         The part of the expression
+         * @param syntax       The syntax of the normalized part
+         * @param min          The minimum value
+         * @param max          The maximum value
+         * @param maxStep      The maximum step, if lower than the one of the syntax
+         * @param starAlias    The value that stands for '*' when followed by a step (i.e. '0/5' is '*&#47;5')
+         * @param questionMark True if '?' can be used instead of '*'
+         * @param names        The names of the values, null if none
+         */
+        Field(final CronExpressionPart part, final PartSyntax syntax, final int min, final int max, final int maxStep, final char starAlias,
+              final boolean questionMark, final NameTrie names) {
+            this.part = part;
+            this.nameKey = CronExpressionParser.FIELD_NAMES[part.ordinal()];
+            this.min = min;
+            this.max = max;
+            this.digits = syntax.digits;
+            this.fixedDigits = syntax.fixedDigits;
+            this.leadingZero = syntax.leadingZero;
+            this.stepDigits = syntax.stepDigits;
+            this.stepLeadingZero = syntax.stepLeadingZero;
+            this.starStepMax = Math.min(syntax.stepMax, maxStep);
+            this.stepMax = Math.min(syntax.rangeStepMax, maxStep);
+            this.starAlias = starAlias;
+            this.questionMark = questionMark;
+            this.names = names;
+        }
+    }
+
+    /**
+     * Thrown when the scanner does not read a part itself, the part is then left to the parser. A single instance without
+     * a stack trace, so that leaving a part to the parser costs nothing.
+     */
+    private static final class Rejected extends RuntimeException {
+        private static final Rejected INSTANCE = new Rejected();
+
+        /**
+         * Constructor
+         */
+        private Rejected() {
+            super(null, null, false, false);
+        }
+    }
+
+    /**
+     * The result of a scan: where each part of the expression is and which values each field matches. Day of week values
+     * are normalized (Sunday is 0) whatever the dialect of the expression. Holders are meant to be reused, every scan
+     * overwrites the previous result.
+     */
+    public static final class Fields {
+        // Parts, by CronExpressionPart ordinal (seconds to year)
+        private final int[] starts = new int[YEAR.ordinal() + 1];
+        private final int[] ends   = new int[YEAR.ordinal() + 1];
+        private       int   partsCount;
+
+        // Time fields
+        private       long   seconds;
+        private       long   minutes;
+        private       int    hours;
+        private       int    months;
+        private final long[] years = new long[CronSchedule.YEAR_WORDS];
+
+        // Day of month rules
+        private int     daysOfMonth;
+        private boolean dayOfMonthRestricted;
+        private int     lastDayOffset;
+        private boolean lastWeekday;
+        private int     nearestWeekday;
+
+        // Day of week rules
+        private int     daysOfWeek;
+        private boolean dayOfWeekRestricted;
+        private int     lastDayOfWeek;
+        private int     nthDayOfWeek;
+        private int     nthOccurrence;
+
+        // Scratch state
+        private final long[] word = new long[1];
+        private       int    cursor;
+
+        /**
+         * @return The number of parts (5 to 7) of the expression
+         */
+        public int getPartsCount() {
+            return partsCount;
+        }
+
+        /**
+         * @param part The part (SEC to YEAR)
+         * @return True if the expression contains the part
+         */
+        public boolean hasPart(final CronExpressionPart part) {
+            return starts[part.ordinal()] >= 0;
+        }
+
+        /**
+         * @param part The part (SEC to YEAR)
+         * @return The index of the first character of the part in the scanned buffer, -1 if missing
+         */
+        public int getStart(final CronExpressionPart part) {
+            return starts[part.ordinal()];
+        }
+
+        /**
+         * @param part The part (SEC to YEAR)
+         * @return The index after the last character of the part in the scanned buffer, -1 if missing
+         */
+        public int getEnd(final CronExpressionPart part) {
+            return ends[part.ordinal()];
+        }
+
+        public long getSeconds() {
+            return seconds;
+        }
+
+        public long getMinutes() {
+            return minutes;
+        }
+
+        public int getHours() {
+            return hours;
+        }
+
+        public int getMonths() {
+            return months;
+        }
+
+        /**
+         * @param year The year
+         * @return True if the year matches
+         */
+        public boolean hasYear(final int year) {
+            final int bit = year - MIN_YEAR;
+            return bit >= 0 && bit < CronSchedule.YEAR_COUNT && (years[bit >>> 6] & (1L << bit)) != 0;
+        }
+
+        public int getDaysOfMonth() {
+            return daysOfMonth;
+        }
+
+        public boolean isDayOfMonthRestricted() {
+            return dayOfMonthRestricted;
+        }
+
+        public int getLastDayOffset() {
+            return lastDayOffset;
+        }
+
+        public boolean isLastWeekday() {
+            return lastWeekday;
+        }
+
+        public int getNearestWeekday() {
+            return nearestWeekday;
+        }
+
+        public int getDaysOfWeek() {
+            return daysOfWeek;
+        }
+
+        public boolean isDayOfWeekRestricted() {
+            return dayOfWeekRestricted;
+        }
+
+        public int getLastDayOfWeek() {
+            return lastDayOfWeek;
+        }
+
+        public int getNthDayOfWeek() {
+            return nthDayOfWeek;
+        }
+
+        public int getNthOccurrence() {
+            return nthOccurrence;
+        }
+
+        /**
+         * @return An immutable schedule matching the scanned expression
+         */
+        public CronSchedule toSchedule() {
+            return new CronSchedule(seconds, minutes, hours, daysOfMonth, months, daysOfWeek, years,
+                                    dayOfMonthRestricted, dayOfWeekRestricted, lastDayOffset, lastWeekday, nearestWeekday,
+                                    lastDayOfWeek, nthDayOfWeek, nthOccurrence);
+        }
+
+        /**
+         * Clear the previous result
+         */
+        private void reset() {
+            Arrays.fill(starts, -1);
+            Arrays.fill(ends, -1);
+            partsCount = 0;
+            seconds = 1L;
+            minutes = 0;
+            hours = 0;
+            months = 0;
+            Arrays.fill(years, 0);
+            daysOfMonth = 0;
+            dayOfMonthRestricted = false;
+            lastDayOffset = NONE;
+            lastWeekday = false;
+            nearestWeekday = NONE;
+            daysOfWeek = 0;
+            dayOfWeekRestricted = false;
+            lastDayOfWeek = NONE;
+            nthDayOfWeek = NONE;
+            nthOccurrence = NONE;
+        }
+    }
+
+    //endregion
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    //region CONSTRUCTORS
+
+    /**
+     * Constructor (Init with default options)
+     */
+    public CronExpressionScanner() {
+        this(null);
+    }
+
+    /**
+     * Constructor
+     *
+     * @param options Parsing options (null for defaults), read the same way as the parser reads them
+     */
+    public CronExpressionScanner(final Settings options) {
+        this.options = options != null ? options.snapshot() : new Options().snapshot();
+    }
+
+    //endregion
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    //region METHODS
+
+    /**
+     * Parses a whole expression
+     *
+     * @param expression The expression
+     * @param fields     The holder receiving the result
+     * @return The holder
+     */
+    public Fields parse(final CharSequence expression, final Fields fields) {
+        return parse(expression, 0, expression.length(), fields);
+    }
+
+    /**
+     * Parses the expression found in a slice of a buffer
+     *
+     * @param text   The buffer
+     * @param start  The index of the first character of the expression
+     * @param end    The index after the last character of the expression
+     * @param fields The holder receiving the result
+     * @return The holder
+     * @throws CronExpressionParseException If the expression is not valid
+     */
+    public Fields parse(final CharSequence text, final int start, final int end, final Fields fields) {
+        fields.reset();
+        split(text, start, end, fields);
+        for (final CronExpressionPart part : PARTS) {
+            checkListSize(text, part, fields);
+        }
+
+        // Like the parser, report the day fields both restricting the days before any invalid part (a day of week
+        // normalized to '*' does not restrict the days, however it is written)
+        CronExpressionParseException failed = null;
+        for (final CronExpressionPart part : PARTS) {
+            try {
+                readPart(text, part, fields);
+            } catch (final CronExpressionParseException e) {
+                if (failed == null) {
+                    failed = e;
+                }
+            }
+        }
+
+        // Quartz requires one of the day fields to be unrestricted
+        if (fields.partsCount > 5 && fields.dayOfMonthRestricted && fields.dayOfWeekRestricted) {
+            throw error(ALL, "InvalidDomDowExpression");
+        } else if (failed != null) {
+            throw failed;
+        }
+
+        return fields;
+    }
+
+    /**
+     * Splits the expression found in a slice of a buffer into its parts, only updating their positions within the holder
+     *
+     * @param text   The buffer
+     * @param start  The index of the first character of the expression
+     * @param end    The index after the last character of the expression
+     * @param fields The holder receiving the positions
+     * @throws CronExpressionParseException If the expression has less than 5 or more than 7 parts
+     */
+    void split(final CharSequence text, final int start, final int end, final Fields fields) {
+        // Limit the work done on expressions coming from untrusted users
+        if (end - start > options.getMaxExpressionLength()) {
+            throw error(ALL, "InvalidExpressionFormatTooLong", end - start, options.getMaxExpressionLength());
+        }
+
+        // Split the parts, keeping up to 7 of them (seconds to year)
+        final int[] starts = fields.starts;
+        final int[] ends = fields.ends;
+        Arrays.fill(starts, -1);
+        Arrays.fill(ends, -1);
+        int count = 0;
+        int i = start;
+        while (true) {
+            while (i < end && Character.isWhitespace(text.charAt(i))) {
+                i++;
+            }
+
+            if (i >= end) {
+                break;
+            }
+
+            final int tokenStart = i;
+            while (i < end && !Character.isWhitespace(text.charAt(i))) {
+                i++;
+            }
+
+            if (count < starts.length) {
+                starts[count] = tokenStart;
+                ends[count] = i;
+            }
+
+            count++;
+        }
+
+        fields.partsCount = count;
+        if (count < 5) {
+            throw error(ALL, "InvalidExpressionFormatTooFewParts", text.subSequence(start, end).toString(), count);
+        } else if (count > 7) {
+            throw error(ALL, "InvalidExpressionFormatTooManyParts", text.subSequence(start, end).toString(), count);
+        }
+
+        // Align the tokens on their parts: 5 part expressions have no seconds, 6 part expressions either a year or seconds
+        final boolean hasYear = count == 7 || (count == 6 && (endsWithYear(text, starts[5], ends[5]) || isQuestionMark(text, starts[4], ends[4]) || isQuestionMark(text, starts[2], ends[2])));
+        final int shift = count == 5 || (count == 6 && hasYear) ? 1 : 0;
+        if (shift == 1) {
+            System.arraycopy(starts, 0, starts, 1, count);
+            System.arraycopy(ends, 0, ends, 1, count);
+            starts[0] = -1;
+            ends[0] = -1;
+        }
+    }
+
+    /**
+     * Parses a single part of an expression already split by {@link #split}, replacing the values the holder keeps for
+     * that part only (the values of the other parts are left as they are)
+     *
+     * @param text   The buffer
+     * @param part   The part (SEC to YEAR)
+     * @param fields The holder
+     * @throws CronExpressionParseException If the part is not valid
+     */
+    void parsePart(final CharSequence text, final CronExpressionPart part, final Fields fields) {
+        checkListSize(text, part, fields);
+        readPart(text, part, fields);
+    }
+
+    /**
+     * Checks the number of values listed by a part, before looking at them
+     */
+    private void checkListSize(final CharSequence text, final CronExpressionPart part, final Fields fields) {
+        final int start = fields.starts[part.ordinal()];
+        if (start >= 0 && countValues(text, start, fields.ends[part.ordinal()]) > options.getMaxListSize()) {
+            throw listError(part);
+        }
+    }
+
+    /**
+     * Reads a part, leaving it to the parser if it is not written in the syntax of the scanner
+     */
+    private void readPart(final CharSequence text, final CronExpressionPart part, final Fields fields) {
+        final int start = fields.starts[part.ordinal()];
+        final int end = fields.ends[part.ordinal()];
+
+        // Quartz numbers days of week from 1 (Sunday) when seconds or years are present, Java EE and 5 part expressions from 0
+        try {
+            scanPart(text, start, end, part, fields.partsCount > 5 && !options.isUseJavaEeScheduleExpression(), fields);
+        } catch (final Rejected e) {
+            parseNormalized(text, start, end, part, fields);
+        }
+    }
+
+    /**
+     * Reads a part the way the parser does: the part is normalized and checked by the parser (see
+     * {@link CronExpressionParser#normalizePart(int, String)} and {@link CronExpressionParser#checkPart(int, String)}),
+     * then scanned in its normalized form
+     */
+    private void parseNormalized(final CharSequence text, final int start, final int end, final CronExpressionPart part, final Fields fields) {
+        final int index = part.ordinal();
+        final CronExpressionParser parser = new CronExpressionParser(options, fields.partsCount);
+        final String normalized;
+        try {
+            normalized = parser.normalizePart(index, text.subSequence(start, end).toString());
+        } catch (final NumberFormatException e) {
+            // Numbers too large for the normalization of steps
+            throw fieldError(FIELDS[index]);
+        }
+
+        parser.checkPart(index, normalized);
+        try {
+            scanPart(normalized, normalized.isEmpty() ? -1 : 0, normalized.length(), part, false, fields);
+        } catch (final Rejected e) {
+            throw fieldError(FIELDS[index]);
+        }
+    }
+
+    /**
+     * Scans a part written in the syntax of the scanner
+     *
+     * @param text    The buffer
+     * @param start   The index of the first character of the part, -1 if missing
+     * @param end     The index after the last character of the part
+     * @param part    The part (SEC to YEAR)
+     * @param fromOne True if days of week are numbered from 1 (Sunday)
+     * @param fields  The holder
+     * @throws Rejected If the part is not written in the syntax of the scanner
+     */
+    private void scanPart(final CharSequence text, final int start, final int end, final CronExpressionPart part, final boolean fromOne, final Fields fields) {
+        switch (part) {
+            case SEC:
+                fields.seconds = start >= 0 ? parseField(text, start, end, SECONDS, false, fields, fields.word) : 1L;
+                break;
+            case MIN:
+                fields.minutes = parseField(text, start, end, MINUTES, false, fields, fields.word);
+                break;
+            case HOUR:
+                fields.hours = (int) parseField(text, start, end, HOURS, false, fields, fields.word);
+                break;
+            case DOM:
+                fields.daysOfMonth = 0;
+                fields.lastDayOffset = NONE;
+                fields.lastWeekday = false;
+                fields.nearestWeekday = NONE;
+                fields.dayOfMonthRestricted = !isStar(text, start, end, DAYS_OF_MONTH);
+                parseDayOfMonth(text, start, end, fields);
+                break;
+            case MONTH:
+                fields.months = (int) parseField(text, start, end, MONTHS, false, fields, fields.word);
+                break;
+            case DOW:
+                fields.daysOfWeek = 0;
+                fields.lastDayOfWeek = NONE;
+                fields.nthDayOfWeek = NONE;
+                fields.nthOccurrence = NONE;
+                fields.dayOfWeekRestricted = !isStar(text, start, end, DAYS_OF_WEEK);
+                parseDayOfWeek(text, start, end, fromOne, fields);
+                break;
+            case YEAR:
+                if (start >= 0) {
+                    parseField(text, start, end, YEARS, false, fields, fields.years);
+                } else {
+                    Arrays.fill(fields.years, 0);
+                    setRange(fields.years, MIN_YEAR, MAX_YEAR, 1, YEARS);
+                }
+                break;
+            default:
+                throw new IllegalArgumentException("Only single parts can be parsed: " + part);
+        }
+    }
+
+    /**
+     * Parses the day of month field, special forms (L, LW, L-N, NW) included
+     */
+    private void parseDayOfMonth(final CharSequence text, final int start, final int end, final Fields fields) {
+        if (text.charAt(start) == 'L') {
+            if (end - start == 1) {
+                fields.lastDayOffset = 0;
+            } else if (end - start == 2 && text.charAt(start + 1) == 'W') {
+                fields.lastWeekday = true;
+            } else if (text.charAt(start + 1) == '-') {
+                final int offset = parseNumber(text, start + 2, end, 2, false, DAYS_OF_MONTH, fields);
+                if (fields.cursor != end || offset < 1 || offset > 30) {
+                    throw Rejected.INSTANCE;
+                }
+
+                fields.lastDayOffset = offset;
+            } else {
+                throw Rejected.INSTANCE;
+            }
+        } else if (text.charAt(end - 1) == 'W') {
+            final int day = parseNumber(text, start, end - 1, 2, false, DAYS_OF_MONTH, fields);
+            if (fields.cursor != end - 1 || day < 1 || day > 31) {
+                throw Rejected.INSTANCE;
+            }
+
+            fields.nearestWeekday = day;
+        } else {
+            fields.daysOfMonth = (int) parseField(text, start, end, DAYS_OF_MONTH, false, fields, fields.word);
+        }
+    }
+
+    /**
+     * Parses the day of week field, special forms (NL, N#M) included
+     */
+    private void parseDayOfWeek(final CharSequence text, final int start, final int end, final boolean fromOne, final Fields fields) {
+        final char last = text.charAt(end - 1);
+        final int hash = indexOf(text, start, end, '#');
+        if (hash >= 0) {
+            final int day = parseValue(text, start, hash, DAYS_OF_WEEK, fromOne, fields);
+            if (fields.cursor != hash || hash + 2 != end || last < '1' || last > '5') {
+                throw Rejected.INSTANCE;
+            }
+
+            fields.nthDayOfWeek = day;
+            fields.nthOccurrence = last - '0';
+        } else if (last == 'L' && end - start > 1) {
+            final int day = parseValue(text, start, end - 1, DAYS_OF_WEEK, fromOne, fields);
+            if (fields.cursor != end - 1) {
+                throw Rejected.INSTANCE;
+            }
+
+            fields.lastDayOfWeek = day;
+        } else {
+            fields.daysOfWeek = (int) parseField(text, start, end, DAYS_OF_WEEK, fromOne, fields, fields.word);
+        }
+    }
+
+    /**
+     * Parses a field made of '*', a single value, a range, a step or a list of single values
+     *
+     * @param text    The buffer
+     * @param start   The index of the first character of the field
+     * @param end     The index after the last character of the field
+     * @param field   The field syntax
+     * @param fromOne True if days of week are numbered from 1 (Sunday)
+     * @param fields  The holder (used as scratch)
+     * @param words   The destination bits, cleared before parsing
+     * @return The first word of the destination
+     */
+    private long parseField(final CharSequence text, final int start, final int end, final Field field, final boolean fromOne, final Fields fields, final long[] words) {
+        Arrays.fill(words, 0);
+
+        // '*', '?' and their stepped forms. A leading '0/' (seconds to hours) or '1/' (day of month to year) also stands
+        // for '*&#47;', and so does a bare '/'.
+        final char first = text.charAt(start);
+        if (first == '/') {
+            setRange(words, field.min, field.max, parseStep(text, start + 1, end, field, field.starStepMax, fields), field);
+            return words[0];
+        }
+
+        final boolean alias = end - start > 2 && first == field.starAlias && text.charAt(start + 1) == '/';
+        if (first == '*' || (first == '?' && field.questionMark) || alias) {
+            if (end - start == 1) {
+                setRange(words, field.min, field.max, 1, field);
+                return words[0];
+            } else if (text.charAt(start + 1) != '/') {
+                throw Rejected.INSTANCE;
+            }
+
+            final int step = parseStep(text, start + 2, end, field, field.starStepMax, fields);
+            setRange(words, field.min, field.max, step, field);
+            return words[0];
+        }
+
+        // Single values, lists of single values, ranges and steps
+        final int from = parseValue(text, start, end, field, fromOne, fields);
+        if (fields.cursor == end) {
+            setRange(words, from, from, 1, field);
+            return words[0];
+        }
+
+        final char separator = text.charAt(fields.cursor);
+        if (separator == ',') {
+            setRange(words, from, from, 1, field);
+            while (fields.cursor < end) {
+                if (text.charAt(fields.cursor) != ',' || fields.cursor + 1 == end) {
+                    throw Rejected.INSTANCE;
+                }
+
+                final int value = parseValue(text, fields.cursor + 1, end, field, fromOne, fields);
+                setRange(words, value, value, 1, field);
+            }
+        } else if (separator == '-') {
+            final int to = parseValue(text, fields.cursor + 1, end, field, fromOne, fields);
+            int step = 1;
+            if (fields.cursor < end) {
+                if (text.charAt(fields.cursor) != '/') {
+                    throw Rejected.INSTANCE;
+                }
+
+                step = parseStep(text, fields.cursor + 1, end, field, field.stepMax, fields);
+            }
+
+            setRange(words, from, to, step, field);
+        } else if (separator == '/') {
+            // The day of week only accepts up to 6 when stepping through the whole week
+            final int step = parseStep(text, fields.cursor + 1, end, field, field.stepMax, fields);
+            setRange(words, from, field.max, step, field);
+        } else {
+            throw Rejected.INSTANCE;
+        }
+
+        return words[0];
+    }
+
+    /**
+     * Parses a value, written as a number or as a name
+     *
+     * @return The value (the cursor of the holder is moved after it)
+     */
+    private int parseValue(final CharSequence text, final int start, final int end, final Field field, final boolean fromOne, final Fields fields) {
+        if (start >= end) {
+            throw Rejected.INSTANCE;
+        }
+
+        if (field.names != null && !isDigit(text.charAt(start))) {
+            final int match = field.names.find(text, start, end);
+            if (match < 0) {
+                throw Rejected.INSTANCE;
+            }
+
+            fields.cursor = start + NameTrie.length(match);
+            return NameTrie.value(match);
+        }
+
+        int value = parseNumber(text, start, end, field.digits, field.leadingZero, field, fields);
+        if (field.fixedDigits && fields.cursor - start != field.digits) {
+            throw Rejected.INSTANCE;
+        }
+
+        if (field == DAYS_OF_WEEK) {
+            // 7 is Sunday as well, unless Sunday is 1
+            if (value > 7) {
+                throw Rejected.INSTANCE;
+            }
+
+            value = fromOne ? value - 1 : value % 7;
+        }
+
+        if (value < field.min || value > field.max) {
+            throw Rejected.INSTANCE;
+        }
+
+        return value;
+    }
+
+    /**
+     * Parses a step, which must end the field
+     *
+     * @return The step
+     */
+    private int parseStep(final CharSequence text, final int start, final int end, final Field field, final int max, final Fields fields) {
+        final int step = parseNumber(text, start, end, field.stepDigits, field.stepLeadingZero, field, fields);
+        if (fields.cursor != end) {
+            throw Rejected.INSTANCE;
+        } else if (step > max) {
+            throw Rejected.INSTANCE;
+        }
+
+        return step;
+    }
+
+    /**
+     * Parses a number
+     *
+     * @return The number (the cursor of the holder is moved after it)
+     */
+    private int parseNumber(final CharSequence text, final int start, final int end, final int digits, final boolean leadingZero, final Field field, final Fields fields) {
+        int i = start;
+        int value = 0;
+        while (i < end && isDigit(text.charAt(i))) {
+            value = value * 10 + (text.charAt(i) - '0');
+            i++;
+        }
+
+        if (i == start || i - start > digits || (!leadingZero && i - start > 1 && text.charAt(start) == '0')) {
+            throw Rejected.INSTANCE;
+        }
+
+        fields.cursor = i;
+        return value;
+    }
+
+    /**
+     * Builds the exception for a field that is not in a valid format
+     */
+    private CronExpressionParseException fieldError(final Field field) {
+        final ResourceBundle localization = options.getLocalization();
+        return new CronExpressionParseException(String.format(getString(localization, "InvalidFieldExpressionFormat"), getString(localization, field.nameKey)), field.part);
+    }
+
+    /**
+     * Builds the exception for a part listing too many values
+     */
+    private CronExpressionParseException listError(final CronExpressionPart part) {
+        final ResourceBundle localization = options.getLocalization();
+        return new CronExpressionParseException(String.format(getString(localization, "InvalidFieldTooManyValues"), getString(localization, FIELDS[part.ordinal()].nameKey), options.getMaxListSize()), part);
+    }
+
+    /**
+     * Builds an exception with a localized message
+     */
+    private CronExpressionParseException error(final CronExpressionPart part, final String key, final Object... arguments) {
+        return new CronExpressionParseException(String.format(getString(options.getLocalization(), key), arguments), part);
+    }
+
+    /**
+     * Gets a localized String resource
+     */
+    private static String getString(final ResourceBundle localization, final String resourceName) {
+        try {
+            return localization.getString(resourceName);
+        } catch (MissingResourceException e) {
+            return "{{" + resourceName + "}}";
+        }
+    }
+
+    //endregion
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    //region STATIC METHODS
+
+    /**
+     * Sets the bits of a stepped range of values (see {@link CronSchedule#setRange})
+     */
+    private static void setRange(final long[] words, final int from, final int to, final int step, final Field field) {
+        CronSchedule.setRange(words, from, to, step, field.min, field.max, field == YEARS ? MIN_YEAR : 0);
+    }
+
+    /**
+     * @return True if the field is '*' or '?' (eventually stepped by 1), which does not restrict the days
+     */
+    private static boolean isStar(final CharSequence text, final int start, final int end, final Field field) {
+        final char first = text.charAt(start);
+        if (first != '*' && first != '?' && first != field.starAlias) {
+            return false;
+        }
+
+        final int length = end - start;
+        return (length == 1 && first != field.starAlias) || (length == 3 && text.charAt(start + 1) == '/' && text.charAt(start + 2) == '1');
+    }
+
+    /**
+     * @return True if the token is '?'
+     */
+    private static boolean isQuestionMark(final CharSequence text, final int start, final int end) {
+        return end - start == 1 && text.charAt(start) == '?';
+    }
+
+    /**
+     * @return True if the token ends with 4 digits
+     */
+    private static boolean endsWithYear(final CharSequence text, final int start, final int end) {
+        if (end - start < 4) {
+            return false;
+        }
+
+        for (int i = end - 4; i < end; i++) {
+            if (!isDigit(text.charAt(i))) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * @return The index of the character within the slice, -1 if not found
+     */
+    private static int indexOf(final CharSequence text, final int start, final int end, final char c) {
+        for (int i = start; i < end; i++) {
+            if (text.charAt(i) == c) {
+                return i;
+            }
+        }
+
+        return -1;
+    }
+
+    /**
+     * @return True for ASCII digits
+     */
+    private static boolean isDigit(final char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    //endregion
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+}
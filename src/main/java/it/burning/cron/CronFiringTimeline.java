@@ -0,0 +1,458 @@
+package it.burning.cron;
+
+import it.burning.cron.CronExpressionParser.Settings;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Counts how many times a corpus of cron expressions fires within each second or minute of a time window, to find the
+ * moments where too many schedules fire together (i.e. every tenant picking "0 * * * *").
+ * <p>
+ * Expressions are compiled into {@link CronSchedule} bitmasks and identical schedules (even when spelled differently) are
+ * only evaluated once, weighted by the number of expressions sharing them. The timeline is then built in parallel, with
+ * every worker accumulating into its own buckets before they are summed together.
+ * <p>
+ * Times are wall clock times ({@link LocalDateTime}), daylight saving transitions are not taken into account.
+ */
+public final class CronFiringTimeline {
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    //region FIELDS
+
+    // Constants
+    private static final int SECONDS_PER_DAY  = 24 * 60 * 60;
+    private static final int SECONDS_PER_HOUR = 60 * 60;
+    private static final int MAX_BUCKETS      = 64 * 1024 * 1024;
+
+    // Data
+    public enum Resolution {
+        SECOND(1),
+        MINUTE(60);
+
+        private final int seconds;
+
+        public int getSeconds() {
+            return seconds;
+        }
+
+        Resolution(final int seconds) {
+            this.seconds = seconds;
+        }
+    }
+
+    // State
+    private final List<String>         expressions;
+    private final LocalDateTime        start;
+    private final Resolution           resolution;
+    private final int[]                firings;
+    private final List<CronSchedule>   schedules;
+    private final List<int[]>          members;
+    private final Map<Integer, String> rejected;
+
+    //endregion
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    //region SUBCLASSES
+
+    // A bucket of the timeline along with the expressions firing within it
+    public static final class Hotspot {
+        private final LocalDateTime start;
+        private final int           firings;
+        private final int[]         contributors;
+        private final List<String>  expressions;
+
+        public LocalDateTime getStart() {
+            return start;
+        }
+
+        public int getFirings() {
+            return firings;
+        }
+
+        /**
+         * @return The indexes (within the analyzed corpus) of the expressions firing in this bucket
+         */
+        public int[] getContributorIndexes() {
+            return contributors.clone();
+        }
+
+        /**
+         * @return The expressions firing in this bucket, in corpus order
+         */
+        public List<String> getContributors() {
+            final List<String> result = new ArrayList<>(contributors.length);
+            for (final int index : contributors) {
+                result.add(expressions.get(index));
+            }
+
+            return result;
+        }
+
+        Hotspot(final LocalDateTime start, final int firings, final int[] contributors, final List<String> expressions) {
+            this.start = start;
+            this.firings = firings;
+            this.contributors = contributors;
+            this.expressions = expressions;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s: %d firings from %d expressions", start, firings, contributors.length);
+        }
+    }
+
+    //endregion
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    //region CONSTRUCTORS
+
+    /**
+     * Constructor
+     *
+     * @param expressions The analyzed corpus
+     * @param start       The start of the first bucket
+     * @param resolution  The width of each bucket
+     * @param firings     The number of firings within each bucket
+     * @param schedules   The distinct schedules of the corpus
+     * @param members     For each distinct schedule, the indexes of the expressions sharing it
+     * @param rejected    Expressions that could not be parsed, by index
+     */
+    private CronFiringTimeline(final List<String> expressions, final LocalDateTime start, final Resolution resolution, final int[] firings,
+                               final List<CronSchedule> schedules, final List<int[]> members, final Map<Integer, String> rejected) {
+        this.expressions = expressions;
+        this.start = start;
+        this.resolution = resolution;
+        this.firings = firings;
+        this.schedules = schedules;
+        this.members = members;
+        this.rejected = rejected;
+    }
+
+    //endregion
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    //region ACCESSORS
+
+    public LocalDateTime getStart() {
+        return start;
+    }
+
+    public Resolution getResolution() {
+        return resolution;
+    }
+
+    public int getBucketCount() {
+        return firings.length;
+    }
+
+    /**
+     * @return The number of distinct schedules found in the corpus
+     */
+    public int getDistinctScheduleCount() {
+        return schedules.size();
+    }
+
+    /**
+     * @return The error messages of the expressions that could not be parsed, by index within the corpus
+     */
+    public Map<Integer, String> getRejected() {
+        return Collections.unmodifiableMap(rejected);
+    }
+
+    //endregion
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    //region METHODS
+
+    /**
+     * @param bucket The bucket index
+     * @return The number of firings within the bucket
+     */
+    public int getFirings(final int bucket) {
+        return firings[bucket];
+    }
+
+    /**
+     * @param bucket The bucket index
+     * @return The time at which the bucket starts
+     */
+    public LocalDateTime getBucketStart(final int bucket) {
+        return start.plusSeconds((long) bucket * resolution.seconds);
+    }
+
+    /**
+     * @return The total number of firings within the window
+     */
+    public long getTotalFirings() {
+        long total = 0;
+        for (final int count : firings) {
+            total += count;
+        }
+
+        return total;
+    }
+
+    /**
+     * Finds the buckets with the highest number of firings, along with the expressions contributing to them
+     *
+     * @param count The maximum number of buckets to return
+     * @return The hottest buckets, hottest first (earliest first when tied). Empty buckets are never returned.
+     */
+    public List<Hotspot> getHottest(final int count) {
+        if (count <= 0) {
+            return Collections.emptyList();
+        }
+
+        // Keep the 'count' hottest buckets in a min-heap (the coolest, or latest when tied, on top)
+        final PriorityQueue<Integer> heap = new PriorityQueue<>(count + 1, (a, b) -> firings[a] != firings[b] ? Integer.compare(firings[a], firings[b]) : Integer.compare(b, a));
+        for (int bucket = 0; bucket < firings.length; bucket++) {
+            if (firings[bucket] == 0) {
+                continue;
+            }
+
+            if (heap.size() < count) {
+                heap.add(bucket);
+            } else {
+                final int coolest = heap.peek();
+                if (firings[bucket] > firings[coolest]) {
+                    heap.poll();
+                    heap.add(bucket);
+                }
+            }
+        }
+
+        final List<Integer> hottest = new ArrayList<>(heap);
+        hottest.sort((a, b) -> firings[a] != firings[b] ? Integer.compare(firings[b], firings[a]) : Integer.compare(a, b));
+
+        final List<Hotspot> result = new ArrayList<>(hottest.size());
+        for (final int bucket : hottest) {
+            result.add(new Hotspot(getBucketStart(bucket), firings[bucket], getContributors(bucket), expressions));
+        }
+
+        return result;
+    }
+
+    /**
+     * Lists the expressions firing within a bucket
+     *
+     * @param bucket The bucket index
+     * @return The indexes of the contributing expressions, sorted
+     */
+    private int[] getContributors(final int bucket) {
+        final LocalDateTime time = getBucketStart(bucket);
+        final LocalDate date = time.toLocalDate();
+
+        int size = 0;
+        int[] result = new int[16];
+        for (int i = 0; i < schedules.size(); i++) {
+            final CronSchedule schedule = schedules.get(i);
+            final boolean fires = resolution == Resolution.SECOND ? schedule.matches(time) :
+                                  (schedule.getMinutes() & (1L << time.getMinute())) != 0 && (schedule.getHours() & (1 << time.getHour())) != 0 && schedule.matches(date);
+
+            if (fires) {
+                final int[] indexes = members.get(i);
+                if (size + indexes.length > result.length) {
+                    result = Arrays.copyOf(result, Math.max(result.length * 2, size + indexes.length));
+                }
+
+                System.arraycopy(indexes, 0, result, size, indexes.length);
+                size += indexes.length;
+            }
+        }
+
+        result = Arrays.copyOf(result, size);
+        Arrays.sort(result);
+        return result;
+    }
+
+    //endregion
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    //region STATIC METHODS
+
+    /**
+     * Builds the firing timeline of a corpus of expressions using the default options
+     *
+     * @param expressions The expressions to analyze
+     * @param from        The start of the window (inclusive), truncated to the resolution
+     * @param to          The end of the window (exclusive)
+     * @param resolution  The width of each bucket
+     * @return The firing timeline
+     */
+    public static CronFiringTimeline analyze(final Collection<String> expressions, final LocalDateTime from, final LocalDateTime to, final Resolution resolution) {
+        return analyze(expressions, null, from, to, resolution);
+    }
+
+    /**
+     * Builds the firing timeline of a corpus of expressions
+     *
+     * @param expressions The expressions to analyze
+     * @param options     Parsing options (null for defaults)
+     * @param from        The start of the window (inclusive), truncated to the resolution
+     * @param to          The end of the window (exclusive)
+     * @param resolution  The width of each bucket
+     * @return The firing timeline
+     */
+    public static CronFiringTimeline analyze(final Collection<String> expressions, final Settings options, final LocalDateTime from, final LocalDateTime to, final Resolution resolution) {
+        // Sanity checks
+        if (expressions == null || from == null || to == null || resolution == null) {
+            throw new IllegalArgumentException("The expressions, window and resolution cannot be null");
+        }
+
+        final LocalDateTime start = from.truncatedTo(resolution == Resolution.SECOND ? ChronoUnit.SECONDS : ChronoUnit.MINUTES);
+        final long bucketCount = (ChronoUnit.SECONDS.between(start, to) + resolution.seconds - 1) / resolution.seconds;
+        if (bucketCount <= 0 || bucketCount > MAX_BUCKETS) {
+            throw new IllegalArgumentException(String.format("The window must contain between 1 and %d buckets", MAX_BUCKETS));
+        }
+
+        final List<String> corpus = new ArrayList<>(expressions);
+
+        // Compile each distinct string only once
+        final Map<String, Integer> stringIds = new HashMap<>();
+        final List<String> distinctStrings = new ArrayList<>();
+        final int[] stringIdOf = new int[corpus.size()];
+        for (int i = 0; i < corpus.size(); i++) {
+            final String expression = corpus.get(i);
+            Integer id = stringIds.get(expression);
+            if (id == null) {
+                id = distinctStrings.size();
+                stringIds.put(expression, id);
+                distinctStrings.add(expression);
+            }
+
+            stringIdOf[i] = id;
+        }
+
+        final CronSchedule[] compiled = new CronSchedule[distinctStrings.size()];
+        final String[] errors = new String[distinctStrings.size()];
+        IntStream.range(0, compiled.length).parallel().forEach(id -> {
+            try {
+                compiled[id] = CronSchedule.compile(distinctStrings.get(id), options);
+            } catch (final RuntimeException e) {
+                errors[id] = e.getMessage() != null ? e.getMessage() : e.toString();
+            }
+        });
+
+        // Group expressions by schedule, so identical schedules are only evaluated once
+        final Map<Integer, String> rejected = new TreeMap<>();
+        final Map<CronSchedule, Integer> scheduleIds = new HashMap<>();
+        final List<CronSchedule> schedules = new ArrayList<>();
+        final List<int[]> members = new ArrayList<>();
+        final int[] memberCounts = new int[compiled.length];
+        for (int i = 0; i < corpus.size(); i++) {
+            final CronSchedule schedule = compiled[stringIdOf[i]];
+            if (schedule == null) {
+                rejected.put(i, errors[stringIdOf[i]]);
+                continue;
+            }
+
+            Integer id = scheduleIds.get(schedule);
+            if (id == null) {
+                id = schedules.size();
+                scheduleIds.put(schedule, id);
+                schedules.add(schedule);
+                members.add(new int[4]);
+            }
+
+            int[] indexes = members.get(id);
+            if (memberCounts[id] == indexes.length) {
+                indexes = Arrays.copyOf(indexes, indexes.length * 2);
+                members.set(id, indexes);
+            }
+
+            indexes[memberCounts[id]++] = i;
+        }
+
+        for (int id = 0; id < members.size(); id++) {
+            members.set(id, Arrays.copyOf(members.get(id), memberCounts[id]));
+        }
+
+        // Parallel reduction: each worker accumulates a slice of the schedules in its own buckets, then the buckets are summed
+        final int buckets = (int) bucketCount;
+        final int workers = Math.max(1, Math.min(schedules.size(), ForkJoinPool.getCommonPoolParallelism() + 1));
+        final int[][] partials = IntStream.range(0, workers).parallel().mapToObj(worker -> {
+            final int[] partial = new int[buckets];
+            for (int id = worker; id < schedules.size(); id += workers) {
+                accumulate(schedules.get(id), members.get(id).length, start, resolution, partial);
+            }
+
+            return partial;
+        }).toArray(int[][]::new);
+
+        final int[] firings = partials.length > 0 ? partials[0] : new int[buckets];
+        IntStream.range(0, (buckets + 4095) / 4096).parallel().forEach(block -> {
+            final int end = Math.min(buckets, (block + 1) * 4096);
+            for (int w = 1; w < partials.length; w++) {
+                final int[] partial = partials[w];
+                for (int bucket = block * 4096; bucket < end; bucket++) {
+                    firings[bucket] += partial[bucket];
+                }
+            }
+        });
+
+        return new CronFiringTimeline(corpus, start, resolution, firings, schedules, members, rejected);
+    }
+
+    /**
+     * Adds the firings of a schedule to the buckets of a timeline
+     *
+     * @param schedule   The schedule
+     * @param weight     The number of expressions sharing the schedule
+     * @param start      The start of the first bucket
+     * @param resolution The width of each bucket
+     * @param buckets    The buckets to update
+     */
+    static void accumulate(final CronSchedule schedule, final int weight, final LocalDateTime start, final Resolution resolution, final int[] buckets) {
+        // All offsets are in seconds from the midnight preceding the start of the window
+        final long offset = start.toLocalTime().toSecondOfDay();
+        final long end = offset + (long) buckets.length * resolution.seconds;
+        final long secondsMask = schedule.getSeconds();
+        final int firingsPerMinute = weight * Long.bitCount(secondsMask);
+
+        LocalDate day = start.toLocalDate();
+        for (long dayStart = 0; dayStart < end; dayStart += SECONDS_PER_DAY, day = day.plusDays(1)) {
+            if (dayStart + SECONDS_PER_DAY <= offset || !schedule.matches(day)) {
+                continue;
+            }
+
+            for (int hours = schedule.getHours(); hours != 0; hours &= hours - 1) {
+                final long hourStart = dayStart + Integer.numberOfTrailingZeros(hours) * SECONDS_PER_HOUR;
+                if (hourStart >= end) {
+                    break;
+                }
+
+                if (hourStart + SECONDS_PER_HOUR <= offset) {
+                    continue;
+                }
+
+                for (long minutes = schedule.getMinutes(); minutes != 0; minutes &= minutes - 1) {
+                    final long minuteStart = hourStart + Long.numberOfTrailingZeros(minutes) * 60L;
+                    if (resolution == Resolution.MINUTE) {
+                        if (minuteStart >= offset && minuteStart < end) {
+                            buckets[(int) ((minuteStart - offset) / 60)] += firingsPerMinute;
+                        }
+                    } else {
+                        for (long seconds = secondsMask; seconds != 0; seconds &= seconds - 1) {
+                            final long second = minuteStart + Long.numberOfTrailingZeros(seconds);
+                            if (second >= offset && second < end) {
+                                buckets[(int) (second - offset)] += weight;
+                            }
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    //endregion
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+}
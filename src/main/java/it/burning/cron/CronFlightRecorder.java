@@ -0,0 +1,138 @@
+package it.burning.cron;
+
+import it.burning.cron.CronExpressionDescriptor.DescriptionType;
+import it.burning.cron.CronExpressionParser.CronExpressionPart;
+import jdk.jfr.*;
+
+import java.util.Locale;
+
+/**
+ * Emits JDK Flight Recorder events for the parsing and describing work, collected through {@link CronInstrumentation}.
+ * Events are only created when enabled in the running recording, they begin before the work and are committed after it
+ * (so their duration is the time spent parsing or describing), and they are all in the "Cron Expression Descriptor"
+ * category:
+ * <ul>
+ * <li>it.burning.cron.Parse: an expression has been parsed (or rejected)</li>
+ * <li>it.burning.cron.Describe: an expression has been described</li>
+ * <li>it.burning.cron.MissingLocalization: a localized string was not found</li>
+ * </ul>
+ * Requires a JVM shipping the jdk.jfr module (Java 11+, or Java 8 from update 262).
+ */
+public class CronFlightRecorder extends CronInstrumentation {
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    //region FIELDS
+
+    // The events begun by the thread and not committed yet (only when enabled), so that their duration covers the work
+    private final ThreadLocal<ParseEvent>    parsing    = new ThreadLocal<>();
+    private final ThreadLocal<DescribeEvent> describing = new ThreadLocal<>();
+
+    //endregion
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    //region SUBCLASSES
+
+    @Name("it.burning.cron.Parse")
+    @Label("Cron Expression Parse")
+    @Category("Cron Expression Descriptor")
+    @StackTrace(false)
+    static final class ParseEvent extends Event {
+        @Label("Expression")
+        String expression;
+
+        @Label("Failed Part")
+        @Description("The part of the expression that is not valid, null if the expression has been parsed")
+        String failedPart;
+    }
+
+    @Name("it.burning.cron.Describe")
+    @Label("Cron Expression Describe")
+    @Category("Cron Expression Descriptor")
+    @StackTrace(false)
+    static final class DescribeEvent extends Event {
+        @Label("Expression")
+        String expression;
+
+        @Label("Description Type")
+        String type;
+
+        @Label("Locale")
+        String locale;
+    }
+
+    @Name("it.burning.cron.MissingLocalization")
+    @Label("Missing Cron Localization")
+    @Category("Cron Expression Descriptor")
+    static final class MissingLocalizationEvent extends Event {
+        @Label("Locale")
+        String locale;
+
+        @Label("Key")
+        String key;
+    }
+
+    //endregion
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    //region METHODS
+
+    @Override
+    public void parseStarted(final String expression) {
+        final ParseEvent event = new ParseEvent();
+        if (event.isEnabled()) {
+            event.begin();
+            parsing.set(event);
+        }
+    }
+
+    @Override
+    public void parsed(final String expression, final long durationNanos) {
+        parseFailed(expression, null, durationNanos);
+    }
+
+    @Override
+    public void parseFailed(final String expression, final CronExpressionPart part, final long durationNanos) {
+        final ParseEvent event = parsing.get();
+        if (event != null) {
+            parsing.remove();
+            event.expression = expression;
+            event.failedPart = part != null ? part.name() : null;
+            event.commit();
+        }
+    }
+
+    @Override
+    public void describeStarted(final String expression, final DescriptionType type, final Locale locale) {
+        final DescribeEvent event = new DescribeEvent();
+        if (event.isEnabled()) {
+            event.begin();
+            describing.set(event);
+        }
+    }
+
+    @Override
+    public void described(final String expression, final DescriptionType type, final Locale locale, final long durationNanos) {
+        final DescribeEvent event = describing.get();
+        if (event != null) {
+            describing.remove();
+            event.expression = expression;
+            event.type = type.name();
+            event.locale = locale.toLanguageTag();
+            event.commit();
+        }
+    }
+
+    @Override
+    public void missingLocalization(final Locale locale, final String key) {
+        final MissingLocalizationEvent event = new MissingLocalizationEvent();
+        if (event.isEnabled()) {
+            event.locale = locale.toLanguageTag();
+            event.key = key;
+            event.commit();
+        }
+    }
+
+    //endregion
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+}
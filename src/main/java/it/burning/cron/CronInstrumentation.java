@@ -0,0 +1,172 @@
+package it.burning.cron;
+
+import it.burning.cron.CronExpressionDescriptor.DescriptionType;
+import it.burning.cron.CronExpressionParser.CronExpressionPart;
+
+import java.util.Locale;
+
+/**
+ * Instrumentation hooks for parsing and describing expressions.
+ * <p>
+ * Nothing is installed by default: the library then only pays for a volatile read per call and never reads the clock.
+ * Extend this class overriding the hooks of interest and {@link #install(CronInstrumentation)} it, or use one of the
+ * provided implementations: {@link CronMetrics} (counters and latency histograms) and {@link CronFlightRecorder} (JDK
+ * Flight Recorder events). Hooks are called synchronously by the thread doing the work, so they must be thread safe and
+ * should return quickly.
+ */
+public abstract class CronInstrumentation {
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    //region FIELDS
+
+    // The installed instrumentation (null when disabled)
+    static volatile CronInstrumentation installed;
+
+    //endregion
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    //region METHODS
+
+    /**
+     * Called before an expression is parsed, followed by {@link #parsed(String, long)} or
+     * {@link #parseFailed(String, CronExpressionPart, long)} on the same thread
+     *
+     * @param expression The expression to parse
+     */
+    public void parseStarted(final String expression) {
+
+    }
+
+    /**
+     * Called after an expression has been parsed successfully
+     *
+     * @param expression    The parsed expression
+     * @param durationNanos The time spent parsing, in nanoseconds
+     */
+    public void parsed(final String expression, final long durationNanos) {
+
+    }
+
+    /**
+     * Called when an expression has been rejected by the parser
+     *
+     * @param expression    The rejected expression
+     * @param part          The part of the expression that is not valid
+     * @param durationNanos The time spent parsing, in nanoseconds
+     */
+    public void parseFailed(final String expression, final CronExpressionPart part, final long durationNanos) {
+
+    }
+
+    /**
+     * Called before an expression is described, followed by
+     * {@link #described(String, DescriptionType, Locale, long)} on the same thread
+     *
+     * @param expression The expression to describe
+     * @param type       The part of the expression to describe
+     * @param locale     The locale of the description
+     */
+    public void describeStarted(final String expression, final DescriptionType type, final Locale locale) {
+
+    }
+
+    /**
+     * Called after an expression has been described (or failed to), including the time spent parsing it
+     *
+     * @param expression    The described expression
+     * @param type          The part of the expression that has been described
+     * @param locale        The locale of the description
+     * @param durationNanos The time spent describing, in nanoseconds
+     */
+    public void described(final String expression, final DescriptionType type, final Locale locale, final long durationNanos) {
+
+    }
+
+    /**
+     * Called when a localized string is not found, the description then falls back to an empty string or to the key
+     *
+     * @param locale The locale being used
+     * @param key    The key of the missing string
+     */
+    public void missingLocalization(final Locale locale, final String key) {
+
+    }
+
+    //endregion
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    //region STATIC METHODS
+
+    /**
+     * Install the instrumentation called by every parser and descriptor, replacing the current one
+     *
+     * @param instrumentation The instrumentation to install (null to disable instrumentation)
+     */
+    public static void install(final CronInstrumentation instrumentation) {
+        installed = instrumentation;
+    }
+
+    /**
+     * @return The installed instrumentation, null if disabled
+     */
+    public static CronInstrumentation getInstalled() {
+        return installed;
+    }
+
+    /**
+     * Combine several instrumentations, i.e. to collect metrics and record JFR events at the same time
+     *
+     * @param instrumentations The instrumentations to call, in order
+     * @return An instrumentation forwarding every hook to all the given ones
+     */
+    public static CronInstrumentation compose(final CronInstrumentation... instrumentations) {
+        final CronInstrumentation[] targets = instrumentations.clone();
+        return new CronInstrumentation() {
+            @Override
+            public void parseStarted(final String expression) {
+                for (final CronInstrumentation target : targets) {
+                    target.parseStarted(expression);
+                }
+            }
+
+            @Override
+            public void parsed(final String expression, final long durationNanos) {
+                for (final CronInstrumentation target : targets) {
+                    target.parsed(expression, durationNanos);
+                }
+            }
+
+            @Override
+            public void parseFailed(final String expression, final CronExpressionPart part, final long durationNanos) {
+                for (final CronInstrumentation target : targets) {
+                    target.parseFailed(expression, part, durationNanos);
+                }
+            }
+
+            @Override
+            public void describeStarted(final String expression, final DescriptionType type, final Locale locale) {
+                for (final CronInstrumentation target : targets) {
+                    target.describeStarted(expression, type, locale);
+                }
+            }
+
+            @Override
+            public void described(final String expression, final DescriptionType type, final Locale locale, final long durationNanos) {
+                for (final CronInstrumentation target : targets) {
+                    target.described(expression, type, locale, durationNanos);
+                }
+            }
+
+            @Override
+            public void missingLocalization(final Locale locale, final String key) {
+                for (final CronInstrumentation target : targets) {
+                    target.missingLocalization(locale, key);
+                }
+            }
+        };
+    }
+
+    //endregion
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+}
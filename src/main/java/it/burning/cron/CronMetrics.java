@@ -0,0 +1,300 @@
+package it.burning.cron;
+
+import it.burning.cron.CronExpressionDescriptor.DescriptionType;
+import it.burning.cron.CronExpressionParser.CronExpressionPart;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters and latency histograms of the parsing and describing work, collected through {@link CronInstrumentation}:
+ * <pre>
+ * final CronMetrics metrics = new CronMetrics();
+ * CronInstrumentation.install(metrics);
+ * ...
+ * metrics.getDescribeLatency(DescriptionType.FULL, Locale.ENGLISH).getPercentileNanos(0.99);
+ * </pre>
+ * Updates only touch {@link LongAdder}s, so that threads describing expressions at the same time do not contend.
+ */
+public class CronMetrics extends CronInstrumentation {
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    //region FIELDS
+
+    // Parsing
+    private final LongAdder                              parseCount    = new LongAdder();
+    private final LatencyHistogram                       parseLatency  = new LatencyHistogram();
+    private final EnumMap<CronExpressionPart, LongAdder> parseFailures = new EnumMap<>(CronExpressionPart.class);
+
+    // Describing
+    private final LongAdder                                                           describeCount    = new LongAdder();
+    private final EnumMap<DescriptionType, ConcurrentHashMap<Locale, LatencyHistogram>> describeLatency  = new EnumMap<>(DescriptionType.class);
+    private final ConcurrentHashMap<Locale, ConcurrentHashMap<String, LongAdder>>       missingResources = new ConcurrentHashMap<>();
+
+    //endregion
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    //region SUBCLASSES
+
+    /**
+     * A latency histogram with power of two buckets: bucket N counts the durations between 2^(N-1) and 2^N - 1
+     * nanoseconds (bucket 0 counts zero durations).
+     */
+    public static final class LatencyHistogram {
+        // Buckets
+        private final LongAdder[] buckets    = new LongAdder[Long.SIZE];
+        private final LongAdder   totalNanos = new LongAdder();
+
+        /**
+         * Constructor
+         */
+        LatencyHistogram() {
+            for (int i = 0; i < buckets.length; i++) {
+                buckets[i] = new LongAdder();
+            }
+        }
+
+        /**
+         * @param durationNanos The duration to record, in nanoseconds
+         */
+        void record(final long durationNanos) {
+            final long duration = Math.max(durationNanos, 0);
+            buckets[Long.SIZE - Long.numberOfLeadingZeros(duration)].increment();
+            totalNanos.add(duration);
+        }
+
+        /**
+         * @return The number of recorded durations
+         */
+        public long getCount() {
+            long count = 0;
+            for (final LongAdder bucket : buckets) {
+                count += bucket.sum();
+            }
+
+            return count;
+        }
+
+        /**
+         * @return The sum of the recorded durations, in nanoseconds
+         */
+        public long getTotalNanos() {
+            return totalNanos.sum();
+        }
+
+        /**
+         * @return The mean of the recorded durations, in nanoseconds (0 if none has been recorded)
+         */
+        public double getMeanNanos() {
+            final long count = getCount();
+            return count > 0 ? (double) getTotalNanos() / count : 0;
+        }
+
+        /**
+         * @param quantile The quantile, between 0 and 1 (i.e. 0.99)
+         * @return An upper bound of the given quantile, in nanoseconds (the upper limit of the bucket containing it)
+         */
+        public long getPercentileNanos(final double quantile) {
+            final long[] counts = getBuckets();
+            long count = 0;
+            for (final long bucket : counts) {
+                count += bucket;
+            }
+
+            final long rank = (long) Math.ceil(quantile * count);
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank && seen > 0) {
+                    return (1L << i) - 1;
+                }
+            }
+
+            return 0;
+        }
+
+        /**
+         * @return The count of each bucket
+         */
+        public long[] getBuckets() {
+            final long[] counts = new long[buckets.length];
+            for (int i = 0; i < buckets.length; i++) {
+                counts[i] = buckets[i].sum();
+            }
+
+            return counts;
+        }
+
+        /**
+         * Clear the histogram
+         */
+        void reset() {
+            for (final LongAdder bucket : buckets) {
+                bucket.reset();
+            }
+
+            totalNanos.reset();
+        }
+    }
+
+    //endregion
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    //region ACCESSORS
+
+    /**
+     * @return The number of parsed expressions, failures included
+     */
+    public long getParseCount() {
+        return parseCount.sum();
+    }
+
+    /**
+     * @return The latency of parsing, failures included
+     */
+    public LatencyHistogram getParseLatency() {
+        return parseLatency;
+    }
+
+    /**
+     * @param part The part of the expression
+     * @return The number of expressions rejected because of the given part
+     */
+    public long getParseFailureCount(final CronExpressionPart part) {
+        return parseFailures.get(part).sum();
+    }
+
+    /**
+     * @return The number of rejected expressions
+     */
+    public long getParseFailureCount() {
+        long count = 0;
+        for (final LongAdder failures : parseFailures.values()) {
+            count += failures.sum();
+        }
+
+        return count;
+    }
+
+    /**
+     * @return The number of descriptions
+     */
+    public long getDescribeCount() {
+        return describeCount.sum();
+    }
+
+    /**
+     * @param type   The described part of the expressions
+     * @param locale The locale of the descriptions
+     * @return The latency of the descriptions of the given type and locale, null if there has been none
+     */
+    public LatencyHistogram getDescribeLatency(final DescriptionType type, final Locale locale) {
+        return describeLatency.get(type).get(locale);
+    }
+
+    /**
+     * @return The latency of the descriptions by type and locale
+     */
+    public Map<DescriptionType, Map<Locale, LatencyHistogram>> getDescribeLatencies() {
+        final Map<DescriptionType, Map<Locale, LatencyHistogram>> latencies = new EnumMap<>(DescriptionType.class);
+        for (final Map.Entry<DescriptionType, ConcurrentHashMap<Locale, LatencyHistogram>> entry : describeLatency.entrySet()) {
+            if (!entry.getValue().isEmpty()) {
+                latencies.put(entry.getKey(), Collections.unmodifiableMap(new HashMap<>(entry.getValue())));
+            }
+        }
+
+        return latencies;
+    }
+
+    /**
+     * @return How many times each missing localized string has been requested, by locale
+     */
+    public Map<Locale, Map<String, Long>> getMissingLocalizations() {
+        final Map<Locale, Map<String, Long>> missing = new HashMap<>();
+        for (final Map.Entry<Locale, ConcurrentHashMap<String, LongAdder>> locale : missingResources.entrySet()) {
+            final Map<String, Long> keys = new TreeMap<>();
+            for (final Map.Entry<String, LongAdder> key : locale.getValue().entrySet()) {
+                keys.put(key.getKey(), key.getValue().sum());
+            }
+
+            missing.put(locale.getKey(), keys);
+        }
+
+        return missing;
+    }
+
+    //endregion
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    //region CONSTRUCTORS
+
+    /**
+     * Constructor
+     */
+    public CronMetrics() {
+        for (final CronExpressionPart part : CronExpressionPart.values()) {
+            parseFailures.put(part, new LongAdder());
+        }
+
+        for (final DescriptionType type : DescriptionType.values()) {
+            describeLatency.put(type, new ConcurrentHashMap<>());
+        }
+    }
+
+    //endregion
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    //region METHODS
+
+    @Override
+    public void parsed(final String expression, final long durationNanos) {
+        parseCount.increment();
+        parseLatency.record(durationNanos);
+    }
+
+    @Override
+    public void parseFailed(final String expression, final CronExpressionPart part, final long durationNanos) {
+        parseCount.increment();
+        parseLatency.record(durationNanos);
+        parseFailures.get(part).increment();
+    }
+
+    @Override
+    public void described(final String expression, final DescriptionType type, final Locale locale, final long durationNanos) {
+        describeCount.increment();
+
+        final ConcurrentHashMap<Locale, LatencyHistogram> latencies = describeLatency.get(type);
+        LatencyHistogram latency = latencies.get(locale);
+        if (latency == null) {
+            latency = latencies.computeIfAbsent(locale, key -> new LatencyHistogram());
+        }
+
+        latency.record(durationNanos);
+    }
+
+    @Override
+    public void missingLocalization(final Locale locale, final String key) {
+        missingResources.computeIfAbsent(locale, ignored -> new ConcurrentHashMap<>())
+                        .computeIfAbsent(key, ignored -> new LongAdder())
+                        .increment();
+    }
+
+    /**
+     * Clear every counter and histogram
+     */
+    public void reset() {
+        parseCount.reset();
+        parseLatency.reset();
+        parseFailures.values().forEach(LongAdder::reset);
+        describeCount.reset();
+        describeLatency.values().forEach(Map::clear);
+        missingResources.clear();
+    }
+
+    //endregion
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+}
@@ -0,0 +1,605 @@
+package it.burning.cron;
+
+import it.burning.cron.CronExpressionParser.Settings;
+import it.burning.utils.Numbers;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+
+import static it.burning.cron.CronExpressionParser.MAX_YEAR;
+import static it.burning.cron.CronExpressionParser.MIN_YEAR;
+
+/**
+ * A cron expression compiled into per-field bitmasks.
+ * <p>
+ * Every field of the normalized expression returned by {@link CronExpressionParser#parse()} is expanded into the set of
+ * values it matches and stored as a bitmask, where bit N is set when value N matches (day of week uses 0 for Sunday).
+ * The day of month and day of week special forms (L, LW, L-N, NW, NL and N#M) depend on the month being evaluated, so
+ * they are kept as separate rules instead.
+ * <p>
+ * When both day of month and day of week are restricted (only possible with 5 part expressions) a day matches when
+ * either of them does, as in the original Unix cron. A field restricted to all of its values is considered unrestricted,
+ * so schedules spelled differently but matching the same values compare as equal.
+ * <p>
+ * Instances are immutable and can be safely shared between threads.
+ */
+public final class CronSchedule {
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    //region FIELDS
+
+    // Masks of every valid value for each field
+    static final long ALL_SECONDS        = (1L << 60) - 1;
+    static final long ALL_MINUTES        = (1L << 60) - 1;
+    static final int  ALL_HOURS          = (1 << 24) - 1;
+    static final int  ALL_DAYS_OF_MONTH  = ((1 << 31) - 1) << 1;
+    static final int  ALL_MONTHS         = ((1 << 12) - 1) << 1;
+    static final int  ALL_DAYS_OF_WEEK   = (1 << 7) - 1;
+    static final int  YEAR_COUNT         = MAX_YEAR - MIN_YEAR + 1;
+    static final int  YEAR_WORDS         = (YEAR_COUNT + 63) >>> 6;
+    static final int  NONE               = -1;
+
+    // Time fields
+    private final long   seconds;
+    private final long   minutes;
+    private final int    hours;
+    private final int    months;
+    private final long[] years;
+
+    // Day of month rules
+    private final int     daysOfMonth;
+    private final boolean dayOfMonthRestricted;
+    private final int     lastDayOffset;
+    private final boolean lastWeekday;
+    private final int     nearestWeekday;
+
+    // Day of week rules
+    private final int     daysOfWeek;
+    private final boolean dayOfWeekRestricted;
+    private final int     lastDayOfWeek;
+    private final int     nthDayOfWeek;
+    private final int     nthOccurrence;
+
+    //endregion
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    //region CONSTRUCTORS
+
+    /**
+     * Constructor
+     *
+     * @param seconds        Seconds mask (0-59)
+     * @param minutes        Minutes mask (0-59)
+     * @param hours          Hours mask (0-23)
+     * @param daysOfMonth    Days of month mask (1-31), ignored when a day of month special rule is set
+     * @param months         Months mask (1-12)
+     * @param daysOfWeek     Days of week mask (0-6, Sunday is 0), ignored when a day of week special rule is set
+     * @param years          Years mask, bit N stands for year {@code MIN_YEAR + N}
+     * @param domRestricted  True if the day of month field restricts the matching days
+     * @param dowRestricted  True if the day of week field restricts the matching days
+     * @param lastDayOffset  Days before the last day of the month (L, L-N), {@code NONE} if not used
+     * @param lastWeekday    True for the last weekday of the month (LW)
+     * @param nearestWeekday Day whose nearest weekday matches (NW), {@code NONE} if not used
+     * @param lastDayOfWeek  Day of week whose last occurrence in the month matches (NL), {@code NONE} if not used
+     * @param nthDayOfWeek   Day of week whose Nth occurrence in the month matches (N#M), {@code NONE} if not used
+     * @param nthOccurrence  The occurrence of {@code nthDayOfWeek} that matches (1-5)
+     */
+    CronSchedule(final long seconds, final long minutes, final int hours, final int daysOfMonth, final int months, final int daysOfWeek, final long[] years,
+                 final boolean domRestricted, final boolean dowRestricted, final int lastDayOffset, final boolean lastWeekday, final int nearestWeekday,
+                 final int lastDayOfWeek, final int nthDayOfWeek, final int nthOccurrence) {
+        final boolean domSpecial = lastDayOffset != NONE || lastWeekday || nearestWeekday != NONE;
+        final boolean dowSpecial = lastDayOfWeek != NONE || nthDayOfWeek != NONE;
+
+        // A restriction listing every value of its field does not restrict anything. When both fields are restricted
+        // (matching either one of them) this means every single day matches.
+        boolean domRestrictedCanonical = domRestricted && (domSpecial || daysOfMonth != ALL_DAYS_OF_MONTH);
+        boolean dowRestrictedCanonical = dowRestricted && (dowSpecial || daysOfWeek != ALL_DAYS_OF_WEEK);
+        if (domRestricted && dowRestricted && (!domRestrictedCanonical || !dowRestrictedCanonical)) {
+            domRestrictedCanonical = false;
+            dowRestrictedCanonical = false;
+        }
+
+        this.seconds = seconds;
+        this.minutes = minutes;
+        this.hours = hours;
+        this.months = months;
+        this.years = years.clone();
+
+        this.dayOfMonthRestricted = domRestrictedCanonical;
+        this.daysOfMonth = !domRestrictedCanonical ? ALL_DAYS_OF_MONTH : domSpecial ? 0 : daysOfMonth;
+        this.lastDayOffset = domRestrictedCanonical ? lastDayOffset : NONE;
+        this.lastWeekday = domRestrictedCanonical && lastWeekday;
+        this.nearestWeekday = domRestrictedCanonical ? nearestWeekday : NONE;
+
+        this.dayOfWeekRestricted = dowRestrictedCanonical;
+        this.daysOfWeek = !dowRestrictedCanonical ? ALL_DAYS_OF_WEEK : dowSpecial ? 0 : daysOfWeek;
+        this.lastDayOfWeek = dowRestrictedCanonical ? lastDayOfWeek : NONE;
+        this.nthDayOfWeek = dowRestrictedCanonical ? nthDayOfWeek : NONE;
+        this.nthOccurrence = dowRestrictedCanonical && nthDayOfWeek != NONE ? nthOccurrence : NONE;
+    }
+
+    //endregion
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    //region ACCESSORS
+
+    public long getSeconds() {
+        return seconds;
+    }
+
+    public long getMinutes() {
+        return minutes;
+    }
+
+    public int getHours() {
+        return hours;
+    }
+
+    public int getDaysOfMonth() {
+        return daysOfMonth;
+    }
+
+    public int getMonths() {
+        return months;
+    }
+
+    public int getDaysOfWeek() {
+        return daysOfWeek;
+    }
+
+    public boolean isDayOfMonthRestricted() {
+        return dayOfMonthRestricted;
+    }
+
+    public boolean isDayOfWeekRestricted() {
+        return dayOfWeekRestricted;
+    }
+
+    public int getLastDayOffset() {
+        return lastDayOffset;
+    }
+
+    public boolean isLastWeekday() {
+        return lastWeekday;
+    }
+
+    public int getNearestWeekday() {
+        return nearestWeekday;
+    }
+
+    public int getLastDayOfWeek() {
+        return lastDayOfWeek;
+    }
+
+    public int getNthDayOfWeek() {
+        return nthDayOfWeek;
+    }
+
+    public int getNthOccurrence() {
+        return nthOccurrence;
+    }
+
+    /**
+     * @return True if the day of month or the day of week use one of the special forms (L, W, #)
+     */
+    public boolean hasSpecialDayRule() {
+        return lastDayOffset != NONE || lastWeekday || nearestWeekday != NONE || lastDayOfWeek != NONE || nthDayOfWeek != NONE;
+    }
+
+    /**
+     * @param year The year to check
+     * @return True if the schedule fires during the given year
+     */
+    public boolean hasYear(final int year) {
+        if (year < MIN_YEAR || year > MAX_YEAR) {
+            return false;
+        }
+
+        final int bit = year - MIN_YEAR;
+        return (years[bit >>> 6] & (1L << bit)) != 0;
+    }
+
+    /**
+     * @return A copy of the years mask, bit N stands for year {@code 1970 + N}
+     */
+    public long[] getYears() {
+        return years.clone();
+    }
+
+    //endregion
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    //region METHODS
+
+    /**
+     * Checks whether the schedule fires at the given (wall clock) time
+     *
+     * @param time The time to check, fractions of a second are ignored
+     * @return True if the schedule fires at the given time
+     */
+    public boolean matches(final LocalDateTime time) {
+        return (seconds & (1L << time.getSecond())) != 0 &&
+               (minutes & (1L << time.getMinute())) != 0 &&
+               (hours & (1 << time.getHour())) != 0 &&
+               matches(time.toLocalDate());
+    }
+
+    /**
+     * Checks whether the schedule fires at least once during the given day
+     *
+     * @param date The day to check
+     * @return True if the day, month, day of week and year of the date all match
+     */
+    public boolean matches(final LocalDate date) {
+        return (months & (1 << date.getMonthValue())) != 0 &&
+               hasYear(date.getYear()) &&
+               matchesDay(date.getDayOfMonth(), date.getDayOfWeek().getValue() % 7, date.lengthOfMonth());
+    }
+
+    /**
+     * Finds the first time after a given one when the schedule fires, skipping the values of each field that do not
+     * match (largest field first) instead of trying every second
+     *
+     * @param after The (wall clock) time to start from, excluded
+     * @return The first firing after the given time, or null if the schedule never fires again
+     */
+    public LocalDateTime next(final LocalDateTime after) {
+        LocalDateTime time = after.truncatedTo(ChronoUnit.SECONDS).plusSeconds(1);
+        while (time.getYear() <= MAX_YEAR) {
+            if (!hasYear(time.getYear())) {
+                time = LocalDateTime.of(time.getYear() + 1, 1, 1, 0, 0);
+                continue;
+            }
+
+            final int month = nextValue(months, time.getMonthValue());
+            if (month > 12) {
+                time = LocalDateTime.of(time.getYear() + 1, 1, 1, 0, 0);
+                continue;
+            } else if (month != time.getMonthValue()) {
+                time = LocalDateTime.of(time.getYear(), month, 1, 0, 0);
+            }
+
+            final LocalDate date = time.toLocalDate();
+            if (!matchesDay(date.getDayOfMonth(), date.getDayOfWeek().getValue() % 7, date.lengthOfMonth())) {
+                time = date.plusDays(1).atStartOfDay();
+                continue;
+            }
+
+            final int hour = nextValue(hours, time.getHour());
+            if (hour > 23) {
+                time = date.plusDays(1).atStartOfDay();
+                continue;
+            } else if (hour != time.getHour()) {
+                time = date.atTime(hour, 0);
+            }
+
+            final int minute = nextValue(minutes, time.getMinute());
+            if (minute > 59) {
+                time = date.atTime(hour, 0).plusHours(1);
+                continue;
+            } else if (minute != time.getMinute()) {
+                time = date.atTime(hour, minute);
+            }
+
+            final int second = nextValue(seconds, time.getSecond());
+            if (second > 59) {
+                time = date.atTime(hour, minute).plusMinutes(1);
+                continue;
+            }
+
+            return time.withSecond(second);
+        }
+
+        return null;
+    }
+
+    /**
+     * Checks the day of month and day of week rules alone
+     *
+     * @param dayOfMonth  The day of month (1-31)
+     * @param dayOfWeek   The day of week (0-6, Sunday is 0)
+     * @param monthLength The number of days in the month
+     * @return True if the day matches
+     */
+    boolean matchesDay(final int dayOfMonth, final int dayOfWeek, final int monthLength) {
+        if (dayOfMonthRestricted && dayOfWeekRestricted) {
+            return matchesDayOfMonth(dayOfMonth, dayOfWeek, monthLength) || matchesDayOfWeek(dayOfMonth, dayOfWeek, monthLength);
+        } else if (dayOfMonthRestricted) {
+            return matchesDayOfMonth(dayOfMonth, dayOfWeek, monthLength);
+        } else if (dayOfWeekRestricted) {
+            return matchesDayOfWeek(dayOfMonth, dayOfWeek, monthLength);
+        }
+
+        return true;
+    }
+
+    /**
+     * Evaluates the day of month rule
+     *
+     * @param dayOfMonth  The day of month (1-31)
+     * @param dayOfWeek   The day of week (0-6, Sunday is 0)
+     * @param monthLength The number of days in the month
+     * @return True if the day of month matches
+     */
+    private boolean matchesDayOfMonth(final int dayOfMonth, final int dayOfWeek, final int monthLength) {
+        if (lastDayOffset != NONE) {
+            return dayOfMonth == monthLength - lastDayOffset;
+        } else if (lastWeekday) {
+            return dayOfMonth == nearestWeekday(monthLength, dayOfMonth, dayOfWeek, monthLength);
+        } else if (nearestWeekday != NONE) {
+            return nearestWeekday <= monthLength && dayOfMonth == nearestWeekday(nearestWeekday, dayOfMonth, dayOfWeek, monthLength);
+        }
+
+        return (daysOfMonth & (1 << dayOfMonth)) != 0;
+    }
+
+    /**
+     * Evaluates the day of week rule
+     *
+     * @param dayOfMonth  The day of month (1-31)
+     * @param dayOfWeek   The day of week (0-6, Sunday is 0)
+     * @param monthLength The number of days in the month
+     * @return True if the day of week matches
+     */
+    private boolean matchesDayOfWeek(final int dayOfMonth, final int dayOfWeek, final int monthLength) {
+        if (lastDayOfWeek != NONE) {
+            return dayOfWeek == lastDayOfWeek && dayOfMonth > monthLength - 7;
+        } else if (nthDayOfWeek != NONE) {
+            return dayOfWeek == nthDayOfWeek && (dayOfMonth - 1) / 7 + 1 == nthOccurrence;
+        }
+
+        return (daysOfWeek & (1 << dayOfWeek)) != 0;
+    }
+
+    /**
+     * Finds the first value of a field matching a mask
+     *
+     * @param mask The mask of the field
+     * @param from The first value to consider
+     * @return The first value set in the mask from the given one, 64 if there is none
+     */
+    private static int nextValue(final long mask, final int from) {
+        return Long.numberOfTrailingZeros(mask & (-1L << from));
+    }
+
+    /**
+     * Finds the weekday (Monday to Friday) nearest to a target day, without leaving the month
+     *
+     * @param target      The target day of month
+     * @param dayOfMonth  A reference day of month
+     * @param dayOfWeek   The day of week of the reference day (0-6, Sunday is 0)
+     * @param monthLength The number of days in the month
+     * @return The nearest weekday to the target
+     */
+    private static int nearestWeekday(final int target, final int dayOfMonth, final int dayOfWeek, final int monthLength) {
+        final int targetDayOfWeek = Math.floorMod(dayOfWeek + target - dayOfMonth, 7);
+        if (targetDayOfWeek == 6) {
+            // Saturday, move to Friday unless we would leave the month
+            return target == 1 ? target + 2 : target - 1;
+        } else if (targetDayOfWeek == 0) {
+            // Sunday, move to Monday unless we would leave the month
+            return target == monthLength ? target - 2 : target + 1;
+        }
+
+        return target;
+    }
+
+    @Override
+    public boolean equals(final Object other) {
+        if (this == other) {
+            return true;
+        }
+
+        if (!(other instanceof CronSchedule)) {
+            return false;
+        }
+
+        final CronSchedule that = (CronSchedule) other;
+        return seconds == that.seconds &&
+               minutes == that.minutes &&
+               hours == that.hours &&
+               months == that.months &&
+               Arrays.equals(years, that.years) &&
+               daysOfMonth == that.daysOfMonth &&
+               dayOfMonthRestricted == that.dayOfMonthRestricted &&
+               lastDayOffset == that.lastDayOffset &&
+               lastWeekday == that.lastWeekday &&
+               nearestWeekday == that.nearestWeekday &&
+               daysOfWeek == that.daysOfWeek &&
+               dayOfWeekRestricted == that.dayOfWeekRestricted &&
+               lastDayOfWeek == that.lastDayOfWeek &&
+               nthDayOfWeek == that.nthDayOfWeek &&
+               nthOccurrence == that.nthOccurrence;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = Long.hashCode(seconds);
+        result = 31 * result + Long.hashCode(minutes);
+        result = 31 * result + hours;
+        result = 31 * result + months;
+        result = 31 * result + Arrays.hashCode(years);
+        result = 31 * result + daysOfMonth;
+        result = 31 * result + (dayOfMonthRestricted ? 1 : 0);
+        result = 31 * result + lastDayOffset;
+        result = 31 * result + (lastWeekday ? 1 : 0);
+        result = 31 * result + nearestWeekday;
+        result = 31 * result + daysOfWeek;
+        result = 31 * result + (dayOfWeekRestricted ? 1 : 0);
+        result = 31 * result + lastDayOfWeek;
+        result = 31 * result + nthDayOfWeek;
+        result = 31 * result + nthOccurrence;
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("CronSchedule[seconds=%x, minutes=%x, hours=%x, daysOfMonth=%x, months=%x, daysOfWeek=%x]", seconds, minutes, hours, daysOfMonth, months, daysOfWeek);
+    }
+
+    //endregion
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    //region STATIC METHODS
+
+    /**
+     * Parses and compiles a cron expression using the default options
+     *
+     * @param expression The cron expression
+     * @return The compiled schedule
+     */
+    public static CronSchedule compile(final String expression) {
+        return compile(expression, null);
+    }
+
+    /**
+     * Parses and compiles a cron expression
+     *
+     * @param expression The cron expression
+     * @param options    Parsing options (null for defaults)
+     * @return The compiled schedule
+     */
+    public static CronSchedule compile(final String expression, final Settings options) {
+        return fromParts(new CronExpressionParser(expression, options).parse());
+    }
+
+    /**
+     * Compiles an expression that has already been parsed
+     *
+     * @param parsed The 7 normalized parts returned by {@link CronExpressionParser#parse()}
+     * @return The compiled schedule
+     */
+    public static CronSchedule fromParts(final String[] parsed) {
+        final long[] word = new long[1];
+        final long[] years = new long[YEAR_WORDS];
+
+        // Time fields (an empty seconds part means the 0th second)
+        final long seconds = parsed[0].isEmpty() ? 1L : expand(parsed[0], 0, 59, 0, word);
+        final long minutes = expand(parsed[1], 0, 59, 0, word);
+        final int hours = (int) expand(parsed[2], 0, 23, 0, word);
+        final int months = (int) expand(parsed[4], 1, 12, 0, word);
+        expand(parsed[6], MIN_YEAR, MAX_YEAR, MIN_YEAR, years);
+
+        // Day of month
+        final String dom = parsed[3];
+        int lastDayOffset = NONE;
+        int nearestWeekday = NONE;
+        boolean lastWeekday = false;
+        int daysOfMonth = 0;
+        if (dom.equals("L")) {
+            lastDayOffset = 0;
+        } else if (dom.equals("LW") || dom.equals("WL")) {
+            lastWeekday = true;
+        } else if (dom.startsWith("L-")) {
+            lastDayOffset = Numbers.parseInt(dom, 2, dom.length());
+        } else if (dom.endsWith("W")) {
+            nearestWeekday = Numbers.parseInt(dom, 0, dom.length() - 1);
+        } else {
+            daysOfMonth = (int) expand(dom, 1, 31, 0, word);
+        }
+
+        // Day of week
+        final String dow = parsed[5];
+        int lastDayOfWeek = NONE;
+        int nthDayOfWeek = NONE;
+        int nthOccurrence = NONE;
+        int daysOfWeek = 0;
+        final int hash = dow.indexOf('#');
+        if (hash > 0) {
+            nthDayOfWeek = Numbers.parseInt(dow, 0, hash);
+            nthOccurrence = Numbers.parseInt(dow, hash + 1, dow.length());
+        } else if (dow.endsWith("L")) {
+            lastDayOfWeek = Numbers.parseInt(dow, 0, dow.length() - 1);
+        } else {
+            daysOfWeek = (int) expand(dow, 0, 6, 0, word);
+        }
+
+        return new CronSchedule(seconds, minutes, hours, daysOfMonth, months, daysOfWeek, years,
+                                !dom.equals("*"), !dow.equals("*"), lastDayOffset, lastWeekday, nearestWeekday,
+                                lastDayOfWeek, nthDayOfWeek, nthOccurrence);
+    }
+
+    /**
+     * Expands a normalized field into the bits of the values it matches
+     *
+     * @param field The normalized field (*, N, N-M, N/S, N-M/S, *&#47;S or a comma separated list of those)
+     * @param min   The minimum value of the field
+     * @param max   The maximum value of the field
+     * @param base  The value stored in bit 0
+     * @param words The destination bits, cleared before the expansion
+     * @return The first word of the destination
+     */
+    static long expand(final String field, final int min, final int max, final int base, final long[] words) {
+        Arrays.fill(words, 0);
+
+        // Empty or '*' matches everything
+        if (field.isEmpty() || field.equals("*")) {
+            setRange(words, min, max, 1, min, max, base);
+            return words[0];
+        }
+
+        int start = 0;
+        while (start <= field.length()) {
+            int end = field.indexOf(',', start);
+            if (end < 0) {
+                end = field.length();
+            }
+
+            // Split the item in its range and step parts
+            final int slash = field.indexOf('/', start);
+            final boolean hasStep = slash >= 0 && slash < end;
+            final int rangeEnd = hasStep ? slash : end;
+            final int step = hasStep ? Numbers.parseInt(field, slash + 1, end) : 1;
+            final int from;
+            final int to;
+            if (field.charAt(start) == '*') {
+                from = min;
+                to = max;
+            } else {
+                final int dash = field.indexOf('-', start + 1);
+                if (dash >= 0 && dash < rangeEnd) {
+                    from = Numbers.parseInt(field, start, dash);
+                    to = Numbers.parseInt(field, dash + 1, rangeEnd);
+                } else {
+                    from = Numbers.parseInt(field, start, rangeEnd);
+                    to = hasStep ? max : from;
+                }
+            }
+
+            setRange(words, from, to, step, min, max, base);
+            start = end + 1;
+        }
+
+        return words[0];
+    }
+
+    /**
+     * Sets the bits of a stepped range of values, wrapping around when {@code from} is greater than {@code to}. A step
+     * of 0 only matches the starting value.
+     *
+     * @param words The destination bits
+     * @param from  The first value of the range
+     * @param to    The last value of the range
+     * @param step  The distance between matching values
+     * @param min   The minimum value of the field
+     * @param max   The maximum value of the field
+     * @param base  The value stored in bit 0
+     */
+    static void setRange(final long[] words, final int from, final int to, final int step, final int min, final int max, final int base) {
+        final int span = max - min + 1;
+        final int length = Math.floorMod(to - from, span);
+        final int increment = step > 0 ? step : span;
+        for (int offset = 0; offset <= length; offset += increment) {
+            final int bit = min + (from - min + offset) % span - base;
+            words[bit >>> 6] |= 1L << bit;
+        }
+    }
+
+    //endregion
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+}
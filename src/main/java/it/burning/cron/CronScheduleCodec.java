@@ -0,0 +1,310 @@
+package it.burning.cron;
+
+import it.burning.cron.CronExpressionDescriptor.DescriptionType;
+import it.burning.cron.CronExpressionParser.Settings;
+
+import java.nio.ByteBuffer;
+
+import static it.burning.cron.CronExpressionParser.MAX_YEAR;
+import static it.burning.cron.CronExpressionParser.MIN_YEAR;
+import static it.burning.cron.CronSchedule.NONE;
+
+/**
+ * A fixed size binary encoding of compiled schedules, meant to keep millions of them in a (direct or memory mapped)
+ * {@link ByteBuffer} instead of as strings and objects on the heap.
+ * <p>
+ * Every schedule takes {@link #BYTES} bytes, written in the byte order of the buffer at an absolute index, so that the
+ * buffer position is never touched and records can be read by several threads at the same time:
+ * <pre>
+ *  0  long  seconds mask              24  short months mask
+ *  8  long  minutes mask              26  byte  flags
+ * 16  int   days of month mask        27  byte  day of month rule (L-N offset or NW day)
+ * 20  int   hours mask (bits 0-23)    28  byte  day of week rule (day | occurrence &lt;&lt; 3, occurrence 0 is NL)
+ *           days of week (bits 24-30) 29  byte  first year, last year and step (3 bytes, offsets from 1970)
+ * </pre>
+ * Years are stored as a stepped range, so year lists that are not evenly spaced (i.e. "2020,2021,2030") cannot be
+ * encoded. Records can be described straight from the buffer with
+ * {@link #describe(ByteBuffer, int, DescriptionType, Options)}, which writes the fields back the same way
+ * {@link CronExpressionMinimizer} does.
+ */
+public final class CronScheduleCodec {
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    //region FIELDS
+
+    /**
+     * The size of an encoded schedule, in bytes
+     */
+    public static final int BYTES = 32;
+
+    // Layout
+    private static final int SECONDS       = 0;
+    private static final int MINUTES       = 8;
+    private static final int DAYS_OF_MONTH = 16;
+    private static final int HOURS         = 20;
+    private static final int MONTHS        = 24;
+    private static final int FLAGS         = 26;
+    private static final int DOM_RULE      = 27;
+    private static final int DOW_RULE      = 28;
+    private static final int YEAR_FIRST    = 29;
+    private static final int YEAR_LAST     = 30;
+    private static final int YEAR_STEP     = 31;
+
+    // Flags
+    private static final int DOM_RESTRICTED  = 1;
+    private static final int DOW_RESTRICTED  = 1 << 1;
+    private static final int LAST_WEEKDAY    = 1 << 2;
+    private static final int LAST_DAY        = 1 << 3;
+    private static final int NEAREST_WEEKDAY = 1 << 4;
+    private static final int DOW_RULE_SET    = 1 << 5;
+
+    //endregion
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    //region CONSTRUCTORS
+
+    /**
+     * Private constructor (static methods only)
+     */
+    private CronScheduleCodec() {
+
+    }
+
+    //endregion
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    //region STATIC METHODS
+
+    /**
+     * Encodes the result of a scan
+     *
+     * @param fields The scanned expression
+     * @param buffer The destination buffer
+     * @param index  The index of the record in the buffer, in bytes
+     * @throws IllegalArgumentException If the years of the expression are not evenly spaced
+     */
+    public static void encode(final CronExpressionScanner.Fields fields, final ByteBuffer buffer, final int index) {
+        encode(fields.toSchedule(), buffer, index);
+    }
+
+    /**
+     * Encodes a schedule
+     *
+     * @param schedule The schedule
+     * @param buffer   The destination buffer
+     * @param index    The index of the record in the buffer, in bytes
+     * @throws IllegalArgumentException If the years of the schedule are not evenly spaced
+     */
+    public static void encode(final CronSchedule schedule, final ByteBuffer buffer, final int index) {
+        // Years, as a stepped range
+        int first = NONE;
+        int last = NONE;
+        int step = 0;
+        int count = 0;
+        for (int year = MIN_YEAR; year <= MAX_YEAR; year++) {
+            if (schedule.hasYear(year)) {
+                if (count == 1) {
+                    step = year - last;
+                } else if (count > 1 && year - last != step) {
+                    throw new IllegalArgumentException("Years that are not evenly spaced cannot be encoded");
+                }
+
+                first = count == 0 ? year : first;
+                last = year;
+                count++;
+            }
+        }
+
+        if (count == 0) {
+            throw new IllegalArgumentException("A schedule without years cannot be encoded");
+        }
+
+        // Day rules
+        int flags = (schedule.isDayOfMonthRestricted() ? DOM_RESTRICTED : 0) |
+                    (schedule.isDayOfWeekRestricted() ? DOW_RESTRICTED : 0) |
+                    (schedule.isLastWeekday() ? LAST_WEEKDAY : 0);
+        int domRule = 0;
+        if (schedule.getLastDayOffset() != NONE) {
+            flags |= LAST_DAY;
+            domRule = schedule.getLastDayOffset();
+        } else if (schedule.getNearestWeekday() != NONE) {
+            flags |= NEAREST_WEEKDAY;
+            domRule = schedule.getNearestWeekday();
+        }
+
+        int dowRule = 0;
+        if (schedule.getLastDayOfWeek() != NONE) {
+            flags |= DOW_RULE_SET;
+            dowRule = schedule.getLastDayOfWeek();
+        } else if (schedule.getNthDayOfWeek() != NONE) {
+            flags |= DOW_RULE_SET;
+            dowRule = schedule.getNthDayOfWeek() | schedule.getNthOccurrence() << 3;
+        }
+
+        buffer.putLong(index + SECONDS, schedule.getSeconds())
+              .putLong(index + MINUTES, schedule.getMinutes())
+              .putInt(index + DAYS_OF_MONTH, schedule.getDaysOfMonth())
+              .putInt(index + HOURS, schedule.getHours() | schedule.getDaysOfWeek() << 24)
+              .putShort(index + MONTHS, (short) schedule.getMonths())
+              .put(index + FLAGS, (byte) flags)
+              .put(index + DOM_RULE, (byte) domRule)
+              .put(index + DOW_RULE, (byte) dowRule)
+              .put(index + YEAR_FIRST, (byte) (first - MIN_YEAR))
+              .put(index + YEAR_LAST, (byte) (last - MIN_YEAR))
+              .put(index + YEAR_STEP, (byte) (count > 1 ? step : 1));
+    }
+
+    /**
+     * Decodes a schedule
+     *
+     * @param buffer The source buffer
+     * @param index  The index of the record in the buffer, in bytes
+     * @return The schedule
+     */
+    public static CronSchedule decode(final ByteBuffer buffer, final int index) {
+        final int flags = buffer.get(index + FLAGS) & 0xFF;
+        final int domRule = buffer.get(index + DOM_RULE) & 0xFF;
+        final int dowRule = buffer.get(index + DOW_RULE) & 0xFF;
+        final int hours = buffer.getInt(index + HOURS);
+
+        final long[] years = new long[CronSchedule.YEAR_WORDS];
+        CronSchedule.setRange(years, getFirstYear(buffer, index), getLastYear(buffer, index), getYearStep(buffer, index), MIN_YEAR, MAX_YEAR, MIN_YEAR);
+
+        final boolean dowRuleSet = (flags & DOW_RULE_SET) != 0;
+        final int occurrence = dowRule >>> 3;
+        return new CronSchedule(buffer.getLong(index + SECONDS),
+                                buffer.getLong(index + MINUTES),
+                                hours & CronSchedule.ALL_HOURS,
+                                buffer.getInt(index + DAYS_OF_MONTH),
+                                buffer.getShort(index + MONTHS) & 0xFFFF,
+                                hours >>> 24,
+                                years,
+                                (flags & DOM_RESTRICTED) != 0,
+                                (flags & DOW_RESTRICTED) != 0,
+                                (flags & LAST_DAY) != 0 ? domRule : NONE,
+                                (flags & LAST_WEEKDAY) != 0,
+                                (flags & NEAREST_WEEKDAY) != 0 ? domRule : NONE,
+                                dowRuleSet && occurrence == 0 ? dowRule & 7 : NONE,
+                                dowRuleSet && occurrence > 0 ? dowRule & 7 : NONE,
+                                dowRuleSet && occurrence > 0 ? occurrence : NONE);
+    }
+
+    /**
+     * Writes the normalized parts of an encoded schedule, in the same form returned by
+     * {@link CronExpressionParser#parse()}
+     *
+     * @param buffer The source buffer
+     * @param index  The index of the record in the buffer, in bytes
+     * @return The 7 normalized parts (seconds are empty when only the 0th second matches)
+     */
+    public static String[] toParts(final ByteBuffer buffer, final int index) {
+        final CronSchedule schedule = decode(buffer, index);
+
+        final String[] parts = new String[7];
+        parts[0] = schedule.getSeconds() == 1L ? "" : CronExpressionMinimizer.renderField(new long[]{schedule.getSeconds()}, 0, 59, 0, null);
+        parts[1] = CronExpressionMinimizer.renderField(new long[]{schedule.getMinutes()}, 0, 59, 0, null);
+        parts[2] = CronExpressionMinimizer.renderField(new long[]{schedule.getHours()}, 0, 23, 0, null);
+        parts[3] = CronExpressionMinimizer.renderDayOfMonth(schedule);
+        parts[4] = boundStep(CronExpressionMinimizer.renderField(new long[]{schedule.getMonths()}, 1, 12, 0, null), 12);
+        parts[5] = schedule.getLastDayOfWeek() != NONE || schedule.getNthDayOfWeek() != NONE
+                   ? CronExpressionMinimizer.renderDayOfWeek(schedule, 0)
+                   : boundStep(CronExpressionMinimizer.renderField(new long[]{schedule.getDaysOfWeek()}, 0, 6, 0, null), 6);
+        parts[6] = boundStep(CronExpressionMinimizer.renderField(schedule.getYears(), MIN_YEAR, MAX_YEAR, MIN_YEAR, null), MAX_YEAR);
+
+        // A single hour following repeating minutes or seconds is written as a range, as the parser does (9 => 9-9)
+        if (Long.bitCount(schedule.getHours()) == 1 && (isRepeating(parts[0]) || isRepeating(parts[1]))) {
+            parts[2] += "-" + parts[2];
+        }
+
+        return parts;
+    }
+
+    /**
+     * Describes an encoded schedule
+     *
+     * @param buffer  The source buffer
+     * @param index   The index of the record in the buffer, in bytes
+     * @param options The options to use (null for the default options)
+     * @return The full description
+     */
+    public static String describe(final ByteBuffer buffer, final int index, final Settings options) {
+        return describe(buffer, index, DescriptionType.FULL, options);
+    }
+
+    /**
+     * Describes an encoded schedule
+     *
+     * @param buffer  The source buffer
+     * @param index   The index of the record in the buffer, in bytes
+     * @param type    Which part(s) of the schedule to describe
+     * @param options The options to use (null for the default options)
+     * @return The description
+     */
+    public static String describe(final ByteBuffer buffer, final int index, final DescriptionType type, final Settings options) {
+        final String[] parts = toParts(buffer, index);
+        final StringBuilder expression = new StringBuilder();
+        for (final String part : parts) {
+            if (!part.isEmpty()) {
+                expression.append(expression.length() > 0 ? " " : "").append(part);
+            }
+        }
+
+        return new CronExpressionDescriptor(expression.toString(), parts, options != null ? options : CronExpressionDescriptor.getDefaultOptions()).getDescription(type);
+    }
+
+    /**
+     * @param buffer The source buffer
+     * @param index  The index of the record in the buffer, in bytes
+     * @return The first year of the encoded schedule
+     */
+    public static int getFirstYear(final ByteBuffer buffer, final int index) {
+        return MIN_YEAR + (buffer.get(index + YEAR_FIRST) & 0xFF);
+    }
+
+    /**
+     * @param buffer The source buffer
+     * @param index  The index of the record in the buffer, in bytes
+     * @return The last year of the encoded schedule
+     */
+    public static int getLastYear(final ByteBuffer buffer, final int index) {
+        return MIN_YEAR + (buffer.get(index + YEAR_LAST) & 0xFF);
+    }
+
+    /**
+     * @param buffer The source buffer
+     * @param index  The index of the record in the buffer, in bytes
+     * @return The distance between the years of the encoded schedule
+     */
+    public static int getYearStep(final ByteBuffer buffer, final int index) {
+        return buffer.get(index + YEAR_STEP) & 0xFF;
+    }
+
+    /**
+     * @param field The field
+     * @return True if the field is '*' or a step
+     */
+    private static boolean isRepeating(final String field) {
+        return field.indexOf('*') >= 0 || field.indexOf('/') >= 0;
+    }
+
+    /**
+     * Writes the upper bound of a step starting from a value ("N/S" becomes "N-max/S"), as the parser does for months,
+     * days of week and years
+     *
+     * @param field The field
+     * @param max   The maximum value of the field
+     * @return The field
+     */
+    private static String boundStep(final String field, final int max) {
+        final int slash = field.indexOf('/');
+        if (slash < 0 || field.charAt(0) == '*' || field.lastIndexOf('-', slash) >= 0) {
+            return field;
+        }
+
+        return field.substring(0, slash) + "-" + max + field.substring(slash);
+    }
+
+    //endregion
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+}
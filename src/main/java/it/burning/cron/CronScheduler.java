@@ -0,0 +1,568 @@
+package it.burning.cron;
+
+import java.time.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * An embeddable scheduler running tasks on cron schedules, built on hierarchical timing wheels.
+ * <p>
+ * The wheels have 6 levels of 64 slots each: a slot of the first level lasts a second, a slot of each next level as
+ * long as a whole turn of the previous one (64 seconds, about an hour, 3 days, half a year and 34 years). A job is
+ * linked into the slot of its next firing (at the level where its distance from now fits), and moved down to a lower
+ * level when the hand of its level reaches its slot, so that scheduling and cancelling a job take constant time
+ * however many jobs are registered, and each second only the jobs due (or moving down) are touched.
+ * <p>
+ * When a job is due its task is handed to the {@link Executor} (a thread pool, or a virtual thread per task executor on
+ * Java 21+), and the next firing is computed from the schedule with {@link CronSchedule#next(LocalDateTime)} once the
+ * task has run, so runs of the same job never overlap. Firings missed by more than the misfire threshold (because the
+ * previous run lasted too long, the clock jumped forward or the process was suspended) are handled as per the
+ * {@link MisfirePolicy} of the job.
+ * <p>
+ * Schedules are evaluated in the wall clock time of the zone of the {@link Clock}: firings falling in a daylight saving
+ * gap run at the end of the gap, and the repeated hour of an overlap runs only once.
+ */
+public final class CronScheduler {
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    //region FIELDS
+
+    // Default misfire threshold, as in Quartz
+    public static final Duration DEFAULT_MISFIRE_THRESHOLD = Duration.ofMinutes(1);
+
+    // Wheels layout
+    private static final int  BITS   = 6;
+    private static final int  SLOTS  = 1 << BITS;
+    private static final int  MASK   = SLOTS - 1;
+    private static final int  LEVELS = 6;
+    private static final long RANGE  = 1L << (BITS * LEVELS);
+
+    // Config
+    private final Executor executor;
+    private final Clock    clock;
+    private final ZoneId   zone;
+    private final long     misfireThreshold;
+
+    // Wheels (slots are circular lists starting from a sentinel) and the number of jobs in each level
+    private final ReentrantLock lock   = new ReentrantLock();
+    private final Job[][]       slots  = new Job[LEVELS][SLOTS];
+    private final int[]         counts = new int[LEVELS];
+    private       long          tick;
+    private       int           size;
+
+    // Ticker thread
+    private volatile Thread  ticker;
+    private volatile boolean shutdown;
+
+    //endregion
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    //region SUBCLASSES
+
+    /**
+     * What to do with the firings of a job missed by more than the misfire threshold
+     */
+    public enum MisfirePolicy {
+        /**
+         * Run once right away for all the missed firings, then go on with the firings after now (the default)
+         */
+        FIRE_ONCE,
+
+        /**
+         * Run once for each missed firing, one after the other, then go on as usual
+         */
+        FIRE_ALL,
+
+        /**
+         * Skip the missed firings and wait for the next firing after now
+         */
+        SKIP
+    }
+
+    /**
+     * A task registered on a schedule, also linked into the wheels while waiting for its next firing
+     */
+    public final class Job {
+        private final CronSchedule  schedule;
+        private final Runnable      task;
+        private final MisfirePolicy misfirePolicy;
+
+        // Wheel links and state, guarded by the lock of the scheduler
+        private          Job           previous;
+        private          Job           next;
+        private          int           level;
+        private          boolean       armed;
+        private volatile boolean       done;
+        private          long          deadline;
+        private          LocalDateTime fireTime;
+
+        // The firing being run (set by the thread running the wheels)
+        private          LocalDateTime base;
+        private volatile long          fireCount;
+
+        public CronSchedule getSchedule() {
+            return schedule;
+        }
+
+        public MisfirePolicy getMisfirePolicy() {
+            return misfirePolicy;
+        }
+
+        /**
+         * @return The number of times the task was handed to the executor
+         */
+        public long getFireCount() {
+            return fireCount;
+        }
+
+        /**
+         * @return The next firing of the job, or null if it is running right now or done
+         */
+        public ZonedDateTime getNextFireTime() {
+            lock.lock();
+            try {
+                return armed ? fireTime.atZone(zone) : null;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * @return True if the job was cancelled, or if its schedule will never fire again
+         */
+        public boolean isDone() {
+            return done;
+        }
+
+        /**
+         * Cancels the job: it will not run anymore, although a run in progress is not interrupted
+         *
+         * @return False if the job was done already
+         */
+        public boolean cancel() {
+            lock.lock();
+            try {
+                if (done) {
+                    return false;
+                }
+
+                done = true;
+                size--;
+                if (armed) {
+                    unlink(this);
+                }
+
+                return true;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public String toString() {
+            return schedule.toString();
+        }
+
+        /**
+         * Constructor (slot sentinel)
+         */
+        private Job() {
+            this(null, null, null);
+            previous = this;
+            next = this;
+        }
+
+        /**
+         * Constructor
+         *
+         * @param schedule      The schedule of the job
+         * @param task          The task to run
+         * @param misfirePolicy What to do with missed firings
+         */
+        private Job(final CronSchedule schedule, final Runnable task, final MisfirePolicy misfirePolicy) {
+            this.schedule = schedule;
+            this.task = task;
+            this.misfirePolicy = misfirePolicy;
+        }
+
+        /**
+         * Runs the task, then arms the job for its next firing. Failures of the task are reported to the uncaught
+         * exception handler of the thread and do not stop the job.
+         */
+        private void run() {
+            try {
+                task.run();
+            } catch (final Throwable e) {
+                final Thread thread = Thread.currentThread();
+                thread.getUncaughtExceptionHandler().uncaughtException(thread, e);
+            } finally {
+                arm(this, base);
+            }
+        }
+    }
+
+    //endregion
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    //region CONSTRUCTORS
+
+    /**
+     * Constructor (system clock in the default time zone)
+     *
+     * @param executor The executor running the tasks
+     */
+    public CronScheduler(final Executor executor) {
+        this(executor, Clock.systemDefaultZone());
+    }
+
+    /**
+     * Constructor
+     *
+     * @param executor The executor running the tasks
+     * @param clock    The clock, whose zone the schedules are evaluated in
+     */
+    public CronScheduler(final Executor executor, final Clock clock) {
+        this(executor, clock, DEFAULT_MISFIRE_THRESHOLD);
+    }
+
+    /**
+     * Constructor
+     *
+     * @param executor         The executor running the tasks
+     * @param clock            The clock, whose zone the schedules are evaluated in
+     * @param misfireThreshold How late a firing can run before it is considered missed
+     */
+    public CronScheduler(final Executor executor, final Clock clock, final Duration misfireThreshold) {
+        if (misfireThreshold.isNegative()) {
+            throw new IllegalArgumentException("Negative misfire threshold: " + misfireThreshold);
+        }
+
+        this.executor = executor;
+        this.clock = clock;
+        this.zone = clock.getZone();
+        this.misfireThreshold = misfireThreshold.getSeconds();
+        this.tick = clock.instant().getEpochSecond();
+        for (int level = 0; level < LEVELS; level++) {
+            for (int slot = 0; slot < SLOTS; slot++) {
+                slots[level][slot] = new Job();
+            }
+        }
+    }
+
+    //endregion
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    //region ACCESSORS
+
+    /**
+     * @return The number of jobs not done yet
+     */
+    public int size() {
+        lock.lock();
+        try {
+            return size;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    //endregion
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    //region METHODS
+
+    /**
+     * Registers a task on a schedule
+     *
+     * @param expression The expression of the schedule (parsed with the default options)
+     * @param task       The task to run
+     * @return The job
+     * @throws IllegalArgumentException If the schedule never fires again
+     */
+    public Job schedule(final String expression, final Runnable task) {
+        return schedule(CronSchedule.compile(expression), task, MisfirePolicy.FIRE_ONCE);
+    }
+
+    /**
+     * Registers a task on a schedule
+     *
+     * @param schedule      The schedule
+     * @param task          The task to run
+     * @param misfirePolicy What to do with the firings missed by more than the misfire threshold
+     * @return The job
+     * @throws IllegalArgumentException If the schedule never fires again
+     */
+    public Job schedule(final CronSchedule schedule, final Runnable task, final MisfirePolicy misfirePolicy) {
+        final LocalDateTime first = schedule.next(LocalDateTime.now(clock));
+        if (first == null) {
+            throw new IllegalArgumentException("The schedule never fires again: " + schedule);
+        }
+
+        final Job job = new Job(schedule, task, misfirePolicy);
+        lock.lock();
+        try {
+            size++;
+            insert(job, first);
+        } finally {
+            lock.unlock();
+        }
+
+        return job;
+    }
+
+    /**
+     * Starts the thread running the wheels (a daemon thread)
+     *
+     * @throws IllegalStateException If the scheduler was started already
+     */
+    public synchronized void start() {
+        if (ticker != null || shutdown) {
+            throw new IllegalStateException("The scheduler was started already");
+        }
+
+        ticker = new Thread(() -> {
+            while (!shutdown) {
+                runUntil(Math.floorDiv(clock.millis(), 1000));
+                LockSupport.parkNanos(this, (1000 - Math.floorMod(clock.millis(), 1000)) * 1_000_000L);
+            }
+        }, "cron-scheduler");
+        ticker.setDaemon(true);
+        ticker.start();
+    }
+
+    /**
+     * Stops running the jobs. Runs in progress are not interrupted, and the executor is left to the caller to shut down.
+     */
+    public synchronized void shutdown() {
+        shutdown = true;
+        if (ticker != null) {
+            LockSupport.unpark(ticker);
+        }
+    }
+
+    /**
+     * Turns the wheels up to a given second, handing the tasks of the jobs due to the executor
+     *
+     * @param now The current second (since the epoch)
+     */
+    void runUntil(final long now) {
+        final List<Job> due = new ArrayList<>();
+        while (true) {
+            lock.lock();
+            try {
+                skipEmptySlots(now);
+                if (tick > now) {
+                    return;
+                }
+
+                // When the hand of a level completes a turn, the one of the next level moves a slot forward
+                if ((tick & MASK) == 0) {
+                    for (int level = 1; level < LEVELS; level++) {
+                        final int slot = (int) (tick >>> (BITS * level)) & MASK;
+                        cascade(level, slot);
+                        if (slot != 0) {
+                            break;
+                        }
+                    }
+                }
+
+                final Job sentinel = slots[0][(int) tick & MASK];
+                for (Job job = sentinel.next; job != sentinel; job = job.next) {
+                    job.armed = false;
+                    due.add(job);
+                }
+
+                counts[0] -= due.size();
+                sentinel.next = sentinel;
+                sentinel.previous = sentinel;
+                tick++;
+            } finally {
+                lock.unlock();
+            }
+
+            for (final Job job : due) {
+                fire(job, now);
+            }
+
+            due.clear();
+        }
+    }
+
+    /**
+     * Hands the task of a due job to the executor, unless its firing was missed and is to be skipped
+     *
+     * @param job The job
+     * @param now The current second (since the epoch)
+     */
+    private void fire(final Job job, final long now) {
+        if (job.done) {
+            // Cancelled while waiting for the jobs due before it
+            return;
+        }
+
+        if (now - job.deadline > misfireThreshold) {
+            switch (job.misfirePolicy) {
+                case SKIP:
+                    arm(job, localTime(now));
+                    return;
+                case FIRE_ONCE:
+                    job.base = localTime(now);
+                    break;
+                default:
+                    job.base = job.fireTime;
+                    break;
+            }
+        } else {
+            job.base = job.fireTime;
+        }
+
+        job.fireCount++;
+        try {
+            executor.execute(job::run);
+        } catch (final RejectedExecutionException e) {
+            arm(job, job.base);
+        }
+    }
+
+    /**
+     * Links a job into the wheels for its first firing after a given time, unless it was cancelled meanwhile
+     *
+     * @param job   The job
+     * @param after The (wall clock) time of the last firing
+     */
+    private void arm(final Job job, final LocalDateTime after) {
+        final LocalDateTime next = job.schedule.next(after);
+        lock.lock();
+        try {
+            if (job.done) {
+                return;
+            }
+
+            if (next == null) {
+                job.done = true;
+                size--;
+                return;
+            }
+
+            insert(job, next);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Links a job into the slot of a firing
+     *
+     * @param job      The job
+     * @param fireTime The (wall clock) time of the firing
+     */
+    private void insert(final Job job, final LocalDateTime fireTime) {
+        job.fireTime = fireTime;
+        job.deadline = fireTime.atZone(zone).toEpochSecond();
+        link(job);
+    }
+
+    /**
+     * Links a job into the slot of its deadline, at the level where its distance from the current tick fits
+     *
+     * @param job The job
+     */
+    private void link(final Job job) {
+        final long distance = job.deadline - tick;
+        final int level;
+        final int slot;
+        if (distance < SLOTS) {
+            // Late jobs run on the next tick
+            level = 0;
+            slot = (int) Math.max(job.deadline, tick) & MASK;
+        } else if (distance < RANGE) {
+            level = (63 - Long.numberOfLeadingZeros(distance)) / BITS;
+            slot = (int) (job.deadline >>> (BITS * level)) & MASK;
+        } else {
+            // Beyond the last level, wait in its farthest slot
+            level = LEVELS - 1;
+            slot = (int) ((tick + RANGE - 1) >>> (BITS * level)) & MASK;
+        }
+
+        final Job sentinel = slots[level][slot];
+        job.previous = sentinel.previous;
+        job.next = sentinel;
+        sentinel.previous.next = job;
+        sentinel.previous = job;
+        job.level = level;
+        job.armed = true;
+        counts[level]++;
+    }
+
+    /**
+     * Unlinks a job from its slot
+     *
+     * @param job The job
+     */
+    private void unlink(final Job job) {
+        job.previous.next = job.next;
+        job.next.previous = job.previous;
+        job.previous = null;
+        job.next = null;
+        job.armed = false;
+        counts[job.level]--;
+    }
+
+    /**
+     * Moves the jobs of a slot down to the lower levels
+     *
+     * @param level The level of the slot
+     * @param slot  The slot
+     */
+    private void cascade(final int level, final int slot) {
+        final Job sentinel = slots[level][slot];
+        Job job = sentinel.next;
+        sentinel.next = sentinel;
+        sentinel.previous = sentinel;
+        while (job != sentinel) {
+            final Job next = job.next;
+            counts[level]--;
+            link(job);
+            job = next;
+        }
+    }
+
+    /**
+     * Moves the current tick straight to the next one where a job may be due or moved down a level (without going past
+     * a given second), instead of turning the wheels one empty slot at a time
+     *
+     * @param now The current second (since the epoch)
+     */
+    private void skipEmptySlots(final long now) {
+        int level = 0;
+        while (level < LEVELS && counts[level] == 0) {
+            level++;
+        }
+
+        if (level == LEVELS) {
+            tick = Math.max(tick, now + 1);
+        } else if (level > 0) {
+            // The slots of a level only move down when the hands of all the lower levels are back to 0
+            final long turn = 1L << (BITS * level);
+            tick = Math.min((tick + turn - 1) & -turn, Math.max(tick, now + 1));
+        }
+    }
+
+    /**
+     * @param second A second since the epoch
+     * @return The wall clock time of the second
+     */
+    private LocalDateTime localTime(final long second) {
+        return Instant.ofEpochSecond(second).atZone(zone).toLocalDateTime();
+    }
+
+    //endregion
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+}
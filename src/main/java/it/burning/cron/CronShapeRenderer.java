@@ -0,0 +1,832 @@
+package it.burning.cron;
+
+import it.burning.cron.CronExpressionParser.Day;
+import it.burning.cron.CronExpressionParser.ImmutableOptions;
+import it.burning.cron.CronExpressionParser.Month;
+import it.burning.cron.CronExpressionParser.Settings;
+import it.burning.utils.Localization;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import static it.burning.cron.CronExpressionParser.MAX_YEAR;
+import static it.burning.cron.CronExpressionParser.MIN_YEAR;
+
+/**
+ * Renders the full descriptions of the most common expressions from a template of their shape.
+ * <p>
+ * Most expressions take one of a few dozen shapes (i.e. "every N minutes", "at H:M on weekdays", "at H:M on day D of
+ * the month") that only differ in their numbers. A parsed expression is sorted into the form of its time of day
+ * ({@link TimeForm}) and the form of its days ({@link DayForm}), and the renderer of the shape fills the numbers (or the
+ * names of the days and months they stand for) into the text around them, skipping the branches of
+ * {@link CronExpressionDescriptor}. Expressions of any other shape are left to the descriptor.
+ * <p>
+ * The template of a shape is cut from the description of an expression of that shape given by the descriptor, then
+ * checked against the description of another expression of the same shape: shapes whose template does not match are
+ * left to the descriptor as well. Templates are built on first use, once per published localization and per locale,
+ * verbosity and time format, and are only used with {@link ImmutableOptions} (see {@link #renderers(Settings)}).
+ */
+final class CronShapeRenderer {
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    //region FIELDS
+
+    // The forms of the time of day and of the days, and the number of shapes (every form of one with every form of the other)
+    private static final TimeForm[] TIME_FORMS = TimeForm.values();
+    private static final DayForm[]  DAY_FORMS  = DayForm.values();
+    private static final int        SHAPES     = TIME_FORMS.length * DAY_FORMS.length;
+
+    // The renderers by locale, then by verbosity and time format (see #renderers())
+    private static final ConcurrentMap<Locale, AtomicReferenceArray<Renderers>> RENDERERS = new ConcurrentHashMap<>();
+
+    // No period of 24-hour times
+    private static final byte[] NO_BYTES = new byte[0];
+
+    // The renderer of the shapes left to the descriptor
+    private static final CronShapeRenderer UNSUPPORTED = new CronShapeRenderer(new String[]{""}, new Slot[0], null, null, null, null);
+
+    // The text around the slots (one more than the slots), the slots in the order of the description
+    private final String[] fragments;
+    private final Slot[]   slots;
+    private final int      length;
+
+    // Localized names of the days of week (from Sunday) and of the months (from January), periods of 12-hour times
+    private final String[] dayNames;
+    private final String[] monthNames;
+    private final String   am;
+    private final String   pm;
+
+    // The text around the slots, the names and the periods encoded in UTF-8 (see #encode())
+    private final byte[][] encodedFragments;
+    private final byte[][] encodedDayNames;
+    private final byte[][] encodedMonthNames;
+    private final byte[]   encodedAm;
+    private final byte[]   encodedPm;
+    private final int      encodedLength;
+
+    //endregion
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    //region SUBCLASSES
+
+    /**
+     * What a slot of a template is filled with
+     */
+    private enum Kind {
+        NUMBER,            // The number as written
+        DAY_NAME,          // The name of the day of week
+        MONTH_NAME,        // The name of the month
+        TIME,              // The time of day of the hour and minute parts
+        TIME_WITH_SECONDS, // The time of day of the hour, minute and second parts
+        START_OF_HOUR,     // The time of day at the start of the hour (the first hour of a range)
+        END_OF_HOUR        // The time of day at the end of the hour (the last hour of a range)
+    }
+
+    /**
+     * The renderers by shape of a locale, verbosity and time format, built from a published localization
+     */
+    private static final class Renderers {
+        private final long                                    version;
+        private final AtomicReferenceArray<CronShapeRenderer> shapes;
+
+        /**
+         * Constructor
+         *
+         * @param version The version of the published localization
+         */
+        private Renderers(final long version) {
+            this.version = version;
+            this.shapes = new AtomicReferenceArray<>(SHAPES);
+        }
+    }
+
+    /**
+     * A slot of a template: the number of a part it is filled from
+     */
+    private static final class Slot {
+        private final Kind kind;
+        private final int  part;
+        private final int  run;
+
+        /**
+         * Constructor
+         *
+         * @param kind What the slot is filled with
+         * @param part The index of the part of the number (0 for seconds to 6 for years)
+         * @param run  The index of the number within the part (i.e. 1 for the last value of a range)
+         */
+        private Slot(final Kind kind, final int part, final int run) {
+            this.kind = kind;
+            this.part = part;
+            this.run = run;
+        }
+    }
+
+    /**
+     * The forms of the seconds, minutes and hours parts (in their normalized form, see
+     * {@link CronExpressionParser#parse()}): a template of each part where '#' stands for a number, the range of the
+     * numbers of the form and two sets of numbers the template of a shape is cut and checked with.
+     */
+    private enum TimeForm {
+        //                         seconds minutes hours  min max  numbers to cut with     and to check with
+        EVERY_SECOND(              "*",    "*",    "*",   0,  0,   new int[0],             new int[0]),
+        EVERY_MINUTE(              "",     "*",    "*",   0,  0,   new int[0],             new int[0]),
+        EVERY_HOUR(                "",     "0",    "*",   0,  0,   new int[0],             new int[0]),
+        EVERY_N_SECONDS(           "*/#",  "*",    "*",   1,  59,  new int[]{7},           new int[]{45}),
+        EVERY_N_MINUTES(           "",     "*/#",  "*",   1,  59,  new int[]{7},           new int[]{45}),
+        EVERY_N_HOURS(             "",     "0",    "*/#", 1,  23,  new int[]{3},           new int[]{8}),
+        // Some languages word the minutes past the hour differently from 20 on
+        MINUTE_PAST_THE_HOUR(      "",     "#",    "*",   1,  19,  new int[]{7},           new int[]{13}),
+        MINUTE_PAST_THE_HOUR_GT20( "",     "#",    "*",   20, 59,  new int[]{37},          new int[]{52}),
+        TIME(                      "",     "#",    "#",   0,  59,  new int[]{47, 13},      new int[]{5, 8}),
+        TIME_WITH_SECONDS(         "#",    "#",    "#",   0,  59,  new int[]{29, 47, 13},  new int[]{3, 5, 8}),
+        // Within a range of hours (i.e. business hours)
+        EVERY_MINUTE_BETWEEN(      "",     "*",    "#-#", 0,  23,  new int[]{9, 17},       new int[]{3, 21}),
+        EVERY_N_MINUTES_BETWEEN(   "",     "*/#",  "#-#", 1,  59,  new int[]{7, 9, 17},    new int[]{45, 3, 21}),
+        EVERY_HOUR_BETWEEN(        "",     "0",    "#-#", 0,  23,  new int[]{9, 17},       new int[]{3, 21});
+
+        final String[] templates;
+        final int      min;
+        final int      max;
+        final int[]    cut;
+        final int[]    check;
+
+        /**
+         * Constructor
+         *
+         * @param seconds The template of the seconds part
+         * @param minutes The template of the minutes part
+         * @param hours   The template of the hours part
+         * @param min     The smallest number of the form
+         * @param max     The largest number of the form
+         * @param cut     The numbers of the expression the template is cut from
+         * @param check   The numbers of the expression the template is checked with
+         */
+        TimeForm(final String seconds, final String minutes, final String hours, final int min, final int max, final int[] cut, final int[] check) {
+            this.templates = new String[]{seconds, minutes, hours};
+            this.min = min;
+            this.max = max;
+            this.cut = cut;
+            this.check = check;
+        }
+    }
+
+    /**
+     * The forms of the days of month, months, days of week and years parts, see {@link TimeForm} (a year of "*" is
+     * described as no year at all)
+     */
+    private enum DayForm {
+        //                     days of month months days of week years min       max       numbers to cut with  and to check with
+        EVERY_DAY(             "*",          "*",   "*",         "",   0,        0,        new int[0],          new int[0]),
+        DAY_OF_WEEK(           "*",          "*",   "#",         "",   0,        6,        new int[]{3},        new int[]{5}),
+        DAYS_OF_WEEK(          "*",          "*",   "#-#",       "",   0,        6,        new int[]{2, 4},     new int[]{1, 5}),
+        DAY_OF_MONTH(          "#",          "*",   "*",         "",   1,        31,       new int[]{17},       new int[]{23}),
+        DAY_OF_MONTH_IN_MONTH( "#",          "#",   "*",         "",   1,        31,       new int[]{17, 10},   new int[]{23, 4}),
+        MONTH(                 "*",          "#",   "*",         "",   1,        12,       new int[]{10},       new int[]{4}),
+        LAST_DAY_OF_MONTH(     "L",          "*",   "*",         "",   0,        0,        new int[0],          new int[0]),
+        YEAR(                  "*",          "*",   "*",         "#",  MIN_YEAR, MAX_YEAR, new int[]{2031},     new int[]{2047});
+
+        final String[] templates;
+        final int      min;
+        final int      max;
+        final int[]    cut;
+        final int[]    check;
+
+        /**
+         * Constructor
+         *
+         * @param daysOfMonth The template of the days of month part
+         * @param months      The template of the months part
+         * @param daysOfWeek  The template of the days of week part
+         * @param years       The template of the years part
+         * @param min         The smallest number of the form
+         * @param max         The largest number of the form
+         * @param cut         The numbers of the expression the template is cut from
+         * @param check       The numbers of the expression the template is checked with
+         */
+        DayForm(final String daysOfMonth, final String months, final String daysOfWeek, final String years, final int min, final int max, final int[] cut, final int[] check) {
+            this.templates = new String[]{daysOfMonth, months, daysOfWeek, years};
+            this.min = min;
+            this.max = max;
+            this.cut = cut;
+            this.check = check;
+        }
+    }
+
+    //endregion
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    //region CONSTRUCTORS
+
+    /**
+     * Constructor
+     *
+     * @param fragments  The text around the slots
+     * @param slots      The slots
+     * @param dayNames   The names of the days of week
+     * @param monthNames The names of the months
+     * @param am         The AM period (along with its leading space), null for 24-hour times
+     * @param pm         The PM period (along with its leading space), null for 24-hour times
+     */
+    private CronShapeRenderer(final String[] fragments, final Slot[] slots, final String[] dayNames, final String[] monthNames, final String am, final String pm) {
+        this.fragments = fragments;
+        this.slots = slots;
+        this.dayNames = dayNames;
+        this.monthNames = monthNames;
+        this.am = am;
+        this.pm = pm;
+        this.encodedFragments = encode(fragments);
+        this.encodedDayNames = encode(dayNames);
+        this.encodedMonthNames = encode(monthNames);
+        this.encodedAm = am != null ? am.getBytes(StandardCharsets.UTF_8) : null;
+        this.encodedPm = pm != null ? pm.getBytes(StandardCharsets.UTF_8) : null;
+
+        int length = 0;
+        int encodedLength = 0;
+        for (int i = 0; i < fragments.length; i++) {
+            length += fragments[i].length();
+            encodedLength += encodedFragments[i].length;
+        }
+
+        this.length = length;
+        this.encodedLength = encodedLength;
+    }
+
+    //endregion
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    //region METHODS
+
+    /**
+     * @param parts The normalized parts of an expression of the shape
+     * @return The description of the expression
+     */
+    private String render(final String[] parts) {
+        final StringBuilder description = new StringBuilder(length + 16 * slots.length);
+        description.append(fragments[0]);
+        for (int i = 0; i < slots.length; i++) {
+            append(description, slots[i], parts);
+            description.append(fragments[i + 1]);
+        }
+
+        return description.toString();
+    }
+
+    /**
+     * Fills a slot
+     *
+     * @param description The description
+     * @param slot        The slot
+     * @param parts       The normalized parts of the expression
+     */
+    private void append(final StringBuilder description, final Slot slot, final String[] parts) {
+        switch (slot.kind) {
+            case NUMBER:
+                final String part = parts[slot.part];
+                final int start = runStart(part, slot.run);
+                description.append(part, start, runEnd(part, start));
+                break;
+            case DAY_NAME:
+                description.append(dayNames[number(parts[slot.part], slot.run)]);
+                break;
+            case MONTH_NAME:
+                description.append(monthNames[number(parts[slot.part], slot.run) - 1]);
+                break;
+            case TIME:
+                appendTime(description, number(parts[2], 0), number(parts[1], 0), -1);
+                break;
+            case TIME_WITH_SECONDS:
+                appendTime(description, number(parts[2], 0), number(parts[1], 0), number(parts[0], 0));
+                break;
+            default:
+                appendTime(description, number(parts[slot.part], slot.run), slot.kind == Kind.START_OF_HOUR ? 0 : 59, -1);
+                break;
+        }
+    }
+
+    /**
+     * Writes the description of an expression of the shape in UTF-8: the text around the numbers, the names and the
+     * periods were encoded once, only the numbers (ASCII digits) are encoded per call
+     *
+     * @param parts  The normalized parts of an expression of the shape
+     * @param target The buffer, written from its position
+     * @return The number of bytes written
+     * @throws BufferOverflowException If the description does not fit in the remaining bytes (nothing is written)
+     */
+    int encode(final String[] parts, final ByteBuffer target) {
+        final int length = encodedLength(parts);
+        if (target.remaining() < length) {
+            throw new BufferOverflowException();
+        }
+
+        target.put(encodedFragments[0]);
+        for (int i = 0; i < slots.length; i++) {
+            put(target, slots[i], parts);
+            target.put(encodedFragments[i + 1]);
+        }
+
+        return length;
+    }
+
+    /**
+     * @param parts The normalized parts of an expression of the shape
+     * @return The number of bytes of the description of the expression encoded in UTF-8
+     */
+    int encodedLength(final String[] parts) {
+        int length = encodedLength;
+        for (final Slot slot : slots) {
+            length += encodedLength(slot, parts);
+        }
+
+        return length;
+    }
+
+    /**
+     * @return The number of bytes of a slot encoded in UTF-8
+     */
+    private int encodedLength(final Slot slot, final String[] parts) {
+        switch (slot.kind) {
+            case NUMBER:
+                final String part = parts[slot.part];
+                final int start = runStart(part, slot.run);
+                return runEnd(part, start) - start;
+            case DAY_NAME:
+                return encodedDayNames[number(parts[slot.part], slot.run)].length;
+            case MONTH_NAME:
+                return encodedMonthNames[number(parts[slot.part], slot.run) - 1].length;
+            case TIME_WITH_SECONDS:
+                return 8 + encodedPeriod(number(parts[2], 0)).length;
+            case TIME:
+                return 5 + encodedPeriod(number(parts[2], 0)).length;
+            default:
+                return 5 + encodedPeriod(number(parts[slot.part], slot.run)).length;
+        }
+    }
+
+    /**
+     * Writes a slot in UTF-8
+     */
+    private void put(final ByteBuffer target, final Slot slot, final String[] parts) {
+        switch (slot.kind) {
+            case NUMBER:
+                final String part = parts[slot.part];
+                final int start = runStart(part, slot.run);
+                for (int i = start, end = runEnd(part, start); i < end; i++) {
+                    target.put((byte) part.charAt(i));
+                }
+                break;
+            case DAY_NAME:
+                target.put(encodedDayNames[number(parts[slot.part], slot.run)]);
+                break;
+            case MONTH_NAME:
+                target.put(encodedMonthNames[number(parts[slot.part], slot.run) - 1]);
+                break;
+            case TIME:
+                putTime(target, number(parts[2], 0), number(parts[1], 0), -1);
+                break;
+            case TIME_WITH_SECONDS:
+                putTime(target, number(parts[2], 0), number(parts[1], 0), number(parts[0], 0));
+                break;
+            default:
+                putTime(target, number(parts[slot.part], slot.run), slot.kind == Kind.START_OF_HOUR ? 0 : 59, -1);
+                break;
+        }
+    }
+
+    /**
+     * Writes a time of day in UTF-8, see {@link #appendTime(StringBuilder, int, int, int)}
+     */
+    private void putTime(final ByteBuffer target, final int hour, final int minute, final int second) {
+        putTwoDigits(target, shownHour(hour)).put((byte) ':');
+        putTwoDigits(target, minute);
+        if (second >= 0) {
+            putTwoDigits(target.put((byte) ':'), second);
+        }
+
+        target.put(encodedPeriod(hour));
+    }
+
+    /**
+     * @return The period of an hour encoded in UTF-8 (empty for 24-hour times)
+     */
+    private byte[] encodedPeriod(final int hour) {
+        return encodedAm == null ? NO_BYTES : hour >= 12 ? encodedPm : encodedAm;
+    }
+
+    /**
+     * @return The hour shown for an hour of the day (from 1 to 12 for 12-hour times)
+     */
+    private int shownHour(final int hour) {
+        if (am == null || (hour > 0 && hour <= 12)) {
+            return hour;
+        }
+
+        return hour == 0 ? 12 : hour - 12;
+    }
+
+    /**
+     * Appends a time of day, the way {@link CronExpressionDescriptor#formatTime(String, String, String)} formats it
+     *
+     * @param description The description
+     * @param hour        The hour
+     * @param minute      The minute
+     * @param second      The second, -1 if not shown
+     */
+    private void appendTime(final StringBuilder description, final int hour, final int minute, final int second) {
+        appendTwoDigits(description, shownHour(hour)).append(':');
+        appendTwoDigits(description, minute);
+        if (second >= 0) {
+            appendTwoDigits(description.append(':'), second);
+        }
+
+        if (am != null) {
+            description.append(hour >= 12 ? pm : am);
+        }
+    }
+
+    //endregion
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    //region STATIC METHODS
+
+    /**
+     * Get the full description of an expression from the template of its shape
+     *
+     * @param parts   The normalized parts of the expression, see {@link CronExpressionParser#parse()}
+     * @param options The options
+     * @return The description (capitalized), null if the shape of the expression has no template with these options
+     */
+    static String render(final String[] parts, final Settings options) {
+        final CronShapeRenderer renderer = find(parts, options);
+        return renderer != null ? renderer.render(parts) : null;
+    }
+
+    /**
+     * Get the renderer of the shape of an expression
+     *
+     * @param parts   The normalized parts of the expression, see {@link CronExpressionParser#parse()}
+     * @param options The options
+     * @return The renderer, null if the shape of the expression has no template with these options
+     */
+    static CronShapeRenderer find(final String[] parts, final Settings options) {
+        final AtomicReferenceArray<CronShapeRenderer> renderers = renderers(options);
+        if (renderers == null) {
+            return null;
+        }
+
+        final int time = timeForm(parts);
+        final int day = time >= 0 ? dayForm(parts) : -1;
+        if (day < 0) {
+            return null;
+        }
+
+        final int shape = time * DAY_FORMS.length + day;
+        CronShapeRenderer renderer = renderers.get(shape);
+        if (renderer == null) {
+            renderer = build(TIME_FORMS[time], DAY_FORMS[day], options);
+            renderers.set(shape, renderer);
+        }
+
+        return renderer != UNSUPPORTED ? renderer : null;
+    }
+
+    /**
+     * Get the renderers of the shapes of expressions described with some options. They are shared by the options
+     * describing expressions the same way (same locale, verbosity and time format, whatever their other settings) and
+     * rebuilt when a localization is published. Mutable options have none, as they could change while a renderer is
+     * built from them.
+     *
+     * @param options The options
+     * @return The renderers by shape (null until built), null if the options are not immutable
+     */
+    static AtomicReferenceArray<CronShapeRenderer> renderers(final Settings options) {
+        final Locale locale = options.getLocale();
+        if (!(options instanceof ImmutableOptions) || locale == null) {
+            return null;
+        }
+
+        AtomicReferenceArray<Renderers> profiles = RENDERERS.get(locale);
+        if (profiles == null) {
+            final AtomicReferenceArray<Renderers> created = new AtomicReferenceArray<>(4);
+            profiles = RENDERERS.putIfAbsent(locale, created);
+            if (profiles == null) {
+                profiles = created;
+            }
+        }
+
+        final int profile = (options.isVerbose() ? 2 : 0) + (options.isUse24HourTimeFormat() ? 1 : 0);
+        final long version = Localization.getVersion();
+        Renderers current = profiles.get(profile);
+        if (current == null || current.version != version) {
+            current = new Renderers(version);
+            profiles.set(profile, current);
+        }
+
+        return current.shapes;
+    }
+
+    /**
+     * @return The index of the form of the time of day of an expression, -1 if none
+     */
+    private static int timeForm(final String[] parts) {
+        for (int i = 0; i < TIME_FORMS.length; i++) {
+            final TimeForm form = TIME_FORMS[i];
+            if (matches(parts, 0, form.templates, form.min, form.max)) {
+                return i;
+            }
+        }
+
+        return -1;
+    }
+
+    /**
+     * @return The index of the form of the days of an expression, -1 if none
+     */
+    private static int dayForm(final String[] parts) {
+        for (int i = 0; i < DAY_FORMS.length; i++) {
+            final DayForm form = DAY_FORMS[i];
+            if (matches(parts, 3, form.templates, form.min, form.max)) {
+                return i;
+            }
+        }
+
+        return -1;
+    }
+
+    /**
+     * @param parts     The normalized parts of an expression
+     * @param first     The index of the first part of the form
+     * @param templates The templates of the parts
+     * @param min       The smallest number of the form
+     * @param max       The largest number of the form
+     * @return True if the parts match their templates, with numbers in range
+     */
+    private static boolean matches(final String[] parts, final int first, final String[] templates, final int min, final int max) {
+        for (int t = 0; t < templates.length; t++) {
+            final String template = templates[t];
+            final String part = first + t == 6 && parts[6].equals("*") ? "" : parts[first + t];
+            int i = 0;
+            for (int j = 0; j < template.length(); j++) {
+                final char c = template.charAt(j);
+                if (c != '#') {
+                    if (i == part.length() || part.charAt(i++) != c) {
+                        return false;
+                    }
+
+                    continue;
+                }
+
+                final int start = i;
+                i = runEnd(part, start);
+                if (i == start || i - start > 4) {
+                    return false;
+                }
+
+                final int number = number(part, start, i);
+                if (number < min || number > max) {
+                    return false;
+                }
+            }
+
+            if (i != part.length()) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Builds the template of a shape, cut from the description of an expression of the shape and checked against the
+     * description of another one
+     *
+     * @param time    The form of the time of day
+     * @param day     The form of the days
+     * @param options The options
+     * @return The renderer of the shape, {@link #UNSUPPORTED} if the template does not match the descriptor
+     */
+    private static CronShapeRenderer build(final TimeForm time, final DayForm day, final Settings options) {
+        final String[] cut = parts(time, day, time.cut, day.cut);
+        final CronExpressionDescriptor descriptor = new CronExpressionDescriptor(String.join(" ", cut), cut, options);
+        final String description = CronExpressionDescriptor.capitalize(descriptor.getFullDescription());
+
+        // Localized names and periods, the way the descriptor reads them
+        final String[] dayNames = new String[Day.values().length];
+        for (final Day name : Day.values()) {
+            dayNames[name.ordinal()] = descriptor.getString(name.name());
+        }
+
+        final String[] monthNames = new String[Month.values().length];
+        for (final Month name : Month.values()) {
+            monthNames[name.ordinal()] = descriptor.getString(name.name());
+        }
+
+        final String am = period(descriptor, "AMPeriod");
+        final String pm = period(descriptor, "PMPeriod");
+
+        // Cut the slots out of the description, in order
+        final Slot[] slots = slots(time, day);
+        final String[] fragments = new String[slots.length + 1];
+        final CronShapeRenderer filler = new CronShapeRenderer(new String[]{""}, new Slot[0], dayNames, monthNames, am, pm);
+        int from = 0;
+        for (int i = 0; i < slots.length; i++) {
+            final StringBuilder filled = new StringBuilder();
+            filler.append(filled, slots[i], cut);
+            final int at = description.indexOf(filled.toString(), from);
+            if (at < 0) {
+                return UNSUPPORTED;
+            }
+
+            fragments[i] = description.substring(from, at);
+            from = at + filled.length();
+        }
+
+        fragments[slots.length] = description.substring(from);
+        final CronShapeRenderer renderer = new CronShapeRenderer(fragments, slots, dayNames, monthNames, am, pm);
+
+        // Check the template with other numbers
+        final String[] check = parts(time, day, time.check, day.check);
+        final String expected = CronExpressionDescriptor.capitalize(new CronExpressionDescriptor(String.join(" ", check), check, options).getFullDescription());
+        return renderer.render(cut).equals(description) && renderer.render(check).equals(expected) ? renderer : UNSUPPORTED;
+    }
+
+    /**
+     * @return The period of 12-hour times, along with its leading space (if any), null for 24-hour times
+     */
+    private static String period(final CronExpressionDescriptor descriptor, final String resourceName) {
+        if (descriptor.isUse24HourTimeFormat()) {
+            return null;
+        }
+
+        final String period = descriptor.getString(resourceName);
+        return period.length() > 0 ? " " + period : "";
+    }
+
+    /**
+     * @return The normalized parts of an expression of a shape, with the given numbers
+     */
+    private static String[] parts(final TimeForm time, final DayForm day, final int[] timeNumbers, final int[] dayNumbers) {
+        final String[] parts = new String[7];
+        fill(parts, 0, time.templates, timeNumbers);
+        fill(parts, 3, day.templates, dayNumbers);
+        return parts;
+    }
+
+    /**
+     * Fills parts from their templates, replacing every '#' with the next number
+     */
+    private static void fill(final String[] parts, final int first, final String[] templates, final int[] numbers) {
+        int next = 0;
+        for (int t = 0; t < templates.length; t++) {
+            final StringBuilder part = new StringBuilder();
+            for (final char c : templates[t].toCharArray()) {
+                if (c == '#') {
+                    part.append(numbers[next++]);
+                } else {
+                    part.append(c);
+                }
+            }
+
+            parts[first + t] = part.toString();
+        }
+    }
+
+    /**
+     * @return The slots of a shape, in the order of the description (time of day, days of month, days of week, months
+     * and years, see CronExpressionDescriptor#getFullDescription())
+     */
+    private static Slot[] slots(final TimeForm time, final DayForm day) {
+        final List<Slot> slots = new ArrayList<>();
+        if (time == TimeForm.TIME || time == TimeForm.TIME_WITH_SECONDS) {
+            slots.add(new Slot(time == TimeForm.TIME ? Kind.TIME : Kind.TIME_WITH_SECONDS, 2, 0));
+        } else {
+            addSlots(slots, Kind.NUMBER, 0, time.templates[0]);
+            addSlots(slots, Kind.NUMBER, 1, time.templates[1]);
+            if (time.templates[2].equals("#-#")) {
+                slots.add(new Slot(Kind.START_OF_HOUR, 2, 0));
+                slots.add(new Slot(Kind.END_OF_HOUR, 2, 1));
+            } else {
+                addSlots(slots, Kind.NUMBER, 2, time.templates[2]);
+            }
+        }
+
+        addSlots(slots, Kind.NUMBER, 3, day.templates[0]);
+        addSlots(slots, Kind.DAY_NAME, 5, day.templates[2]);
+        addSlots(slots, Kind.MONTH_NAME, 4, day.templates[1]);
+        addSlots(slots, Kind.NUMBER, 6, day.templates[3]);
+        return slots.toArray(new Slot[0]);
+    }
+
+    /**
+     * Adds a slot for every number of the template of a part
+     */
+    private static void addSlots(final List<Slot> slots, final Kind kind, final int part, final String template) {
+        int run = 0;
+        for (int i = 0; i < template.length(); i++) {
+            if (template.charAt(i) == '#') {
+                slots.add(new Slot(kind, part, run++));
+            }
+        }
+    }
+
+    /**
+     * @return The index of the first digit of a number of a part
+     */
+    private static int runStart(final String part, final int run) {
+        int i = 0;
+        for (int found = 0; ; found++) {
+            while (!isDigit(part.charAt(i))) {
+                i++;
+            }
+
+            if (found == run) {
+                return i;
+            }
+
+            i = runEnd(part, i);
+        }
+    }
+
+    /**
+     * @return The index after the last digit of the digits starting at an index
+     */
+    private static int runEnd(final String part, final int start) {
+        int i = start;
+        while (i < part.length() && isDigit(part.charAt(i))) {
+            i++;
+        }
+
+        return i;
+    }
+
+    /**
+     * @return A number of a part
+     */
+    private static int number(final String part, final int run) {
+        final int start = runStart(part, run);
+        return number(part, start, runEnd(part, start));
+    }
+
+    /**
+     * @return The number of the digits of a part between two indexes
+     */
+    private static int number(final String part, final int start, final int end) {
+        int number = 0;
+        for (int i = start; i < end; i++) {
+            number = number * 10 + (part.charAt(i) - '0');
+        }
+
+        return number;
+    }
+
+    private static boolean isDigit(final char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    /**
+     * @return Texts encoded in UTF-8, null if none
+     */
+    private static byte[][] encode(final String[] texts) {
+        if (texts == null) {
+            return null;
+        }
+
+        final byte[][] encoded = new byte[texts.length][];
+        for (int i = 0; i < texts.length; i++) {
+            encoded[i] = texts[i].getBytes(StandardCharsets.UTF_8);
+        }
+
+        return encoded;
+    }
+
+    /**
+     * Writes a number zero padded to two digits
+     */
+    private static ByteBuffer putTwoDigits(final ByteBuffer target, final int number) {
+        return target.put((byte) ('0' + number / 10)).put((byte) ('0' + number % 10));
+    }
+
+    /**
+     * Appends a number zero padded to two digits
+     */
+    private static StringBuilder appendTwoDigits(final StringBuilder description, final int number) {
+        if (number < 10) {
+            description.append('0');
+        }
+
+        return description.append(number);
+    }
+
+    //endregion
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+}
@@ -0,0 +1,585 @@
+package it.burning.cron;
+
+import it.burning.cron.CronFiringTimeline.Resolution;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+
+/**
+ * Assigns weighted cron jobs to the nodes of a cluster so that the peak load of each node (the highest weighted number
+ * of firings within a minute) is as low as possible, rather than sharding them by a hash of their id (which lets a node
+ * get most of the "0 * * * *" jobs and hit its peak along with all of them).
+ * <p>
+ * The firings of each distinct {@link CronSchedule} are counted minute by minute over a time window (a day is enough
+ * for most corpora, a week when jobs run on some days of week only), like {@link CronFiringTimeline} does. Jobs are
+ * planned greedily, the ones with the highest peak first, each on the node whose peak grows the least. Jobs can then be
+ * added and removed one by one, and {@link #rebalance(int)} moves a bounded number of jobs away from the hottest nodes.
+ * <p>
+ * Planners are not thread safe.
+ */
+public final class CronShardPlanner {
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    //region FIELDS
+
+    // Config
+    private final LocalDateTime start;
+    private final int           buckets;
+
+    // Firings of each distinct schedule of the planned jobs within the window
+    private final Map<CronSchedule, Profile> profiles = new HashMap<>();
+
+    // Jobs (by id) and the load of each node within every minute of the window
+    private final Map<String, Assignment> assignments = new LinkedHashMap<>();
+    private final int[][]                 loads;
+    private final int[]                   peaks;
+    private final long[]                  totals;
+
+    //endregion
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    //region SUBCLASSES
+
+    // A job to run on one of the nodes
+    public static final class Job {
+        private final String       id;
+        private final CronSchedule schedule;
+        private final int          weight;
+
+        public String getId() {
+            return id;
+        }
+
+        public CronSchedule getSchedule() {
+            return schedule;
+        }
+
+        /**
+         * @return The load of a single firing of the job
+         */
+        public int getWeight() {
+            return weight;
+        }
+
+        /**
+         * Constructor
+         *
+         * @param id         The unique id of the job
+         * @param expression The expression of the job (parsed with the default options)
+         * @param weight     The load of a single firing of the job (i.e. its expected CPU seconds)
+         */
+        public Job(final String id, final String expression, final int weight) {
+            this(id, CronSchedule.compile(expression), weight);
+        }
+
+        /**
+         * Constructor
+         *
+         * @param id       The unique id of the job
+         * @param schedule The schedule of the job
+         * @param weight   The load of a single firing of the job (i.e. its expected CPU seconds)
+         */
+        public Job(final String id, final CronSchedule schedule, final int weight) {
+            if (id == null || schedule == null || weight < 1) {
+                throw new IllegalArgumentException("Jobs need an id, a schedule and a positive weight");
+            }
+
+            this.id = id;
+            this.schedule = schedule;
+            this.weight = weight;
+        }
+
+        @Override
+        public String toString() {
+            return id + " (" + schedule + ", weight " + weight + ")";
+        }
+    }
+
+    // A job moved from a node to another one
+    public static final class Move {
+        private final String id;
+        private final int    from;
+        private final int    to;
+
+        public String getId() {
+            return id;
+        }
+
+        public int getFrom() {
+            return from;
+        }
+
+        public int getTo() {
+            return to;
+        }
+
+        Move(final String id, final int from, final int to) {
+            this.id = id;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        public String toString() {
+            return id + ": " + from + " -> " + to;
+        }
+    }
+
+    // The minutes of the window in which a schedule fires (sorted) and its number of firings within each of them, along
+    // with the number of planned jobs sharing it (the profile is dropped along with the last of them)
+    private static final class Profile {
+        final int[] buckets;
+        final int[] firings;
+        final int   peak;
+        final long  total;
+        int         jobs;
+
+        Profile(final int[] buckets, final int[] firings, final int peak, final long total) {
+            this.buckets = buckets;
+            this.firings = firings;
+            this.peak = peak;
+            this.total = total;
+        }
+    }
+
+    // A planned job
+    private static final class Assignment {
+        final Job     job;
+        final Profile profile;
+        int           node;
+
+        Assignment(final Job job, final Profile profile) {
+            this.job = job;
+            this.profile = profile;
+        }
+    }
+
+    //endregion
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    //region ACCESSORS
+
+    public int getNodeCount() {
+        return peaks.length;
+    }
+
+    public int getJobCount() {
+        return assignments.size();
+    }
+
+    /**
+     * @param id The id of a job
+     * @return The node the job is assigned to, -1 if unknown
+     */
+    public int getNode(final String id) {
+        final Assignment assignment = assignments.get(id);
+        return assignment != null ? assignment.node : -1;
+    }
+
+    /**
+     * @return The ids of the jobs and the nodes they are assigned to, in the order they were added
+     */
+    public Map<String, Integer> getAssignments() {
+        final Map<String, Integer> result = new LinkedHashMap<>();
+        for (final Assignment assignment : assignments.values()) {
+            result.put(assignment.job.id, assignment.node);
+        }
+
+        return result;
+    }
+
+    /**
+     * @param node A node
+     * @return The highest load of the node within a minute of the window
+     */
+    public int getPeak(final int node) {
+        return peaks[checkNode(node)];
+    }
+
+    /**
+     * @return The highest load of any node within a minute of the window
+     */
+    public int getPeak() {
+        int peak = 0;
+        for (final int nodePeak : peaks) {
+            peak = Math.max(peak, nodePeak);
+        }
+
+        return peak;
+    }
+
+    /**
+     * @param node A node
+     * @return The total load of the node over the window
+     */
+    public long getTotal(final int node) {
+        return totals[checkNode(node)];
+    }
+
+    /**
+     * A peak no assignment of the current jobs can go below: the load of the busiest minute spread evenly over the nodes,
+     * or the peak of the heaviest job
+     *
+     * @return The lower bound of {@link #getPeak()}
+     */
+    public int getLowerBound() {
+        int bound = 0;
+        for (int bucket = 0; bucket < buckets; bucket++) {
+            long load = 0;
+            for (final int[] nodeLoads : loads) {
+                load += nodeLoads[bucket];
+            }
+
+            bound = (int) Math.max(bound, (load + peaks.length - 1) / peaks.length);
+        }
+
+        for (final Assignment assignment : assignments.values()) {
+            bound = Math.max(bound, assignment.job.weight * assignment.profile.peak);
+        }
+
+        return bound;
+    }
+
+    /**
+     * @return The number of distinct schedules whose firings are kept, one per schedule of the planned jobs
+     */
+    int profileCount() {
+        return profiles.size();
+    }
+
+    //endregion
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    //region CONSTRUCTORS
+
+    /**
+     * Constructor
+     *
+     * @param nodes The number of nodes
+     * @param from  The start of the window the firings are counted in (inclusive), truncated to the minute
+     * @param to    The end of the window (exclusive)
+     */
+    public CronShardPlanner(final int nodes, final LocalDateTime from, final LocalDateTime to) {
+        if (nodes < 1 || from == null || to == null) {
+            throw new IllegalArgumentException("The planner needs at least one node and a window");
+        }
+
+        this.start = from.truncatedTo(ChronoUnit.MINUTES);
+        final long minutes = ChronoUnit.MINUTES.between(start, to.plusSeconds(59).truncatedTo(ChronoUnit.MINUTES));
+        if (minutes < 1 || minutes > 366 * 24 * 60) {
+            throw new IllegalArgumentException("The window must be between a minute and a year long");
+        }
+
+        this.buckets = (int) minutes;
+        this.loads = new int[nodes][buckets];
+        this.peaks = new int[nodes];
+        this.totals = new long[nodes];
+    }
+
+    //endregion
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    //region METHODS
+
+    /**
+     * Plans a batch of jobs, the ones with the highest peak (then the highest total load) first, each on the node whose
+     * peak grows the least
+     *
+     * @param jobs The jobs to plan (along with the ones already planned)
+     * @return The ids of the jobs and the nodes they were assigned to
+     */
+    public Map<String, Integer> plan(final Collection<Job> jobs) {
+        final Set<String> ids = new HashSet<>();
+        for (final Job job : jobs) {
+            if (assignments.containsKey(job.id) || !ids.add(job.id)) {
+                throw new IllegalArgumentException("Duplicate job " + job.id);
+            }
+        }
+
+        final List<Assignment> batch = new ArrayList<>(jobs.size());
+        for (final Job job : jobs) {
+            batch.add(new Assignment(job, profile(job.schedule)));
+        }
+
+        // Stable, so that ties keep the order of the batch
+        batch.sort((a, b) -> {
+            final int byPeak = Long.compare((long) b.job.weight * b.profile.peak, (long) a.job.weight * a.profile.peak);
+            return byPeak != 0 ? byPeak : Long.compare(b.job.weight * b.profile.total, a.job.weight * a.profile.total);
+        });
+
+        final Map<String, Integer> planned = new LinkedHashMap<>();
+        for (final Assignment assignment : batch) {
+            assign(assignment, bestNode(assignment));
+            planned.put(assignment.job.id, assignment.node);
+        }
+
+        return planned;
+    }
+
+    /**
+     * Plans a new job on the node whose peak grows the least
+     *
+     * @param job The job
+     * @return The node the job was assigned to
+     */
+    public int add(final Job job) {
+        final Assignment assignment = newAssignment(job);
+        assign(assignment, bestNode(assignment));
+        return assignment.node;
+    }
+
+    /**
+     * Adds a job already running on a node (i.e. to rebalance an existing sharding)
+     *
+     * @param job  The job
+     * @param node The node running the job
+     */
+    public void add(final Job job, final int node) {
+        checkNode(node);
+        assign(newAssignment(job), node);
+    }
+
+    /**
+     * Removes a job
+     *
+     * @param id The id of the job
+     * @return True if the job was planned
+     */
+    public boolean remove(final String id) {
+        final Assignment assignment = assignments.remove(id);
+        if (assignment == null) {
+            return false;
+        }
+
+        unassign(assignment);
+        final Profile profile = assignment.profile;
+        if (--profile.jobs == 0) {
+            profiles.remove(assignment.job.schedule);
+        }
+
+        return true;
+    }
+
+    /**
+     * Moves jobs away from the node with the highest peak, one at a time, as long as a move lowers the peak of both the
+     * node and the node receiving the job below the peak of the former
+     *
+     * @param maxMoves The maximum number of jobs to move
+     * @return The moves, in order
+     */
+    public List<Move> rebalance(final int maxMoves) {
+        final List<Move> moves = new ArrayList<>();
+        while (moves.size() < maxMoves) {
+            int source = 0;
+            for (int node = 1; node < peaks.length; node++) {
+                if (peaks[node] > peaks[source]) {
+                    source = node;
+                }
+            }
+
+            // Only the jobs firing within the hottest minute of the node can lower its peak
+            final int[] sourceLoads = loads[source];
+            int hottest = 0;
+            while (hottest < buckets && sourceLoads[hottest] != peaks[source]) {
+                hottest++;
+            }
+
+            Assignment best = null;
+            int bestTarget = -1;
+            int bestPeak = peaks[source];
+            for (final Assignment assignment : assignments.values()) {
+                if (assignment.node != source || Arrays.binarySearch(assignment.profile.buckets, hottest) < 0) {
+                    continue;
+                }
+
+                final int sourcePeak = peakWithout(source, assignment);
+                if (sourcePeak >= bestPeak) {
+                    continue;
+                }
+
+                for (int target = 0; target < peaks.length; target++) {
+                    if (target == source) {
+                        continue;
+                    }
+
+                    final int peak = Math.max(sourcePeak, peakWith(target, assignment));
+                    if (peak < bestPeak) {
+                        best = assignment;
+                        bestTarget = target;
+                        bestPeak = peak;
+                    }
+                }
+            }
+
+            if (best == null) {
+                break;
+            }
+
+            unassign(best);
+            assign(best, bestTarget);
+            moves.add(new Move(best.job.id, source, bestTarget));
+        }
+
+        return moves;
+    }
+
+    /**
+     * @return The node whose peak grows the least with a job (then the one with the lowest total load)
+     */
+    private int bestNode(final Assignment assignment) {
+        int best = -1;
+        int bestPeak = Integer.MAX_VALUE;
+        for (int node = 0; node < peaks.length; node++) {
+            final int peak = peakWith(node, assignment);
+            if (peak < bestPeak || (peak == bestPeak && totals[node] < totals[best])) {
+                best = node;
+                bestPeak = peak;
+            }
+        }
+
+        return best;
+    }
+
+    /**
+     * @return The peak of a node if it was also running a job
+     */
+    private int peakWith(final int node, final Assignment assignment) {
+        final int[] nodeLoads = loads[node];
+        final Profile profile = assignment.profile;
+        final int weight = assignment.job.weight;
+        int peak = peaks[node];
+        for (int i = 0; i < profile.buckets.length; i++) {
+            peak = Math.max(peak, nodeLoads[profile.buckets[i]] + weight * profile.firings[i]);
+        }
+
+        return peak;
+    }
+
+    /**
+     * @return The peak of a node if it was not running one of its jobs
+     */
+    private int peakWithout(final int node, final Assignment assignment) {
+        final int[] nodeLoads = loads[node];
+        final Profile profile = assignment.profile;
+        final int weight = assignment.job.weight;
+        int peak = 0;
+        int next = 0;
+        for (int bucket = 0; bucket < buckets; bucket++) {
+            int load = nodeLoads[bucket];
+            if (next < profile.buckets.length && profile.buckets[next] == bucket) {
+                load -= weight * profile.firings[next++];
+            }
+
+            peak = Math.max(peak, load);
+        }
+
+        return peak;
+    }
+
+    /**
+     * Adds the load of a job to a node
+     */
+    private void assign(final Assignment assignment, final int node) {
+        final int[] nodeLoads = loads[node];
+        final Profile profile = assignment.profile;
+        final int weight = assignment.job.weight;
+        for (int i = 0; i < profile.buckets.length; i++) {
+            final int load = nodeLoads[profile.buckets[i]] += weight * profile.firings[i];
+            peaks[node] = Math.max(peaks[node], load);
+        }
+
+        totals[node] += weight * profile.total;
+        assignment.node = node;
+        assignments.put(assignment.job.id, assignment);
+    }
+
+    /**
+     * Removes the load of a job from its node
+     */
+    private void unassign(final Assignment assignment) {
+        final int node = assignment.node;
+        final int[] nodeLoads = loads[node];
+        final Profile profile = assignment.profile;
+        final int weight = assignment.job.weight;
+        boolean peakLowered = false;
+        for (int i = 0; i < profile.buckets.length; i++) {
+            peakLowered |= nodeLoads[profile.buckets[i]] == peaks[node];
+            nodeLoads[profile.buckets[i]] -= weight * profile.firings[i];
+        }
+
+        totals[node] -= weight * profile.total;
+        if (peakLowered) {
+            int peak = 0;
+            for (final int load : nodeLoads) {
+                peak = Math.max(peak, load);
+            }
+
+            peaks[node] = peak;
+        }
+    }
+
+    /**
+     * @return A new assignment of a job, not planned yet
+     */
+    private Assignment newAssignment(final Job job) {
+        if (assignments.containsKey(job.id)) {
+            throw new IllegalArgumentException("Duplicate job " + job.id);
+        }
+
+        return new Assignment(job, profile(job.schedule));
+    }
+
+    /**
+     * @return The firings of a schedule within the window, only counted once for all the jobs sharing it (the caller
+     * plans one more job with it)
+     */
+    private Profile profile(final CronSchedule schedule) {
+        Profile profile = profiles.get(schedule);
+        if (profile == null) {
+            final int[] firings = new int[buckets];
+            CronFiringTimeline.accumulate(schedule, 1, start, Resolution.MINUTE, firings);
+
+            int count = 0;
+            for (final int bucketFirings : firings) {
+                count += bucketFirings != 0 ? 1 : 0;
+            }
+
+            final int[] sparseBuckets = new int[count];
+            final int[] sparseFirings = new int[count];
+            int peak = 0;
+            long total = 0;
+            for (int bucket = 0, i = 0; bucket < buckets; bucket++) {
+                if (firings[bucket] != 0) {
+                    sparseBuckets[i] = bucket;
+                    sparseFirings[i++] = firings[bucket];
+                    peak = Math.max(peak, firings[bucket]);
+                    total += firings[bucket];
+                }
+            }
+
+            profile = new Profile(sparseBuckets, sparseFirings, peak, total);
+            profiles.put(schedule, profile);
+        }
+
+        profile.jobs++;
+        return profile;
+    }
+
+    /**
+     * @return The index of a node, checked
+     */
+    private int checkNode(final int node) {
+        if (node < 0 || node >= peaks.length) {
+            throw new IllegalArgumentException("Invalid node " + node);
+        }
+
+        return node;
+    }
+
+    //endregion
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+}
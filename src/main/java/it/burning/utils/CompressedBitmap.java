@@ -0,0 +1,568 @@
+package it.burning.utils;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * A compressed set of non negative integers, laid out like a roaring bitmap.
+ * <p>
+ * Values are grouped in chunks of 65536 by their upper 16 bits. A chunk holding up to 4096 values keeps them in a
+ * sorted array of {@code char}s, a denser one in a bitmap of 8 KB, so a set never takes more than 2 bytes per value nor
+ * much more than a bit per value once it is dense. Intersections and unions run chunk by chunk, with a strategy picked
+ * for each pair of container kinds, and return a new bitmap leaving their operands untouched.
+ * <p>
+ * Instances are not thread safe.
+ */
+public final class CompressedBitmap {
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    //region FIELDS
+
+    // Most values an array container holds before turning into a bitmap
+    static final int ARRAY_MAX = 4096;
+
+    // How many times smaller an array container must be than another one to look its values up rather than merging
+    private static final int GALLOP_RATIO = 32;
+
+    // Number of words of a bitmap container (65536 bits)
+    private static final int WORDS = 1024;
+
+    // Chunks, sorted by key (the upper 16 bits of their values)
+    private char[]      keys       = new char[4];
+    private Container[] containers = new Container[4];
+    private int         size;
+
+    //endregion
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    //region CONSTRUCTORS
+
+    /**
+     * Constructor (empty set)
+     */
+    public CompressedBitmap() {
+
+    }
+
+    /**
+     * Constructor
+     *
+     * @param values The values of the set
+     * @throws IllegalArgumentException If a value is negative
+     */
+    public CompressedBitmap(final int... values) {
+        for (final int value : values) {
+            add(value);
+        }
+    }
+
+    //endregion
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    //region METHODS
+
+    /**
+     * Adds a value to the set
+     *
+     * @param value The value
+     * @return True if the value was not in the set already
+     * @throws IllegalArgumentException If the value is negative
+     */
+    public boolean add(final int value) {
+        if (value < 0) {
+            throw new IllegalArgumentException("Negative value: " + value);
+        }
+
+        final char key = (char) (value >>> 16);
+        int index = find(key);
+        if (index < 0) {
+            index = -index - 1;
+            insert(index, key, new ArrayContainer());
+        }
+
+        final Container container = containers[index];
+        final int cardinality = container.cardinality;
+        containers[index] = container.add((char) value);
+        return containers[index].cardinality != cardinality;
+    }
+
+    /**
+     * Removes a value from the set
+     *
+     * @param value The value
+     * @return True if the value was in the set
+     */
+    public boolean remove(final int value) {
+        final int index = value < 0 ? -1 : find((char) (value >>> 16));
+        if (index < 0) {
+            return false;
+        }
+
+        final Container container = containers[index];
+        final int cardinality = container.cardinality;
+        final Container removed = container.remove((char) value);
+        if (removed.cardinality == 0) {
+            System.arraycopy(keys, index + 1, keys, index, size - index - 1);
+            System.arraycopy(containers, index + 1, containers, index, size - index - 1);
+            containers[--size] = null;
+        } else {
+            containers[index] = removed;
+        }
+
+        return removed.cardinality != cardinality;
+    }
+
+    /**
+     * @param value The value
+     * @return True if the value is in the set
+     */
+    public boolean contains(final int value) {
+        final int index = value < 0 ? -1 : find((char) (value >>> 16));
+        return index >= 0 && containers[index].contains((char) value);
+    }
+
+    /**
+     * @return The number of values in the set
+     */
+    public int getCardinality() {
+        int cardinality = 0;
+        for (int i = 0; i < size; i++) {
+            cardinality += containers[i].cardinality;
+        }
+
+        return cardinality;
+    }
+
+    /**
+     * @return True if the set is empty
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Intersects this set with another one
+     *
+     * @param other The other set
+     * @return A new set with the values found in both sets
+     */
+    public CompressedBitmap and(final CompressedBitmap other) {
+        final CompressedBitmap result = new CompressedBitmap();
+        int i = 0;
+        int j = 0;
+        while (i < size && j < other.size) {
+            if (keys[i] < other.keys[j]) {
+                i++;
+            } else if (keys[i] > other.keys[j]) {
+                j++;
+            } else {
+                final Container container = containers[i++].and(other.containers[j++]);
+                if (container.cardinality > 0) {
+                    result.insert(result.size, keys[i - 1], container);
+                }
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Unites this set with another one
+     *
+     * @param other The other set
+     * @return A new set with the values found in either set
+     */
+    public CompressedBitmap or(final CompressedBitmap other) {
+        final CompressedBitmap result = new CompressedBitmap();
+        int i = 0;
+        int j = 0;
+        while (i < size || j < other.size) {
+            if (j == other.size || i < size && keys[i] < other.keys[j]) {
+                result.insert(result.size, keys[i], containers[i++].copy());
+            } else if (i == size || keys[i] > other.keys[j]) {
+                result.insert(result.size, other.keys[j], other.containers[j++].copy());
+            } else {
+                result.insert(result.size, keys[i], containers[i++].or(other.containers[j++]));
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Calls an action for each value of the set, in ascending order
+     *
+     * @param action The action
+     */
+    public void forEach(final IntConsumer action) {
+        for (int i = 0; i < size; i++) {
+            containers[i].forEach(keys[i] << 16, action);
+        }
+    }
+
+    /**
+     * @return The values of the set, in ascending order
+     */
+    public int[] toArray() {
+        final int[] values = new int[getCardinality()];
+        final int[] count = {0};
+        forEach(value -> values[count[0]++] = value);
+        return values;
+    }
+
+    /**
+     * @return An estimate of the memory taken by the containers of the set, in bytes
+     */
+    public long getSizeInBytes() {
+        long bytes = 0;
+        for (int i = 0; i < size; i++) {
+            bytes += containers[i] instanceof BitmapContainer ? WORDS * 8 : ((ArrayContainer) containers[i]).values.length * 2;
+        }
+
+        return bytes;
+    }
+
+    @Override
+    public boolean equals(final Object other) {
+        if (this == other) {
+            return true;
+        }
+
+        if (!(other instanceof CompressedBitmap)) {
+            return false;
+        }
+
+        return Arrays.equals(toArray(), ((CompressedBitmap) other).toArray());
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(toArray());
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(toArray());
+    }
+
+    /**
+     * Finds the chunk of a key
+     *
+     * @param key The upper 16 bits of a value
+     * @return The index of the chunk, or {@code -(insertion point) - 1} if there is none
+     */
+    private int find(final char key) {
+        // Most sets have a handful of chunks and values are often added in order
+        if (size > 0 && keys[size - 1] == key) {
+            return size - 1;
+        }
+
+        return Arrays.binarySearch(keys, 0, size, key);
+    }
+
+    /**
+     * Inserts a new chunk
+     *
+     * @param index     Where to insert the chunk
+     * @param key       The key of the chunk
+     * @param container The container of the chunk
+     */
+    private void insert(final int index, final char key, final Container container) {
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, size * 2);
+            containers = Arrays.copyOf(containers, size * 2);
+        }
+
+        System.arraycopy(keys, index, keys, index + 1, size - index);
+        System.arraycopy(containers, index, containers, index + 1, size - index);
+        keys[index] = key;
+        containers[index] = container;
+        size++;
+    }
+
+    //endregion
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    //region CONTAINERS
+
+    /**
+     * The lower 16 bits of the values of a chunk. Updates return the container to use from then on, which is a different
+     * kind of container when the cardinality crosses {@link #ARRAY_MAX}.
+     */
+    private abstract static class Container {
+        int cardinality;
+
+        abstract Container add(char value);
+
+        abstract Container remove(char value);
+
+        abstract boolean contains(char value);
+
+        abstract Container and(Container other);
+
+        abstract Container or(Container other);
+
+        abstract Container copy();
+
+        abstract void forEach(int high, IntConsumer action);
+    }
+
+    /**
+     * A sparse chunk, as a sorted array of values
+     */
+    private static final class ArrayContainer extends Container {
+        char[] values;
+
+        ArrayContainer() {
+            this(new char[4], 0);
+        }
+
+        ArrayContainer(final char[] values, final int cardinality) {
+            this.values = values;
+            this.cardinality = cardinality;
+        }
+
+        @Override
+        Container add(final char value) {
+            final int index = Arrays.binarySearch(values, 0, cardinality, value);
+            if (index >= 0) {
+                return this;
+            }
+
+            if (cardinality == ARRAY_MAX) {
+                return toBitmap().add(value);
+            }
+
+            if (cardinality == values.length) {
+                values = Arrays.copyOf(values, Math.min(Math.max(cardinality * 2, 4), ARRAY_MAX));
+            }
+
+            final int insertion = -index - 1;
+            System.arraycopy(values, insertion, values, insertion + 1, cardinality - insertion);
+            values[insertion] = value;
+            cardinality++;
+            return this;
+        }
+
+        @Override
+        Container remove(final char value) {
+            final int index = Arrays.binarySearch(values, 0, cardinality, value);
+            if (index >= 0) {
+                System.arraycopy(values, index + 1, values, index, cardinality - index - 1);
+                cardinality--;
+            }
+
+            return this;
+        }
+
+        @Override
+        boolean contains(final char value) {
+            return Arrays.binarySearch(values, 0, cardinality, value) >= 0;
+        }
+
+        @Override
+        Container and(final Container other) {
+            final char[] result = new char[Math.min(cardinality, other.cardinality)];
+            int count = 0;
+            if (other instanceof BitmapContainer) {
+                final long[] words = ((BitmapContainer) other).words;
+                for (int i = 0; i < cardinality; i++) {
+                    final char value = values[i];
+                    if ((words[value >>> 6] & (1L << value)) != 0) {
+                        result[count++] = value;
+                    }
+                }
+            } else if (other.cardinality > cardinality * GALLOP_RATIO || cardinality > other.cardinality * GALLOP_RATIO) {
+                // Far smaller than the other one, look its values up instead of merging
+                final ArrayContainer small = cardinality < other.cardinality ? this : (ArrayContainer) other;
+                final ArrayContainer large = small == this ? (ArrayContainer) other : this;
+                int from = 0;
+                for (int i = 0; i < small.cardinality && from < large.cardinality; i++) {
+                    final int index = Arrays.binarySearch(large.values, from, large.cardinality, small.values[i]);
+                    if (index >= 0) {
+                        result[count++] = small.values[i];
+                        from = index + 1;
+                    } else {
+                        from = -index - 1;
+                    }
+                }
+            } else {
+                final char[] otherValues = ((ArrayContainer) other).values;
+                final int otherCardinality = other.cardinality;
+                int i = 0;
+                int j = 0;
+                while (i < cardinality && j < otherCardinality) {
+                    final char value = values[i];
+                    final char otherValue = otherValues[j];
+                    if (value < otherValue) {
+                        i++;
+                    } else if (value > otherValue) {
+                        j++;
+                    } else {
+                        result[count++] = value;
+                        i++;
+                        j++;
+                    }
+                }
+            }
+
+            return new ArrayContainer(result, count);
+        }
+
+        @Override
+        Container or(final Container other) {
+            if (other instanceof BitmapContainer) {
+                return other.or(this);
+            }
+
+            final ArrayContainer array = (ArrayContainer) other;
+            final char[] result = new char[cardinality + array.cardinality];
+            int count = 0;
+            int i = 0;
+            int j = 0;
+            while (i < cardinality || j < array.cardinality) {
+                if (j == array.cardinality || i < cardinality && values[i] < array.values[j]) {
+                    result[count++] = values[i++];
+                } else if (i == cardinality || values[i] > array.values[j]) {
+                    result[count++] = array.values[j++];
+                } else {
+                    result[count++] = values[i++];
+                    j++;
+                }
+            }
+
+            final ArrayContainer union = new ArrayContainer(result, count);
+            return count > ARRAY_MAX ? union.toBitmap() : union;
+        }
+
+        @Override
+        Container copy() {
+            return new ArrayContainer(Arrays.copyOf(values, Math.max(cardinality, 1)), cardinality);
+        }
+
+        @Override
+        void forEach(final int high, final IntConsumer action) {
+            for (int i = 0; i < cardinality; i++) {
+                action.accept(high | values[i]);
+            }
+        }
+
+        BitmapContainer toBitmap() {
+            final BitmapContainer bitmap = new BitmapContainer(new long[WORDS], cardinality);
+            for (int i = 0; i < cardinality; i++) {
+                bitmap.words[values[i] >>> 6] |= 1L << values[i];
+            }
+
+            return bitmap;
+        }
+    }
+
+    /**
+     * A dense chunk, as a bitmap of 65536 bits
+     */
+    private static final class BitmapContainer extends Container {
+        final long[] words;
+
+        BitmapContainer(final long[] words, final int cardinality) {
+            this.words = words;
+            this.cardinality = cardinality;
+        }
+
+        @Override
+        Container add(final char value) {
+            final long word = words[value >>> 6];
+            words[value >>> 6] = word | 1L << value;
+            cardinality += word == words[value >>> 6] ? 0 : 1;
+            return this;
+        }
+
+        @Override
+        Container remove(final char value) {
+            final long word = words[value >>> 6];
+            words[value >>> 6] = word & ~(1L << value);
+            cardinality -= word == words[value >>> 6] ? 0 : 1;
+            return cardinality <= ARRAY_MAX ? toArray() : this;
+        }
+
+        @Override
+        boolean contains(final char value) {
+            return (words[value >>> 6] & (1L << value)) != 0;
+        }
+
+        @Override
+        Container and(final Container other) {
+            if (other instanceof ArrayContainer) {
+                return other.and(this);
+            }
+
+            final long[] otherWords = ((BitmapContainer) other).words;
+            final long[] result = new long[WORDS];
+            int count = 0;
+            for (int i = 0; i < WORDS; i++) {
+                result[i] = words[i] & otherWords[i];
+                count += Long.bitCount(result[i]);
+            }
+
+            final BitmapContainer intersection = new BitmapContainer(result, count);
+            return count <= ARRAY_MAX ? intersection.toArray() : intersection;
+        }
+
+        @Override
+        Container or(final Container other) {
+            final long[] result = words.clone();
+            if (other instanceof ArrayContainer) {
+                final ArrayContainer array = (ArrayContainer) other;
+                for (int i = 0; i < array.cardinality; i++) {
+                    result[array.values[i] >>> 6] |= 1L << array.values[i];
+                }
+            } else {
+                final long[] otherWords = ((BitmapContainer) other).words;
+                for (int i = 0; i < WORDS; i++) {
+                    result[i] |= otherWords[i];
+                }
+            }
+
+            int count = 0;
+            for (final long word : result) {
+                count += Long.bitCount(word);
+            }
+
+            return new BitmapContainer(result, count);
+        }
+
+        @Override
+        Container copy() {
+            return new BitmapContainer(words.clone(), cardinality);
+        }
+
+        @Override
+        void forEach(final int high, final IntConsumer action) {
+            for (int i = 0; i < WORDS; i++) {
+                long word = words[i];
+                while (word != 0) {
+                    action.accept(high | i << 6 | Long.numberOfTrailingZeros(word));
+                    word &= word - 1;
+                }
+            }
+        }
+
+        ArrayContainer toArray() {
+            final char[] values = new char[cardinality];
+            int count = 0;
+            for (int i = 0; i < WORDS; i++) {
+                long word = words[i];
+                while (word != 0) {
+                    values[count++] = (char) (i << 6 | Long.numberOfTrailingZeros(word));
+                    word &= word - 1;
+                }
+            }
+
+            return new ArrayContainer(values, count);
+        }
+    }
+
+    //endregion
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+}
@@ -0,0 +1,314 @@
+package it.burning.utils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.CRC32;
+
+/**
+ * The localization of descriptions and error messages: the bundled properties files (read as UTF-8), with the messages
+ * of a published {@link LocalizationProvider} layered over them.
+ * <p>
+ * Publishing a provider asks it for the messages of every supported locale and of their parents at once, and replaces
+ * the current snapshot as a whole: readers never call the provider, never lock, and never see the messages of two
+ * versions mixed. Descriptors and caches of localized text compare {@link #getVersion()} to pick up the new messages.
+ */
+public final class Localization {
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    //region FIELDS
+
+    // Config
+    private static final String      LOCALIZATION_BUNDLE = "localization";
+    private static final UTF8Control UTF8_CONTROL        = new UTF8Control();
+
+    // Messages of the published provider, replaced as a whole (see #publish())
+    private static final AtomicReference<Snapshot> snapshot = new AtomicReference<>(new Snapshot(0, null));
+
+    //endregion
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    //region CONSTRUCTORS
+
+    /**
+     * Private constructor (static methods only)
+     */
+    private Localization() {
+
+    }
+
+    //endregion
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    //region STATIC METHODS
+
+    /**
+     * Get the localization bundle of a locale, read as UTF-8, with the messages of the published provider (if any)
+     * replacing the bundled ones. Bundles are cached by {@link ResourceBundle}, so every caller must load them the same
+     * way: the first load decides how the properties files are decoded.
+     * <p>
+     * The returned bundle never changes: callers holding it keep the wording of the version it was taken from, and
+     * should get it again when {@link #getVersion()} changes.
+     *
+     * @param locale The locale
+     * @return The localization bundle
+     */
+    public static ResourceBundle getBundle(final Locale locale) {
+        final Snapshot current = snapshot.get();
+        if (current.provided == null) {
+            return getBundledBundle(locale);
+        }
+
+        final ResourceBundle bundle = current.bundles.get(locale);
+        return bundle != null ? bundle : current.bundles.computeIfAbsent(locale, key -> current.layer(key, getBundledBundle(key)));
+    }
+
+    /**
+     * Publish a provider of custom messages, replacing the previous one. The provider is asked for the messages of the
+     * supported locales (see {@link #getSupportedLocales()}) and of their parents before returning, and never again:
+     * messages of other locales are ignored. Descriptions started before go on with the previous messages, the next ones
+     * use the new messages. Publishing the same provider again takes a new snapshot of its messages.
+     *
+     * @param provider The provider, null to go back to the bundled messages
+     * @return The new version of the localization
+     */
+    public static long publish(final LocalizationProvider provider) {
+        final Map<Locale, Map<String, String>> provided = provider != null ? ask(provider) : null;
+        return snapshot.updateAndGet(current -> new Snapshot(current.version + 1, provided)).version;
+    }
+
+    /**
+     * Get the version of the localization, increased every time a provider is published. Caches of localized text
+     * should be keyed by (or emptied on a change of) the version.
+     *
+     * @return The version, 0 until a provider is first published
+     */
+    public static long getVersion() {
+        return snapshot.get().version;
+    }
+
+    /**
+     * Get a checksum of the properties files making up the localization bundle of a locale (the locale itself and its
+     * parents) and of the messages of the published provider for them, which changes whenever one of them is edited
+     *
+     * @param locale The locale
+     * @return The CRC32 of the names and contents of the properties files, and of the custom messages
+     */
+    public static long getChecksum(final Locale locale) {
+        final Map<String, String> messages = snapshot.get().getMessages(locale);
+        final CRC32 checksum = new CRC32();
+        final byte[] chunk = new byte[4096];
+        for (final Locale candidate : UTF8_CONTROL.getCandidateLocales(LOCALIZATION_BUNDLE, locale)) {
+            final String resourceName = UTF8_CONTROL.toResourceName(UTF8_CONTROL.toBundleName(LOCALIZATION_BUNDLE, candidate), "properties");
+            try (final InputStream stream = Localization.class.getClassLoader().getResourceAsStream(resourceName)) {
+                if (stream == null) {
+                    continue;
+                }
+
+                checksum.update(resourceName.getBytes(StandardCharsets.UTF_8));
+                for (int read = stream.read(chunk); read >= 0; read = stream.read(chunk)) {
+                    checksum.update(chunk, 0, read);
+                }
+            } catch (final IOException e) {
+                throw new UncheckedIOException("Cannot read " + resourceName, e);
+            }
+        }
+
+        // Custom messages, in a stable order (none leaves the checksum of the bundled files alone)
+        for (final Map.Entry<String, String> message : new TreeMap<>(messages).entrySet()) {
+            checksum.update((message.getKey() + '=' + message.getValue() + '\n').getBytes(StandardCharsets.UTF_8));
+        }
+
+        return checksum.getValue();
+    }
+
+    /**
+     * Check whether a locale has its own wording of a message (from its properties files or the published provider),
+     * rather than the English one of the root properties file it falls back to, i.e. to leave out phrases not translated yet
+     * instead of mixing languages
+     *
+     * @param locale The locale
+     * @param key    The key of the message
+     * @return True if the message is worded for the locale (always for English, the language of the root bundle)
+     */
+    public static boolean isLocalized(final Locale locale, final String key) {
+        final ResourceBundle bundle = getBundle(locale);
+        if (!bundle.containsKey(key)) {
+            return false;
+        }
+
+        if (locale.getLanguage().isEmpty() || locale.getLanguage().equals(Locale.ENGLISH.getLanguage())) {
+            return true;
+        }
+
+        final ResourceBundle root = getBundledBundle(Locale.ROOT);
+        return !root.containsKey(key) || !root.getString(key).equals(bundle.getString(key));
+    }
+
+    /**
+     * Get the locales having their own properties file (i.e. "it", "pt_BR"), found among the locales of the JVM
+     *
+     * @return The supported locales, sorted by language tag
+     */
+    public static List<Locale> getSupportedLocales() {
+        return SupportedLocales.LOCALES;
+    }
+
+    /**
+     * @param provider The provider
+     * @return The messages of the supported locales and of their parents (the root locale included), without the null
+     * keys and values
+     */
+    private static Map<Locale, Map<String, String>> ask(final LocalizationProvider provider) {
+        final Set<Locale> locales = new LinkedHashSet<>();
+        locales.add(Locale.ROOT);
+        for (final Locale locale : getSupportedLocales()) {
+            locales.addAll(UTF8_CONTROL.getCandidateLocales(LOCALIZATION_BUNDLE, locale));
+        }
+
+        final Map<Locale, Map<String, String>> provided = new HashMap<>();
+        for (final Locale locale : locales) {
+            final Map<String, String> messages = provider.getMessages(locale);
+            if (messages != null && !messages.isEmpty()) {
+                final Map<String, String> copy = new HashMap<>();
+                messages.forEach((key, value) -> {
+                    if (key != null && value != null) {
+                        copy.put(key, value);
+                    }
+                });
+
+                provided.put(locale, Collections.unmodifiableMap(copy));
+            }
+        }
+
+        return Collections.unmodifiableMap(provided);
+    }
+
+    /**
+     * @param locale The locale
+     * @return The localization bundle of the locale, as read from the properties files
+     */
+    private static ResourceBundle getBundledBundle(final Locale locale) {
+        return ResourceBundle.getBundle(LOCALIZATION_BUNDLE, locale, UTF8_CONTROL);
+    }
+
+    //endregion
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    //region SUBCLASSES
+
+    // The messages taken from a published provider, and the bundles layering them over the bundled ones (built on demand
+    // from the messages alone, never changed once built)
+    private static final class Snapshot {
+        final long                                           version;
+        final Map<Locale, Map<String, String>>               provided;
+        final ConcurrentHashMap<Locale, Map<String, String>> messages = new ConcurrentHashMap<>();
+        final ConcurrentHashMap<Locale, ResourceBundle>      bundles  = new ConcurrentHashMap<>();
+
+        /**
+         * Constructor
+         *
+         * @param version  The version of the localization
+         * @param provided The messages of the provider by locale, null without a provider
+         */
+        Snapshot(final long version, final Map<Locale, Map<String, String>> provided) {
+            this.version = version;
+            this.provided = provided;
+        }
+
+        /**
+         * @param locale The locale
+         * @return The messages of the locale and its parents, the most specific ones winning (empty without a provider)
+         */
+        Map<String, String> getMessages(final Locale locale) {
+            if (provided == null) {
+                return Collections.emptyMap();
+            }
+
+            final Map<String, String> resolved = messages.get(locale);
+            return resolved != null ? resolved : messages.computeIfAbsent(locale, this::resolve);
+        }
+
+        private Map<String, String> resolve(final Locale locale) {
+            final List<Locale> candidates = UTF8_CONTROL.getCandidateLocales(LOCALIZATION_BUNDLE, locale);
+            final Map<String, String> resolved = new HashMap<>();
+            for (int i = candidates.size() - 1; i >= 0; i--) {
+                final Map<String, String> candidate = provided.get(candidates.get(i));
+                if (candidate != null) {
+                    resolved.putAll(candidate);
+                }
+            }
+
+            return Collections.unmodifiableMap(resolved);
+        }
+
+        /**
+         * @param locale  The locale
+         * @param bundled The bundled localization of the locale
+         * @return The bundled localization with the messages of the provider layered over it
+         */
+        ResourceBundle layer(final Locale locale, final ResourceBundle bundled) {
+            final Map<String, String> custom = getMessages(locale);
+            return custom.isEmpty() ? bundled : new LayeredBundle(bundled, custom);
+        }
+    }
+
+    // Custom messages, falling back to the bundled ones
+    private static final class LayeredBundle extends ResourceBundle {
+        private final Map<String, String> messages;
+
+        LayeredBundle(final ResourceBundle bundled, final Map<String, String> messages) {
+            this.messages = messages;
+            setParent(bundled);
+        }
+
+        @Override
+        public Locale getLocale() {
+            return parent.getLocale();
+        }
+
+        @Override
+        protected Object handleGetObject(final String key) {
+            return messages.get(key);
+        }
+
+        @Override
+        protected Set<String> handleKeySet() {
+            return messages.keySet();
+        }
+
+        @Override
+        public Enumeration<String> getKeys() {
+            final Set<String> keys = new HashSet<>(messages.keySet());
+            keys.addAll(parent.keySet());
+            return Collections.enumeration(keys);
+        }
+    }
+
+    // Lazy holder of the supported locales, only looked up when first needed
+    private static final class SupportedLocales {
+        static final List<Locale> LOCALES = find();
+
+        private static List<Locale> find() {
+            final List<Locale> locales = new ArrayList<>();
+            for (final Locale locale : Locale.getAvailableLocales()) {
+                final String resourceName = UTF8_CONTROL.toResourceName(UTF8_CONTROL.toBundleName(LOCALIZATION_BUNDLE, locale), "properties");
+                if (!locale.equals(Locale.ROOT) && locale.getVariant().isEmpty() && locale.getScript().isEmpty() && Localization.class.getClassLoader().getResource(resourceName) != null) {
+                    locales.add(locale);
+                }
+            }
+
+            locales.sort((a, b) -> a.toLanguageTag().compareTo(b.toLanguageTag()));
+            return Collections.unmodifiableList(locales);
+        }
+    }
+
+    //endregion
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+}
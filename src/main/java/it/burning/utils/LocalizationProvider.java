@@ -0,0 +1,22 @@
+package it.burning.utils;
+
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * A source of custom wording (i.e. read from a database), layered over the bundled localization properties files. A
+ * provider is published with {@link Localization#publish(LocalizationProvider)}, which takes a snapshot of it: the
+ * messages of the supported locales and of their parents are asked for once, when published, so a provider whose
+ * messages change has to be published again for the changes to be seen.
+ */
+@FunctionalInterface
+public interface LocalizationProvider {
+    /**
+     * Get the messages of a locale, by resource name (i.e. "EveryMinute"). Only the messages of the locale itself are
+     * expected: the messages of its parents (i.e. "pt" for "pt_BR", and the root locale) are asked for separately.
+     *
+     * @param locale The locale
+     * @return The messages replacing the bundled ones, null or empty if the provider has none for the locale
+     */
+    Map<String, String> getMessages(Locale locale);
+}
@@ -0,0 +1,166 @@
+package it.burning.utils;
+
+import java.util.Map;
+
+/**
+ * A case insensitive trie of names made of ASCII letters, each standing for a number (i.e. "MON" and "MONDAY" for 1).
+ * Names are recognized with a single scan of the text, the longest one winning ("JUNE" over "JUN").
+ * <p>
+ * Instances are immutable and can be safely shared between threads.
+ */
+public final class NameTrie {
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    //region FIELDS
+
+    // Constants
+    private static final int LETTERS = 26;
+    private static final int NONE    = -1;
+
+    // Nodes, the root is node 0: the children of node N are at N * LETTERS (0 if missing), its value at N
+    private final int[] children;
+    private final int[] values;
+
+    //endregion
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    //region CONSTRUCTORS
+
+    /**
+     * Constructor
+     *
+     * @param names The names (ASCII letters, in any case) and the numbers they stand for (0-65535)
+     */
+    public NameTrie(final Map<String, Integer> names) {
+        int capacity = 1;
+        for (final String name : names.keySet()) {
+            capacity += name.length();
+        }
+
+        final int[] children = new int[capacity * LETTERS];
+        final int[] values = new int[capacity];
+        values[0] = NONE;
+
+        int nodes = 1;
+        for (final Map.Entry<String, Integer> name : names.entrySet()) {
+            final int value = name.getValue();
+            if (name.getKey().isEmpty() || value < 0 || value > 0xFFFF) {
+                throw new IllegalArgumentException("Invalid name " + name.getKey() + " = " + value);
+            }
+
+            int node = 0;
+            for (int i = 0; i < name.getKey().length(); i++) {
+                final int letter = letter(name.getKey().charAt(i));
+                if (letter == NONE) {
+                    throw new IllegalArgumentException("Names can only contain ASCII letters: " + name.getKey());
+                }
+
+                if (children[node * LETTERS + letter] == 0) {
+                    values[nodes] = NONE;
+                    children[node * LETTERS + letter] = nodes++;
+                }
+
+                node = children[node * LETTERS + letter];
+            }
+
+            values[node] = value;
+        }
+
+        this.children = children;
+        this.values = values;
+    }
+
+    //endregion
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    //region METHODS
+
+    /**
+     * Find the longest name starting a slice of a text
+     *
+     * @param text  The text
+     * @param start The index of the first character of the slice
+     * @param end   The index after the last character of the slice
+     * @return The match (see {@link #length(int)} and {@link #value(int)}), negative if no name starts the slice
+     */
+    public int find(final CharSequence text, final int start, final int end) {
+        int match = NONE;
+        int node = 0;
+        for (int i = start; i < end; i++) {
+            final int letter = letter(text.charAt(i));
+            if (letter == NONE || (node = children[node * LETTERS + letter]) == 0) {
+                break;
+            }
+
+            if (values[node] != NONE) {
+                match = (i + 1 - start) << 16 | values[node];
+            }
+        }
+
+        return match;
+    }
+
+    /**
+     * Replace every name found in a text with its number
+     *
+     * @param text The text
+     * @return The text with its names replaced (the same instance if there are none)
+     */
+    public String replace(final String text) {
+        StringBuilder replaced = null;
+        int copied = 0;
+        int i = 0;
+        while (i < text.length()) {
+            final int match = letter(text.charAt(i)) != NONE ? find(text, i, text.length()) : NONE;
+            if (match < 0) {
+                i++;
+                continue;
+            }
+
+            if (replaced == null) {
+                replaced = new StringBuilder(text.length());
+            }
+
+            replaced.append(text, copied, i).append(value(match));
+            i += length(match);
+            copied = i;
+        }
+
+        return replaced != null ? replaced.append(text, copied, text.length()).toString() : text;
+    }
+
+    //endregion
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    //region STATIC METHODS
+
+    /**
+     * @param match A match returned by {@link #find(CharSequence, int, int)}
+     * @return The number of characters of the matched name
+     */
+    public static int length(final int match) {
+        return match >>> 16;
+    }
+
+    /**
+     * @param match A match returned by {@link #find(CharSequence, int, int)}
+     * @return The number the matched name stands for
+     */
+    public static int value(final int match) {
+        return match & 0xFFFF;
+    }
+
+    /**
+     * @param c A character
+     * @return The index of the letter (0-25, whatever its case), -1 if not an ASCII letter
+     */
+    private static int letter(final char c) {
+        final int letter = (c | 0x20) - 'a';
+        return letter >= 0 && letter < LETTERS ? letter : NONE;
+    }
+
+    //endregion
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+}
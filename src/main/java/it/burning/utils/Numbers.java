@@ -0,0 +1,80 @@
+package it.burning.utils;
+
+/**
+ * Number parsing helpers of the hot parsing paths, reading numbers straight from a {@link CharSequence} instead of
+ * copying their digits into a new string first.
+ */
+public final class Numbers {
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    //region CONSTRUCTORS
+
+    /**
+     * Private constructor (static methods only)
+     */
+    private Numbers() {
+
+    }
+
+    //endregion
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    //region STATIC METHODS
+
+    /**
+     * Parse a decimal integer from a slice of a text, accepting the same slices as {@link Integer#parseInt(String)}
+     *
+     * @param text  The text
+     * @param begin The index of the first character of the number
+     * @param end   The index after the last character of the number
+     * @return The number
+     * @throws NumberFormatException     If the slice is not a valid integer
+     * @throws IndexOutOfBoundsException If the slice is not within the text
+     */
+    public static int parseInt(final CharSequence text, final int begin, final int end) {
+        if (begin < 0 || begin > end || end > text.length()) {
+            throw new IndexOutOfBoundsException("begin " + begin + ", end " + end + ", length " + text.length());
+        }
+
+        // Optional sign
+        int i = begin;
+        final boolean negative = i < end && text.charAt(i) == '-';
+        if (negative || (i < end && text.charAt(i) == '+')) {
+            i++;
+        }
+
+        if (i == end) {
+            throw invalidNumber(text, begin, end);
+        }
+
+        // Accumulated negatively (as Integer.parseInt does), so that Integer.MIN_VALUE can be parsed as well
+        final int limit = negative ? Integer.MIN_VALUE : -Integer.MAX_VALUE;
+        final int limitBeforeDigit = limit / 10;
+        int result = 0;
+        for (; i < end; i++) {
+            final int digit = Character.digit(text.charAt(i), 10);
+            if (digit < 0 || result < limitBeforeDigit) {
+                throw invalidNumber(text, begin, end);
+            }
+
+            result *= 10;
+            if (result < limit + digit) {
+                throw invalidNumber(text, begin, end);
+            }
+
+            result -= digit;
+        }
+
+        return negative ? result : -result;
+    }
+
+    /**
+     * Builds the exception for a slice that is not a valid integer
+     */
+    private static NumberFormatException invalidNumber(final CharSequence text, final int begin, final int end) {
+        return new NumberFormatException("For input string: \"" + text.subSequence(begin, end) + "\"");
+    }
+
+    //endregion
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+}
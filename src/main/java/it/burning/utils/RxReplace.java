@@ -25,6 +25,15 @@ public abstract class RxReplace {
         this.pattern = Pattern.compile(regex);
     }
 
+    /**
+     * Constructor
+     *
+     * @param pattern The compiled regular expression to use for replacement (patterns can be shared between instances)
+     */
+    public RxReplace(final Pattern pattern) {
+        this.pattern = pattern;
+    }
+
     //endregion
     ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
 
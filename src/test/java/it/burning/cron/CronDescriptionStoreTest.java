@@ -0,0 +1,159 @@
+package it.burning.cron;
+
+import it.burning.cron.CronExpressionParser.ImmutableOptions;
+import it.burning.cron.CronExpressionParser.Options;
+import it.burning.utils.Localization;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CronDescriptionStoreTest {
+    private static final List<String>     EXPRESSIONS = Arrays.asList("0 0 12 * * ?", "0 15 10 ? * MON-FRI", "0 0/5 14,18 * * ?", "0 15 10 ? * 6L 2002-2005",
+                                                                      "*/10 9-17 1,15 * *", "0  0   12 * * ?", "invalid");
+    private static final List<Locale>     LOCALES     = Arrays.asList(Locale.ENGLISH, Locale.ITALIAN, Locale.JAPANESE);
+    private static final ImmutableOptions OPTIONS     = new Options(true, false, true, false, Locale.ENGLISH).snapshot();
+
+    private Path directory;
+    private Path file;
+
+    @BeforeEach
+    void createDirectory() throws IOException {
+        directory = Files.createTempDirectory("cron-store");
+        file = directory.resolve("descriptions.store");
+    }
+
+    @AfterEach
+    void deleteDirectory() throws IOException {
+        Files.deleteIfExists(file);
+        Files.deleteIfExists(directory);
+    }
+
+    @Test
+    void buildAndOpen() throws IOException {
+        assertEquals(0, CronDescriptionStore.open(file).size());
+
+        final CronDescriptionStore built = CronDescriptionStore.build(file, EXPRESSIONS, LOCALES, OPTIONS);
+        assertEquals(5 * LOCALES.size(), built.size());
+        assertEquals(new HashSet<>(LOCALES), built.getLocales());
+
+        // Survives a restart
+        final CronDescriptionStore store = CronDescriptionStore.open(file);
+        assertEquals(built.size(), store.size());
+        for (final Locale locale : LOCALES) {
+            final Options options = new Options(true, false, true, false, locale);
+            for (final String expression : EXPRESSIONS.subList(0, 5)) {
+                assertEquals(CronExpressionDescriptor.getDescription(expression, options), store.find(expression, options), expression);
+            }
+
+            assertEquals(store.find("0 0 12 * * ?", options), store.find(" 0\t0 12 * *  ? ", options));
+
+            // Expressions with the same normalized parts share an entry
+            assertEquals(store.find("0 0/5 14,18 * * ?", options), store.find("0 */5 14,18 * * ?", options));
+            assertEquals(store.find("0 15 10 ? * MON-FRI", options), store.find("0 15 10 ? * mon-fri", options));
+            assertEquals(store.find("0 15 10 ? * MON-FRI", options), store.find("0 15 10 ? * 2-6", options));
+            assertNotNull(store.find("0 15 10 ? * 2-6", options));
+            assertNull(store.find("invalid", options));
+        }
+
+        // Other locales and options are not stored, but still described
+        final Options german = new Options(true, false, true, false, Locale.GERMAN);
+        final Options verbose = new Options(true, true, true, false, Locale.ENGLISH);
+        assertNull(store.find("0 0 12 * * ?", german));
+        assertNull(store.find("0 0 12 * * ?", verbose));
+        assertEquals(CronExpressionDescriptor.getDescription("0 0 12 * * ?", german), store.getDescription("0 0 12 * * ?", german));
+        assertEquals(CronExpressionDescriptor.getDescription("0 0 12 * * ?", verbose), store.getDescription("0 0 12 * * ?", verbose));
+    }
+
+    @Test
+    void hashKeys() throws IOException {
+        // Descriptions of the H syntax depend on the hash key, they are neither stored nor read from the store
+        final ImmutableOptions jobA = ImmutableOptions.builder().locale(Locale.ENGLISH).hashKey("job-a").build();
+        final ImmutableOptions jobB = jobA.toBuilder().hashKey("job-b").build();
+        final CronDescriptionStore store = CronDescriptionStore.build(file, Arrays.asList("H * * * *", "0 0 12 * * ?"), LOCALES, jobA);
+        assertEquals(LOCALES.size(), store.size());
+        assertNull(store.find("H * * * *", jobA));
+        assertNull(store.find("H * * * *", jobB));
+        assertNull(store.find("0 0 12 * * ?", jobB));
+        assertNotEquals(store.getDescription("H * * * *", jobA), store.getDescription("H * * * *", jobB));
+        assertEquals(CronExpressionDescriptor.getDescription("H * * * *", jobB), store.getDescription("H * * * *", jobB));
+
+        // Options without a hash key still cannot parse the H syntax
+        final ImmutableOptions options = jobA.toBuilder().hashKey(null).build();
+        assertNull(store.find("H * * * *", options));
+        assertThrows(CronExpressionParser.CronExpressionParseException.class, () -> store.getDescription("H * * * *", options));
+        assertEquals(CronExpressionDescriptor.getDescription("0 0 12 * * ?", options), store.find("0 0 12 * * ?", options));
+    }
+
+    @Test
+    void rebuildKeepsValidEntries() throws IOException {
+        CronDescriptionStore.build(file, EXPRESSIONS.subList(0, 2), LOCALES, OPTIONS);
+        final CronDescriptionStore store = CronDescriptionStore.build(file, EXPRESSIONS.subList(2, 4), Collections.singletonList(Locale.GERMAN), OPTIONS);
+        assertEquals(2 * LOCALES.size() + 2, store.size());
+        assertNotNull(store.find("0 0 12 * * ?", new Options(true, false, true, false, Locale.ITALIAN)));
+        assertNotNull(store.find("0 0/5 14,18 * * ?", new Options(true, false, true, false, Locale.GERMAN)));
+    }
+
+    @Test
+    void staleEntriesAreDropped() throws IOException {
+        CronDescriptionStore.build(file, EXPRESSIONS, Collections.singletonList(Locale.ENGLISH), OPTIONS);
+
+        // Localization changed since the file was written: the checksum follows the header and the first locale tag
+        try (final FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.allocate(8).putLong(0, 42), 16 + 2 + "en".length());
+        }
+
+        CronDescriptionStore store = CronDescriptionStore.open(file);
+        assertEquals(0, store.size());
+        assertNull(store.find("0 0 12 * * ?", OPTIONS));
+        assertEquals(CronExpressionDescriptor.getDescription("0 0 12 * * ?", OPTIONS), store.getDescription("0 0 12 * * ?", OPTIONS));
+
+        store = CronDescriptionStore.build(file, EXPRESSIONS.subList(0, 1), Collections.singletonList(Locale.ENGLISH), OPTIONS);
+        assertEquals(1, store.size());
+
+        // Another format version
+        try (final FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.allocate(4).putInt(0, CronDescriptionStore.VERSION + 1), 4);
+        }
+
+        assertEquals(0, CronDescriptionStore.open(file).size());
+    }
+
+    @Test
+    void publishedMessages() throws IOException {
+        final CronDescriptionStore store = CronDescriptionStore.build(file, EXPRESSIONS, LOCALES, OPTIONS);
+        final Options italian = new Options(true, false, true, false, Locale.ITALIAN);
+        try {
+            // Locales with custom messages are dropped from open stores as soon as the messages are published
+            Localization.publish(locale -> locale.equals(Locale.ITALIAN) ? Collections.singletonMap("AtSpace", "Alle ore ") : null);
+            assertEquals(new HashSet<>(Arrays.asList(Locale.ENGLISH, Locale.JAPANESE)), store.getLocales());
+            assertEquals(5 * 2, store.size());
+            assertNull(store.find("0 0 12 * * ?", italian));
+            assertEquals("Alle ore 12:00", store.getDescription("0 0 12 * * ?", italian));
+
+            // And described again on the next build
+            final CronDescriptionStore rebuilt = CronDescriptionStore.build(file, EXPRESSIONS, LOCALES, OPTIONS);
+            assertEquals(5 * LOCALES.size(), rebuilt.size());
+            assertEquals("Alle ore 12:00", rebuilt.find("0 0 12 * * ?", italian));
+        } finally {
+            Localization.publish(null);
+        }
+
+        // Stale again once the messages are withdrawn
+        assertNull(CronDescriptionStore.open(file).find("0 0 12 * * ?", italian));
+        assertEquals(5 * LOCALES.size(), store.size());
+    }
+}
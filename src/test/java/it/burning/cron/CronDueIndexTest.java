@@ -0,0 +1,157 @@
+package it.burning.cron;
+
+import it.burning.cron.CronExpressionGenerator.Profile;
+import it.burning.utils.CompressedBitmap;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CronDueIndexTest {
+    @Test
+    void due() {
+        // Every kind of day rule, minute by minute over a leap February and a 31 day month
+        final String[] expressions = {
+                "* * * * *", "0 9 * * MON-FRI", "30 12 1,15 * *", "0 0 1,15 * MON", "0 0 L * ?", "0 0 0 LW * ?",
+                "0 0 0 L-2 * ?", "0 0 0 15W * ?", "0 0 0 1W * ?", "0 0 0 ? * 6L", "0 0 0 ? * 2#1", "0 0 0 ? * 5#5",
+                "0 0 12 * * ? 2021", "0 */20 * * FEB *", "59 59 23 31 * ?", "0 0 0 29 2 ? 2020-2024"
+        };
+
+        final CronDueIndex index = new CronDueIndex();
+        for (int id = 0; id < expressions.length; id++) {
+            index.add(id, expressions[id]);
+        }
+
+        assertEquals(expressions.length, index.size());
+        for (final LocalDateTime start : new LocalDateTime[]{LocalDateTime.of(2020, 2, 1, 0, 0), LocalDateTime.of(2021, 1, 1, 0, 0)}) {
+            final LocalDateTime end = start.plusMonths(1);
+            for (LocalDateTime time = start; time.isBefore(end); time = time.plusMinutes(1)) {
+                assertArrayEquals(bruteForce(index, expressions.length, time), index.dueAt(time).toArray(), time.toString());
+            }
+        }
+
+        // The last second of the day
+        assertArrayEquals(new int[]{14}, index.dueAt(LocalDateTime.of(2021, 1, 31, 23, 59, 59)).toArray());
+        assertTrue(index.dueAt(LocalDateTime.of(2100, 1, 1, 0, 0)).isEmpty());
+    }
+
+    @Test
+    void generated() {
+        // Every form of every part, at random times
+        final String[] expressions = new CronExpressionGenerator(43, Profile.UNIFORM.withJavaEe(0)).expressions(3000);
+        final CronDueIndex index = new CronDueIndex();
+        for (int id = 0; id < expressions.length; id++) {
+            index.add(id, expressions[id]);
+        }
+
+        final Random random = new Random(43);
+        int due = 0;
+        for (int i = 0; i < 2000; i++) {
+            final LocalDateTime time = LocalDateTime.of(2020 + random.nextInt(10), 1 + random.nextInt(12), 1, random.nextInt(24), random.nextInt(60),
+                                                        random.nextInt(60)).plusDays(random.nextInt(31));
+            final int[] expected = bruteForce(index, expressions.length, time);
+            assertArrayEquals(expected, index.dueAt(time).toArray(), time.toString());
+            due += expected.length;
+        }
+
+        assertTrue(due > 1000, "Only " + due + " schedules due");
+    }
+
+    @Test
+    void updates() {
+        final CronDueIndex index = new CronDueIndex();
+        final LocalDateTime nine = LocalDateTime.of(2020, 6, 15, 9, 0);
+        assertNull(index.add(1, "0 9 * * *"));
+        assertNull(index.add(2, "0 9 L * ?"));
+        assertNull(index.add(3, "0 9 1 * MON"));
+        assertArrayEquals(new int[]{1, 3}, index.dueAt(nine).toArray());
+
+        // Replacing a schedule drops it from the bitmaps of its former values
+        assertEquals(CronSchedule.compile("0 9 * * *"), index.add(1, "0 10 * * *"));
+        assertArrayEquals(new int[]{3}, index.dueAt(nine).toArray());
+        assertArrayEquals(new int[]{1}, index.dueAt(nine.plusHours(1)).toArray());
+        assertArrayEquals(new int[]{2}, index.dueAt(nine.plusDays(15)).toArray());
+
+        assertTrue(index.remove(3));
+        assertFalse(index.remove(3));
+        assertNull(index.get(3));
+        assertTrue(index.dueAt(nine).isEmpty());
+        assertTrue(index.remove(2));
+        assertTrue(index.dueAt(nine.plusDays(15)).isEmpty());
+        assertEquals(1, index.size());
+
+        assertThrows(IllegalArgumentException.class, () -> index.add(-1, "* * * * *"));
+    }
+
+    @Test
+    void concurrent() throws InterruptedException {
+        // Lookups see the stable schedules while others come and go
+        final CronDueIndex index = new CronDueIndex();
+        for (int id = 0; id < 1000; id++) {
+            index.add(id, id % 2 == 0 ? "* * * * *" : "0 0 1 1 *");
+        }
+
+        final AtomicReference<Throwable> failure = new AtomicReference<>();
+        final List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 2; t++) {
+            final int offset = 1000 + t * 1000;
+            threads.add(new Thread(() -> {
+                for (int round = 0; round < 20; round++) {
+                    for (int id = offset; id < offset + 1000; id++) {
+                        index.add(id, "* * * * *");
+                    }
+
+                    for (int id = offset; id < offset + 1000; id++) {
+                        index.remove(id);
+                    }
+                }
+            }));
+        }
+
+        for (int t = 0; t < 2; t++) {
+            threads.add(new Thread(() -> {
+                try {
+                    for (int round = 0; round < 2000; round++) {
+                        final CompressedBitmap due = index.dueAt(LocalDateTime.of(2020, 6, 15, 9, 0));
+                        for (int id = 0; id < 1000; id++) {
+                            assertEquals(id % 2 == 0, due.contains(id));
+                        }
+                    }
+                } catch (final Throwable e) {
+                    failure.set(e);
+                }
+            }));
+        }
+
+        for (final Thread thread : threads) {
+            thread.start();
+        }
+
+        for (final Thread thread : threads) {
+            thread.join();
+        }
+
+        assertNull(failure.get());
+        assertEquals(1000, index.size());
+        assertEquals(500, index.dueAt(LocalDateTime.of(2020, 6, 15, 9, 0)).getCardinality());
+    }
+
+    /**
+     * @return The ids (0 to count - 1) of the schedules matching the given time, evaluated one by one
+     */
+    private static int[] bruteForce(final CronDueIndex index, final int count, final LocalDateTime time) {
+        final List<Integer> due = new ArrayList<>();
+        for (int id = 0; id < count; id++) {
+            if (index.get(id).matches(time)) {
+                due.add(id);
+            }
+        }
+
+        return due.stream().mapToInt(Integer::intValue).toArray();
+    }
+}
@@ -0,0 +1,195 @@
+package it.burning.cron;
+
+import it.burning.cron.CronEditorSession.ParseError;
+import it.burning.cron.CronExpressionGenerator.Profile;
+import it.burning.cron.CronExpressionGenerator.Sample;
+import it.burning.cron.CronExpressionParser.CronExpressionPart;
+import it.burning.cron.CronExpressionParser.ImmutableOptions;
+import it.burning.cron.CronExpressionParser.Options;
+import it.burning.cron.CronExpressionParser.Settings;
+import it.burning.utils.Localization;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CronEditorSessionTest {
+    private static final List<String> EXPRESSIONS = Arrays.asList("0 0 12 * * ?", "0 15 10 ? * *", "0 15 10 * * ? 2005", "0 0/5 14,18 * * ?", "0 0-5 14 * * ?",
+                                                                  "0/10 * ? * MON-FRI *", "0 10,44 14 ? 3 WED", "0 15 10 L * ?", "0 15 10 ? * 6L 2002-2005",
+                                                                  "0 15 10 * 6", "0 0 12 1/5 * ?", "5/10 * * * *", "0 1/10 * * *", "0 12 ? JAN/2 MON/2 *",
+                                                                  "0 12 ? * SUN,TUE,THU,SAT 1970/2", "* * * 1W * ?", "30 0 0 LW 1-6/2 ? 2030-2099/3",
+                                                                  "0 15 10 ? * 6#3", "0 15 10 L-2 * ?", "*/10 9-17 1,15 * *", "0 0 1 1 * 2099", "0 0 * * 0",
+                                                                  "*/5 3 * * *", "0-20/3 9 * * *", "0 30 6,14,16 * * ?", "0 0-10 11 * * ?", "0 0 12 ? * monday-Friday");
+
+    @Test
+    void describe() {
+        for (final Options options : Arrays.asList(new Options(true, false, true, false, Locale.ENGLISH),
+                                                   new Options(true, true, false, false, Locale.ITALIAN),
+                                                   new Options(true, false, true, true, Locale.GERMAN))) {
+            final CronEditorSession session = new CronEditorSession(options);
+            for (final String expression : EXPRESSIONS) {
+                assertTrue(session.update(expression), expression);
+                assertEquals(CronExpressionDescriptor.getDescription(expression, options), session.getDescription(), expression);
+                assertTrue(session.getErrors().isEmpty());
+            }
+        }
+    }
+
+    @Test
+    void typing() {
+        // Every keystroke gives the same verdict and description as parsing the whole expression
+        final Options options = new Options(true, false, true, false, Locale.ENGLISH);
+        final CronEditorSession session = new CronEditorSession(options);
+        for (final String expression : EXPRESSIONS) {
+            for (int i = 1; i <= expression.length(); i++) {
+                final String typed = expression.substring(0, i);
+                String expected;
+                try {
+                    expected = CronExpressionDescriptor.getDescription(typed, options);
+                } catch (final RuntimeException e) {
+                    // Some invalid steps (i.e. "1970/") fail the parser with other exceptions
+                    expected = null;
+                }
+
+                assertEquals(expected != null, session.update(typed), typed);
+                assertEquals(expected, session.getDescription(), typed);
+            }
+        }
+    }
+
+    @Test
+    void incremental() {
+        final Options options = new Options(true, false, true, false, Locale.ENGLISH);
+        final CronEditorSession session = new CronEditorSession(options);
+        assertTrue(session.update("0 15 10 ? * MON-FRI"));
+        assertEquals(7, session.getParsedPartsCount());
+
+        // Only the part that changed is parsed again
+        assertTrue(session.update("0 15 11 ? * MON-FRI"));
+        assertEquals(1, session.getParsedPartsCount());
+        assertEquals(CronExpressionDescriptor.getDescription("0 15 11 ? * MON-FRI", options), session.getDescription());
+
+        // Moving a part around does not change it
+        assertTrue(session.update("0  15\t11 ? * MON-FRI "));
+        assertEquals(0, session.getParsedPartsCount());
+
+        // Days of week are numbered differently when the number of parts changes
+        assertTrue(session.update("15 11 * * 1-5"));
+        assertEquals(7, session.getParsedPartsCount());
+        assertEquals(CronExpressionDescriptor.getDescription("15 11 * * 1-5", options), session.getDescription());
+    }
+
+    @Test
+    void errors() {
+        final Options options = new Options(true, false, true, false, Locale.ENGLISH);
+        final CronEditorSession session = new CronEditorSession(options);
+
+        // Every invalid part is reported along with its position
+        assertFalse(session.update("0 75 10 ? * MONX"));
+        assertNull(session.getDescription());
+        List<ParseError> errors = session.getErrors();
+        assertEquals(2, errors.size());
+        assertError(errors.get(0), CronExpressionPart.MIN, 2, 4);
+        assertEquals("The expression describing the MINUTE field is not in a valid format", errors.get(0).getMessage());
+        assertError(errors.get(1), CronExpressionPart.DOW, 12, 16);
+
+        // Fixing one part keeps the other error
+        assertFalse(session.update("0 15 10 ? * MONX"));
+        assertEquals(1, session.getErrors().size());
+        assertError(session.getErrors().get(0), CronExpressionPart.DOW, 12, 16);
+        assertEquals(1, session.getParsedPartsCount());
+
+        // Both day fields are underlined when they are both restricted
+        assertFalse(session.update("0 15 10 1 * MON"));
+        errors = session.getErrors();
+        assertEquals(2, errors.size());
+        assertError(errors.get(0), CronExpressionPart.DOM, 8, 9);
+        assertError(errors.get(1), CronExpressionPart.DOW, 12, 15);
+        assertEquals(errors.get(0).getMessage(), errors.get(1).getMessage());
+
+        // Expressions with too few parts are underlined as a whole, with too many parts only the extra ones are
+        assertFalse(session.update("  0 15 10 "));
+        assertError(session.getErrors().get(0), CronExpressionPart.ALL, 2, 9);
+        assertFalse(session.update("0 15 10 ? * MON 2020 x y"));
+        assertError(session.getErrors().get(0), CronExpressionPart.ALL, 21, 24);
+
+        // Valid again
+        assertTrue(session.update("0 15 10 ? * MON 2020"));
+        assertTrue(session.isValid());
+        assertTrue(session.getErrors().isEmpty());
+        assertEquals(CronExpressionDescriptor.getDescription("0 15 10 ? * MON 2020", options), session.getDescription());
+    }
+
+    @Test
+    void publishedMessages() {
+        final Options options = new Options(true, false, true, false, Locale.ENGLISH);
+        final CronEditorSession session = new CronEditorSession(options);
+        assertTrue(session.update("0 * * * * ?"));
+        assertEquals("Every minute", session.getDescription());
+        assertFalse(session.update("0 75 * * * ?"));
+
+        // Cached errors and segments are worded again with the published messages
+        final HashMap<String, String> messages = new HashMap<>();
+        messages.put("EveryMinute", "once a minute");
+        messages.put("InvalidFieldExpressionFormat", "Bad %s field");
+        try {
+            Localization.publish(locale -> messages);
+            assertFalse(session.update("0 75 * * * ?"));
+            assertEquals("Bad MINUTE field", session.getErrors().get(0).getMessage());
+            assertTrue(session.update("0 * * * * ?"));
+            assertEquals("Once a minute", session.getDescription());
+        } finally {
+            Localization.publish(null);
+        }
+
+        assertTrue(session.update("0 * * * * ?"));
+        assertEquals("Every minute", session.getDescription());
+    }
+
+    @Test
+    void generated() {
+        // Random expressions (some of them broken) typed one after the other in the same session, one session per options,
+        // over several seeds, as the rarer forms (i.e. zero padded steps) only show up in a few samples of each
+        final Map<ImmutableOptions, CronEditorSession> sessions = new HashMap<>();
+        for (int seed = 1; seed <= 10; seed++) {
+            for (final Sample sample : new CronExpressionGenerator(seed, Profile.UNIFORM.withNearMisses(0.3)).samples(5_000)) {
+                final ImmutableOptions options = sample.getOptions(Locale.ENGLISH);
+                assertSameAsDescriptor(sessions.computeIfAbsent(options, CronEditorSession::new), options, sample.getExpression(), sample.toString());
+            }
+        }
+
+        // Forms the session once rejected
+        final Options options = new Options(true, false, true, false, Locale.ENGLISH);
+        final CronEditorSession session = new CronEditorSession(options);
+        for (final String expression : Arrays.asList("* 14 ? FEB,APR,DEC 2/05 2068", "6 * */20 ? 6/7 01/1 2037-2059/2", "0 * * ? * 2/05", "0 0 * * 02/1",
+                                                     "29 */20 ? 02/4 2-3 2039", "* * ? * /SUN")) {
+            assertSameAsDescriptor(session, options, expression, expression);
+        }
+    }
+
+    /**
+     * Checks that a session gives the same verdict and description as the descriptor
+     */
+    private static void assertSameAsDescriptor(final CronEditorSession session, final Settings options, final String expression, final String message) {
+        String expected;
+        try {
+            expected = CronExpressionDescriptor.getDescription(expression, options);
+        } catch (final RuntimeException e) {
+            expected = null;
+        }
+
+        assertEquals(expected != null, session.update(expression), message);
+        assertEquals(expected, session.getDescription(), message);
+    }
+
+    private static void assertError(final ParseError error, final CronExpressionPart part, final int start, final int end) {
+        assertEquals(part, error.getPart(), error.toString());
+        assertEquals(start, error.getStart(), error.toString());
+        assertEquals(end, error.getEnd(), error.toString());
+    }
+}
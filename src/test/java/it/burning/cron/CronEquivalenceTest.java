@@ -0,0 +1,73 @@
+package it.burning.cron;
+
+import it.burning.cron.CronExpressionParser.Options;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CronEquivalenceTest {
+    @Test
+    void equivalent() {
+        // Lists, ranges and steps
+        assertTrue(CronEquivalence.equivalent("0,5,10,15,20,25,30,35,40,45,50,55 * * * *", "*/5 * * * *"));
+        assertTrue(CronEquivalence.equivalent("0 9 * * 1,2,3,4,5", "0 9 * * MON-FRI"));
+        assertTrue(CronEquivalence.equivalent("0 9 * * 1-5", "0 0 9 ? * MON-FRI"));
+
+        // Unix (Sunday is 0) against Quartz (Sunday is 1) numbering
+        assertTrue(CronEquivalence.equivalent("0 9 * * 1", "0 0 9 ? * 2"));
+        assertTrue(CronEquivalence.equivalent("0 9 * * 0", "0 9 * * 7"));
+        assertFalse(CronEquivalence.equivalent("0 9 * * 1", "0 0 9 ? * 1"));
+
+        // '?' against '*'
+        assertTrue(CronEquivalence.equivalent("0 0 12 * * ?", "0 0 12 ? * *"));
+
+        // JEE numbering
+        assertTrue(CronEquivalence.equivalent("0 0 13 * * 7", "0 0 13 * * 0", new Options() {{
+            setUseJavaEeScheduleExpression(true);
+        }}));
+
+        // Same days through different rules: the 31st only exists in months having 31 days
+        assertTrue(CronEquivalence.equivalent("0 12 L 1,3,5,7,8,10,12 ?", "0 12 31 * ?"));
+        assertFalse(CronEquivalence.equivalent("0 12 L * ?", "0 12 31 * ?"));
+    }
+
+    @Test
+    void subsumes() {
+        assertTrue(CronEquivalence.subsumes("*/5 * * * *", "*/15 * * * *"));
+        assertFalse(CronEquivalence.subsumes("*/15 * * * *", "*/5 * * * *"));
+        assertTrue(CronEquivalence.subsumes("0 * * * *", "0 9 * * MON-FRI"));
+        assertTrue(CronEquivalence.subsumes("0 9 * * *", "0 9 * * MON-FRI"));
+        assertFalse(CronEquivalence.subsumes("0 9 * * MON-FRI", "0 9 * * *"));
+        assertTrue(CronEquivalence.subsumes("0 9 * * *", "0 9 * * *"));
+
+        // Day of week against day of month and special forms
+        assertTrue(CronEquivalence.subsumes("0 9 * * MON-FRI", "0 9 LW * ?"));
+        assertFalse(CronEquivalence.subsumes("0 9 * * MON-FRI", "0 9 L * ?"));
+        assertTrue(CronEquivalence.subsumes("0 9 22-31 * ?", "0 9 ? * 6L"));
+        assertTrue(CronEquivalence.subsumes("0 9 15-21 * ?", "0 9 ? * 6#3"));
+        assertFalse(CronEquivalence.subsumes("0 9 15-20 * ?", "0 9 ? * 6#3"));
+
+        // Unix cron matching either day field
+        assertTrue(CronEquivalence.subsumes("0 9 1 * 6", "0 9 1 * *"));
+        assertTrue(CronEquivalence.subsumes("0 9 1 * 6", "0 9 * * SAT"));
+        assertFalse(CronEquivalence.subsumes("0 9 1 * *", "0 9 1 * 6"));
+
+        // Years and months
+        assertTrue(CronEquivalence.subsumes("0 0 9 * * ? 2020-2030", "0 0 9 * * ? 2025"));
+        assertFalse(CronEquivalence.subsumes("0 0 9 * * ? 2025", "0 0 9 * * ? 2020-2030"));
+        assertTrue(CronEquivalence.subsumes("0 9 * JAN-JUN *", "0 9 * 3 *"));
+    }
+
+    @Test
+    void group() {
+        final List<String> corpus = Arrays.asList("*/15 * * * *", "0 9 * * 1-5", "0,15,30,45 * * * *", "0 0 9 ? * MON-FRI", "0 10 * * *", "0 0/15 * * * ?");
+        final List<List<Integer>> classes = CronEquivalence.group(corpus);
+        assertEquals(3, classes.size());
+        assertEquals(Arrays.asList(0, 2, 5), classes.get(0));
+        assertEquals(Arrays.asList(1, 3), classes.get(1));
+        assertEquals(Arrays.asList(4), classes.get(2));
+    }
+}
@@ -1,15 +1,32 @@
 package it.burning.cron;
 
+import it.burning.cron.CronExpressionParser.ImmutableOptions;
 import it.burning.cron.CronExpressionParser.Options;
+import it.burning.cron.CronExpressionParser.Settings;
+import it.burning.utils.Localization;
 import org.junit.jupiter.api.Test;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import static org.junit.jupiter.api.Assertions.*;
 
 class CronExpressionDescriptorTest {
     // Default options
-    static final Options DEFAULT_OPTIONS = new Options();
+    static final ImmutableOptions DEFAULT_OPTIONS = new Options().snapshot();
 
     @Test
     void setOptions() {
@@ -92,6 +109,75 @@ class CronExpressionDescriptorTest {
         assertEquals("At 11:11, on day 11 of the month, only in November", CronExpressionDescriptor.getDescription("0 11 11 11 11 ?", DEFAULT_OPTIONS));
         assertEquals("Every 10 minutes, starting at 5 minutes past the hour", CronExpressionDescriptor.getDescription("5/10 * * * *", DEFAULT_OPTIONS));
         assertEquals("Every 10 hours, starting at 01:00", CronExpressionDescriptor.getDescription("0 1/10 * * *", DEFAULT_OPTIONS));
+
+        // Seconds from 20 on, only worded differently in some languages
+        assertEquals("At 30 seconds past the minute", CronExpressionDescriptor.getDescription("30 * * * * ?", DEFAULT_OPTIONS));
+        assertEquals("At 45 seconds past the minute, at 30 minutes past the hour", CronExpressionDescriptor.getDescription("45 30 * * * ?", DEFAULT_OPTIONS));
+        assertEquals("Every 10 seconds, starting at 25 seconds past the minute", CronExpressionDescriptor.getDescription("25/10 * * * * ?", DEFAULT_OPTIONS));
+    }
+
+    @Test
+    void symbolicDescription() {
+        final Options options = new Options(true, false, true, false, Locale.ENGLISH);
+        options.setHashKey("backup");
+        final String minute = new CronExpressionParser("H * * * *", options).parse()[1];
+
+        // The resolved description is the one of the expression with H replaced, the symbolic one describes H as such
+        assertEquals(CronExpressionDescriptor.getDescription(minute + " * * * *", options), CronExpressionDescriptor.getDescription("H * * * *", options));
+        assertEquals("At a stable minute", CronExpressionDescriptor.getSymbolicDescription("H * * * *", options));
+        assertEquals("Every 15 minutes, at a stable offset", CronExpressionDescriptor.getSymbolicDescription("H/15 * * * *", options));
+        assertEquals("At a stable minute, at a stable hour, between 00:00 and 07:59", CronExpressionDescriptor.getSymbolicDescription("H H(0-7) * * *", options));
+        assertEquals("At 00:00, on a stable day of the month", CronExpressionDescriptor.getSymbolicDescription("0 0 H * *", options));
+        assertEquals("At 12:00, on a stable day of the week, Monday through Friday", CronExpressionDescriptor.getSymbolicDescription("0 12 * * H(1-5)", options));
+        assertEquals("At 00:00, on day 1 of the month, only in January, in a stable year, 2025 through 2030",
+                     CronExpressionDescriptor.getSymbolicDescription("0 0 0 1 1 ? H(2025-2030)", options));
+
+        // Expressions without H are described the same way
+        assertEquals(CronExpressionDescriptor.getDescription("0 15 10 ? * MON-FRI", options), CronExpressionDescriptor.getSymbolicDescription("0 15 10 ? * MON-FRI", options));
+
+        // Both descriptions can be taken from the same descriptor
+        final CronExpressionDescriptor descriptor = new CronExpressionDescriptor("H 12 * * *", options);
+        assertEquals("At a stable minute, at 12:00", descriptor.getSymbolicDescription());
+        assertEquals(CronExpressionDescriptor.getDescription(minute + " 12 * * *", options), descriptor.getDescription());
+
+        // H is described as written without a hash key, even though it cannot be resolved
+        final Options keyless = new Options(true, false, true, false, Locale.ENGLISH);
+        final CronExpressionDescriptor unresolved = new CronExpressionDescriptor("H 12 * * H(1-5)", keyless);
+        assertEquals("At a stable minute, at 12:00, on a stable day of the week, Monday through Friday", unresolved.getSymbolicDescription());
+        assertThrows(CronExpressionParser.CronExpressionParseException.class, unresolved::getDescription);
+        assertEquals("At a stable minute, at 12:00, on a stable day of the week, Monday through Friday", unresolved.getSymbolicDescription());
+
+        // With the English phrases in locales that do not word them, as there is no resolved description to fall back to
+        assertEquals("Ogni 15 minuti, at a stable offset", CronExpressionDescriptor.getSymbolicDescription("H/15 * * * *", ImmutableOptions.builder().locale(Locale.ITALIAN).build()));
+
+        // Locales not wording the H syntax yet get the resolved description rather than one mixing languages
+        for (final Locale locale : new Locale[]{Locale.ITALIAN, Locale.GERMAN}) {
+            final ImmutableOptions localized = ImmutableOptions.builder().locale(locale).hashKey("backup").build();
+            for (final String expression : Arrays.asList("H H(9-17) ? * MON-FRI", "H/15 * * * *")) {
+                assertEquals(CronExpressionDescriptor.getDescription(expression, localized), CronExpressionDescriptor.getSymbolicDescription(expression, localized));
+            }
+        }
+
+        // Unless their phrases are published
+        final Map<String, String> italian = new HashMap<>();
+        italian.put("AtAStableX0", "a un %s stabile");
+        italian.put("ComaOnAStableX0", ", in un %s stabile");
+        italian.put("ComaInAStableX0", ", in un %s stabile");
+        italian.put("ComaAtAStableOffset", ", a uno scostamento stabile");
+        italian.put("HashFieldSecond", "secondo");
+        italian.put("HashFieldMinute", "minuto");
+        italian.put("HashFieldHour", "ora");
+        italian.put("HashFieldDayOfMonth", "giorno del mese");
+        italian.put("HashFieldMonth", "mese");
+        italian.put("HashFieldDayOfWeek", "giorno della settimana");
+        italian.put("HashFieldYear", "anno");
+        Localization.publish(locale -> locale.getLanguage().equals("it") ? italian : Collections.emptyMap());
+        try {
+            final ImmutableOptions localized = ImmutableOptions.builder().locale(Locale.ITALIAN).hashKey("backup").build();
+            assertEquals("Ogni 15 minuti, a uno scostamento stabile", CronExpressionDescriptor.getSymbolicDescription("H/15 * * * *", localized));
+        } finally {
+            Localization.publish(null);
+        }
     }
 
     @Test
@@ -224,4 +310,155 @@ class CronExpressionDescriptorTest {
         assertEquals("Every 10 minutes, starting at 5 minutes past the hour", CronExpressionDescriptor.getDescription("5/10 * * * *"));
         assertEquals("Every 10 hours, starting at 01:00", CronExpressionDescriptor.getDescription("0 1/10 * * *"));
     }
-}
\ No newline at end of file
+
+    @Test
+    void defaultOptionsUnderContention() throws InterruptedException {
+        final ImmutableOptions previous = CronExpressionDescriptor.getDefaultOptions();
+        final Options italian = new Options(true, false, true, false, Locale.ITALIAN);
+        final Options english = new Options(true, false, false, false, Locale.ENGLISH);
+
+        // Each default produces a single description, a reader seeing a mix of two defaults would produce another one
+        final String italianDescription = CronExpressionDescriptor.getDescription("0 0 12 * * ?", italian);
+        final String englishDescription = CronExpressionDescriptor.getDescription("0 0 12 * * ?", english);
+        assertNotEquals(italianDescription, englishDescription);
+
+        final AtomicBoolean writing = new AtomicBoolean(true);
+        final CountDownLatch start = new CountDownLatch(1);
+        final ConcurrentLinkedQueue<String> unexpected = new ConcurrentLinkedQueue<>();
+        final List<Thread> readers = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            final Thread reader = new Thread(() -> {
+                try {
+                    start.await();
+                    while (writing.get()) {
+                        final String description = CronExpressionDescriptor.getDescription("0 0 12 * * ?");
+                        if (!description.equals(italianDescription) && !description.equals(englishDescription)) {
+                            unexpected.add(description);
+                        }
+                    }
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            reader.start();
+            readers.add(reader);
+        }
+
+        try {
+            CronExpressionDescriptor.setDefaultOptions(english);
+            start.countDown();
+            for (int i = 0; i < 2000; i++) {
+                // Changing the source options after they have been set must not affect the defaults
+                final Options options = new Options(i % 2 == 0 ? italian : english);
+                CronExpressionDescriptor.setDefaultOptions(options);
+                options.setUse24HourTimeFormat(!options.isUse24HourTimeFormat());
+                if (i % 10 == 0) {
+                    // Copy on write of the current (italian) defaults
+                    CronExpressionDescriptor.setDefaultLocale("it");
+                }
+            }
+        } finally {
+            writing.set(false);
+            for (final Thread reader : readers) {
+                reader.join();
+            }
+
+            CronExpressionDescriptor.setDefaultOptions(previous);
+        }
+
+        assertTrue(unexpected.isEmpty(), "Unexpected descriptions: " + unexpected);
+    }
+
+    @Test
+    void deprecatedSegmentDescriptions() {
+        // Subclasses describing parts with functional implementations of the resources get the same descriptions
+        for (final String year : Arrays.asList("2020", "2020-2030", "2020-2030/2", "2020,2025,2030")) {
+            final String expression = "0 0 12 * * ? " + year;
+            final FunctionalYears descriptor = new FunctionalYears(expression, year);
+            assertEquals(CronExpressionDescriptor.getDescription(expression, DEFAULT_OPTIONS), descriptor.getDescription(), expression);
+        }
+
+        assertEquals(", 2020 through 2030", new FunctionalYears("0 0 12 * * ? 2020-2030", "2020-2030").between("2020-2030"));
+    }
+
+    @Test
+    void writeDescription() throws IOException {
+        // Common shapes (written from pre-encoded templates) and rare ones (described, then encoded), in locales of
+        // every script and with either time format
+        final List<String> expressions = Arrays.asList("0 */5 * * * ?", "30 14 * * MON-FRI", "0 0 12 15 * ?", "0 15 10 * * ? 2025", "10 15 10 ? JAN *",
+                                                       "*/10 9-17 * * MON-FRI", "0 0 0 ? * 1", "0 0 9 ? * 2#1", "0 0/5 14,18 * * ?", "0 0 12 1W * ?",
+                                                       "H H * * * ?", "0 0 12 ? * 6L");
+        for (final String language : Arrays.asList("zh-CN", "ja", "ko", "ru", "uk", "bg", "en", "it")) {
+            for (final boolean use24HourTimeFormat : new boolean[]{true, false}) {
+                final Options mutable = new Options(true, false, use24HourTimeFormat, false, Locale.forLanguageTag(language));
+                mutable.setHashKey("job");
+                for (final Settings options : Arrays.asList(mutable, mutable.snapshot())) {
+                    for (final String expression : expressions) {
+                        final String message = expression + " in " + language;
+                        final byte[] expected = CronExpressionDescriptor.getDescription(expression, options).getBytes(StandardCharsets.UTF_8);
+
+                        final ByteBuffer heap = ByteBuffer.allocate(expected.length);
+                        assertEquals(expected.length, CronExpressionDescriptor.writeDescription(expression, options, heap), message);
+                        assertArrayEquals(expected, heap.array(), message);
+
+                        final ByteBuffer direct = ByteBuffer.allocateDirect(expected.length + 8);
+                        direct.position(3);
+                        assertEquals(expected.length, new CronExpressionDescriptor(expression, options).writeDescription(direct), message);
+                        assertEquals(expected.length + 3, direct.position(), message);
+                        final byte[] written = new byte[expected.length];
+                        ((ByteBuffer) direct.position(3)).get(written);
+                        assertArrayEquals(expected, written, message);
+
+                        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+                        assertEquals(expected.length, CronExpressionDescriptor.writeDescription(expression, options, out), message);
+                        assertArrayEquals(expected, out.toByteArray(), message);
+                    }
+                }
+            }
+        }
+
+        // Descriptions that do not fit are not written at all
+        final ImmutableOptions options = new Options(true, false, true, false, Locale.JAPANESE).snapshot();
+        for (final String expression : Arrays.asList("0 */5 * * * ?", "0 0 12 1W * ?")) {
+            final ByteBuffer small = ByteBuffer.allocate(CronExpressionDescriptor.getDescription(expression, options).getBytes(StandardCharsets.UTF_8).length - 1);
+            assertThrows(BufferOverflowException.class, () -> CronExpressionDescriptor.writeDescription(expression, options, small));
+            assertEquals(0, small.position());
+        }
+
+        // Errors are reported as the options say
+        final ImmutableOptions lenient = new Options(false, false, true, false, Locale.ENGLISH).snapshot();
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        CronExpressionDescriptor.writeDescription("0 0 25 * * ?", lenient, out);
+        assertEquals(CronExpressionDescriptor.getDescription("0 0 25 * * ?", lenient), new String(out.toByteArray(), StandardCharsets.UTF_8));
+        assertThrows(CronExpressionParser.CronExpressionParseException.class, () -> CronExpressionDescriptor.writeDescription("0 0 25 * * ?", options, ByteBuffer.allocate(256)));
+    }
+
+    /**
+     * Describes years the way subclasses did before the resources of each part (see
+     * {@link CronExpressionDescriptor#getSegmentDescription(String, String, GetDescription, GetDescription, GetDescription, GetDescription, GetDescription)})
+     */
+    @SuppressWarnings("deprecation")
+    private static final class FunctionalYears extends CronExpressionDescriptor {
+        private final String year;
+
+        FunctionalYears(final String expression, final String year) {
+            super(expression, DEFAULT_OPTIONS);
+            this.year = year;
+        }
+
+        @Override
+        protected String GetYearDescription() {
+            return getSegmentDescription(year, "", desc -> desc, desc -> getString("ComaEveryX0Years"), desc -> getRangeFormat(), desc -> getString("ComaOnlyInYearX0"),
+                                         desc -> getRangeFormat());
+        }
+
+        String between(final String range) {
+            return GenerateBetweenSegmentDescription(range, desc -> getRangeFormat(), desc -> desc);
+        }
+
+        private String getRangeFormat() {
+            final String specialFormat = getString("ComaYearX0ThroughYearX1");
+            return specialFormat.isEmpty() ? getString("ComaX0ThroughX1") : specialFormat;
+        }
+    }
+}
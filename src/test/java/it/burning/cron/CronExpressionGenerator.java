@@ -0,0 +1,571 @@
+package it.burning.cron;
+
+import it.burning.cron.CronExpressionParser.CronExpressionPart;
+import it.burning.cron.CronExpressionParser.ImmutableOptions;
+import it.burning.cron.CronExpressionParser.Options;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+import static it.burning.cron.CronExpressionParser.CronExpressionPart.*;
+
+/**
+ * A seeded generator of random expressions, used as the corpus of benchmarks and of the differential tests comparing
+ * the optimized paths (scanner, schedules, editor sessions) with {@link CronExpressionParser#parse()} and
+ * {@link CronExpressionDescriptor#getDescription()}.
+ * <p>
+ * Expressions are valid by construction and cover every form accepted by the parser: 5, 6 (with seconds or with a year)
+ * and 7 parts, Quartz and Java EE numbering of the days of week, '*' and '?', single values, lists, ranges, steps,
+ * names in any case and the L, W and # rules. A share of them ({@link Profile#withNearMisses(double)}) is then broken
+ * by a single mutation (a value out of range, a stray character, a missing part, ...) to get near miss invalid
+ * expressions. The same seed and profile always give the same expressions.
+ */
+final class CronExpressionGenerator {
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    //region FIELDS
+
+    // Constants
+    private static final int      PARTS        = YEAR.ordinal() + 1;
+    private static final String[] DAY_NAMES    = {"SUN", "MON", "TUE", "WED", "THU", "FRI", "SAT"};
+    private static final String[] DAY_FULL     = {"SUNDAY", "MONDAY", "TUESDAY", "WEDNESDAY", "THURSDAY", "FRIDAY", "SATURDAY"};
+    private static final String[] MONTH_NAMES  = {"JAN", "FEB", "MAR", "APR", "MAY", "JUN", "JUL", "AUG", "SEP", "OCT", "NOV", "DEC"};
+    private static final String[] MONTH_FULL   = {"JANUARY", "FEBRUARY", "MARCH", "APRIL", "MAY", "JUNE", "JULY", "AUGUST", "SEPTEMBER", "OCTOBER", "NOVEMBER", "DECEMBER"};
+    private static final int[]    COMMON_STEPS = {2, 5, 10, 15, 20, 30};
+    private static final String   STRAY        = "x!-,/#LW?*0";
+
+    // The form of a part
+    enum Shape {
+        ANY,         // * or ?
+        VALUE,       // 5
+        LIST,        // 1,15,30
+        RANGE,       // 9-17
+        ANY_STEP,    // */5 (or 0/5, 1/5)
+        START_STEP,  // 3/5
+        RANGE_STEP,  // 9-17/2
+        NAME,        // MON, january, JAN-MAR (months and days of week)
+        SPECIAL      // L, LW, L-3, 15W (days of month), 5L, 6#3 (days of week)
+    }
+
+    // Config
+    private final Random  random;
+    private final Profile profile;
+
+    //endregion
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    //region SUBCLASSES
+
+    /**
+     * The (immutable) distributions the expressions are drawn from
+     */
+    static final class Profile {
+        /**
+         * Modeled on real crontabs: mostly fixed times or simple steps, every day or on weekdays, with the odd list,
+         * range or Quartz rule
+         */
+        static final Profile CRONTAB = new Profile(new double[]{0.6, 0.3, 0.1}, 0.1, 0.0, new double[][]{
+                //  ANY   VALUE  LIST  RANGE  ANY_STEP  START_STEP  RANGE_STEP  NAME  SPECIAL
+                {0.10, 0.80, 0.02, 0.02, 0.05, 0.01, 0.00, 0.00, 0.00}, // SEC
+                {0.15, 0.50, 0.08, 0.04, 0.18, 0.03, 0.02, 0.00, 0.00}, // MIN
+                {0.35, 0.35, 0.10, 0.10, 0.07, 0.01, 0.02, 0.00, 0.00}, // HOUR
+                {0.75, 0.12, 0.04, 0.02, 0.02, 0.01, 0.01, 0.00, 0.03}, // DOM
+                {0.85, 0.05, 0.03, 0.02, 0.02, 0.01, 0.00, 0.02, 0.00}, // MONTH
+                {0.60, 0.08, 0.05, 0.12, 0.01, 0.01, 0.01, 0.10, 0.02}, // DOW
+                {0.70, 0.15, 0.05, 0.05, 0.02, 0.02, 0.01, 0.00, 0.00}  // YEAR
+        });
+
+        /**
+         * Every form of every part equally likely, to cover the syntax rather than to look realistic
+         */
+        static final Profile UNIFORM = new Profile(new double[]{1, 1, 1}, 0.5, 0.0, new double[][]{
+                {1, 1, 1, 1, 1, 1, 1, 0, 0}, // SEC
+                {1, 1, 1, 1, 1, 1, 1, 0, 0}, // MIN
+                {1, 1, 1, 1, 1, 1, 1, 0, 0}, // HOUR
+                {1, 1, 1, 1, 1, 1, 1, 0, 1}, // DOM
+                {1, 1, 1, 1, 1, 1, 1, 1, 0}, // MONTH
+                {1, 1, 1, 1, 1, 1, 1, 1, 1}, // DOW
+                {1, 1, 1, 1, 1, 1, 1, 0, 0}  // YEAR
+        });
+
+        private final double[]   parts;
+        private final double     javaEe;
+        private final double     nearMisses;
+        private final double[][] shapes;
+
+        /**
+         * Constructor
+         *
+         * @param parts      The weights of 5, 6 and 7 part expressions
+         * @param javaEe     The share of expressions using the Java EE numbering of days of week
+         * @param nearMisses The share of expressions made invalid by a single mutation
+         * @param shapes     The weights of the shapes of each part (by CronExpressionPart ordinal, then Shape ordinal)
+         */
+        private Profile(final double[] parts, final double javaEe, final double nearMisses, final double[][] shapes) {
+            this.parts = parts;
+            this.javaEe = javaEe;
+            this.nearMisses = nearMisses;
+            this.shapes = shapes;
+        }
+
+        /**
+         * @return A copy of this profile with other weights of 5, 6 and 7 part expressions
+         */
+        Profile withParts(final double five, final double six, final double seven) {
+            return new Profile(new double[]{five, six, seven}, javaEe, nearMisses, shapes);
+        }
+
+        /**
+         * @return A copy of this profile with another share of Java EE expressions
+         */
+        Profile withJavaEe(final double share) {
+            return new Profile(parts, share, nearMisses, shapes);
+        }
+
+        /**
+         * @return A copy of this profile with another share of near miss invalid expressions
+         */
+        Profile withNearMisses(final double share) {
+            return new Profile(parts, javaEe, share, shapes);
+        }
+
+        /**
+         * @param part    The part (SEC to YEAR)
+         * @param weights The weights of the shapes of the part, in Shape order (names and rules only apply to some parts)
+         * @return A copy of this profile with other shapes for a part
+         */
+        Profile withShapes(final CronExpressionPart part, final double... weights) {
+            final double[][] copy = shapes.clone();
+            copy[part.ordinal()] = Arrays.copyOf(weights, Shape.values().length);
+            return new Profile(parts, javaEe, nearMisses, copy);
+        }
+    }
+
+    /**
+     * A generated expression, along with the dialect it is written in
+     */
+    static final class Sample {
+        private final String  expression;
+        private final boolean javaEe;
+        private final boolean nearMiss;
+
+        Sample(final String expression, final boolean javaEe, final boolean nearMiss) {
+            this.expression = expression;
+            this.javaEe = javaEe;
+            this.nearMiss = nearMiss;
+        }
+
+        String getExpression() {
+            return expression;
+        }
+
+        boolean isJavaEe() {
+            return javaEe;
+        }
+
+        /**
+         * @return True if the expression was broken on purpose (it is then most likely, but not always, invalid)
+         */
+        boolean isNearMiss() {
+            return nearMiss;
+        }
+
+        /**
+         * @param locale The locale of descriptions and errors
+         * @return Options matching the dialect of the expression (throwing on errors)
+         */
+        ImmutableOptions getOptions(final Locale locale) {
+            return new Options(true, false, true, javaEe, locale).snapshot();
+        }
+
+        @Override
+        public String toString() {
+            return expression + (javaEe ? " (JEE)" : "") + (nearMiss ? " (near miss)" : "");
+        }
+    }
+
+    //endregion
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    //region CONSTRUCTORS
+
+    /**
+     * Constructor (crontab like expressions, all valid)
+     *
+     * @param seed The seed of the random numbers
+     */
+    CronExpressionGenerator(final long seed) {
+        this(seed, Profile.CRONTAB);
+    }
+
+    /**
+     * Constructor
+     *
+     * @param seed    The seed of the random numbers
+     * @param profile The distributions of the expressions
+     */
+    CronExpressionGenerator(final long seed, final Profile profile) {
+        this.random = new Random(seed);
+        this.profile = profile;
+    }
+
+    //endregion
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    //region METHODS
+
+    /**
+     * @param count The number of expressions
+     * @return The next expressions
+     */
+    List<Sample> samples(final int count) {
+        final List<Sample> samples = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            samples.add(next());
+        }
+
+        return samples;
+    }
+
+    /**
+     * @param count The number of expressions
+     * @return The next expressions, as strings
+     */
+    String[] expressions(final int count) {
+        final String[] expressions = new String[count];
+        for (int i = 0; i < count; i++) {
+            expressions[i] = next().getExpression();
+        }
+
+        return expressions;
+    }
+
+    /**
+     * @return The next expression
+     */
+    Sample next() {
+        final int partsCount = 5 + pick(profile.parts);
+        final boolean javaEe = random.nextDouble() < profile.javaEe;
+
+        // 6 part expressions either have seconds or a year
+        final boolean seconds = partsCount == 7 || (partsCount == 6 && random.nextBoolean());
+        final boolean year = partsCount == 7 || (partsCount == 6 && !seconds);
+
+        // Quartz numbers days of week from 1 (Sunday) when seconds or years are present, Java EE and 5 part expressions from 0
+        final int dowFirst = partsCount > 5 && !javaEe ? 1 : 0;
+
+        final String[] tokens = new String[PARTS];
+        for (final CronExpressionPart part : Arrays.asList(SEC, MIN, HOUR, DOM, MONTH, DOW, YEAR)) {
+            if ((part != SEC || seconds) && (part != YEAR || year)) {
+                tokens[part.ordinal()] = part(part, dowFirst);
+            }
+        }
+
+        // Quartz requires one of the day fields to be unrestricted, and writes it as '?'. A 6 part expression with a year
+        // is only recognized as such with a '?' or a literal year.
+        if (partsCount > 5) {
+            final int dom = DOM.ordinal();
+            final int dow = DOW.ordinal();
+            if (isRestricted(tokens[dom]) && isRestricted(tokens[dow])) {
+                tokens[random.nextBoolean() ? dom : dow] = "?";
+            } else if (!tokens[dom].equals("?") && !tokens[dow].equals("?") && (!seconds || random.nextDouble() < 0.7)) {
+                tokens[isRestricted(tokens[dom]) ? dow : dom] = "?";
+            }
+        }
+
+        final boolean nearMiss = random.nextDouble() < profile.nearMisses;
+        if (nearMiss) {
+            return new Sample(mutate(tokens, partsCount, dowFirst), javaEe, true);
+        }
+
+        return new Sample(join(tokens), javaEe, false);
+    }
+
+    /**
+     * Generates a part
+     */
+    private String part(final CronExpressionPart part, final int dowFirst) {
+        final int min = min(part, dowFirst);
+        final int max = max(part, dowFirst);
+        Shape shape = Shape.values()[pick(profile.shapes[part.ordinal()])];
+        if ((shape == Shape.NAME && part != MONTH && part != DOW) || (shape == Shape.SPECIAL && part != DOM && part != DOW)) {
+            shape = Shape.VALUE;
+        }
+
+        switch (shape) {
+            case ANY:
+                return (part == DOM || part == DOW) && random.nextInt(4) == 0 ? "?" : "*";
+            case VALUE:
+                // Sunday can also be written 7 (unless 7 is Saturday)
+                if (part == DOW && dowFirst == 0 && random.nextInt(10) == 0) {
+                    return "7";
+                }
+
+                return value(part, between(min, max));
+            case LIST:
+                final int[] values = random.ints(min, max + 1).distinct().limit(2 + random.nextInt(3)).sorted().toArray();
+                final StringBuilder list = new StringBuilder();
+                for (final int value : values) {
+                    list.append(list.length() > 0 ? "," : "").append(value(part, value));
+                }
+
+                return list.toString();
+            case RANGE:
+                final int from = between(min, max - 1);
+                return value(part, from) + "-" + value(part, between(from + 1, max));
+            case ANY_STEP:
+                // Steps starting from the first value can also be written '0/' (seconds to hours) or '1/'
+                final String any = random.nextInt(5) == 0 ? (part.ordinal() <= HOUR.ordinal() ? "0" : "1") : "*";
+                return any + "/" + step(part, min, max);
+            case START_STEP:
+                return value(part, between(min, max - 1)) + "/" + step(part, min, max);
+            case RANGE_STEP:
+                final int start = between(min, max - 1);
+                return value(part, start) + "-" + value(part, between(start + 1, max)) + "/" + step(part, min, max);
+            case NAME:
+                return names(part == MONTH ? MONTH_NAMES : DAY_NAMES, part == MONTH ? MONTH_FULL : DAY_FULL, part == MONTH ? 1 : 0);
+            default:
+                return special(part, min, max);
+        }
+    }
+
+    /**
+     * Generates a name, a range of names or a list of names
+     */
+    private String names(final String[] names, final String[] full, final int first) {
+        final int kind = random.nextInt(10);
+        if (kind < 6) {
+            return name(names, full, random.nextInt(names.length));
+        } else if (kind < 9) {
+            // Weekdays are by far the most common range
+            final int from = names == DAY_NAMES && random.nextBoolean() ? 1 : random.nextInt(names.length - 1);
+            final int to = names == DAY_NAMES && from == 1 && random.nextBoolean() ? 5 : between(from + 1, names.length - 1);
+            return name(names, full, from) + "-" + name(names, full, to);
+        }
+
+        final int[] values = random.ints(0, names.length).distinct().limit(2 + random.nextInt(2)).sorted().toArray();
+        final StringBuilder list = new StringBuilder();
+        for (final int value : values) {
+            list.append(list.length() > 0 ? "," : "").append(name(names, full, value));
+        }
+
+        return list.toString();
+    }
+
+    /**
+     * Generates a name, mostly abbreviated and in uppercase
+     */
+    private String name(final String[] names, final String[] full, final int index) {
+        final String name = random.nextInt(10) == 0 ? full[index] : names[index];
+        switch (random.nextInt(10)) {
+            case 0:
+                return name.toLowerCase(Locale.ROOT);
+            case 1:
+                return name.charAt(0) + name.substring(1).toLowerCase(Locale.ROOT);
+            default:
+                return name;
+        }
+    }
+
+    /**
+     * Generates a day of month (L, LW, L-N, NW) or day of week (NL, N#M) rule
+     */
+    private String special(final CronExpressionPart part, final int min, final int max) {
+        if (part == DOM) {
+            switch (random.nextInt(4)) {
+                case 0:
+                    return "L";
+                case 1:
+                    return "LW";
+                case 2:
+                    return "L-" + between(1, 30);
+                default:
+                    return between(1, 31) + "W";
+            }
+        }
+
+        final String day = random.nextInt(3) == 0 ? name(DAY_NAMES, DAY_FULL, random.nextInt(7)) : String.valueOf(between(min, max));
+        return random.nextBoolean() ? day + "L" : day + "#" + between(1, 5);
+    }
+
+    /**
+     * Generates a step, mostly a common one
+     */
+    private int step(final CronExpressionPart part, final int min, final int max) {
+        final int limit = part == DOW ? 6 : part == YEAR ? 50 : max - min;
+        if (random.nextInt(3) > 0) {
+            final int step = COMMON_STEPS[random.nextInt(COMMON_STEPS.length)];
+            if (step <= limit) {
+                return step;
+            }
+        }
+
+        return between(1, limit);
+    }
+
+    /**
+     * Writes a value, sometimes with a leading zero (seconds to hours)
+     */
+    private String value(final CronExpressionPart part, final int value) {
+        return value < 10 && part.ordinal() <= HOUR.ordinal() && random.nextInt(20) == 0 ? "0" + value : String.valueOf(value);
+    }
+
+    /**
+     * Breaks an expression with a single mutation
+     */
+    private String mutate(final String[] tokens, final int partsCount, final int dowFirst) {
+        final List<CronExpressionPart> present = new ArrayList<>();
+        for (final CronExpressionPart part : Arrays.asList(SEC, MIN, HOUR, DOM, MONTH, DOW, YEAR)) {
+            if (tokens[part.ordinal()] != null) {
+                present.add(part);
+            }
+        }
+
+        final CronExpressionPart part = present.get(random.nextInt(present.size()));
+        final int index = part.ordinal();
+        switch (random.nextInt(8)) {
+            case 0:
+                // A value out of range
+                tokens[index] = random.nextBoolean() || min(part, dowFirst) == 0 ? String.valueOf(max(part, dowFirst) + 1 + (part == DOW ? 1 : 0)) : String.valueOf(min(part, dowFirst) - 1);
+                break;
+            case 1:
+                // A stray character
+                final int at = random.nextInt(tokens[index].length() + 1);
+                tokens[index] = tokens[index].substring(0, at) + STRAY.charAt(random.nextInt(STRAY.length())) + tokens[index].substring(at);
+                break;
+            case 2:
+                // A dangling separator
+                tokens[index] = random.nextBoolean() ? tokens[index] + "," : tokens[index] + "-";
+                break;
+            case 3:
+                // A step out of range
+                tokens[index] = "*/" + (max(part, dowFirst) + 1 + (part == YEAR ? 200 : 0));
+                break;
+            case 4:
+                // A misspelled name
+                tokens[index] = part == MONTH ? "JANN" : part == DOW ? "MOM" : "FOO";
+                break;
+            case 5:
+                // Too few parts
+                return String.join(" ", Arrays.copyOf(join(tokens).split(" +"), between(1, 4)));
+            case 6:
+                // Too many parts
+                return join(tokens) + " * *" + (partsCount < 7 ? " *" : "");
+            default:
+                // Both day fields restricted (only invalid with more than 5 parts), or an empty list item
+                if (partsCount > 5) {
+                    tokens[DOM.ordinal()] = String.valueOf(between(1, 31));
+                    tokens[DOW.ordinal()] = String.valueOf(between(dowFirst, dowFirst + 6));
+                } else {
+                    tokens[index] = "1,," + max(part, dowFirst);
+                }
+                break;
+        }
+
+        return join(tokens);
+    }
+
+    /**
+     * Joins the parts, mostly with single spaces
+     */
+    private String join(final String[] tokens) {
+        final StringBuilder expression = new StringBuilder();
+        for (final String token : tokens) {
+            if (token != null) {
+                if (expression.length() > 0) {
+                    expression.append(random.nextInt(50) == 0 ? "  " : " ");
+                }
+
+                expression.append(token);
+            }
+        }
+
+        return expression.toString();
+    }
+
+    /**
+     * @return A random index, drawn according to its weight
+     */
+    private int pick(final double[] weights) {
+        double total = 0;
+        for (final double weight : weights) {
+            total += weight;
+        }
+
+        double target = random.nextDouble() * total;
+        for (int i = 0; i < weights.length; i++) {
+            target -= weights[i];
+            if (target < 0 && weights[i] > 0) {
+                return i;
+            }
+        }
+
+        return weights.length - 1;
+    }
+
+    /**
+     * @return A random value between two bounds (included)
+     */
+    private int between(final int min, final int max) {
+        return min + random.nextInt(max - min + 1);
+    }
+
+    //endregion
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    //region STATIC METHODS
+
+    /**
+     * @return The smallest value of a part
+     */
+    private static int min(final CronExpressionPart part, final int dowFirst) {
+        switch (part) {
+            case DOM:
+            case MONTH:
+                return 1;
+            case DOW:
+                return dowFirst;
+            case YEAR:
+                return CronExpressionParser.MIN_YEAR;
+            default:
+                return 0;
+        }
+    }
+
+    /**
+     * @return The largest value of a part
+     */
+    private static int max(final CronExpressionPart part, final int dowFirst) {
+        switch (part) {
+            case SEC:
+            case MIN:
+                return 59;
+            case HOUR:
+                return 23;
+            case DOM:
+                return 31;
+            case MONTH:
+                return 12;
+            case DOW:
+                return dowFirst + 6;
+            default:
+                return CronExpressionParser.MAX_YEAR;
+        }
+    }
+
+    /**
+     * @return True if a generated day field restricts the days
+     */
+    private static boolean isRestricted(final String token) {
+        return !token.equals("*") && !token.equals("?");
+    }
+
+    //endregion
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+}
@@ -0,0 +1,76 @@
+package it.burning.cron;
+
+import it.burning.cron.CronExpressionGenerator.Profile;
+import it.burning.cron.CronExpressionGenerator.Sample;
+import it.burning.cron.CronExpressionParser.CronExpressionPart;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CronExpressionGeneratorTest {
+    @Test
+    void deterministic() {
+        assertArrayEquals(new CronExpressionGenerator(7).expressions(500), new CronExpressionGenerator(7).expressions(500));
+        assertFalse(new CronExpressionGenerator(7).expressions(500)[499].equals(new CronExpressionGenerator(8).expressions(500)[499]) &&
+                    new CronExpressionGenerator(7).expressions(500)[498].equals(new CronExpressionGenerator(8).expressions(500)[498]));
+    }
+
+    @Test
+    void valid() {
+        for (final Profile profile : new Profile[]{Profile.CRONTAB, Profile.UNIFORM}) {
+            final int[] partsCounts = new int[8];
+            final List<String> failures = new ArrayList<>();
+            for (final Sample sample : new CronExpressionGenerator(42, profile).samples(10_000)) {
+                try {
+                    final CronExpressionParser parser = new CronExpressionParser(sample.getExpression(), sample.getOptions(Locale.ENGLISH));
+                    parser.parse();
+                    partsCounts[parser.getPartsCount()]++;
+                    CronExpressionDescriptor.getDescription(sample.getExpression(), sample.getOptions(Locale.ENGLISH));
+                } catch (final RuntimeException e) {
+                    failures.add(sample + ": " + e.getMessage());
+                }
+            }
+
+            assertTrue(failures.isEmpty(), failures.size() + " invalid expressions, i.e. " + failures.subList(0, Math.min(40, failures.size())));
+            assertTrue(partsCounts[5] > 0 && partsCounts[6] > 0 && partsCounts[7] > 0);
+        }
+    }
+
+    @Test
+    void coverage() {
+        // Every form shows up in a uniform corpus
+        final StringBuilder corpus = new StringBuilder();
+        for (final String expression : new CronExpressionGenerator(42, Profile.UNIFORM).expressions(5_000)) {
+            corpus.append(expression).append('\n');
+        }
+
+        for (final String form : new String[]{"?", "*/", "0/", "1/", ",", "-", "L\n", "LW", "L-", "W ", "#", "L ", "jan", "Mon", "SATURDAY", "OCT", "2099"}) {
+            assertTrue(corpus.indexOf(form) >= 0, form);
+        }
+
+        // Shapes can be tuned: only single values of hours
+        for (final String expression : new CronExpressionGenerator(42, Profile.CRONTAB.withParts(1, 0, 0).withShapes(CronExpressionPart.HOUR, 0, 1)).expressions(1_000)) {
+            assertTrue(expression.split(" +")[1].matches("\\d+"), expression);
+        }
+    }
+
+    @Test
+    void nearMisses() {
+        int rejected = 0;
+        final List<Sample> samples = new CronExpressionGenerator(42, Profile.UNIFORM.withNearMisses(1)).samples(5_000);
+        for (final Sample sample : samples) {
+            assertTrue(sample.isNearMiss());
+            try {
+                new CronExpressionParser(sample.getExpression(), sample.getOptions(Locale.ENGLISH)).parse();
+            } catch (final RuntimeException e) {
+                rejected++;
+            }
+        }
+
+        assertTrue(rejected > samples.size() * 0.9, "Only " + rejected + " near misses rejected");
+    }
+}
@@ -0,0 +1,57 @@
+package it.burning.cron;
+
+import it.burning.cron.CronExpressionParser.Options;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class CronExpressionMinimizerTest {
+    @Test
+    void minimize() {
+        // Lists into steps and ranges
+        assertEquals("*/5 * * * *", CronExpressionMinimizer.minimize("0,5,10,15,20,25,30,35,40,45,50,55 * * * *"));
+        assertEquals("0 9 * * MON-FRI", CronExpressionMinimizer.minimize("0 9 * * 1,2,3,4,5"));
+        assertEquals("0 9-17 * * *", CronExpressionMinimizer.minimize("0 9,10,11,12,13,14,15,16,17 * * *"));
+        assertEquals("5/10 * * * *", CronExpressionMinimizer.minimize("5,15,25,35,45,55 * * * *"));
+        assertEquals("0 8/4 * * *", CronExpressionMinimizer.minimize("0 8,12,16,20 * * *"));
+        assertEquals("0-30/10 * * * *", CronExpressionMinimizer.minimize("0,10,20,30 * * * *"));
+        assertEquals("0 0 * * *", CronExpressionMinimizer.minimize("0 0 1-31 1,2,3,4,5,6,7,8,9,10,11,12 *"));
+        assertEquals("0,20,45 * * * *", CronExpressionMinimizer.minimize("45,0,20 * * * *"));
+
+        // Quartz expressions keep their seconds, years and '?'
+        assertEquals("0 0 12 ? * MON-FRI", CronExpressionMinimizer.minimize("0 0 12 ? * 2,3,4,5,6"));
+        assertEquals("0 0 12 * * ?", CronExpressionMinimizer.minimize("0 0 12 ? * *"));
+        assertEquals("0 15 10 ? * 6L 2002-2005", CronExpressionMinimizer.minimize("0 15 10 ? * FRIL 2002,2003,2004,2005"));
+        assertEquals("0 15 10 ? * 6#3", CronExpressionMinimizer.minimize("0 15 10 ? * 6#3"));
+        assertEquals("0 15 10 L-2 * ?", CronExpressionMinimizer.minimize("0 15 10 L-2 * ?"));
+        assertEquals("0 12 * * ? 2020/5", CronExpressionMinimizer.minimize("0 12 ? * * 2020/5"));
+
+        // 5 part expressions number the days of week from 0
+        assertEquals("0 12 * * 5L", CronExpressionMinimizer.minimize("0 12 * * 5L"));
+        assertEquals("0 0 13 ? * SUN", CronExpressionMinimizer.minimize("0 0 13 * * 7", new Options() {{
+            setUseJavaEeScheduleExpression(true);
+        }}));
+    }
+
+    @Test
+    void minimizePreservesSchedule() {
+        final List<String> expressions = Arrays.asList("0 0 12 * * ?", "0 15 10 ? * *", "0 15 10 * * ? 2005", "0 0/5 14,18 * * ?", "0 0-5 14 * * ?",
+                                                       "0/10 * ? * MON-FRI *", "0 10,44 14 ? 3 WED", "0 15 10 L * ?", "0 15 10 ? * 6L 2002-2005",
+                                                       "0 15 10 * 6", "0 0 12 1/5 * ?", "5/10 * * * *", "0 1/10 * * *", "0 12 ? JAN/2 MON/2 *",
+                                                       "0 12 ? * SUN,TUE,THU,SAT 1970/2", "* * * 1W * ?", "30 0 0 LW 1-6/2 ? 2030-2099/3");
+        for (final String expression : expressions) {
+            final String minimized = CronExpressionMinimizer.minimize(expression);
+            assertEquals(CronSchedule.compile(expression), CronSchedule.compile(minimized), expression + " => " + minimized);
+            assertEquals(minimized, CronExpressionMinimizer.minimize(minimized), "Minimizing is idempotent");
+        }
+    }
+
+    @Test
+    void minimizeAll() {
+        assertEquals(Arrays.asList("*/15 * * * *", "invalid", "*/15 * * * *", "0 9 * * MON-FRI"),
+                     CronExpressionMinimizer.minimizeAll(Arrays.asList("0,15,30,45 * * * *", "invalid", "0,15,30,45 * * * *", "0 9 * * 1-5"), null));
+    }
+}
@@ -2,12 +2,32 @@ package it.burning.cron;
 
 import it.burning.cron.CronExpressionParser.CronExpressionParseException;
 import it.burning.cron.CronExpressionParser.CronExpressionPart;
+import it.burning.cron.CronExpressionParser.ImmutableOptions;
+import it.burning.cron.CronExpressionParser.Options;
+import it.burning.cron.CronExpressionParser.Settings;
 import org.junit.jupiter.api.Test;
 
-import static org.junit.jupiter.api.Assertions.assertEquals;
-import static org.junit.jupiter.api.Assertions.assertThrows;
+import java.util.*;
+import java.util.regex.Pattern;
+
+import static it.burning.cron.CronExpressionParser.MAX_YEAR;
+import static it.burning.cron.CronExpressionParser.MIN_YEAR;
+import static org.junit.jupiter.api.Assertions.*;
 
 class CronExpressionParserTest {
+    // The validation patterns the parser used to match the normalized parts with, as reference for its syntaxes
+    private static final Pattern SECS_AND_MINS = Pattern.compile("^(?:\\*|^0)$|^(?:[0-5]?[0-9])$|^(?:(?:\\*|[0-5]?[0-9])/[0-5]?[0-9])$|^(?:([0-5]?[0-9],)*)(?:(?!^)[0-5]?[0-9])$|^(?:[0-5]?[0-9])-(?:[0-5]?[0-9])$|^(?:[0-5]?[0-9])-(?:[0-5]?[0-9])/(?:[0-5]?[0-9])$");
+    private static final Pattern HOURS         = Pattern.compile("^(?:\\*|^0)$|^(?:[0-1]?[0-9]|2?[0-3])$|^(?:(?:\\*|[0-1]?[0-9])|(?:2[0-3]))/(?:(?:[0-1]?[0-9])|(?:2[0-3]))$|^(?:(?:[0-1]?[0-9],)|(?:2[0-3],))*(?:(?:(?!^)[0-1]?[0-9])|(?:(?!^)2[0-3]))$|^(?:(?:[0-1]?[0-9])|(?:2[0-3]))-(?:(?:[0-1]?[0-9])|(?:2[0-3]))$|^(?:(?:[0-1]?[0-9])|(?:2[0-3]))-(?:(?:[0-1]?[0-9])|(?:2[0-3]))/(?:(?:[0-1]?[0-9])|(?:2[0-3]))$");
+    private static final Pattern DOM           = Pattern.compile("^(?:\\*)$|^(?:[1-9]|1[0-9]|2[0-9]|3[0-1])$|^(?:\\*|[1-9]|1[0-9]|2[0-9]|3[0-1])/(?:[0-9]|1[0-9]|2[0-9]|3[0-1])$|^(?:(?:[1-9],)|(?:1[0-9],)|(?:2[0-9],)|(?:3[0-1],))+(?:(?:[1-9])|(?:1[0-9])|(?:2[0-9])|(?:3[0-1]))$|^(?:(?:[1-9]|1[0-9]|2[0-9]|3[0-1])-(?:[1-9]|1[0-9]|2[0-9]|3[0-1]))$|^(?:(?:[1-9]|1[0-9]|2[0-9]|3[0-1])-(?:[1-9]|1[0-9]|2[0-9]|3[0-1]))/(?:[0-9]|1[0-9]|2[0-9]|3[0-1])$|^(?:(?:L)|(?:LW)|(?:L)-(?:[1-9]|1[0-9]|2[0-9]|30)|(?:(?:[1-9]|1[0-9]|2[0-9]|3[0-1])W))$");
+    private static final Pattern MONTHS        = Pattern.compile("^(?:\\*)$|^(?:[1-9]|1[0-2])$|^(?:\\*|[1-9]|1[0-2])/(?:[0-9]|1[0-2])$|^(?:[1-9],|1[0-2],)*(?:(?!^)[1-9]|(?!^)1[0-2])$|^(?:[1-9]|1[0-2])-(?:[1-9]|1[0-2])$|^(?:[1-9]|1[0-2])-(?:[1-9]|1[0-2])/(?:[0-9]|1[0-2])$");
+    private static final Pattern DOW           = Pattern.compile("^(?:\\*)$|^(?:[0-6])$|^(?:\\*|[0-6])/(?:[0-6])$|^(?:[0-6],)*(?:(?!^)[0-6])$|^(?:[0-6])-(?:[0-6])$|^(?:[0-6])-(?:[0-6])/(?:[0-7])$|^(?:[0-6]L)$|^(?:[0-6]#[1-5])$");
+    private static final Pattern YEARS         = Pattern.compile("^(?:\\*)$|^\\d{4}$|^(?:\\*|\\d{4})/(?:\\d{1,3})$|^(?:\\d{4},)*(?:(?!^)\\d{4})$|^(?:\\d{4})-(?:\\d{4})$|^(?:\\d{4})-(?:\\d{4})/(?:\\d{1,3})$");
+
+    // Characters and tokens the syntaxes are checked on
+    private static final String   CHARACTERS = "0123569*/-,LW#x";
+    private static final String[] TOKENS     = {"*", "/", "-", ",", "L", "W", "#", "0", "1", "2", "3", "5", "6", "7", "9", "00", "05", "10", "12", "13", "23", "24", "30", "31", "32",
+                                                "59", "60", "123", "1970", "2099", "0999", "12345"};
+
     CronExpressionParseException exception;
 
     @Test
@@ -133,6 +153,10 @@ class CronExpressionParserTest {
         assertEquals(CronExpressionPart.YEAR, exception.getPart());
         assertEquals("The expression describing the YEAR field is not in a valid format", exception.getMessage());
 
+        exception = assertThrows(CronExpressionParseException.class, () -> new CronExpressionParser("* * * ? * * 2019,2120").parse(), "");
+        assertEquals(CronExpressionPart.YEAR, exception.getPart());
+        assertEquals("The expression describing the YEAR field is not in a valid format. Accepted year values are 1970-2099", exception.getMessage());
+
         // Test valid parse
         final String[] parsed = new CronExpressionParser("5 0/3 9 2 DEC,JAN,MAR ? 2020").parse();
         assertEquals("5", parsed[0], "Second should be 5");
@@ -142,5 +166,313 @@ class CronExpressionParserTest {
         assertEquals("12,1,3", parsed[4], "Month should be 12,1,3");
         assertEquals("*", parsed[5], "DoM should be *");
         assertEquals("2020", parsed[6], "Year should be 2020");
+        assertEquals("2019,2020", new CronExpressionParser("5 0/3 9 2 DEC,JAN,MAR ? 2019,2020").parse()[6], "Year should be 2019,2020");
+
+        // Steps with extra slashes (found by fuzzing)
+        exception = assertThrows(CronExpressionParseException.class, () -> new CronExpressionParser("0 0 12 ? /11/2 3-6").parse(), "A step with an extra leading slash should throw an exception");
+        assertEquals(CronExpressionPart.MONTH, exception.getPart());
+        exception = assertThrows(CronExpressionParseException.class, () -> new CronExpressionParser("0 0 12 ? * 0/5/").parse(), "A step with a trailing slash should throw an exception");
+        assertEquals(CronExpressionPart.DOW, exception.getPart());
+    }
+
+    @Test
+    void names() {
+        // Lists and ranges of names, in any case and in full
+        assertEquals("1-5", new CronExpressionParser("0 0 12 ? * MON-FRI").parse()[5]);
+        assertEquals("1-5", new CronExpressionParser("0 0 12 ? * monday-Friday").parse()[5]);
+        assertEquals("0,6", new CronExpressionParser("0 0 12 ? * SUNDAY,sat").parse()[5]);
+        assertEquals("5L", new CronExpressionParser("0 0 12 ? * friL").parse()[5]);
+        assertEquals("1-3", new CronExpressionParser("0 0 12 ? JANUARY-Mar *").parse()[4]);
+        assertEquals("1,7", new CronExpressionParser("0 12 * jan,JULY *").parse()[4]);
+        assertEquals("9-12/2", new CronExpressionParser("0 12 * SEP-dec/2 *").parse()[4]);
+
+        // Names compile to the same schedules as their numbers
+        assertEquals(CronSchedule.compile("0 0 12 ? 1-3 2-6"), CronSchedule.compile("0 0 12 ? january-MARCH Monday-fri"));
+        assertEquals(CronSchedule.compile("0 12 * 6,7 0,6"), CronSchedule.compile("0 12 * Jun,JUL sunday,SATURDAY"));
+    }
+
+    @Test
+    void optionsSnapshot() {
+        final Options options = new Options(false, true, false, true, Locale.ITALIAN);
+        final ImmutableOptions snapshot = options.snapshot();
+        assertAll("The snapshot should copy every option",
+                () -> assertFalse(snapshot.isThrowExceptionOnParseError()),
+                () -> assertTrue(snapshot.isVerbose()),
+                () -> assertFalse(snapshot.isUse24HourTimeFormat()),
+                () -> assertTrue(snapshot.isUseJavaEeScheduleExpression()),
+                () -> assertEquals(Locale.ITALIAN, snapshot.getLocale()),
+                () -> assertSame(snapshot, snapshot.snapshot())
+        );
+
+        // Changing the original options does not affect the snapshot
+        options.setLocale(Locale.GERMAN);
+        assertEquals(Locale.ITALIAN, snapshot.getLocale());
+
+        // Snapshots are not options (they have no setters), but can be copied into options whose setters all work
+        final Settings settings = snapshot;
+        assertFalse(settings instanceof Options);
+
+        final Options copy = new Options(snapshot);
+        copy.setLocale(Locale.GERMAN);
+        copy.setLocale("de");
+        copy.setThrowExceptionOnParseError(true);
+        assertEquals(Locale.GERMAN, copy.getLocale());
+        assertTrue(copy.isThrowExceptionOnParseError());
+        assertEquals(Locale.ITALIAN, snapshot.getLocale());
+        assertTrue(copy.isVerbose());
+
+        // The hash key is copied too
+        copy.setHashKey("job");
+        assertEquals("job", copy.snapshot().getHashKey());
+        assertEquals("job", new Options(copy.snapshot()).getHashKey());
+    }
+
+    @Test
+    void optionsSnapshotParsing() {
+        // The parser reads the settings of snapshots, not the fields of the options they were taken from
+        final Options javaEe = new Options(true, false, true, true, Locale.ENGLISH);
+        assertArrayEquals(new CronExpressionParser("0 0 13 * * 7", javaEe).parse(), new CronExpressionParser("0 0 13 * * 7", javaEe.snapshot()).parse());
+        assertEquals("0", new CronExpressionParser("0 0 13 * * 7", javaEe.snapshot()).parse()[5]);
+        assertEquals(CronExpressionDescriptor.getDescription("0 0 13 * * 7", javaEe), CronExpressionDescriptor.getDescription("0 0 13 * * 7", javaEe.snapshot()));
+
+        final ImmutableOptions throwing = new Options(true, false, true, false, Locale.ENGLISH).snapshot();
+        final CronExpressionParseException e = assertThrows(CronExpressionParseException.class, () -> new CronExpressionParser("0 0 0 1 1 ? 2020 5", throwing).parse());
+        assertEquals(CronExpressionPart.ALL, e.getPart());
+    }
+
+    @Test
+    void optionsProfiles() {
+        // Options with the same settings are equal, mutable or not, and give the same snapshot
+        final Options options = new Options(false, true, false, true, Locale.ITALIAN);
+        options.setHashKey("job");
+        final ImmutableOptions built = ImmutableOptions.builder()
+                                                       .throwExceptionOnParseError(false)
+                                                       .verbose(true)
+                                                       .use24HourTimeFormat(false)
+                                                       .useJavaEeScheduleExpression(true)
+                                                       .locale(Locale.ITALIAN)
+                                                       .hashKey("job")
+                                                       .build();
+        assertEquals(options, built);
+        assertEquals(built, options);
+        assertEquals(options.hashCode(), built.hashCode());
+        assertSame(built, options.snapshot());
+        assertSame(built, new Options(built).snapshot());
+        assertSame(built, built.toBuilder().build());
+        assertSame(CronExpressionDescriptor.getDefaultOptions(), ImmutableOptions.builder().locale(CronExpressionDescriptor.getDefaultOptions().getLocale()).build());
+
+        // Every setting tells profiles apart
+        final List<ImmutableOptions> different = Arrays.asList(
+                built.toBuilder().throwExceptionOnParseError(true).build(),
+                built.toBuilder().verbose(false).build(),
+                built.toBuilder().use24HourTimeFormat(true).build(),
+                built.toBuilder().useJavaEeScheduleExpression(false).build(),
+                built.toBuilder().locale(Locale.GERMAN).build(),
+                built.toBuilder().hashKey("other job").build(),
+                built.toBuilder().hashKey(null).build(),
+                built.toBuilder().maxExpressionLength(100).build(),
+                built.toBuilder().maxListSize(10).build()
+        );
+        for (final ImmutableOptions profile : different) {
+            assertNotEquals(built, profile);
+            assertNotSame(built, profile);
+            assertSame(profile, new Options(profile).snapshot());
+        }
+
+        final Set<Settings> profiles = new HashSet<>(different);
+        profiles.add(options);
+        assertEquals(different.size() + 1, profiles.size());
+        assertThrows(IllegalArgumentException.class, () -> ImmutableOptions.builder().maxListSize(0));
+
+        // Builders start from a copy, and never change the options they started from
+        final ImmutableOptions.Builder builder = options.toBuilder();
+        builder.locale(Locale.GERMAN);
+        assertEquals(Locale.ITALIAN, options.getLocale());
+        assertEquals(Locale.GERMAN, builder.build().getLocale());
+
+        // The localization is resolved once per published version
+        assertSame(built.getLocalization(), built.getLocalization());
+        assertEquals(Locale.ITALIAN, built.getLocalization().getLocale());
+    }
+
+    @Test
+    void optionsInterning() throws InterruptedException {
+        // Profiles no longer referenced are dropped from the interned ones
+        final ImmutableOptions kept = ImmutableOptions.builder().hashKey("kept").build();
+        for (int i = 0; i < 10_000; i++) {
+            ImmutableOptions.builder().hashKey("job " + i).build();
+        }
+
+        for (int attempt = 0; attempt < 50 && ImmutableOptions.internedCount() > 5_000; attempt++) {
+            System.gc();
+            Thread.sleep(20);
+            ImmutableOptions.builder().hashKey("collected").build();
+        }
+
+        assertTrue(ImmutableOptions.internedCount() <= 5_000);
+        assertSame(kept, ImmutableOptions.builder().hashKey("kept").build());
+    }
+
+    @Test
+    void hash() {
+        // H is rejected without a hash key
+        assertThrows(CronExpressionParseException.class, () -> new CronExpressionParser("H * * * *").parse());
+
+        // Every field, resolved to values within its range (days of month up to 28) which only depend on the key
+        final Set<String> minutes = new HashSet<>();
+        final Set<String> days = new HashSet<>();
+        for (int i = 0; i < 1000; i++) {
+            final Options options = new Options(true, false, true, false, Locale.ENGLISH);
+            options.setHashKey("job-" + i);
+            final String[] parsed = new CronExpressionParser("H H H H H ? H", options).parse();
+            assertTrue(parsed[0].isEmpty() || Integer.parseInt(parsed[0]) <= 59);
+            assertTrue(Integer.parseInt(parsed[1]) <= 59);
+            assertTrue(Integer.parseInt(parsed[2]) <= 23);
+            assertTrue(Integer.parseInt(parsed[3]) >= 1 && Integer.parseInt(parsed[3]) <= 28);
+            assertTrue(Integer.parseInt(parsed[4]) >= 1 && Integer.parseInt(parsed[4]) <= 12);
+            assertTrue(Integer.parseInt(parsed[6]) >= MIN_YEAR && Integer.parseInt(parsed[6]) <= MAX_YEAR);
+            assertArrayEquals(parsed, new CronExpressionParser("H H H H H ? H", options).parse());
+            assertEquals(parsed[1], new CronExpressionParser("H * * * *", options).parse()[1]);
+            minutes.add(parsed[1]);
+            days.add(parsed[3]);
+
+            // Steps start within the first step, days of week follow the numbering of the expression
+            final String[] steps = new CronExpressionParser("H/15 H(9-17)/4 * * H", options).parse();
+            assertTrue(steps[1].matches("(\\d|1[0-4])-59/15"), steps[1]);
+            assertTrue(steps[2].matches("(9|1[0-2])-17/4"), steps[2]);
+            assertTrue(steps[5].matches("[0-6]"), steps[5]);
+            assertEquals(steps[5], new CronExpressionParser("0 0 0 ? * H", options).parse()[5]);
+            assertTrue(Integer.parseInt(new CronExpressionParser("0 H(10-20) * * *", options).parse()[2]) >= 10);
+        }
+
+        // Spread over the whole range
+        assertEquals(60, minutes.size());
+        assertEquals(28, days.size());
+
+        // Invalid ranges, steps and lists
+        final Options options = new Options(true, false, true, false, Locale.ENGLISH);
+        options.setHashKey("job");
+        for (final String expression : Arrays.asList("H(0-60) * * * *", "H(30-10) * * * *", "H/0 * * * *", "H,5 * * * *", "H(1) * * * *", "Hx * * * *", "0 0 H(0-5) * *",
+                                                     "0 0 12 ? * H(0-6)", "0 0 12 * * ? H(1960-2020)")) {
+            exception = assertThrows(CronExpressionParseException.class, () -> new CronExpressionParser(expression, options).parse(), expression);
+        }
+
+        exception = assertThrows(CronExpressionParseException.class, () -> new CronExpressionParser("0 H(0-24) * * *", options).parse());
+        assertEquals(CronExpressionPart.HOUR, exception.getPart());
+
+        // Names containing an H are not mistaken for it
+        assertEquals("4", new CronExpressionParser("0 12 * * THU", options).parse()[5]);
+    }
+
+    @Test
+    void localizedErrors() {
+        // Error messages use the locale of the options
+        exception = assertThrows(CronExpressionParseException.class, () -> new CronExpressionParser("0 0 25 * * ?", new Options(true, false, true, false, Locale.ITALIAN)).parse(), "");
+        assertEquals(CronExpressionPart.HOUR, exception.getPart());
+        assertNotEquals("The expression describing the HOUR field is not in a valid format", exception.getMessage());
+
+        exception = assertThrows(CronExpressionParseException.class, () -> new CronExpressionParser("0 0 25 * * ?", new Options(true, false, true, false, Locale.ENGLISH)).parse(), "");
+        assertEquals("The expression describing the HOUR field is not in a valid format", exception.getMessage());
+    }
+
+    @Test
+    void syntaxes() {
+        // The syntaxes accept the very same parts as the patterns they replace: every part of up to 4 characters, and
+        // random sequences of tokens
+        final Map<CronExpressionParser.PartSyntax, Pattern> syntaxes = new LinkedHashMap<>();
+        syntaxes.put(CronExpressionParser.secsAndMinsSyntax, SECS_AND_MINS);
+        syntaxes.put(CronExpressionParser.hoursSyntax, HOURS);
+        syntaxes.put(CronExpressionParser.domSyntax, DOM);
+        syntaxes.put(CronExpressionParser.monthsSyntax, MONTHS);
+        syntaxes.put(CronExpressionParser.dowSyntax, DOW);
+        syntaxes.put(CronExpressionParser.yearsSyntax, YEARS);
+
+        final List<String> parts = new ArrayList<>(Collections.singletonList(""));
+        for (int length = 1, from = 0; length <= 4; length++) {
+            final int to = parts.size();
+            for (int i = from; i < to; i++) {
+                for (final char c : CHARACTERS.toCharArray()) {
+                    parts.add(parts.get(i) + c);
+                }
+            }
+
+            from = to;
+        }
+
+        final Random random = new Random(42);
+        for (int i = 0; i < 200_000; i++) {
+            final StringBuilder part = new StringBuilder();
+            for (int tokens = 1 + random.nextInt(7); tokens > 0; tokens--) {
+                part.append(TOKENS[random.nextInt(TOKENS.length)]);
+            }
+
+            parts.add(part.toString());
+        }
+
+        final List<String> mismatches = new ArrayList<>();
+        int matched = 0;
+        for (final Map.Entry<CronExpressionParser.PartSyntax, Pattern> syntax : syntaxes.entrySet()) {
+            for (final String part : parts) {
+                final boolean expected = syntax.getValue().matcher(part).matches();
+                if (expected != syntax.getKey().matches(part)) {
+                    mismatches.add(syntax.getValue() + ": \"" + part + "\" " + expected);
+                } else if (expected) {
+                    matched++;
+                }
+            }
+        }
+
+        assertTrue(matched > 10_000, "Too few valid parts: " + matched);
+        assertTrue(mismatches.isEmpty(), mismatches.size() + " mismatches, i.e. " + mismatches.subList(0, Math.min(20, mismatches.size())));
+    }
+
+    @Test
+    void limits() {
+        // Expressions and lists longer than the limits are rejected before being parsed
+        final String minutes = list(Options.DEFAULT_MAX_LIST_SIZE, 60);
+        assertEquals(Options.DEFAULT_MAX_LIST_SIZE, new CronExpressionParser("0 " + minutes + " * * * ?").parse()[1].split(",").length);
+        exception = assertThrows(CronExpressionParseException.class, () -> new CronExpressionParser("0 " + minutes + ",1 * * * ?").parse());
+        assertEquals(CronExpressionPart.MIN, exception.getPart());
+        assertEquals("The expression describing the MINUTE field lists more than 256 values", exception.getMessage());
+
+        final String expression = "0 0 12 * * ?" + new String(new char[Options.DEFAULT_MAX_EXPRESSION_LENGTH]).replace('\0', ' ');
+        exception = assertThrows(CronExpressionParseException.class, () -> new CronExpressionParser(expression).parse());
+        assertEquals(CronExpressionPart.ALL, exception.getPart());
+        assertEquals("The cron expression has [1036] characters. Expressions must not be longer than 1024 characters.", exception.getMessage());
+
+        // Limits can be lowered, or raised as far as needed: parts are checked in linear time, lists of any size included
+        final Options options = new Options();
+        options.setMaxListSize(3);
+        assertEquals("1,2,3", new CronExpressionParser("0 0 1,2,3 * * ?", options).parse()[2]);
+        exception = assertThrows(CronExpressionParseException.class, () -> new CronExpressionParser("0 0 12 * * ? 2020,2021,2022,2023", options).parse());
+        assertEquals(CronExpressionPart.YEAR, exception.getPart());
+
+        options.setMaxListSize(Integer.MAX_VALUE);
+        options.setMaxExpressionLength(Integer.MAX_VALUE);
+        final String hours = list(100_000, 24);
+        assertEquals(hours.length(), new CronExpressionParser("0 0 " + hours + " * * ?", options).parse()[2].length());
+        exception = assertThrows(CronExpressionParseException.class, () -> new CronExpressionParser("0 0 " + hours + ",24 * * ?", options).parse());
+        assertEquals(CronExpressionPart.HOUR, exception.getPart());
+
+        // Limits are copied and must be positive
+        assertEquals(Integer.MAX_VALUE, options.snapshot().getMaxListSize());
+        assertEquals(Integer.MAX_VALUE, new Options(options.snapshot()).getMaxExpressionLength());
+        final ImmutableOptions limits = options.snapshot();
+        options.setMaxListSize(10);
+        assertEquals(Integer.MAX_VALUE, limits.getMaxListSize());
+        assertThrows(IllegalArgumentException.class, () -> options.setMaxListSize(0));
+        assertThrows(IllegalArgumentException.class, () -> options.setMaxExpressionLength(-1));
+    }
+
+    /**
+     * @return A list of the given number of values, from 0 to the modulo (excluded) and over again
+     */
+    static String list(final int values, final int modulo) {
+        final StringBuilder list = new StringBuilder();
+        for (int i = 0; i < values; i++) {
+            list.append(i > 0 ? "," : "").append(i % modulo);
+        }
+
+        return list.toString();
     }
-}
\ No newline at end of file
+}
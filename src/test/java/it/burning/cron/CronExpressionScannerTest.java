@@ -0,0 +1,199 @@
+package it.burning.cron;
+
+import it.burning.cron.CronExpressionGenerator.Profile;
+import it.burning.cron.CronExpressionGenerator.Sample;
+import it.burning.cron.CronExpressionParser.CronExpressionParseException;
+import it.burning.cron.CronExpressionParser.CronExpressionPart;
+import it.burning.cron.CronExpressionParser.ImmutableOptions;
+import it.burning.cron.CronExpressionParser.Options;
+import it.burning.cron.CronExpressionScanner.Fields;
+import org.junit.jupiter.api.Test;
+
+import java.nio.CharBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CronExpressionScannerTest {
+    // Field variants, valid and not, used to build expressions of every shape
+    private static final String[] TIME_TOKENS  = {"*", "0", "5", "07", "59", "60", "23", "24", "*/5", "0/15", "3/20", "10-20", "10-20/3", "20-10", "1,2,3", "1-5,7", "*/1", "*/0", "/5", "5/", "5-", ",5", "a", "100"};
+    private static final String[] DOM_TOKENS   = {"*", "?", "1", "15", "31", "32", "0", "01", "1/5", "1/1", "*/1", "?/2", "5/10", "1-15", "10-5/2", "L", "LW", "WL", "L-3", "L-31", "15W", "W", "1,15,31", "*/32", "L-"};
+    private static final String[] MONTH_TOKENS = {"*", "1", "12", "13", "JAN", "DEC", "jan", "JAN-MAR", "MAR/2", "1/3", "*/2", "2-11/3", "JAN,JUL", "FEB-DEC/13", "JANUARY", "?", "3/13", "02/4", "3/08"};
+    private static final String[] DOW_TOKENS   = {"*", "?", "0", "1", "6", "7", "8", "MON", "MON-FRI", "SUN,SAT", "1-5", "0-7", "1/2", "2/2", "*/2", "*/7", "2/7", "1-5/7", "6L", "FRIL", "L", "6#3", "FRI#2", "6#6", "1,3,5", "10", "mon", "2/05", "02/1", "*/02", "/SUN"};
+    private static final String[] YEAR_TOKENS  = {"*", "2020", "1969", "2100", "2019-2021", "2019,2020", "*/5", "1/5", "2020/4", "2020-2030/2", "*/130", "20", "2020-2030-2040", "02015/4"};
+
+    @Test
+    void parse() {
+        final CronExpressionScanner scanner = new CronExpressionScanner();
+        final Fields fields = new Fields();
+
+        // Slice of a larger buffer, with tabs and runs of spaces
+        final String line = "# daily\n0 \t 0/5  14,18 * *  ? \t  /usr/bin/backup";
+        final int start = line.indexOf('\n') + 1;
+        final int end = line.indexOf("/usr") - 1;
+        scanner.parse(line, start, end, fields);
+        assertEquals(6, fields.getPartsCount());
+        assertEquals("0/5", line.substring(fields.getStart(CronExpressionPart.MIN), fields.getEnd(CronExpressionPart.MIN)));
+        assertEquals("?", line.substring(fields.getStart(CronExpressionPart.DOW), fields.getEnd(CronExpressionPart.DOW)));
+        assertFalse(fields.hasPart(CronExpressionPart.YEAR));
+        assertEquals(CronSchedule.compile("0 0/5 14,18 * * ?"), fields.toSchedule());
+
+        // Any CharSequence can be read, the holder is reused
+        scanner.parse(CharBuffer.wrap("15 10 ? * MON-FRI 2020".toCharArray()), fields);
+        assertFalse(fields.hasPart(CronExpressionPart.SEC));
+        assertEquals("2020", "15 10 ? * MON-FRI 2020".substring(fields.getStart(CronExpressionPart.YEAR), fields.getEnd(CronExpressionPart.YEAR)));
+        assertEquals(0b0111110, fields.getDaysOfWeek());
+        assertTrue(fields.hasYear(2020));
+        assertFalse(fields.hasYear(2021));
+        assertEquals(CronSchedule.compile("15 10 ? * MON-FRI 2020"), fields.toSchedule());
+
+        scanner.parse("0 15 10 ? * 6#3", fields);
+        assertEquals(5, fields.getNthDayOfWeek());
+        assertEquals(3, fields.getNthOccurrence());
+        assertFalse(fields.isDayOfMonthRestricted());
+
+        // Java EE numbers days of week from 0 even with seconds
+        assertEquals(0b10, new CronExpressionScanner(new Options() {{
+            setUseJavaEeScheduleExpression(true);
+        }}).parse("0 0 13 * * 1", fields).getDaysOfWeek());
+    }
+
+    @Test
+    void errors() {
+        final CronExpressionScanner scanner = new CronExpressionScanner(new Options(true, false, true, false, Locale.ENGLISH));
+        final Fields fields = new Fields();
+
+        CronExpressionParseException exception = assertThrows(CronExpressionParseException.class, () -> scanner.parse("xx * * *\t* *", 3, 8, fields));
+        assertEquals(CronExpressionPart.ALL, exception.getPart());
+        assertEquals("The cron expression \"* * *\" only has [3] parts. At least 5 parts are required.", exception.getMessage());
+
+        exception = assertThrows(CronExpressionParseException.class, () -> scanner.parse("* * * * * * * *", fields));
+        assertEquals(CronExpressionPart.ALL, exception.getPart());
+
+        exception = assertThrows(CronExpressionParseException.class, () -> scanner.parse("0 0 12 1 * MON", fields));
+        assertEquals(CronExpressionPart.ALL, exception.getPart());
+
+        exception = assertThrows(CronExpressionParseException.class, () -> scanner.parse("0 0 25 * * ?", fields));
+        assertEquals(CronExpressionPart.HOUR, exception.getPart());
+        assertEquals("The expression describing the HOUR field is not in a valid format", exception.getMessage());
+
+        exception = assertThrows(CronExpressionParseException.class, () -> scanner.parse("0 0 12 * * ? 2100", fields));
+        assertEquals(CronExpressionPart.YEAR, exception.getPart());
+        assertEquals("The expression describing the YEAR field is not in a valid format. Accepted year values are 1970-2099", exception.getMessage());
+    }
+
+    @Test
+    void limits() {
+        // The limits of the options, with the same messages as the parser
+        final Fields fields = new Fields();
+        final String minutes = CronExpressionParserTest.list(Options.DEFAULT_MAX_LIST_SIZE, 60);
+        assertEquals(-1L >>> 4, new CronExpressionScanner().parse("0 " + minutes + " * * * ?", fields).getMinutes());
+        for (final String expression : new String[]{"0 " + minutes + ",1 * * * ?", "0 0 12 * * ?" + new String(new char[Options.DEFAULT_MAX_EXPRESSION_LENGTH]).replace('\0', ' ')}) {
+            final CronExpressionParseException expected = assertThrows(CronExpressionParseException.class, () -> new CronExpressionParser(expression).parse());
+            final CronExpressionParseException exception = assertThrows(CronExpressionParseException.class, () -> new CronExpressionScanner().parse(expression, fields));
+            assertEquals(expected.getPart(), exception.getPart());
+            assertEquals(expected.getMessage(), exception.getMessage());
+        }
+
+        // Lists of any size are scanned in linear time once the limits are raised
+        final Options options = new Options();
+        options.setMaxListSize(Integer.MAX_VALUE);
+        options.setMaxExpressionLength(Integer.MAX_VALUE);
+        final String hours = CronExpressionParserTest.list(100_000, 24);
+        assertEquals(0xFFFFFF, new CronExpressionScanner(options).parse("0 0 " + hours + " * * ?", fields).getHours());
+        assertThrows(CronExpressionParseException.class, () -> new CronExpressionScanner(options).parse("0 0 " + hours + ",24 * * ?", fields));
+    }
+
+    @Test
+    void sameAsParser() {
+        final Random random = new Random(42);
+        final Options[] options = new Options[]{new Options(), new Options() {{
+            setUseJavaEeScheduleExpression(true);
+        }}};
+
+        final Fields fields = new Fields();
+        final List<String> mismatches = new ArrayList<>();
+        int valid = 0;
+        for (int i = 0; i < 50_000; i++) {
+            final int parts = 5 + random.nextInt(3);
+            final StringBuilder expression = new StringBuilder();
+            if (parts == 7 || (parts == 6 && random.nextBoolean())) {
+                expression.append(pick(random, TIME_TOKENS)).append(' ');
+            }
+
+            expression.append(pick(random, TIME_TOKENS)).append(' ')
+                      .append(pick(random, TIME_TOKENS)).append(' ')
+                      .append(pick(random, DOM_TOKENS)).append(' ')
+                      .append(pick(random, MONTH_TOKENS)).append(' ')
+                      .append(pick(random, DOW_TOKENS));
+
+            if (parts == 7 || (parts == 6 && expression.chars().filter(c -> c == ' ').count() == 4)) {
+                expression.append(' ').append(pick(random, YEAR_TOKENS));
+            }
+
+            final Options option = options[random.nextInt(options.length)];
+            CronSchedule expected;
+            try {
+                expected = CronSchedule.fromParts(new CronExpressionParser(expression.toString(), option).parse());
+            } catch (final RuntimeException e) {
+                expected = null;
+            }
+
+            CronSchedule actual;
+            try {
+                actual = new CronExpressionScanner(option).parse(expression, fields).toSchedule();
+            } catch (final CronExpressionParseException e) {
+                actual = null;
+            }
+
+            if (expected != null) {
+                valid++;
+            }
+
+            if (expected == null ? actual != null : !expected.equals(actual)) {
+                mismatches.add(expression + (option.isUseJavaEeScheduleExpression() ? " (JEE)" : "") + ": " + expected + " / " + actual);
+            }
+        }
+
+        assertTrue(valid > 1000, "Too few valid expressions: " + valid);
+        assertTrue(mismatches.isEmpty(), mismatches.size() + " mismatches, i.e. " + mismatches.subList(0, Math.min(40, mismatches.size())));
+    }
+
+    @Test
+    void sameAsParserOnGeneratedExpressions() {
+        // Several seeds, as disagreements on rare forms (i.e. zero padded steps) only show up in a few samples of each
+        final Fields fields = new Fields();
+        final List<String> mismatches = new ArrayList<>();
+        for (int seed = 1; seed <= 20; seed++) {
+            for (final Sample sample : new CronExpressionGenerator(seed, Profile.UNIFORM.withNearMisses(0.3)).samples(20_000)) {
+                final ImmutableOptions options = sample.getOptions(Locale.ENGLISH);
+                CronSchedule expected;
+                try {
+                    expected = CronSchedule.fromParts(new CronExpressionParser(sample.getExpression(), options).parse());
+                } catch (final RuntimeException e) {
+                    expected = null;
+                }
+
+                CronSchedule actual;
+                try {
+                    actual = new CronExpressionScanner(options).parse(sample.getExpression(), fields).toSchedule();
+                } catch (final CronExpressionParseException e) {
+                    actual = null;
+                }
+
+                if (expected == null ? actual != null : !expected.equals(actual)) {
+                    mismatches.add(sample + ": " + expected + " / " + actual);
+                }
+            }
+        }
+
+        assertTrue(mismatches.isEmpty(), mismatches.size() + " mismatches, i.e. " + mismatches.subList(0, Math.min(40, mismatches.size())));
+    }
+
+    private static String pick(final Random random, final String[] tokens) {
+        return tokens[random.nextInt(tokens.length)];
+    }
+}
@@ -0,0 +1,84 @@
+package it.burning.cron;
+
+import it.burning.cron.CronFiringTimeline.Hotspot;
+import it.burning.cron.CronFiringTimeline.Resolution;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CronFiringTimelineTest {
+    // A week starting on Monday
+    static final LocalDateTime FROM = LocalDateTime.of(2020, 6, 15, 0, 0);
+    static final LocalDateTime TO   = FROM.plusWeeks(1);
+
+    @Test
+    void analyze() {
+        final CronFiringTimeline timeline = CronFiringTimeline.analyze(Arrays.asList("0 * * * *", "0 0 * * *", "*/30 * * * *", "0 9 * * MON-FRI"), FROM, TO, Resolution.MINUTE);
+        assertEquals(7 * 24 * 60, timeline.getBucketCount());
+        assertEquals(3, timeline.getFirings(0), "Midnight has the hourly, daily and half hourly schedules");
+        assertEquals(3, timeline.getFirings(9 * 60), "Monday at 09:00 has every schedule but the daily one");
+        assertEquals(1, timeline.getFirings(30));
+        assertEquals(0, timeline.getFirings(1));
+        assertEquals(168 + 7 + 336 + 5, timeline.getTotalFirings());
+        assertEquals(LocalDateTime.of(2020, 6, 15, 9, 0), timeline.getBucketStart(9 * 60));
+    }
+
+    @Test
+    void getHottest() {
+        final List<String> corpus = Arrays.asList("0 * * * *", "0 0 * * *", "0 * * * *", "*/30 * * * *", "0 9 * * MON-FRI", "0 0 * * * ?", "invalid");
+        final CronFiringTimeline timeline = CronFiringTimeline.analyze(corpus, FROM, TO, Resolution.MINUTE);
+        assertEquals(1, timeline.getRejected().size());
+        assertTrue(timeline.getRejected().containsKey(6));
+        assertEquals(4, timeline.getDistinctScheduleCount(), "'0 * * * *' and '0 0 * * * ?' are the same schedule");
+
+        final List<Hotspot> hottest = timeline.getHottest(3);
+        assertEquals(3, hottest.size());
+
+        // Monday midnight and 09:00 are tied as the hottest, then Tuesday midnight (earliest first)
+        assertEquals(LocalDateTime.of(2020, 6, 15, 0, 0), hottest.get(0).getStart());
+        assertEquals(5, hottest.get(0).getFirings());
+        assertArrayEquals(new int[]{0, 1, 2, 3, 5}, hottest.get(0).getContributorIndexes());
+
+        assertEquals(LocalDateTime.of(2020, 6, 15, 9, 0), hottest.get(1).getStart());
+        assertEquals(5, hottest.get(1).getFirings());
+        assertEquals(Arrays.asList("0 * * * *", "0 * * * *", "*/30 * * * *", "0 9 * * MON-FRI", "0 0 * * * ?"), hottest.get(1).getContributors());
+
+        assertEquals(LocalDateTime.of(2020, 6, 16, 0, 0), hottest.get(2).getStart());
+    }
+
+    @Test
+    void secondResolution() {
+        final LocalDateTime from = LocalDateTime.of(2020, 6, 15, 11, 59, 30);
+        final CronFiringTimeline timeline = CronFiringTimeline.analyze(Arrays.asList("*/10 * * * * ?", "0 0 12 * * ?"), from, from.plusMinutes(1), Resolution.SECOND);
+        assertEquals(60, timeline.getBucketCount());
+        assertEquals(1, timeline.getFirings(0));
+        assertEquals(0, timeline.getFirings(1));
+        assertEquals(2, timeline.getFirings(30));
+        assertEquals(6, timeline.getTotalFirings() - 1);
+
+        // Seconds are summed up when using a minute resolution
+        assertEquals(6, CronFiringTimeline.analyze(Arrays.asList("*/10 * * * * ?"), from, from.plusMinutes(1), Resolution.MINUTE).getFirings(0));
+    }
+
+    @Test
+    void largeCorpus() {
+        final List<String> corpus = new ArrayList<>();
+        for (int i = 0; i < 100_000; i++) {
+            corpus.add(String.format("%d %d * * %s", i % 60, (i / 60) % 24, i % 7 == 0 ? "MON-FRI" : "*"));
+        }
+
+        final CronFiringTimeline timeline = CronFiringTimeline.analyze(corpus, FROM, FROM.plusMonths(1), Resolution.MINUTE);
+        assertTrue(timeline.getRejected().isEmpty());
+        assertEquals(60 * 24 * 2, timeline.getDistinctScheduleCount());
+        assertEquals(100_000 / (60 * 24) + 1, timeline.getFirings(0), "Every expression fires once a day");
+        assertEquals(14_286 * 22 + 85_714 * 30, timeline.getTotalFirings(), "30 days, 22 of which are weekdays");
+
+        final Hotspot hottest = timeline.getHottest(1).get(0);
+        assertEquals(hottest.getFirings(), hottest.getContributorIndexes().length);
+    }
+}
@@ -0,0 +1,84 @@
+package it.burning.cron;
+
+import it.burning.cron.CronExpressionParser.CronExpressionParseException;
+import it.burning.cron.CronExpressionParser.Options;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CronFlightRecorderTest {
+    @Test
+    void events() throws IOException {
+        final Path file = Files.createTempFile("cron", ".jfr");
+        try (final Recording recording = new Recording()) {
+            recording.enable("it.burning.cron.Parse");
+            recording.enable("it.burning.cron.Describe");
+            recording.enable("it.burning.cron.MissingLocalization");
+            recording.start();
+
+            CronInstrumentation.install(new CronFlightRecorder());
+            try {
+                CronExpressionDescriptor.getDescription("0 0 12 * * ?", new Options(true, false, true, false, Locale.ITALIAN));
+                assertThrows(CronExpressionParseException.class, () -> new CronExpressionParser("0 0 25 * * ?").parse());
+                assertThrows(CronExpressionParseException.class, () -> CronExpressionDescriptor.getDescription("0 0 26 * * ?", new Options()));
+                new CronExpressionDescriptor("* * * * *", new Options()).getString("NoSuchKey");
+            } finally {
+                CronInstrumentation.install(null);
+            }
+
+            recording.stop();
+            recording.dump(file);
+
+            final List<RecordedEvent> events = RecordingFile.readAllEvents(file).stream()
+                                                            .filter(event -> event.getEventType().getName().startsWith("it.burning.cron."))
+                                                            .collect(Collectors.toList());
+            assertEquals(6, events.size());
+
+            // Events span the work: the describe event covers the parse of its expression
+            final List<RecordedEvent> describes = filter(events, "it.burning.cron.Describe");
+            final List<RecordedEvent> parses = filter(events, "it.burning.cron.Parse");
+            assertEquals(2, describes.size());
+            assertEquals(3, parses.size());
+
+            final RecordedEvent describe = describes.get(0);
+            assertEquals("0 0 12 * * ?", describe.getString("expression"));
+            assertEquals("FULL", describe.getString("type"));
+            assertEquals("it", describe.getString("locale"));
+            assertTrue(describe.getDuration().toNanos() > 0);
+            assertNull(parses.get(0).getString("failedPart"));
+            assertFalse(parses.get(0).getStartTime().isBefore(describe.getStartTime()));
+            assertFalse(parses.get(0).getEndTime().isAfter(describe.getEndTime()));
+            assertEquals("HOUR", parses.get(1).getString("failedPart"));
+
+            // Describes that throw are recorded too
+            assertEquals("0 0 26 * * ?", describes.get(1).getString("expression"));
+            assertEquals("HOUR", parses.get(2).getString("failedPart"));
+
+            assertEquals("NoSuchKey", find(events, "it.burning.cron.MissingLocalization").getString("key"));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private static List<RecordedEvent> filter(final List<RecordedEvent> events, final String name) {
+        return events.stream()
+                     .filter(event -> event.getEventType().getName().equals(name))
+                     .sorted(Comparator.comparing(RecordedEvent::getStartTime))
+                     .collect(Collectors.toList());
+    }
+
+    private static RecordedEvent find(final List<RecordedEvent> events, final String name) {
+        return events.stream().filter(event -> event.getEventType().getName().equals(name)).findFirst().orElseThrow(AssertionError::new);
+    }
+}
@@ -0,0 +1,105 @@
+package it.burning.cron;
+
+import it.burning.cron.CronExpressionDescriptor.DescriptionType;
+import it.burning.cron.CronExpressionParser.CronExpressionParseException;
+import it.burning.cron.CronExpressionParser.CronExpressionPart;
+import it.burning.cron.CronExpressionParser.Options;
+import it.burning.cron.CronMetrics.LatencyHistogram;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CronMetricsTest {
+    @AfterEach
+    void uninstall() {
+        CronInstrumentation.install(null);
+    }
+
+    @Test
+    void collect() {
+        final CronMetrics metrics = new CronMetrics();
+        CronInstrumentation.install(metrics);
+        assertSame(metrics, CronInstrumentation.getInstalled());
+
+        final Options english = new Options(true, false, true, false, Locale.ENGLISH);
+        final Options italian = new Options(true, false, true, false, Locale.ITALIAN);
+        CronExpressionDescriptor.getDescription("0 0 12 * * ?", english);
+        CronExpressionDescriptor.getDescription("0 15 10 ? * MON-FRI", english);
+        CronExpressionDescriptor.getDescription("0 0 12 * * ?", italian);
+        new CronExpressionDescriptor("0 0 12 * * ?", english).getDescription(DescriptionType.HOURS);
+        assertThrows(CronExpressionParseException.class, () -> new CronExpressionParser("0 0 25 * * ?").parse());
+        assertThrows(CronExpressionParseException.class, () -> new CronExpressionParser("0 0 *").parse());
+
+        // Descriptions also parse their expressions
+        assertEquals(4, metrics.getDescribeCount());
+        assertEquals(6, metrics.getParseCount());
+        assertEquals(6, metrics.getParseLatency().getCount());
+        assertEquals(2, metrics.getParseFailureCount());
+        assertEquals(1, metrics.getParseFailureCount(CronExpressionPart.HOUR));
+        assertEquals(1, metrics.getParseFailureCount(CronExpressionPart.ALL));
+        assertEquals(0, metrics.getParseFailureCount(CronExpressionPart.MIN));
+
+        final LatencyHistogram fullEnglish = metrics.getDescribeLatency(DescriptionType.FULL, Locale.ENGLISH);
+        assertEquals(2, fullEnglish.getCount());
+        assertEquals(1, metrics.getDescribeLatency(DescriptionType.FULL, Locale.ITALIAN).getCount());
+        assertEquals(1, metrics.getDescribeLatency(DescriptionType.HOURS, Locale.ENGLISH).getCount());
+        assertNull(metrics.getDescribeLatency(DescriptionType.MONTH, Locale.ENGLISH));
+        assertEquals(2, metrics.getDescribeLatencies().size());
+        assertTrue(fullEnglish.getPercentileNanos(1) >= fullEnglish.getMeanNanos());
+
+        // Missing localized strings
+        final CronExpressionDescriptor descriptor = new CronExpressionDescriptor("* * * * *", italian);
+        descriptor.getString("NoSuchKey");
+        descriptor.getString("NoSuchKey");
+        assertEquals(Collections.singletonMap(Locale.ITALIAN, Collections.singletonMap("NoSuchKey", 2L)), metrics.getMissingLocalizations());
+
+        metrics.reset();
+        assertEquals(0, metrics.getDescribeCount());
+        assertEquals(0, metrics.getParseLatency().getCount());
+        assertTrue(metrics.getDescribeLatencies().isEmpty());
+        assertTrue(metrics.getMissingLocalizations().isEmpty());
+
+        // Nothing is collected once uninstalled
+        CronInstrumentation.install(null);
+        CronExpressionDescriptor.getDescription("0 0 12 * * ?", english);
+        assertEquals(0, metrics.getDescribeCount());
+    }
+
+    @Test
+    void compose() {
+        final CronMetrics first = new CronMetrics();
+        final CronMetrics second = new CronMetrics();
+        CronInstrumentation.install(CronInstrumentation.compose(first, second));
+        CronExpressionDescriptor.getDescription("0 0 12 * * ?", new Options());
+        assertEquals(1, first.getDescribeCount());
+        assertEquals(1, second.getDescribeCount());
+    }
+
+    @Test
+    void latencyHistogram() {
+        final LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0, histogram.getPercentileNanos(0.5));
+        assertEquals(0.0, histogram.getMeanNanos());
+
+        histogram.record(0);
+        histogram.record(1);
+        histogram.record(1000);
+        histogram.record(1000);
+        histogram.record(Long.MAX_VALUE);
+
+        final long[] buckets = histogram.getBuckets();
+        assertEquals(1, buckets[0]);
+        assertEquals(1, buckets[1]);
+        assertEquals(2, buckets[10]);
+        assertEquals(1, buckets[63]);
+        assertEquals(5, histogram.getCount());
+        assertEquals(1, histogram.getPercentileNanos(0.4));
+        assertEquals(1023, histogram.getPercentileNanos(0.5));
+        assertEquals(1023, histogram.getPercentileNanos(0.8));
+        assertEquals(Long.MAX_VALUE, histogram.getPercentileNanos(1));
+    }
+}
@@ -0,0 +1,91 @@
+package it.burning.cron;
+
+import it.burning.cron.CronExpressionDescriptor.DescriptionType;
+import it.burning.cron.CronExpressionParser.Options;
+import it.burning.cron.CronExpressionScanner.Fields;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CronScheduleCodecTest {
+    private static final List<String> EXPRESSIONS = Arrays.asList("0 0 12 * * ?", "0 15 10 ? * *", "0 15 10 * * ? 2005", "0 0/5 14,18 * * ?", "0 0-5 14 * * ?",
+                                                                  "0/10 * ? * MON-FRI *", "0 10,44 14 ? 3 WED", "0 15 10 L * ?", "0 15 10 ? * 6L 2002-2005",
+                                                                  "0 15 10 * 6", "0 0 12 1/5 * ?", "5/10 * * * *", "0 1/10 * * *", "0 12 ? JAN/2 MON/2 *",
+                                                                  "0 12 ? * SUN,TUE,THU,SAT 1970/2", "* * * 1W * ?", "30 0 0 LW 1-6/2 ? 2030-2099/3",
+                                                                  "0 15 10 ? * 6#3", "0 15 10 L-2 * ?", "*/10 9-17 1,15 * *", "0 0 1 1 * 2099", "0 0 * * 0");
+
+    @Test
+    void roundTrip() {
+        final CronExpressionScanner scanner = new CronExpressionScanner();
+        final Fields fields = new Fields();
+        final ByteBuffer buffer = ByteBuffer.allocateDirect(EXPRESSIONS.size() * CronScheduleCodec.BYTES);
+        for (int i = 0; i < EXPRESSIONS.size(); i++) {
+            CronScheduleCodec.encode(scanner.parse(EXPRESSIONS.get(i), fields), buffer, i * CronScheduleCodec.BYTES);
+        }
+
+        assertEquals(0, buffer.position());
+        for (int i = 0; i < EXPRESSIONS.size(); i++) {
+            final String expression = EXPRESSIONS.get(i);
+            final CronSchedule decoded = CronScheduleCodec.decode(buffer, i * CronScheduleCodec.BYTES);
+            assertEquals(CronSchedule.compile(expression), decoded, expression);
+
+            // The rendered parts describe the same schedule
+            assertEquals(decoded, CronSchedule.fromParts(CronScheduleCodec.toParts(buffer, i * CronScheduleCodec.BYTES)), expression);
+
+            // Records encoded from schedules alone match the same values
+            final ByteBuffer single = ByteBuffer.allocate(CronScheduleCodec.BYTES);
+            CronScheduleCodec.encode(decoded, single, 0);
+            assertEquals(decoded, CronScheduleCodec.decode(single, 0), expression);
+        }
+    }
+
+    @Test
+    void layout() {
+        final ByteBuffer buffer = ByteBuffer.allocate(2 * CronScheduleCodec.BYTES);
+        CronScheduleCodec.encode(CronSchedule.compile("0 12 * * ? 2020-2030/5"), buffer, CronScheduleCodec.BYTES);
+        assertEquals(2020, CronScheduleCodec.getFirstYear(buffer, CronScheduleCodec.BYTES));
+        assertEquals(2030, CronScheduleCodec.getLastYear(buffer, CronScheduleCodec.BYTES));
+        assertEquals(5, CronScheduleCodec.getYearStep(buffer, CronScheduleCodec.BYTES));
+
+        // The previous record is untouched
+        for (int i = 0; i < CronScheduleCodec.BYTES; i++) {
+            assertEquals(0, buffer.get(i));
+        }
+
+        // Years that are not evenly spaced do not fit the encoding
+        assertThrows(IllegalArgumentException.class, () -> CronScheduleCodec.encode(CronSchedule.compile("0 12 * * ? 2020,2021,2030"), buffer, 0));
+    }
+
+    @Test
+    void describe() {
+        final ByteBuffer buffer = ByteBuffer.allocate(CronScheduleCodec.BYTES);
+        final Options options = new Options(true, false, false, false, Locale.ENGLISH);
+
+        final Fields fields = new CronExpressionScanner().parse("0 15 10 ? * 6L 2002-2005", new Fields());
+        CronScheduleCodec.encode(fields, buffer, 0);
+        assertEquals(CronExpressionDescriptor.getDescription("0 15 10 ? * 6L 2002-2005", options), CronScheduleCodec.describe(buffer, 0, options));
+        assertEquals(new CronExpressionDescriptor("0 15 10 ? * 6L 2002-2005", options).getDescription(DescriptionType.DAYOFWEEK),
+                     CronScheduleCodec.describe(buffer, 0, DescriptionType.DAYOFWEEK, options));
+
+        // Fields are written in their shortest form
+        CronScheduleCodec.encode(CronSchedule.compile("0 0,5,10,15,20,25,30,35,40,45,50,55 14 * * ?"), buffer, 0);
+        assertEquals(CronExpressionDescriptor.getDescription("0 */5 14 * * ?", options), CronScheduleCodec.describe(buffer, 0, options));
+
+        CronScheduleCodec.encode(CronSchedule.compile("0 15 10 ? * 6#3"), buffer, 0);
+        assertEquals(CronExpressionDescriptor.getDescription("0 15 10 ? * 6#3", options), CronScheduleCodec.describe(buffer, 0, options));
+
+        CronScheduleCodec.encode(CronSchedule.compile("*/10 9-17 1,15 * *"), buffer, 0);
+        assertEquals(CronExpressionDescriptor.getDescription("*/10 9-17 1,15 * *", options), CronScheduleCodec.describe(buffer, 0, options));
+
+        CronScheduleCodec.encode(CronSchedule.compile("30 0 12 LW * ? 2030/5"), buffer, 0);
+        assertEquals(CronExpressionDescriptor.getDescription("30 0 12 LW * ? 2030/5", options), CronScheduleCodec.describe(buffer, 0, options));
+
+        CronScheduleCodec.encode(CronSchedule.compile("0 12 ? */2 MON/2"), buffer, 0);
+        assertEquals(CronExpressionDescriptor.getDescription("0 12 ? */2 MON/2", options), CronScheduleCodec.describe(buffer, 0, options));
+    }
+}
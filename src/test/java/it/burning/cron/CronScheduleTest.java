@@ -0,0 +1,140 @@
+package it.burning.cron;
+
+import it.burning.cron.CronExpressionGenerator.Profile;
+import it.burning.cron.CronExpressionParser.Options;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CronScheduleTest {
+    @Test
+    void compile() {
+        final CronSchedule schedule = CronSchedule.compile("0 0/15 9-17 ? * MON-FRI");
+        assertEquals(1L, schedule.getSeconds());
+        assertEquals((1L) | (1L << 15) | (1L << 30) | (1L << 45), schedule.getMinutes());
+        assertEquals(0b111111111 << 9, schedule.getHours());
+        assertEquals(0b0111110, schedule.getDaysOfWeek());
+        assertFalse(schedule.isDayOfMonthRestricted());
+        assertTrue(schedule.isDayOfWeekRestricted());
+        assertTrue(schedule.hasYear(1970));
+        assertTrue(schedule.hasYear(2099));
+        assertFalse(schedule.hasYear(2100));
+
+        // Wrapping ranges and steps
+        assertEquals((1L << 50) | (1L << 55) | 1L | (1L << 5), CronSchedule.compile("50-5/5 * * * *").getMinutes());
+
+        // Years
+        final CronSchedule years = CronSchedule.compile("0 0 12 * * ? 2020-2030/5");
+        assertTrue(years.hasYear(2025));
+        assertFalse(years.hasYear(2026));
+    }
+
+    @Test
+    void equality() {
+        // Same schedule, spelled differently
+        assertEquals(CronSchedule.compile("0 * * * *"), CronSchedule.compile("0 0 * * * ?"));
+        assertEquals(CronSchedule.compile("0,15,30,45 * * * *"), CronSchedule.compile("*/15 * * * *"));
+        assertEquals(CronSchedule.compile("0 12 * * MON-FRI"), CronSchedule.compile("0 12 * * 1,2,3,4,5"));
+        assertEquals(CronSchedule.compile("0 0 12 ? * 2-6"), CronSchedule.compile("0 12 * * MON-FRI"));
+        assertEquals(CronSchedule.compile("0 0 12 * * ?"), CronSchedule.compile("0 12 * * *"));
+        assertEquals(CronSchedule.compile("0 0 12 * * ?").hashCode(), CronSchedule.compile("0 12 * * *").hashCode());
+        assertEquals(CronSchedule.compile("0 12 1-31 * *"), CronSchedule.compile("0 12 * * *"));
+
+        // Both day fields restricted (either one matches) and one of them covering every day
+        assertEquals(CronSchedule.compile("0 12 1 * 0-6"), CronSchedule.compile("0 12 * * *"));
+
+        // Different schedules
+        assertNotEquals(CronSchedule.compile("0 * * * *"), CronSchedule.compile("1 * * * *"));
+        assertNotEquals(CronSchedule.compile("0 12 L * ?"), CronSchedule.compile("0 12 31 * ?"));
+    }
+
+    @Test
+    void matches() {
+        final CronSchedule everyQuarter = CronSchedule.compile("0 0/15 9-17 ? * MON-FRI");
+        assertTrue(everyQuarter.matches(LocalDateTime.of(2020, 6, 15, 9, 45, 0)));
+        assertFalse(everyQuarter.matches(LocalDateTime.of(2020, 6, 15, 9, 45, 1)));
+        assertFalse(everyQuarter.matches(LocalDateTime.of(2020, 6, 14, 9, 45, 0)), "June 14th 2020 is a Sunday");
+
+        // Unix cron: both day fields restricted, either one matches
+        final CronSchedule firstOrSaturday = CronSchedule.compile("0 12 1 * 6");
+        assertTrue(firstOrSaturday.matches(LocalDate.of(2020, 6, 1)));
+        assertTrue(firstOrSaturday.matches(LocalDate.of(2020, 6, 13)));
+        assertFalse(firstOrSaturday.matches(LocalDate.of(2020, 6, 12)));
+
+        // Quartz numbering (1 is Sunday) against Unix numbering (0 is Sunday) and JEE (0 and 7 are Sunday)
+        assertTrue(CronSchedule.compile("0 0 12 ? * 1").matches(LocalDate.of(2020, 6, 14)));
+        assertTrue(CronSchedule.compile("0 12 * * 0").matches(LocalDate.of(2020, 6, 14)));
+        assertTrue(CronSchedule.compile("0 0 12 * * 7", new Options() {{
+            setUseJavaEeScheduleExpression(true);
+        }}).matches(LocalDate.of(2020, 6, 14)));
+    }
+
+    @Test
+    void specialDayRules() {
+        // Last day of the month, and days before it
+        assertTrue(CronSchedule.compile("0 12 L * ?").matches(LocalDate.of(2020, 2, 29)));
+        assertFalse(CronSchedule.compile("0 12 L * ?").matches(LocalDate.of(2021, 2, 29 - 1).minusDays(1)));
+        assertTrue(CronSchedule.compile("0 12 L-2 * ?").matches(LocalDate.of(2020, 4, 28)));
+
+        // Last weekday of the month (May 31st 2020 is a Sunday)
+        assertTrue(CronSchedule.compile("0 12 LW * ?").matches(LocalDate.of(2020, 5, 29)));
+        assertFalse(CronSchedule.compile("0 12 LW * ?").matches(LocalDate.of(2020, 5, 31)));
+
+        // Weekday nearest to the 1st (August 1st 2020 is a Saturday, the month cannot be left)
+        assertTrue(CronSchedule.compile("0 12 1W * ?").matches(LocalDate.of(2020, 8, 3)));
+        assertTrue(CronSchedule.compile("0 12 15W * ?").matches(LocalDate.of(2020, 8, 14)));
+        assertFalse(CronSchedule.compile("0 12 15W * ?").matches(LocalDate.of(2020, 8, 15)));
+
+        // Last Friday and third Friday of the month
+        assertTrue(CronSchedule.compile("0 15 10 ? * 6L").matches(LocalDate.of(2020, 6, 26)));
+        assertFalse(CronSchedule.compile("0 15 10 ? * 6L").matches(LocalDate.of(2020, 6, 19)));
+        assertTrue(CronSchedule.compile("0 15 10 ? * 6#3").matches(LocalDate.of(2020, 6, 19)));
+        assertFalse(CronSchedule.compile("0 15 10 ? * 6#3").matches(LocalDate.of(2020, 6, 26)));
+        assertTrue(CronSchedule.compile("0 15 10 ? * 6#3").hasSpecialDayRule());
+    }
+
+    @Test
+    void next() {
+        final CronSchedule everyQuarter = CronSchedule.compile("0 0/15 9-17 ? * MON-FRI");
+        assertEquals(LocalDateTime.of(2020, 6, 15, 9, 0), everyQuarter.next(LocalDateTime.of(2020, 6, 13, 10, 0)));
+        assertEquals(LocalDateTime.of(2020, 6, 15, 9, 15), everyQuarter.next(LocalDateTime.of(2020, 6, 15, 9, 0)));
+        assertEquals(LocalDateTime.of(2020, 6, 15, 9, 15), everyQuarter.next(LocalDateTime.of(2020, 6, 15, 9, 0, 0, 999)));
+        assertEquals(LocalDateTime.of(2020, 6, 16, 9, 0), everyQuarter.next(LocalDateTime.of(2020, 6, 15, 17, 45)));
+
+        // Rare and special days, the last year, and years that are over
+        assertEquals(LocalDateTime.of(2024, 2, 29, 0, 0), CronSchedule.compile("0 0 29 2 *").next(LocalDateTime.of(2020, 3, 1, 0, 0)));
+        assertEquals(LocalDateTime.of(2020, 8, 3, 12, 0), CronSchedule.compile("0 12 1W * ?").next(LocalDateTime.of(2020, 7, 31, 12, 0)));
+        assertEquals(LocalDateTime.of(2099, 12, 31, 23, 59, 59), CronSchedule.compile("59 59 23 31 12 ? *").next(LocalDateTime.of(2099, 1, 1, 0, 0)));
+        assertNull(CronSchedule.compile("59 59 23 31 12 ? *").next(LocalDateTime.of(2099, 12, 31, 23, 59, 59)));
+        assertNull(CronSchedule.compile("0 0 12 * * ? 2020").next(LocalDateTime.of(2021, 1, 1, 0, 0)));
+        assertNull(CronSchedule.compile("0 0 30 2 ?").next(LocalDateTime.of(2020, 1, 1, 0, 0)));
+
+        // Against trying every second, for generated schedules
+        final Random random = new Random(44);
+        for (final String expression : new CronExpressionGenerator(44, Profile.UNIFORM.withJavaEe(0)).expressions(300)) {
+            final CronSchedule schedule = CronSchedule.compile(expression);
+            LocalDateTime time = LocalDateTime.of(2020 + random.nextInt(5), 1 + random.nextInt(12), 1 + random.nextInt(28), random.nextInt(24),
+                                                  random.nextInt(60), random.nextInt(60));
+            for (int i = 0; i < 3; i++) {
+                final LocalDateTime next = schedule.next(time);
+                LocalDateTime expected = time.plusSeconds(1);
+                while (expected.isBefore(time.plusDays(2)) && !schedule.matches(expected)) {
+                    expected = expected.plusSeconds(1);
+                }
+
+                if (!expected.isBefore(time.plusDays(2))) {
+                    // Fires less than daily: only check that the next firing matches
+                    assertTrue(next == null || next.isAfter(time) && schedule.matches(next), expression);
+                    break;
+                }
+
+                assertEquals(expected, next, expression + " after " + time);
+                time = next;
+            }
+        }
+    }
+}
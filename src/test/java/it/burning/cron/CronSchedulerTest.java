@@ -0,0 +1,311 @@
+package it.burning.cron;
+
+import it.burning.cron.CronScheduler.Job;
+import it.burning.cron.CronScheduler.MisfirePolicy;
+import org.junit.jupiter.api.Test;
+
+import java.time.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CronSchedulerTest {
+    // Monday, June 15th 2020 at 9:00 in UTC
+    static final ZoneId  UTC   = ZoneOffset.UTC;
+    static final Instant START = LocalDateTime.of(2020, 6, 15, 9, 0).toInstant(ZoneOffset.UTC);
+
+    /**
+     * A clock moved by hand
+     */
+    static final class TestClock extends Clock {
+        private final    ZoneId  zone;
+        private volatile Instant instant;
+
+        TestClock(final Instant instant, final ZoneId zone) {
+            this.instant = instant;
+            this.zone = zone;
+        }
+
+        long advance(final long seconds) {
+            instant = instant.plusSeconds(seconds);
+            return instant.getEpochSecond();
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return zone;
+        }
+
+        @Override
+        public Clock withZone(final ZoneId zone) {
+            return new TestClock(instant, zone);
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+
+    @Test
+    void fire() {
+        // Tasks run synchronously, second by second
+        final TestClock clock = new TestClock(START, UTC);
+        final CronScheduler scheduler = new CronScheduler(Runnable::run, clock);
+        final List<String> fired = new ArrayList<>();
+        final Job everySecond = scheduler.schedule("* * * * * ?", () -> fired.add("second"));
+        final Job everyMinute = scheduler.schedule("0 * * * * ?", () -> fired.add("minute"));
+        final Job weekdays = scheduler.schedule("0 30 9 ? * MON-FRI", () -> fired.add("weekdays"));
+        assertEquals(3, scheduler.size());
+        assertEquals(ZonedDateTime.of(2020, 6, 15, 9, 0, 1, 0, UTC), everySecond.getNextFireTime());
+        assertEquals(ZonedDateTime.of(2020, 6, 15, 9, 30, 0, 0, UTC), weekdays.getNextFireTime());
+
+        for (int i = 0; i < 120; i++) {
+            scheduler.runUntil(clock.advance(1));
+        }
+
+        assertEquals(120, everySecond.getFireCount());
+        assertEquals(2, everyMinute.getFireCount());
+        assertEquals(0, weekdays.getFireCount());
+        assertTrue(fired.subList(59, 61).contains("minute"), "Along with the 60th second");
+
+        // The wheels turn straight to the next job due
+        assertTrue(everySecond.cancel());
+        assertTrue(everyMinute.cancel());
+        assertFalse(everyMinute.cancel());
+        assertTrue(everyMinute.isDone());
+        assertNull(everyMinute.getNextFireTime());
+        assertEquals(1, scheduler.size());
+        scheduler.runUntil(clock.advance(7 * 24 * 3600));
+        assertEquals(1, weekdays.getFireCount(), "Fired once for the missed firings");
+        assertEquals(ZonedDateTime.of(2020, 6, 22, 9, 30, 0, 0, UTC), weekdays.getNextFireTime());
+        assertEquals(123, fired.size());
+    }
+
+    @Test
+    void wheels() {
+        // Jobs far and near, every one firing exactly on time
+        final TestClock clock = new TestClock(START, UTC);
+        final CronScheduler scheduler = new CronScheduler(Runnable::run, clock);
+        final Random random = new Random(44);
+        final List<Job> jobs = new ArrayList<>();
+        final List<LocalDateTime> fireTimes = new ArrayList<>();
+        final List<Long> lateness = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            final LocalDateTime fireTime = LocalDateTime.ofEpochSecond(START.getEpochSecond() + 1 + (long) Math.pow(2, random.nextDouble() * 26), 0,
+                                                                       ZoneOffset.UTC);
+            final String expression = String.format("%d %d %d %d %d ? %d", fireTime.getSecond(), fireTime.getMinute(), fireTime.getHour(),
+                                                    fireTime.getDayOfMonth(), fireTime.getMonthValue(), fireTime.getYear());
+            fireTimes.add(fireTime);
+            jobs.add(scheduler.schedule(CronSchedule.compile(expression), () -> lateness.add(clock.instant().getEpochSecond() - fireTime.toEpochSecond(ZoneOffset.UTC)),
+                                        MisfirePolicy.FIRE_ONCE));
+        }
+
+        // Turn second by second around each firing, and in big leaps in between
+        final List<LocalDateTime> sorted = new ArrayList<>(fireTimes);
+        sorted.sort(null);
+        for (final LocalDateTime fireTime : sorted) {
+            final long second = fireTime.toEpochSecond(ZoneOffset.UTC);
+            if (second - 2 > clock.instant().getEpochSecond()) {
+                clock.advance(second - 2 - clock.instant().getEpochSecond());
+                scheduler.runUntil(clock.instant().getEpochSecond());
+            }
+
+            while (clock.instant().getEpochSecond() < second) {
+                scheduler.runUntil(clock.advance(1));
+            }
+        }
+
+        assertEquals(500, lateness.size());
+        assertTrue(lateness.stream().allMatch(late -> late == 0), lateness.toString());
+        for (int i = 0; i < jobs.size(); i++) {
+            assertEquals(1, jobs.get(i).getFireCount(), fireTimes.get(i).toString());
+            assertTrue(jobs.get(i).isDone(), "Never fires again");
+        }
+
+        assertEquals(0, scheduler.size());
+    }
+
+    @Test
+    void misfires() {
+        // Every second, then the clock jumps 2 minutes forward (past the 60 seconds threshold)
+        for (final MisfirePolicy policy : MisfirePolicy.values()) {
+            final TestClock clock = new TestClock(START, UTC);
+            final CronScheduler scheduler = new CronScheduler(Runnable::run, clock);
+            final Job job = scheduler.schedule(CronSchedule.compile("* * * * * ?"), () -> { }, policy);
+            scheduler.runUntil(clock.advance(1));
+            assertEquals(1, job.getFireCount());
+
+            scheduler.runUntil(clock.advance(120));
+            assertEquals(policy == MisfirePolicy.SKIP ? 1 : policy == MisfirePolicy.FIRE_ONCE ? 2 : 121, job.getFireCount(), policy.name());
+            assertEquals(ZonedDateTime.of(2020, 6, 15, 9, 2, 2, 0, UTC), job.getNextFireTime(), policy.name());
+        }
+
+        // Within the threshold, late firings all run
+        final TestClock clock = new TestClock(START, UTC);
+        final CronScheduler scheduler = new CronScheduler(Runnable::run, clock, Duration.ofSeconds(30));
+        final Job job = scheduler.schedule(CronSchedule.compile("* * * * * ?"), () -> { }, MisfirePolicy.SKIP);
+        scheduler.runUntil(clock.advance(30));
+        assertEquals(30, job.getFireCount());
+        assertThrows(IllegalArgumentException.class, () -> new CronScheduler(Runnable::run, clock, Duration.ofSeconds(-1)));
+        assertThrows(IllegalArgumentException.class, () -> scheduler.schedule("0 0 12 * * ? 2019", () -> { }));
+    }
+
+    @Test
+    void rearm() throws InterruptedException {
+        // A run lasting longer than the period does not overlap with the next one, which runs once it is over
+        final ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            final TestClock clock = new TestClock(START, UTC);
+            final CronScheduler scheduler = new CronScheduler(executor, clock);
+            final CountDownLatch started = new CountDownLatch(1);
+            final CountDownLatch release = new CountDownLatch(1);
+            final CountDownLatch second = new CountDownLatch(1);
+            final AtomicInteger runs = new AtomicInteger();
+            final Job job = scheduler.schedule("* * * * * ?", () -> {
+                if (runs.incrementAndGet() == 1) {
+                    started.countDown();
+                    await(release);
+                } else {
+                    second.countDown();
+                }
+            });
+
+            scheduler.runUntil(clock.advance(1));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            for (int i = 0; i < 3; i++) {
+                scheduler.runUntil(clock.advance(1));
+            }
+
+            assertEquals(1, job.getFireCount());
+            assertNull(job.getNextFireTime(), "Running");
+
+            // Once over, the firing after the one that ran is late: it runs on the next tick
+            release.countDown();
+            while (job.getNextFireTime() == null) {
+                Thread.sleep(1);
+            }
+
+            assertEquals(ZonedDateTime.of(2020, 6, 15, 9, 0, 2, 0, UTC), job.getNextFireTime());
+            scheduler.runUntil(clock.advance(1));
+            assertTrue(second.await(5, TimeUnit.SECONDS));
+            assertEquals(2, job.getFireCount());
+
+            // Cancelled while running, it is not armed again
+            final CountDownLatch running = new CountDownLatch(1);
+            final CountDownLatch finish = new CountDownLatch(1);
+            final Job cancelled = scheduler.schedule("* * * * * ?", () -> {
+                running.countDown();
+                await(finish);
+            });
+
+            scheduler.runUntil(clock.advance(1));
+            assertTrue(running.await(5, TimeUnit.SECONDS));
+            assertTrue(cancelled.cancel());
+            finish.countDown();
+            Thread.sleep(50);
+            assertNull(cancelled.getNextFireTime());
+            assertEquals(1, scheduler.size());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void failures() {
+        // A failing task goes on firing
+        final TestClock clock = new TestClock(START, UTC);
+        final CronScheduler scheduler = new CronScheduler(Runnable::run, clock);
+        final Thread.UncaughtExceptionHandler handler = Thread.currentThread().getUncaughtExceptionHandler();
+        final List<Throwable> failures = new ArrayList<>();
+        Thread.currentThread().setUncaughtExceptionHandler((thread, e) -> failures.add(e));
+        try {
+            final Job job = scheduler.schedule("* * * * * ?", () -> {
+                throw new IllegalStateException("Failed");
+            });
+
+            scheduler.runUntil(clock.advance(3));
+            assertEquals(3, job.getFireCount());
+            assertEquals(3, failures.size());
+            assertFalse(job.isDone());
+        } finally {
+            Thread.currentThread().setUncaughtExceptionHandler(handler);
+        }
+    }
+
+    @Test
+    void daylightSaving() {
+        // Rome moves from 2:00 to 3:00 on March 29th 2020, and from 3:00 back to 2:00 on October 25th 2020
+        final ZoneId rome = ZoneId.of("Europe/Rome");
+        final TestClock clock = new TestClock(LocalDateTime.of(2020, 3, 28, 12, 0).atZone(rome).toInstant(), rome);
+        final CronScheduler scheduler = new CronScheduler(Runnable::run, clock);
+        final List<ZonedDateTime> fired = new ArrayList<>();
+        scheduler.schedule("30 2 * * *", () -> fired.add(ZonedDateTime.now(clock)));
+        for (int i = 0; i < 2 * 24 * 3600; i += 60) {
+            scheduler.runUntil(clock.advance(60));
+        }
+
+        assertEquals(2, fired.size());
+        assertEquals(LocalDateTime.of(2020, 3, 29, 3, 30), fired.get(0).toLocalDateTime(), "End of the gap");
+        assertEquals(LocalDateTime.of(2020, 3, 30, 2, 30), fired.get(1).toLocalDateTime());
+    }
+
+    @Test
+    void manyJobs() {
+        // Scheduling and cancelling do not depend on the number of jobs (a minute before the hour)
+        final TestClock clock = new TestClock(START.plusSeconds(59 * 60), UTC);
+        final CronScheduler scheduler = new CronScheduler(Runnable::run, clock);
+        final AtomicInteger fired = new AtomicInteger();
+        final CronSchedule everySecond = CronSchedule.compile("* * * * * ?");
+        final CronSchedule hourly = CronSchedule.compile("0 0 * * * ?");
+        final List<Job> jobs = new ArrayList<>();
+        for (int i = 0; i < 200_000; i++) {
+            jobs.add(scheduler.schedule(i % 2 == 0 ? everySecond : hourly, fired::incrementAndGet, MisfirePolicy.FIRE_ONCE));
+        }
+
+        for (int i = 0; i < jobs.size(); i += 4) {
+            jobs.get(i).cancel();
+        }
+
+        assertEquals(150_000, scheduler.size());
+        scheduler.runUntil(clock.advance(1));
+        assertEquals(50_000, fired.get());
+        for (int i = 1; i < 60; i++) {
+            scheduler.runUntil(clock.advance(1));
+        }
+
+        assertEquals(50_000 * 60 + 100_000, fired.get());
+    }
+
+    @Test
+    void start() throws InterruptedException {
+        // On the system clock
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            final CronScheduler scheduler = new CronScheduler(executor);
+            final CountDownLatch fired = new CountDownLatch(2);
+            scheduler.schedule("* * * * * ?", fired::countDown);
+            scheduler.start();
+            assertThrows(IllegalStateException.class, scheduler::start);
+            assertTrue(fired.await(10, TimeUnit.SECONDS));
+            scheduler.shutdown();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static void await(final CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package it.burning.cron;
+
+import it.burning.cron.CronExpressionGenerator.Profile;
+import it.burning.cron.CronExpressionParser.ImmutableOptions;
+import it.burning.cron.CronExpressionParser.Options;
+import it.burning.utils.Localization;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CronShapeRendererTest {
+    // Times of day and days of every form, in 6 or 7 part expressions (days of week numbered from 1)
+    private static final List<String> TIMES = new ArrayList<>();
+    private static final List<String> DAYS  = new ArrayList<>();
+
+    static {
+        TIMES.addAll(Arrays.asList("* * *", "0 * *", "0 0 *", "0 0/1 *"));
+        for (int i = 1; i < 60; i++) {
+            TIMES.add("*/" + i + " * *");
+            TIMES.add("0 */" + i + " *");
+            TIMES.add("0 " + i + " *");
+            TIMES.add("0 0" + i % 10 + " *");
+        }
+
+        for (int hour = 0; hour < 24; hour++) {
+            TIMES.add("0 0 */" + Math.max(hour, 1));
+            TIMES.add("0 * " + hour + "-" + (hour + 8) % 24);
+            TIMES.add("0 */" + (hour + 1) + " " + hour + "-" + (hour + 8) % 24);
+            TIMES.add("0 0 " + hour + "-" + (hour + 8) % 24);
+            for (final int minute : new int[]{0, 5, 19, 20, 59}) {
+                TIMES.add("0 " + minute + " " + hour);
+                TIMES.add((hour + minute + 1) % 60 + " " + minute + " " + hour);
+            }
+        }
+
+        DAYS.addAll(Arrays.asList("* * ?", "? * *", "L * ?", "* * ? *", "1-7 * ?", "? * 1,3"));
+        for (int day = 1; day <= 7; day++) {
+            DAYS.add("? * " + day);
+            for (int last = 1; last <= 7; last++) {
+                DAYS.add("? * " + day + "-" + last);
+            }
+        }
+
+        for (int day = 1; day <= 31; day++) {
+            DAYS.add(day + " * ?");
+            DAYS.add(day + " " + (day % 12 + 1) + " ?");
+        }
+
+        for (int month = 1; month <= 12; month++) {
+            DAYS.add("? " + month + " *");
+        }
+
+        for (int year = CronExpressionParser.MIN_YEAR; year <= CronExpressionParser.MAX_YEAR; year += 7) {
+            DAYS.add("* * ? " + year);
+        }
+    }
+
+    @AfterEach
+    void unpublish() {
+        Localization.publish(null);
+    }
+
+    @Test
+    void shapes() {
+        // Common shapes are rendered from templates, the rest by the descriptor
+        final ImmutableOptions options = new Options(true, false, true, false, Locale.ENGLISH).snapshot();
+        for (final String expression : Arrays.asList("0 */5 * * * ?", "*/5 * * * *", "30 14 * * MON-FRI", "0 0 12 15 * ?", "0 0 * * * ?", "5 4 * * 0",
+                                                     "0 0 12 L * ?", "0 15 10 * * ? 2025", "0 15 10 * * ? *", "* * * * * ?", "0 0 0 1 1 ?", "10 15 10 ? JAN *",
+                                                     "*/10 9-17 * * MON-FRI", "* 9-17 * * *", "0 9-17 * * *")) {
+            assertNotNull(CronShapeRenderer.render(new CronExpressionParser(expression, options).parse(), options), expression);
+        }
+
+        for (final String expression : Arrays.asList("0 0 9 ? * 2#1", "0 0/5 14,18 * * ?", "0 30 6,14,16 * * ?", "0 0-10 11 * * ?", "5/10 * * * * ?",
+                                                     "0 15 10 L-2 * ?", "0 0 12 ? * 6L", "0 0 12 1W * ?", "0 0 12 ? * MON,WED", "0 0 12 * * ? 2020-2030")) {
+            assertNull(CronShapeRenderer.render(new CronExpressionParser(expression, options).parse(), options), expression);
+        }
+
+        // Mutable options are always described by the descriptor
+        final Options mutable = new Options(options);
+        assertNull(CronShapeRenderer.render(new CronExpressionParser("0 0 12 * * ?", mutable).parse(), mutable));
+        assertEquals(CronExpressionDescriptor.getDescription("0 0 12 * * ?", mutable), CronExpressionDescriptor.getDescription("0 0 12 * * ?", options));
+    }
+
+    @Test
+    void differential() {
+        // Every time of day with a few days and every day with a few times of day, in every locale (terse with 24-hour
+        // times, verbose with 12-hour times)
+        final List<String> expressions = new ArrayList<>();
+        for (int i = 0; i < TIMES.size(); i++) {
+            expressions.add(TIMES.get(i) + " " + DAYS.get(i % DAYS.size()));
+            expressions.add(TIMES.get(i) + " * * ?");
+        }
+
+        for (int i = 0; i < DAYS.size(); i++) {
+            expressions.add(TIMES.get(i * 7 % TIMES.size()) + " " + DAYS.get(i));
+            expressions.add("0 30 14 " + DAYS.get(i));
+        }
+
+        // Along with crontab like expressions, mostly of other shapes
+        Collections.addAll(expressions, new CronExpressionGenerator(49, Profile.CRONTAB.withJavaEe(0)).expressions(500));
+
+        final List<Locale> locales = new ArrayList<>(Localization.getSupportedLocales());
+        locales.add(Locale.ROOT);
+        for (final Locale locale : locales) {
+            assertSameDescriptions(expressions, new Options(true, false, true, false, locale));
+            assertSameDescriptions(expressions, new Options(true, true, false, false, locale));
+        }
+
+        // Options only differing in the settings descriptions do not depend on share their templates
+        final Options limited = new Options(true, false, true, false, Locale.ITALIAN);
+        limited.setHashKey("job");
+        limited.setMaxListSize(10);
+        assertSameDescriptions(expressions, limited);
+        assertSame(CronShapeRenderer.renderers(limited.snapshot()), CronShapeRenderer.renderers(new Options(true, false, true, false, Locale.ITALIAN).snapshot()));
+        assertNotSame(CronShapeRenderer.renderers(limited.snapshot()), CronShapeRenderer.renderers(new Options(true, true, true, false, Locale.ITALIAN).snapshot()));
+        assertNull(CronShapeRenderer.renderers(limited));
+    }
+
+    @Test
+    void localization() {
+        // Templates are built again from the published messages
+        final ImmutableOptions options = new Options(true, false, true, false, Locale.ENGLISH).snapshot();
+        assertEquals("Every 5 minutes", CronExpressionDescriptor.getDescription("0 */5 * * * ?", options));
+
+        Localization.publish(locale -> Collections.singletonMap("EveryX0Minutes", "every %s minutes, give or take"));
+        assertEquals("Every 5 minutes, give or take", CronExpressionDescriptor.getDescription("0 */5 * * * ?", options));
+        assertEquals("Every 10 minutes, give or take", CronExpressionDescriptor.getDescription("0 */10 * * * ?", options));
+
+        // Messages a template cannot be cut from (the number is not shown) leave the shape to the descriptor
+        Localization.publish(locale -> Collections.singletonMap("EveryX0Minutes", "every few minutes"));
+        assertNull(CronShapeRenderer.render(new CronExpressionParser("0 */5 * * * ?", options).parse(), options));
+        assertEquals("Every few minutes", CronExpressionDescriptor.getDescription("0 */5 * * * ?", options));
+
+        Localization.publish(null);
+        assertEquals("Every 5 minutes", CronExpressionDescriptor.getDescription("0 */5 * * * ?", options));
+    }
+
+    /**
+     * Asserts that immutable options (rendering common shapes from templates) describe expressions like mutable ones
+     * (always describing them with the descriptor)
+     */
+    private static void assertSameDescriptions(final List<String> expressions, final Options mutable) {
+        final ImmutableOptions snapshot = mutable.snapshot();
+        for (final String expression : expressions) {
+            assertEquals(CronExpressionDescriptor.getDescription(expression, mutable), CronExpressionDescriptor.getDescription(expression, snapshot), expression + " in " + mutable.getLocale());
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package it.burning.cron;
+
+import it.burning.cron.CronExpressionGenerator.Profile;
+import it.burning.cron.CronShardPlanner.Job;
+import it.burning.cron.CronShardPlanner.Move;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CronShardPlannerTest {
+    // A day, and a week starting on Monday
+    static final LocalDateTime FROM = LocalDateTime.of(2020, 6, 15, 0, 0);
+    static final LocalDateTime DAY  = FROM.plusDays(1);
+    static final LocalDateTime WEEK = FROM.plusWeeks(1);
+
+    @Test
+    void plan() {
+        // 8 hourly jobs and 4 jobs every 15 minutes on 4 nodes: 2 hourly and 1 quarterly per node fire together on the hour
+        final List<Job> jobs = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            jobs.add(new Job("hourly-" + i, "0 * * * *", 1));
+        }
+
+        for (int i = 0; i < 4; i++) {
+            jobs.add(new Job("quarterly-" + i, "*/15 * * * *", 1));
+        }
+
+        final CronShardPlanner planner = new CronShardPlanner(4, FROM, DAY);
+        final Map<String, Integer> planned = planner.plan(jobs);
+        assertEquals(12, planned.size());
+        assertEquals(3, planner.getPeak());
+        assertEquals(3, planner.getLowerBound());
+        for (int node = 0; node < 4; node++) {
+            assertEquals(3, planner.getPeak(node));
+            assertEquals(2 * 24 + 4 * 24, planner.getTotal(node));
+        }
+    }
+
+    @Test
+    void weights() {
+        // A heavy job is left alone on its node, the light ones share the others
+        final CronShardPlanner planner = new CronShardPlanner(3, FROM, DAY);
+        planner.plan(Arrays.asList(new Job("light-1", "0 * * * *", 1), new Job("heavy", "0 * * * *", 10), new Job("light-2", "0 * * * *", 1),
+                                   new Job("light-3", "0 * * * *", 1), new Job("light-4", "30 * * * *", 5)));
+        final int heavy = planner.getNode("heavy");
+        assertEquals(10, planner.getPeak(heavy));
+        assertEquals(10, planner.getPeak());
+        for (final String id : Arrays.asList("light-1", "light-2", "light-3", "light-4")) {
+            assertNotEquals(heavy, planner.getNode(id), id);
+        }
+    }
+
+    @Test
+    void interleaved() {
+        // Jobs firing at different minutes (or on different days) can share a node without raising its peak
+        final CronShardPlanner planner = new CronShardPlanner(2, FROM, WEEK);
+        planner.plan(Arrays.asList(new Job("a", "0 9 * * MON-FRI", 4), new Job("b", "0 9 * * SAT,SUN", 4), new Job("c", "0 9 * * *", 4),
+                                   new Job("d", "1 9 * * *", 4)));
+        assertEquals(4, planner.getPeak());
+        assertEquals(planner.getNode("a"), planner.getNode("b"));
+        assertNotEquals(planner.getNode("a"), planner.getNode("c"));
+    }
+
+    @Test
+    void incremental() {
+        final CronShardPlanner planner = new CronShardPlanner(3, FROM, DAY);
+        planner.plan(Arrays.asList(new Job("a", "0 * * * *", 2), new Job("b", "0 * * * *", 2), new Job("c", "0 * * * *", 2)));
+        assertEquals(2, planner.getPeak());
+
+        // A new job goes to a node where it does not fire along with the others... unless it has to
+        final int d = planner.add(new Job("d", "*/30 * * * *", 1));
+        assertEquals(3, planner.getPeak(d));
+        assertEquals(3, planner.getPeak());
+        final int e = planner.add(new Job("e", "15 * * * *", 1));
+        assertEquals(5, planner.getJobCount());
+        assertEquals(3, planner.getPeak());
+        assertTrue(e >= 0 && e < 3);
+
+        // Removing a job lowers the peak of its node
+        assertTrue(planner.remove("d"));
+        assertFalse(planner.remove("d"));
+        assertEquals(-1, planner.getNode("d"));
+        assertEquals(2, planner.getPeak(d));
+        assertEquals(2, planner.getPeak());
+
+        assertThrows(IllegalArgumentException.class, () -> planner.add(new Job("a", "* * * * *", 1)));
+        assertThrows(IllegalArgumentException.class, () -> planner.add(new Job("f", "* * * * *", 1), 3));
+        assertThrows(IllegalArgumentException.class, () -> new Job("g", "* * * * *", 0));
+    }
+
+    @Test
+    void churn() {
+        // The firings of a schedule are kept as long as a planned job uses it, jobs coming and going leave nothing behind
+        final CronShardPlanner planner = new CronShardPlanner(2, FROM, WEEK);
+        planner.plan(Arrays.asList(new Job("a", "0 * * * *", 1), new Job("b", "0 * * * *", 1)));
+        assertEquals(1, planner.profileCount());
+        for (int minute = 0; minute < 60; minute++) {
+            planner.add(new Job("job-" + minute, minute + " 9 * * MON-FRI", 1));
+            assertEquals(2, planner.profileCount());
+            assertTrue(planner.remove("job-" + minute));
+        }
+
+        assertEquals(1, planner.profileCount());
+        assertTrue(planner.remove("a"));
+        assertEquals(1, planner.profileCount());
+        assertTrue(planner.remove("b"));
+        assertEquals(0, planner.profileCount());
+
+        // Rejected batches do not keep the firings of their schedules
+        assertThrows(IllegalArgumentException.class, () -> planner.plan(Arrays.asList(new Job("c", "*/5 * * * *", 1), new Job("c", "*/7 * * * *", 1))));
+        assertEquals(0, planner.profileCount());
+
+        // Moved jobs keep theirs
+        planner.plan(Arrays.asList(new Job("d", "*/5 * * * *", 3), new Job("e", "*/5 * * * *", 3), new Job("f", "*/10 * * * *", 1)));
+        planner.rebalance(10);
+        assertEquals(2, planner.profileCount());
+        assertEquals(3, planner.getJobCount());
+    }
+
+    @Test
+    void rebalance() {
+        // Jobs sharded by the hash of their id, then moved around a few at a time
+        final List<Job> jobs = new ArrayList<>();
+        for (int i = 0; i < 60; i++) {
+            jobs.add(new Job("job-" + i, i % 3 == 0 ? "0 * * * *" : i % 3 == 1 ? "*/10 * * * *" : "0 0 * * *", 1 + i % 4));
+        }
+
+        final CronShardPlanner hashed = new CronShardPlanner(4, FROM, DAY);
+        for (final Job job : jobs) {
+            hashed.add(job, Math.floorMod(job.getId().hashCode(), 4));
+        }
+
+        final int hashedPeak = hashed.getPeak();
+        List<Move> moves = hashed.rebalance(3);
+        assertTrue(moves.size() <= 3);
+        assertTrue(hashed.getPeak() <= hashedPeak);
+        for (final Move move : moves) {
+            assertEquals(move.getTo(), hashed.getNode(move.getId()), move.toString());
+            assertNotEquals(move.getFrom(), move.getTo());
+        }
+
+        // Once no move lowers the peak anymore, it is close to the lower bound
+        hashed.rebalance(Integer.MAX_VALUE);
+        assertTrue(hashed.rebalance(Integer.MAX_VALUE).isEmpty());
+        assertTrue(hashed.getPeak() <= hashed.getLowerBound() * 11 / 10, hashed.getPeak() + " > " + hashed.getLowerBound());
+
+        // The loads are the same as when planning from scratch
+        final CronShardPlanner replanned = new CronShardPlanner(4, FROM, DAY);
+        for (final Map.Entry<String, Integer> assignment : hashed.getAssignments().entrySet()) {
+            replanned.add(jobs.get(Integer.parseInt(assignment.getKey().substring(4))), assignment.getValue());
+        }
+
+        for (int node = 0; node < 4; node++) {
+            assertEquals(hashed.getPeak(node), replanned.getPeak(node));
+            assertEquals(hashed.getTotal(node), replanned.getTotal(node));
+        }
+    }
+
+    @Test
+    void generated() {
+        // The planned peak of a realistic corpus is close to the lower bound, and never above the one of hash sharding
+        final List<Job> jobs = new ArrayList<>();
+        int id = 0;
+        for (final String expression : new CronExpressionGenerator(41, Profile.CRONTAB.withJavaEe(0)).expressions(500)) {
+            final CronSchedule schedule = CronSchedule.compile(expression);
+            jobs.add(new Job("job-" + id, schedule, 1 + id++ % 5));
+        }
+
+        final CronShardPlanner planned = new CronShardPlanner(8, FROM, DAY);
+        planned.plan(jobs);
+        final CronShardPlanner hashed = new CronShardPlanner(8, FROM, DAY);
+        for (final Job job : jobs) {
+            hashed.add(job, Math.floorMod(job.getId().hashCode(), 8));
+        }
+
+        assertEquals(planned.getLowerBound(), hashed.getLowerBound());
+        assertTrue(planned.getPeak() <= hashed.getPeak(), planned.getPeak() + " > " + hashed.getPeak());
+        assertTrue(planned.getPeak() <= planned.getLowerBound() * 5 / 4, planned.getPeak() + " > " + planned.getLowerBound());
+    }
+}
@@ -0,0 +1,99 @@
+package it.burning.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompressedBitmapTest {
+    @Test
+    void updates() {
+        final CompressedBitmap bitmap = new CompressedBitmap(3, 1, 70000, 3);
+        assertArrayEquals(new int[]{1, 3, 70000}, bitmap.toArray());
+        assertEquals(3, bitmap.getCardinality());
+        assertTrue(bitmap.contains(70000));
+        assertFalse(bitmap.contains(70001));
+        assertFalse(bitmap.contains(-1));
+
+        assertFalse(bitmap.add(3));
+        assertTrue(bitmap.remove(70000));
+        assertFalse(bitmap.remove(70000));
+        assertTrue(bitmap.remove(1));
+        assertTrue(bitmap.remove(3));
+        assertTrue(bitmap.isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> bitmap.add(-1));
+
+        // Dense chunks turn into bitmaps and back into arrays
+        for (int i = 0; i < 10000; i++) {
+            bitmap.add(i * 3);
+        }
+
+        assertEquals(10000, bitmap.getCardinality());
+        assertTrue(bitmap.getSizeInBytes() < 10000 * 2);
+        for (int i = 0; i < 10000; i++) {
+            assertTrue(bitmap.contains(i * 3));
+            assertFalse(bitmap.contains(i * 3 + 1));
+        }
+
+        for (int i = 0; i < 9000; i++) {
+            bitmap.remove(i * 3);
+        }
+
+        assertEquals(1000, bitmap.getCardinality());
+        assertEquals(27000, bitmap.toArray()[0]);
+    }
+
+    @Test
+    void random() {
+        // Sparse and dense chunks, against a sorted set
+        final Random random = new Random(43);
+        final TreeSet<Integer>[] sets = newSets(2);
+        final CompressedBitmap[] bitmaps = {new CompressedBitmap(), new CompressedBitmap()};
+        for (int round = 0; round < 200000; round++) {
+            final int which = random.nextInt(2);
+            final int value = random.nextBoolean() ? random.nextInt(1 << 16) : random.nextInt(1 << 22);
+            if (random.nextInt(4) == 0) {
+                assertEquals(sets[which].remove(value), bitmaps[which].remove(value));
+            } else {
+                assertEquals(sets[which].add(value), bitmaps[which].add(value));
+            }
+        }
+
+        for (int which = 0; which < 2; which++) {
+            assertArrayEquals(toArray(sets[which]), bitmaps[which].toArray());
+            assertEquals(sets[which].size(), bitmaps[which].getCardinality());
+        }
+
+        final TreeSet<Integer> intersection = new TreeSet<>(sets[0]);
+        intersection.retainAll(sets[1]);
+        assertArrayEquals(toArray(intersection), bitmaps[0].and(bitmaps[1]).toArray());
+
+        final TreeSet<Integer> union = new TreeSet<>(sets[0]);
+        union.addAll(sets[1]);
+        assertArrayEquals(toArray(union), bitmaps[0].or(bitmaps[1]).toArray());
+
+        // Operands are left untouched, results can be updated
+        assertArrayEquals(toArray(sets[0]), bitmaps[0].toArray());
+        final CompressedBitmap result = bitmaps[0].and(bitmaps[1]);
+        result.add(1 << 30);
+        assertTrue(result.contains(1 << 30));
+        assertFalse(bitmaps[0].contains(1 << 30));
+        assertEquals(new CompressedBitmap(toArray(sets[1])), bitmaps[1]);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static TreeSet<Integer>[] newSets(final int count) {
+        final TreeSet<Integer>[] sets = new TreeSet[count];
+        for (int i = 0; i < count; i++) {
+            sets[i] = new TreeSet<>();
+        }
+
+        return sets;
+    }
+
+    private static int[] toArray(final TreeSet<Integer> set) {
+        return set.stream().mapToInt(Integer::intValue).toArray();
+    }
+}
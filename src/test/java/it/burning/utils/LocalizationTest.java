@@ -0,0 +1,153 @@
+package it.burning.utils;
+
+import it.burning.cron.CronExpressionDescriptor;
+import it.burning.cron.CronExpressionParser.ImmutableOptions;
+import it.burning.cron.CronExpressionParser.Options;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.ResourceBundle;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LocalizationTest {
+    @AfterEach
+    void unpublish() {
+        Localization.publish(null);
+    }
+
+    @Test
+    void publish() {
+        final long checksum = Localization.getChecksum(Locale.ITALIAN);
+        final ResourceBundle bundled = Localization.getBundle(Locale.ITALIAN);
+        final long version = Localization.getVersion();
+
+        // Messages of the locale and of its parents replace the bundled ones, the most specific first
+        final Map<Locale, Map<String, String>> messages = new HashMap<>();
+        messages.put(Locale.ROOT, map("EveryMinute", "each minute", "EverySecond", "each second"));
+        messages.put(Locale.ITALIAN, map("EveryMinute", "ogni singolo minuto"));
+        final AtomicInteger calls = new AtomicInteger();
+        final LocalizationProvider provider = locale -> {
+            calls.incrementAndGet();
+            return messages.get(locale);
+        };
+
+        // The provider is asked for the messages of every supported locale when published, readers never call it
+        assertEquals(version + 1, Localization.publish(provider));
+        assertEquals(version + 1, Localization.getVersion());
+        final int asked = calls.get();
+        assertTrue(asked >= Localization.getSupportedLocales().size());
+        final ResourceBundle italian = Localization.getBundle(Locale.ITALIAN);
+        assertEquals("ogni singolo minuto", italian.getString("EveryMinute"));
+        assertEquals("each second", italian.getString("EverySecond"));
+        assertEquals(bundled.getString("At"), italian.getString("At"));
+        assertEquals(Locale.ITALIAN, italian.getLocale());
+        assertEquals(bundled.keySet(), italian.keySet());
+        assertNotEquals(checksum, Localization.getChecksum(Locale.ITALIAN));
+
+        // Locales without messages of their own get those of the root locale
+        assertEquals("each minute", Localization.getBundle(Locale.ENGLISH).getString("EveryMinute"));
+
+        // Descriptions
+        final Options options = new Options(true, false, true, false, Locale.ITALIAN);
+        assertEquals("Ogni singolo minuto", CronExpressionDescriptor.getDescription("0 * * * * ?", options));
+
+        // Changes are only seen when published again
+        assertSame(italian, Localization.getBundle(Locale.ITALIAN));
+        messages.put(Locale.ITALIAN, map("EveryMinute", "ciascun minuto"));
+        assertEquals("ogni singolo minuto", Localization.getBundle(Locale.ITALIAN).getString("EveryMinute"));
+        assertEquals(asked, calls.get());
+
+        Localization.publish(provider);
+        assertEquals("ciascun minuto", Localization.getBundle(Locale.ITALIAN).getString("EveryMinute"));
+        assertEquals("ogni singolo minuto", italian.getString("EveryMinute"));
+
+        // Back to the bundled messages
+        assertEquals(version + 3, Localization.publish(null));
+        assertSame(bundled, Localization.getBundle(Locale.ITALIAN));
+        assertEquals(checksum, Localization.getChecksum(Locale.ITALIAN));
+    }
+
+    @Test
+    void isLocalized() {
+        // English is the language of the root bundle, other locales fall back to it for the messages they do not word
+        assertTrue(Localization.isLocalized(Locale.ENGLISH, "AtAStableX0"));
+        assertTrue(Localization.isLocalized(Locale.ROOT, "AtAStableX0"));
+        assertTrue(Localization.isLocalized(Locale.ITALIAN, "EveryMinute"));
+        assertFalse(Localization.isLocalized(Locale.ITALIAN, "AtAStableX0"));
+        assertFalse(Localization.isLocalized(Locale.ENGLISH, "NoSuchKey"));
+
+        // Every supported locale words the errors of the parser
+        for (final Locale locale : Localization.getSupportedLocales()) {
+            assertTrue(Localization.isLocalized(locale, "InvalidExpressionFormatTooLong"), locale.toString());
+            assertTrue(Localization.isLocalized(locale, "InvalidFieldTooManyValues"), locale.toString());
+        }
+
+        // Published messages word them
+        Localization.publish(locale -> Collections.singletonMap("AtAStableX0", "a un %s stabile"));
+        assertTrue(Localization.isLocalized(Locale.ITALIAN, "AtAStableX0"));
+    }
+
+    @Test
+    void reusedDescriptor() {
+        // A descriptor picks up the messages published since its last description
+        final CronExpressionDescriptor descriptor = new CronExpressionDescriptor("0 * * * * ?", new Options(true, false, true, false, Locale.ENGLISH));
+        assertEquals("Every minute", descriptor.getDescription());
+
+        Localization.publish(locale -> map("EveryMinute", "once a minute"));
+        assertEquals("Once a minute", descriptor.getDescription());
+
+        // So do immutable options, which resolve their localization once per version
+        final ImmutableOptions options = ImmutableOptions.builder().locale(Locale.ENGLISH).build();
+        assertEquals("Once a minute", CronExpressionDescriptor.getDescription("0 * * * * ?", options));
+        Localization.publish(null);
+        assertEquals("Every minute", CronExpressionDescriptor.getDescription("0 * * * * ?", options));
+    }
+
+    @Test
+    void concurrent() throws InterruptedException {
+        // Readers never see a table mixing two versions
+        final AtomicReference<Throwable> failure = new AtomicReference<>();
+        final Thread reader = new Thread(() -> {
+            try {
+                for (int i = 0; i < 20_000; i++) {
+                    final ResourceBundle bundle = Localization.getBundle(Locale.ENGLISH);
+                    final String minute = bundle.getString("EveryMinute");
+                    final String hour = bundle.getString("EveryHour");
+                    if (!minute.equals("every minute")) {
+                        assertEquals(minute.replace("minute", "hour"), hour);
+                    }
+                }
+            } catch (final Throwable e) {
+                failure.set(e);
+            }
+        });
+
+        reader.start();
+        for (int i = 0; reader.isAlive(); i++) {
+            final String version = "v" + i;
+            Localization.publish(locale -> map("EveryMinute", "every minute " + version, "EveryHour", "every hour " + version));
+        }
+
+        reader.join();
+        assertNull(failure.get());
+    }
+
+    /**
+     * @return A map of the given keys and values
+     */
+    private static Map<String, String> map(final String... keysAndValues) {
+        final Map<String, String> map = new HashMap<>();
+        for (int i = 0; i < keysAndValues.length; i += 2) {
+            map.put(keysAndValues[i], keysAndValues[i + 1]);
+        }
+
+        return Collections.unmodifiableMap(map);
+    }
+}
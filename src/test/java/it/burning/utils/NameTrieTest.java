@@ -0,0 +1,50 @@
+package it.burning.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NameTrieTest {
+    @Test
+    void find() {
+        final Map<String, Integer> names = new HashMap<>();
+        names.put("JUN", 6);
+        names.put("JUNE", 6);
+        names.put("JUL", 7);
+        final NameTrie trie = new NameTrie(names);
+
+        // The longest name wins, whatever the case
+        assertEquals(4, NameTrie.length(trie.find("june", 0, 4)));
+        assertEquals(3, NameTrie.length(trie.find("JUNE", 0, 3)));
+        assertEquals(3, NameTrie.length(trie.find("Jun-JUL", 0, 7)));
+        assertEquals(7, NameTrie.value(trie.find("1,jUl", 2, 5)));
+        assertTrue(trie.find("JU", 0, 2) < 0);
+        assertTrue(trie.find("AUG", 0, 3) < 0);
+        assertTrue(trie.find("6", 0, 1) < 0);
+
+        // Names are letters only
+        names.put("JUN1", 6);
+        assertThrows(IllegalArgumentException.class, () -> new NameTrie(names));
+    }
+
+    @Test
+    void replace() {
+        final Map<String, Integer> names = new HashMap<>();
+        names.put("MON", 1);
+        names.put("MONDAY", 1);
+        names.put("FRI", 5);
+        final NameTrie trie = new NameTrie(names);
+
+        assertEquals("1-5", trie.replace("MON-FRI"));
+        assertEquals("1,5", trie.replace("monday,Fri"));
+        assertEquals("5L", trie.replace("FRIL"));
+        assertEquals("5#3", trie.replace("fri#3"));
+
+        // Text without names is returned as is
+        final String numbers = "1-5/2";
+        assertSame(numbers, trie.replace(numbers));
+    }
+}
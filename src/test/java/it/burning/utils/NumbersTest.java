@@ -0,0 +1,37 @@
+package it.burning.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.CharBuffer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class NumbersTest {
+    @Test
+    void parseInt() {
+        // Same results as Integer.parseInt on the slice
+        assertEquals(15, Numbers.parseInt("0 15 10 * * ?", 2, 4));
+        assertEquals(2099, Numbers.parseInt("2020-2099/3", 5, 9));
+        assertEquals(7, Numbers.parseInt("007", 0, 3));
+        assertEquals(42, Numbers.parseInt(CharBuffer.wrap("x42x"), 1, 3));
+        assertThrows(NumberFormatException.class, () -> Numbers.parseInt("1-5", 0, 3));
+        assertThrows(NumberFormatException.class, () -> Numbers.parseInt("15", 1, 1));
+        for (final String number : new String[]{"+7", "-7", "2147483647", "-2147483648", "2147483648", "-2147483649", "99999999999", "-", "+", "1a", "\u0661\u0662"}) {
+            Integer expected;
+            try {
+                expected = Integer.parseInt(number);
+            } catch (final NumberFormatException e) {
+                expected = null;
+            }
+
+            if (expected != null) {
+                assertEquals(expected, Numbers.parseInt("x" + number + "x", 1, number.length() + 1), number);
+            } else {
+                assertThrows(NumberFormatException.class, () -> Numbers.parseInt("x" + number + "x", 1, number.length() + 1), number);
+            }
+        }
+
+        assertThrows(IndexOutOfBoundsException.class, () -> Numbers.parseInt("15", 1, 3));
+    }
+}